@@ -50,6 +50,7 @@ public class Benchmark implements Serializable {
    private final Collection<Phase> phases;
    private final Map<String, Object> tags;
    private final long statisticsCollectionPeriod;
+   private final StatisticsConfig statistics;
    private final String triggerUrl;
    private final List<RunHook> preHooks;
    private final List<RunHook> postHooks;
@@ -61,7 +62,7 @@ public class Benchmark implements Serializable {
 
    public Benchmark(String name, String originalSource, Map<String, byte[]> files, Agent[] agents, int defaultThreads,
                     Map<Class<? extends PluginConfig>, PluginConfig> plugins, Collection<Phase> phases,
-                    Map<String, Object> tags, long statisticsCollectionPeriod, String triggerUrl,
+                    Map<String, Object> tags, long statisticsCollectionPeriod, StatisticsConfig statistics, String triggerUrl,
                     List<RunHook> preHooks, List<RunHook> postHooks, FailurePolicy failurePolicy) {
       this.name = name;
       this.originalSource = originalSource;
@@ -74,6 +75,7 @@ public class Benchmark implements Serializable {
       this.phases = phases;
       this.tags = tags;
       this.statisticsCollectionPeriod = statisticsCollectionPeriod;
+      this.statistics = statistics;
       this.triggerUrl = triggerUrl;
       this.preHooks = preHooks;
       this.postHooks = postHooks;
@@ -88,7 +90,7 @@ public class Benchmark implements Serializable {
    public static Benchmark empty(String name) {
       return new Benchmark(name, null,
             Collections.emptyMap(), new Agent[0], 0, Collections.emptyMap(), Collections.emptyList(),
-            Collections.emptyMap(), 0, null, Collections.emptyList(), Collections.emptyList(), FailurePolicy.CANCEL);
+            Collections.emptyMap(), 0, StatisticsConfig.DEFAULT, null, Collections.emptyList(), Collections.emptyList(), FailurePolicy.CANCEL);
    }
 
    public String name() {
@@ -133,6 +135,10 @@ public class Benchmark implements Serializable {
       return statisticsCollectionPeriod;
    }
 
+   public StatisticsConfig statistics() {
+      return statistics;
+   }
+
    public String triggerUrl() {
       return triggerUrl;
    }
@@ -155,6 +161,7 @@ public class Benchmark implements Serializable {
             ", phases=" + phases +
             ", tags=" + tags +
             ", statisticsCollectionPeriod=" + statisticsCollectionPeriod +
+            ", statistics=" + statistics +
             '}';
    }
 
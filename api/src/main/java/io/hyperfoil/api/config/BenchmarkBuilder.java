@@ -48,6 +48,7 @@ public class BenchmarkBuilder {
    private int threads = 1;
    private final Map<String, PhaseBuilder<?>> phaseBuilders = new HashMap<>();
    private long statisticsCollectionPeriod = 1000;
+   private final StatisticsConfigBuilder statistics = new StatisticsConfigBuilder(this);
    private String triggerUrl;
    private final List<RunHook> preHooks = new ArrayList<>();
    private final List<RunHook> postHooks = new ArrayList<>();
@@ -166,7 +167,7 @@ public class BenchmarkBuilder {
       Map<Class<? extends PluginConfig>, PluginConfig> plugins = this.plugins.values().stream()
             .map(PluginBuilder::build).collect(Collectors.toMap(PluginConfig::getClass, Function.identity()));
       Benchmark benchmark = new Benchmark(name, originalSource, files, agents, threads, plugins,
-            new ArrayList<>(phases.values()), tags, statisticsCollectionPeriod, triggerUrl, preHooks, postHooks, failurePolicy);
+            new ArrayList<>(phases.values()), tags, statisticsCollectionPeriod, statistics.build(), triggerUrl, preHooks, postHooks, failurePolicy);
       bs.set(benchmark);
       return benchmark;
    }
@@ -223,6 +224,10 @@ public class BenchmarkBuilder {
       return this;
    }
 
+   public StatisticsConfigBuilder statistics() {
+      return statistics;
+   }
+
    public BenchmarkData data() {
       return data;
    }
@@ -0,0 +1,19 @@
+package io.hyperfoil.api.config;
+
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Steps of a {@link Sequence} with a dedicated call site for each step. When {@link Step#invoke(Session)} is called
+ * from a single place for all steps the call becomes megamorphic and the JIT cannot inline it; an implementation
+ * (usually generated) dispatches on the step index instead, calling every step through its concrete type.
+ */
+public interface CompiledSteps {
+   /**
+    * Equivalent of <code>sequence.steps()[step].invoke(session)</code>.
+    *
+    * @param step Index of the step in the sequence.
+    * @param session User session.
+    * @return True if the step was successfully invoked or false when the execution is blocked.
+    */
+   boolean invoke(int step, Session session);
+}
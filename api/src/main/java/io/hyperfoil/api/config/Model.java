@@ -71,11 +71,13 @@ public interface Model extends Serializable {
       public final boolean variance;
       public final int maxSessions;
       public final SessionLimitPolicy sessionLimitPolicy;
+      public final boolean correctCoordinatedOmission;
 
-      public OpenModel(boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
+      public OpenModel(boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, boolean correctCoordinatedOmission) {
          this.variance = variance;
          this.maxSessions = maxSessions;
          this.sessionLimitPolicy = sessionLimitPolicy;
+         this.correctCoordinatedOmission = correctCoordinatedOmission;
       }
 
       @Override
@@ -91,8 +93,8 @@ public interface Model extends Serializable {
       public final double targetUsersPerSec;
 
       public RampRate(double initialUsersPerSec, double targetUsersPerSec,
-                      boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
-         super(variance, maxSessions, sessionLimitPolicy);
+                      boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, boolean correctCoordinatedOmission) {
+         super(variance, maxSessions, sessionLimitPolicy, correctCoordinatedOmission);
          this.initialUsersPerSec = initialUsersPerSec;
          this.targetUsersPerSec = targetUsersPerSec;
       }
@@ -106,8 +108,8 @@ public interface Model extends Serializable {
    class ConstantRate extends OpenModel {
       public final double usersPerSec;
 
-      public ConstantRate(double usersPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
-         super(variance, maxSessions, sessionLimitPolicy);
+      public ConstantRate(double usersPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, boolean correctCoordinatedOmission) {
+         super(variance, maxSessions, sessionLimitPolicy, correctCoordinatedOmission);
          this.usersPerSec = usersPerSec;
       }
 
@@ -117,6 +119,41 @@ public interface Model extends Serializable {
       }
    }
 
+   /**
+    * Open model with arrival rate driven by the controller: the rate is raised by a fixed increment after each
+    * step while the SLA holds, and then the highest sustainable rate is searched by bisection.
+    */
+   class AdaptiveRate extends OpenModel {
+      public final double initialUsersPerSec;
+      public final double usersPerSecIncrement;
+      public final double maxUsersPerSec;
+      public final double resolution;
+      public final long stepDuration;
+      public final SLA sla;
+
+      public AdaptiveRate(double initialUsersPerSec, double usersPerSecIncrement, double maxUsersPerSec, double resolution,
+                          long stepDuration, SLA sla, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy,
+                          boolean correctCoordinatedOmission) {
+         super(variance, maxSessions, sessionLimitPolicy, correctCoordinatedOmission);
+         this.initialUsersPerSec = initialUsersPerSec;
+         this.usersPerSecIncrement = usersPerSecIncrement;
+         this.maxUsersPerSec = maxUsersPerSec;
+         this.resolution = resolution;
+         this.stepDuration = stepDuration;
+         this.sla = sla;
+      }
+
+      @Override
+      public void validate(Phase phase) {
+         // the phase finishes when the search converges, duration is optional
+      }
+
+      @Override
+      public String description() {
+         return String.format("%.2f - %.2f users per second, adaptive", initialUsersPerSec, maxUsersPerSec);
+      }
+   }
+
    class Sequentially implements Model {
       public final int repeats;
 
@@ -376,6 +376,7 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       protected int maxSessions;
       protected boolean variance = true;
       protected SessionLimitPolicy sessionLimitPolicy = SessionLimitPolicy.FAIL;
+      protected boolean correctCoordinatedOmission;
 
       protected OpenModel(BenchmarkBuilder parent, String name) {
          super(parent, name);
@@ -398,6 +399,20 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          this.sessionLimitPolicy = sessionLimitPolicy;
          return (P) this;
       }
+
+      /**
+       * Record response times from the moment the session was supposed to start rather than from the moment
+       * the request was sent, compensating for sessions delayed by depleted session pool.
+       * Service times are then recorded separately in the {@link io.hyperfoil.api.statistics.ServiceTime} extension.
+       *
+       * @param correctCoordinatedOmission Enable correction.
+       * @return Self.
+       */
+      @SuppressWarnings("unchecked")
+      public P correctCoordinatedOmission(boolean correctCoordinatedOmission) {
+         this.correctCoordinatedOmission = correctCoordinatedOmission;
+         return (P) this;
+      }
    }
 
    public static class RampRate extends OpenModel<RampRate> {
@@ -435,7 +450,7 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          }
          double initial = (this.initialUsersPerSec + initialUsersPerSecIncrement * iteration) * weight;
          double target = (this.targetUsersPerSec + targetUsersPerSecIncrement * iteration) * weight;
-         Model.RampRate model = new Model.RampRate(initial, target, variance, maxSessions, sessionLimitPolicy);
+         Model.RampRate model = new Model.RampRate(initial, target, variance, maxSessions, sessionLimitPolicy, correctCoordinatedOmission);
          if (constraint != null && !constraint.test(model)) {
             throw new BenchmarkDefinitionException("Phase " + name + " failed constraints: " + constraintMessage);
          }
@@ -494,7 +509,7 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
             throw new BenchmarkDefinitionException("Phase " + name + ".usersPerSec must be positive.");
          }
          double rate = (this.usersPerSec + usersPerSecIncrement * iteration) * weight;
-         return new Model.ConstantRate(rate, variance, maxSessions, sessionLimitPolicy);
+         return new Model.ConstantRate(rate, variance, maxSessions, sessionLimitPolicy, correctCoordinatedOmission);
       }
 
       public ConstantRate usersPerSec(double usersPerSec) {
@@ -509,6 +524,117 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       }
    }
 
+   /**
+    * Searches for the maximum arrival rate that does not violate the SLA. The phase finishes when the search
+    * converges or when its <code>duration</code> (if set) elapses.
+    */
+   public static class AdaptiveRate extends OpenModel<AdaptiveRate> {
+      private double initialUsersPerSec;
+      private double usersPerSecIncrement;
+      private double maxUsersPerSec = Double.MAX_VALUE;
+      private double resolution;
+      private long stepDuration = 10_000;
+      private SLABuilder<AdaptiveRate> sla = new SLABuilder<>(this);
+
+      AdaptiveRate(BenchmarkBuilder parent, String name, double initialUsersPerSec) {
+         super(parent, name);
+         this.initialUsersPerSec = initialUsersPerSec;
+         // reaching the limit is expected when we overshoot the sustainable rate
+         this.sessionLimitPolicy = SessionLimitPolicy.CONTINUE;
+      }
+
+      @Override
+      protected Model createModel(int iteration, double weight) {
+         if (initialUsersPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".initialUsersPerSec must be positive.");
+         }
+         double increment = usersPerSecIncrement > 0 ? usersPerSecIncrement : initialUsersPerSec;
+         if (maxUsersPerSec < initialUsersPerSec) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxUsersPerSec must not be lower than initialUsersPerSec.");
+         }
+         if (stepDuration <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".stepDuration must be positive.");
+         }
+         double resolution = this.resolution > 0 ? this.resolution : increment / 8;
+         int maxSessions;
+         if (this.maxSessions > 0) {
+            maxSessions = (int) Math.round(this.maxSessions * weight);
+         } else if (maxUsersPerSec < Double.MAX_VALUE) {
+            maxSessions = (int) Math.ceil(maxUsersPerSec * weight);
+         } else {
+            throw new BenchmarkDefinitionException("Phase " + name + " must set either maxSessions or maxUsersPerSec.");
+         }
+         return new Model.AdaptiveRate(initialUsersPerSec * weight, increment * weight, maxUsersPerSec * weight,
+               resolution * weight, stepDuration, sla.build(), variance, maxSessions, sessionLimitPolicy, correctCoordinatedOmission);
+      }
+
+      /**
+       * Arrival rate in the first step.
+       *
+       * @param initialUsersPerSec Users per second.
+       * @return Self.
+       */
+      public AdaptiveRate initialUsersPerSec(double initialUsersPerSec) {
+         this.initialUsersPerSec = initialUsersPerSec;
+         return this;
+      }
+
+      /**
+       * Increase of the arrival rate after each step that satisfied the SLA. Default is <code>initialUsersPerSec</code>.
+       *
+       * @param usersPerSecIncrement Users per second.
+       * @return Self.
+       */
+      public AdaptiveRate usersPerSecIncrement(double usersPerSecIncrement) {
+         this.usersPerSecIncrement = usersPerSecIncrement;
+         return this;
+      }
+
+      /**
+       * Upper bound for the arrival rate.
+       *
+       * @param maxUsersPerSec Users per second.
+       * @return Self.
+       */
+      public AdaptiveRate maxUsersPerSec(double maxUsersPerSec) {
+         this.maxUsersPerSec = maxUsersPerSec;
+         return this;
+      }
+
+      /**
+       * The search stops when the interval between the highest sustainable and lowest unsustainable rate
+       * is narrower than this. Default is 1/8 of <code>usersPerSecIncrement</code>.
+       *
+       * @param resolution Users per second.
+       * @return Self.
+       */
+      public AdaptiveRate resolution(double resolution) {
+         this.resolution = resolution;
+         return this;
+      }
+
+      /**
+       * Duration of a single step with constant arrival rate. Default is 10 seconds.
+       *
+       * @param stepDuration Duration in milliseconds.
+       * @return Self.
+       */
+      public AdaptiveRate stepDuration(long stepDuration) {
+         this.stepDuration = stepDuration;
+         return this;
+      }
+
+      /**
+       * Conditions that must hold for the rate to be considered sustainable. The statistics from all metrics
+       * in the phase are merged and evaluated once per step; the <code>window</code> is ignored.
+       *
+       * @return Builder.
+       */
+      public SLABuilder<AdaptiveRate> sla() {
+         return sla;
+      }
+   }
+
    public static class Sequentially extends PhaseBuilder<Sequentially> {
       private int repeats;
 
@@ -555,6 +681,10 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          return new ConstantRate(parent, name, usersPerSec);
       }
 
+      public AdaptiveRate adaptiveRate(int initialUsersPerSec) {
+         return new AdaptiveRate(parent, name, initialUsersPerSec);
+      }
+
       public Sequentially sequentially(int repeats) {
          return new Sequentially(parent, name, repeats);
       }
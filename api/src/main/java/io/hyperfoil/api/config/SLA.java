@@ -80,21 +80,21 @@ public class SLA implements Serializable {
                String.format("Invalid response ratio exceeded: required %.3f, actual %.3f", invalidRatio, actualInvalidRatio));
       }
       if (meanResponseTime < Long.MAX_VALUE) {
-         double mean = statistics.histogram.getMean();
+         double mean = statistics.histogram().getMean();
          if (mean >= meanResponseTime) {
             return new SLA.Failure(this, phase, metric, statistics.clone(),
                   String.format("Mean response time exceeded: required %d, actual %.3f", meanResponseTime, mean));
          }
       }
       if (statistics.blockedTime > 0) {
-         double actualBlockedRatio = statistics.blockedTime / (statistics.blockedTime + statistics.histogram.getMean() * statistics.histogram.getTotalCount());
+         double actualBlockedRatio = statistics.blockedTime / (statistics.blockedTime + statistics.histogram().getMean() * statistics.histogram().getTotalCount());
          if (actualBlockedRatio > blockedRatio) {
             return new SLA.Failure(this, phase, metric, statistics.clone(),
                   String.format("Progress was blocked waiting for a free connection. Hint: increase http.sharedConnections."));
          }
       }
       for (SLA.PercentileLimit limit : limits) {
-         long value = statistics.histogram.getValueAtPercentile(limit.percentile());
+         long value = statistics.histogram().getValueAtPercentile(limit.percentile());
          if (value >= limit.responseTime()) {
             return new SLA.Failure(this, phase, metric, statistics.clone(),
                   String.format("Response time at percentile %f exceeded: required %d, actual %d", limit.percentile, limit.responseTime, value));
@@ -30,8 +30,10 @@ import java.util.stream.Stream;
 
 import io.hyperfoil.api.session.AccessVisitor;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.WriteAccess;
+import io.hyperfoil.api.statistics.StatisticsKey;
 
 public class Scenario implements Serializable {
    private final Sequence[] initialSequences;
@@ -42,6 +44,9 @@ public class Scenario implements Serializable {
    private final int sumConcurrency;
    private final WriteAccess[] writes;
    private final int uniqueVars;
+   private final int statisticsKeys;
+   @Visitor.Ignore
+   private transient ResourceSlots resourceSlots;
 
    public Scenario(Sequence[] initialSequences, Sequence[] sequences, int maxRequests, int maxSequences) {
       this.initialSequences = initialSequences;
@@ -72,6 +77,13 @@ public class Scenario implements Serializable {
             access.setIndex(keyIndexMap.get(access.key()));
          }
       }
+      StatisticsKey.Visitor statisticsVisitor = new StatisticsKey.Visitor();
+      statisticsVisitor.visit(sequences);
+      Map<StatisticsKey, Integer> statisticsIndexMap = new HashMap<>();
+      for (StatisticsKey key : statisticsVisitor.keys()) {
+         key.setIndex(statisticsIndexMap.computeIfAbsent(key, k -> statisticsIndexMap.size()));
+      }
+      statisticsKeys = statisticsIndexMap.size();
    }
 
    public Sequence[] initialSequences() {
@@ -94,6 +106,13 @@ public class Scenario implements Serializable {
       return sumConcurrency;
    }
 
+   /**
+    * @return Number of distinct {@link StatisticsKey statistics keys} used in this scenario.
+    */
+   public int statisticsKeys() {
+      return statisticsKeys;
+   }
+
    public Sequence sequence(String name) {
       Sequence sequence = sequenceMap.get(name);
       if (sequence == null) {
@@ -110,5 +129,15 @@ public class Scenario implements Serializable {
       }
       return vars;
    }
+
+   /**
+    * @return Indices of resources declared by sessions running this scenario.
+    */
+   public synchronized ResourceSlots resourceSlots() {
+      if (resourceSlots == null) {
+         resourceSlots = new ResourceSlots();
+      }
+      return resourceSlots;
+   }
 }
 
@@ -19,6 +19,8 @@ public class Sequence implements Serializable {
    private final int offset;
    private final Step[] steps;
    private final ResourceUtilizer[] resourceUtilizers;
+   @Visitor.Ignore
+   private transient CompiledSteps compiled;
 
    public Sequence(String name, int id, int concurrency, int offset, Step[] steps) {
       this.name = name;
@@ -59,4 +61,15 @@ public class Sequence implements Serializable {
    public Step[] steps() {
       return steps;
    }
+
+   /**
+    * @return Compiled form of {@link #steps()} or <code>null</code> if the sequence was not compiled.
+    */
+   public CompiledSteps compiled() {
+      return compiled;
+   }
+
+   public void setCompiled(CompiledSteps compiled) {
+      this.compiled = compiled;
+   }
 }
@@ -0,0 +1,73 @@
+package io.hyperfoil.api.config;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defines how are the request statistics recorded: range and precision of the response time histograms
+ * and the period of the samples. Individual metrics can override the benchmark-wide settings.
+ */
+public class StatisticsConfig implements Serializable {
+   public static final StatisticsConfig DEFAULT = new StatisticsConfig(
+         TimeUnit.MINUTES.toNanos(1), 2, TimeUnit.SECONDS.toMillis(1), false, Collections.emptyMap());
+
+   private final long highestTrackableValue;
+   private final int significantDigits;
+   private final long samplingPeriod;
+   private final boolean compact;
+   private final Map<String, StatisticsConfig> metrics;
+
+   public StatisticsConfig(long highestTrackableValue, int significantDigits, long samplingPeriod, boolean compact,
+                           Map<String, StatisticsConfig> metrics) {
+      this.highestTrackableValue = highestTrackableValue;
+      this.significantDigits = significantDigits;
+      this.samplingPeriod = samplingPeriod;
+      this.compact = compact;
+      this.metrics = metrics;
+   }
+
+   /**
+    * @return Highest response time in nanoseconds recorded in the histogram; higher values are clamped.
+    */
+   public long highestTrackableValue() {
+      return highestTrackableValue;
+   }
+
+   public int significantDigits() {
+      return significantDigits;
+   }
+
+   /**
+    * @return Duration of single sample in milliseconds.
+    */
+   public long samplingPeriod() {
+      return samplingPeriod;
+   }
+
+   /**
+    * @return True if the histograms recording the samples should use 32-bit counts.
+    */
+   public boolean compact() {
+      return compact;
+   }
+
+   public Map<String, StatisticsConfig> metrics() {
+      return Collections.unmodifiableMap(metrics);
+   }
+
+   public StatisticsConfig forMetric(String metric) {
+      return metrics.getOrDefault(metric, this);
+   }
+
+   @Override
+   public String toString() {
+      return "StatisticsConfig{highestTrackableValue=" + highestTrackableValue +
+            ", significantDigits=" + significantDigits +
+            ", samplingPeriod=" + samplingPeriod +
+            ", compact=" + compact +
+            ", metrics=" + metrics +
+            '}';
+   }
+}
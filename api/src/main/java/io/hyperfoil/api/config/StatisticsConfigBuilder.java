@@ -0,0 +1,134 @@
+package io.hyperfoil.api.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.impl.Util;
+
+/**
+ * Configures recording of request statistics. Settings that are not defined for a metric are inherited
+ * from the benchmark-wide statistics configuration.
+ */
+public class StatisticsConfigBuilder {
+   private final BenchmarkBuilder parent;
+   private final StatisticsConfigBuilder defaults;
+   private long highestTrackableValue = -1;
+   private int significantDigits = -1;
+   private long samplingPeriod = -1;
+   private Boolean compact;
+   private final Map<String, StatisticsConfigBuilder> metrics = new HashMap<>();
+
+   StatisticsConfigBuilder(BenchmarkBuilder parent) {
+      this(parent, null);
+   }
+
+   private StatisticsConfigBuilder(BenchmarkBuilder parent, StatisticsConfigBuilder defaults) {
+      this.parent = parent;
+      this.defaults = defaults;
+   }
+
+   public StatisticsConfigBuilder highestTrackableValue(long value, TimeUnit timeUnit) {
+      this.highestTrackableValue = timeUnit.toNanos(value);
+      return this;
+   }
+
+   /**
+    * Highest response time that can be recorded in the histogram; longer responses are recorded with this value.
+    * Use suffix `ns`, `us`, `ms`, `s`, `m` or `h` to specify units. Default is 1 minute.
+    *
+    * @param value Maximum response time.
+    * @return Self.
+    */
+   public StatisticsConfigBuilder highestTrackableValue(String value) {
+      return highestTrackableValue(Util.parseToNanos(value), TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * Number of significant decimal digits of the recorded response times (0 - 5). Default is 2.
+    *
+    * @param significantDigits Precision of the histogram.
+    * @return Self.
+    */
+   public StatisticsConfigBuilder significantDigits(int significantDigits) {
+      if (significantDigits < 0 || significantDigits > 5) {
+         throw new BenchmarkDefinitionException("Significant digits must be in range 0 - 5, got " + significantDigits);
+      }
+      this.significantDigits = significantDigits;
+      return this;
+   }
+
+   public StatisticsConfigBuilder samplingPeriod(long period, TimeUnit timeUnit) {
+      this.samplingPeriod = timeUnit.toMillis(period);
+      return this;
+   }
+
+   /**
+    * Duration of a single sample of the statistics. Default is 1 second.
+    *
+    * @param period Period with suffix ('ms', 's', 'm' or 'h'); number without suffix is in seconds.
+    * @return Self.
+    */
+   public StatisticsConfigBuilder samplingPeriod(String period) {
+      return samplingPeriod(Util.parseToMillis(period), TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Record the samples into histograms with 32-bit counters, halving their memory footprint.
+    * Aggregated statistics always use 64-bit counters.
+    *
+    * @param compact Use compact histograms.
+    * @return Self.
+    */
+   public StatisticsConfigBuilder compact(boolean compact) {
+      this.compact = compact;
+      return this;
+   }
+
+   /**
+    * Override the settings for given metric.
+    *
+    * @param name Name of the metric.
+    * @return Builder.
+    */
+   public StatisticsConfigBuilder metric(String name) {
+      if (defaults != null) {
+         throw new BenchmarkDefinitionException("Metric settings cannot be nested.");
+      }
+      return metrics.computeIfAbsent(name, n -> new StatisticsConfigBuilder(parent, this));
+   }
+
+   public StatisticsConfigBuilder endMetric() {
+      return defaults;
+   }
+
+   public BenchmarkBuilder endStatistics() {
+      return parent;
+   }
+
+   public StatisticsConfig build() {
+      return build(StatisticsConfig.DEFAULT);
+   }
+
+   private StatisticsConfig build(StatisticsConfig defaults) {
+      long highestTrackableValue = this.highestTrackableValue < 0 ? defaults.highestTrackableValue() : this.highestTrackableValue;
+      int significantDigits = this.significantDigits < 0 ? defaults.significantDigits() : this.significantDigits;
+      long samplingPeriod = this.samplingPeriod < 0 ? defaults.samplingPeriod() : this.samplingPeriod;
+      boolean compact = this.compact == null ? defaults.compact() : this.compact;
+      if (highestTrackableValue < 2) {
+         throw new BenchmarkDefinitionException("Highest trackable value must be at least 2 ns, got " + highestTrackableValue);
+      } else if (samplingPeriod <= 0) {
+         throw new BenchmarkDefinitionException("Sampling period must be positive, got " + samplingPeriod);
+      }
+      StatisticsConfig config = new StatisticsConfig(highestTrackableValue, significantDigits, samplingPeriod, compact, Collections.emptyMap());
+      if (metrics.isEmpty()) {
+         return config;
+      }
+      Map<String, StatisticsConfig> metricConfigs = new HashMap<>();
+      for (Map.Entry<String, StatisticsConfigBuilder> entry : metrics.entrySet()) {
+         metricConfigs.put(entry.getKey(), entry.getValue().build(config));
+      }
+      return new StatisticsConfig(highestTrackableValue, significantDigits, samplingPeriod, compact, metricConfigs);
+   }
+}
@@ -6,28 +6,24 @@ import java.util.concurrent.TimeUnit;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.timer.Timeout;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
-import io.netty.util.concurrent.ScheduledFuture;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 public abstract class Request implements Callable<Void>, GenericFutureListener<Future<Void>> {
    private static final Logger log = LogManager.getLogger(Request.class);
-   private static final GenericFutureListener<Future<Object>> FAILURE_LISTENER = future -> {
-      if (!future.isSuccess() && !future.isCancelled()) {
-         log.error("Timeout task failed", future.cause());
-      }
-   };
 
    public final Session session;
    private long startTimestampMillis;
    private long startTimestampNanos;
+   private long startDelay;
    private SequenceInstance sequence;
    private SequenceInstance completionSequence;
    private Statistics statistics;
-   private ScheduledFuture<?> timeoutFuture;
+   private final Timeout timeout = new Timeout(this::call);
    private Connection connection;
    private Status status = Status.IDLE;
    private Result result = Result.VALID;
@@ -43,7 +39,6 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public Void call() {
       int uniqueId = session == null ? -1 : session.uniqueId();
       log.warn("#{} Request timeout, closing connection {}", uniqueId, connection);
-      timeoutFuture = null;
       if (status != Status.COMPLETED) {
          result = Result.TIMED_OUT;
          statistics.incrementTimeouts(startTimestampMillis);
@@ -62,6 +57,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public void start(SequenceInstance sequence, Statistics statistics) {
       this.startTimestampMillis = System.currentTimeMillis();
       this.startTimestampNanos = System.nanoTime();
+      this.startDelay = session == null ? -1 : session.claimStartDelay();
       this.sequence = sequence;
       // The reason for using separate sequence reference just for the sake of decrementing
       // its counter is that the request sequence might be overridden (wrapped) through
@@ -73,6 +69,15 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
       this.result = Result.VALID;
    }
 
+   /**
+    * Moves the start of the request to the moment when it was actually sent out, in case the write
+    * was deferred after {@link #start(SequenceInstance, Statistics)}.
+    */
+   public void setStartTimestamps(long startTimestampMillis, long startTimestampNanos) {
+      this.startTimestampMillis = startTimestampMillis;
+      this.startTimestampNanos = startTimestampNanos;
+   }
+
    public void attach(Connection connection) {
       this.connection = connection;
    }
@@ -102,10 +107,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setCompleted() {
-      if (timeoutFuture != null) {
-         timeoutFuture.cancel(false);
-         timeoutFuture = null;
-      }
+      timeout.cancel();
       connection = null;
       sequence = null;
       // handleEnd may indirectly call handleThrowable which calls setCompleted first
@@ -129,7 +131,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void recordResponse(long endTimestampNanos) {
-      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
+      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos, startDelay);
    }
 
    public long startTimestampMillis() {
@@ -141,8 +143,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setTimeout(long timeout, TimeUnit timeUnit) {
-      timeoutFuture = session.executor().schedule(this, timeout, timeUnit);
-      timeoutFuture.addListener(FAILURE_LISTENER);
+      session.timer().schedule(this.timeout, timeout, timeUnit);
    }
 
    @Override
@@ -0,0 +1,95 @@
+package io.hyperfoil.api.session;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense indices to {@link Session.ResourceKey resource keys} as they are declared by sessions.
+ * The assignment is shared by all sessions of a {@link io.hyperfoil.api.config.Scenario}, so each session
+ * keeps its resources in a plain array instead of its own map. The index is stored in the key, too;
+ * keys that are used by several scenarios (e.g. plugin-wide constants) are declared first and in the same order
+ * in all sessions, so they usually get the same index everywhere. Otherwise the slot is looked up in a map.
+ */
+public final class ResourceSlots {
+   private static final Slot[] NO_SLOTS = new Slot[0];
+
+   private final ConcurrentHashMap<Session.ResourceKey<?>, Slot> slots = new ConcurrentHashMap<>();
+   private volatile Slot[] byIndex = NO_SLOTS;
+
+   /**
+    * @param key Resource key.
+    * @return Slot for the key or <code>null</code> if no session has declared this resource yet.
+    */
+   public Slot get(Session.ResourceKey<?> key) {
+      int index = key.resourceIndex();
+      Slot[] byIndex = this.byIndex;
+      if (index >= 0 && index < byIndex.length) {
+         Slot slot = byIndex[index];
+         if (slot.key == key) {
+            return slot;
+         }
+      }
+      return slots.get(key);
+   }
+
+   /**
+    * @param key Resource key.
+    * @param concurrency Number of resource instances (one per sequence instance) or 0 for a single instance.
+    * @return Existing or newly assigned slot.
+    */
+   public Slot register(Session.ResourceKey<?> key, int concurrency) {
+      Slot slot = slots.get(key);
+      if (slot != null) {
+         return slot;
+      }
+      synchronized (this) {
+         slot = slots.get(key);
+         if (slot == null) {
+            Slot[] byIndex = Arrays.copyOf(this.byIndex, this.byIndex.length + 1);
+            slot = new Slot(key, byIndex.length - 1, concurrency);
+            byIndex[slot.index] = slot;
+            this.byIndex = byIndex;
+            slots.put(key, slot);
+            key.setResourceIndex(slot.index);
+         }
+         return slot;
+      }
+   }
+
+   public Slot get(int index) {
+      return byIndex[index];
+   }
+
+   public int size() {
+      return byIndex.length;
+   }
+
+   public static final class Slot {
+      private final Session.ResourceKey<?> key;
+      public final int index;
+      public final int concurrency;
+
+      private Slot(Session.ResourceKey<?> key, int index, int concurrency) {
+         this.key = key;
+         this.index = index;
+         this.concurrency = concurrency;
+      }
+   }
+
+   /**
+    * Resource key that stores its index, for resources that are not keyed by the step or handler itself.
+    */
+   public static class Key<R extends Session.Resource> implements Session.ResourceKey<R> {
+      private int resourceIndex = -1;
+
+      @Override
+      public int resourceIndex() {
+         return resourceIndex;
+      }
+
+      @Override
+      public void setResourceIndex(int index) {
+         resourceIndex = index;
+      }
+   }
+}
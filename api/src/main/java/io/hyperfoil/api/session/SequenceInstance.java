@@ -2,6 +2,7 @@ package io.hyperfoil.api.session;
 
 import java.util.function.Consumer;
 
+import io.hyperfoil.api.config.CompiledSteps;
 import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
@@ -18,6 +19,7 @@ public class SequenceInstance {
    private Consumer<SequenceInstance> releaseHandler;
    private int index;
    private Step[] steps;
+   private CompiledSteps compiled;
    private int currentStep = 0;
    private int refCnt = 0;
 
@@ -30,7 +32,7 @@ public class SequenceInstance {
          }
          session.currentSequence(this);
          try {
-            if (!step.invoke(session)) {
+            if (!(compiled != null ? compiled.invoke(currentStep, session) : step.invoke(session))) {
                if (trace) {
                   log.trace("#{} {}[{}] step {} is blocked", session.uniqueId(), sequence.name(), index, StepBuilder.nameOf(step));
                }
@@ -67,6 +69,8 @@ public class SequenceInstance {
       this.releaseHandler = releaseHandler;
       this.index = index;
       this.steps = steps;
+      // Compiled steps are bound to the sequence definition; ad-hoc step arrays are always interpreted
+      this.compiled = sequence != null && steps == sequence.steps() ? sequence.compiled() : null;
       this.currentStep = 0;
       this.refCnt = 1;
       return this;
@@ -7,8 +7,10 @@ import java.util.function.Supplier;
 import io.hyperfoil.api.config.Scenario;
 import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.statistics.SessionStatistics;
+import io.hyperfoil.api.timer.Timer;
 import io.netty.util.concurrent.EventExecutor;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsKey;
 import io.hyperfoil.api.config.Phase;
 
 public interface Session extends Callable<Void> {
@@ -36,6 +38,11 @@ public interface Session extends Callable<Void> {
 
    EventExecutor executor();
 
+   /**
+    * @return Timer bound to the {@link #executor() executor} of this session.
+    */
+   Timer timer();
+
    ThreadData threadData();
 
    AgentData agentData();
@@ -48,6 +55,14 @@ public interface Session extends Callable<Void> {
 
    Statistics statistics(int stepId, String name);
 
+   /**
+    * Faster variant of {@link #statistics(int, String)} for metrics known when the scenario is built.
+    *
+    * @param key Key with index assigned by the scenario.
+    * @return Statistics for current phase.
+    */
+   Statistics statistics(StatisticsKey key);
+
    void pruneStats(Phase phase);
 
    // Resources
@@ -84,10 +99,29 @@ public interface Session extends Callable<Void> {
 
    SequenceInstance currentSequence();
 
-   void attach(EventExecutor executor, ThreadData threadData, AgentData agentData, GlobalData globalData, SessionStatistics statistics);
+   void attach(EventExecutor executor, Timer timer, ThreadData threadData, AgentData agentData, GlobalData globalData, SessionStatistics statistics);
 
    void start(PhaseInstance phase);
 
+   /**
+    * Starts the session in a phase that corrects coordinated omission.
+    *
+    * @param phase              Phase the session belongs to.
+    * @param intendedStartNanos {@link System#nanoTime()} when the session was scheduled to start.
+    */
+   void start(PhaseInstance phase, long intendedStartNanos);
+
+   /**
+    * The delay between the scheduled and actual start of this session postpones only the first request
+    * the session starts; the requests that follow are paced by the session itself. Therefore the delay is handed out
+    * just once, and the caller should add it to the response time of the request it is starting.
+    *
+    * @return Nanoseconds between the scheduled and actual start of this session on the first invocation after
+    * the session has started, zero on the following invocations, or negative value when the phase does not correct
+    * coordinated omission.
+    */
+   long claimStartDelay();
+
    /**
     * Run anything that can be executed.
     */
@@ -139,7 +173,22 @@ public interface Session extends Callable<Void> {
       default void destroy() {}
    }
 
-   interface ResourceKey<R extends Resource> extends Serializable {}
+   /**
+    * Identifies a resource in the session. Keys should store the index of the slot assigned by {@link ResourceSlots}
+    * so that the session can find the resource without any lookup; keys that don't are looked up in a map.
+    * See {@link ResourceSlots.Key} for keys that are not the step or handler itself.
+    */
+   interface ResourceKey<R extends Resource> extends Serializable {
+      /**
+       * @return Index set by {@link #setResourceIndex(int)} or negative value if the key does not store it.
+       */
+      default int resourceIndex() {
+         return -1;
+      }
+
+      default void setResourceIndex(int index) {
+      }
+   }
 
    /**
     * Behaviour when a new sequence start is requested but the concurrency factor is exceeded.
@@ -0,0 +1,124 @@
+package io.hyperfoil.api.statistics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.Histogram;
+import org.kohsuke.MetaInfServices;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import io.hyperfoil.api.config.StatisticsConfig;
+import io.hyperfoil.impl.Util;
+
+/**
+ * Time between sending the request and receiving the response, recorded in phases that correct coordinated omission.
+ * In these phases the main histogram holds response time measured from the moment when the session
+ * was supposed to start, including the time it had to wait for the session pool.
+ */
+@MetaInfServices(StatsExtension.class)
+@JsonTypeName("serviceTime")
+public class ServiceTime implements StatsExtension {
+   public static final String KEY = "serviceTime";
+   private static final String[] HEADERS = { "mean", "p50", "p90", "p99", "p99.9", "p99.99", "max" };
+
+   final AbstractHistogram histogram;
+
+   public ServiceTime() {
+      this(StatisticsConfig.DEFAULT);
+   }
+
+   public ServiceTime(StatisticsConfig config) {
+      this(new Histogram(config.highestTrackableValue(), config.significantDigits()));
+   }
+
+   private ServiceTime(AbstractHistogram histogram) {
+      this.histogram = histogram;
+      // aggregated values might exceed the range
+      histogram.setAutoResize(true);
+   }
+
+   @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+   public static ServiceTime decode(@JsonProperty("histogram") String encoded) throws DataFormatException {
+      ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+      return new ServiceTime(Histogram.decodeFromCompressedByteBuffer(buffer, 0));
+   }
+
+   @JsonProperty("histogram")
+   public String encode() {
+      ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+      int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+      return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+   }
+
+   public void record(long serviceTime) {
+      histogram.recordValue(serviceTime);
+   }
+
+   public AbstractHistogram histogram() {
+      return histogram;
+   }
+
+   @Override
+   public boolean isNull() {
+      return histogram.getTotalCount() == 0;
+   }
+
+   @Override
+   public void add(StatsExtension other) {
+      if (other instanceof ServiceTime) {
+         histogram.add(((ServiceTime) other).histogram);
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void subtract(StatsExtension other) {
+      if (other instanceof ServiceTime) {
+         histogram.subtract(((ServiceTime) other).histogram);
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void reset() {
+      histogram.reset();
+   }
+
+   @SuppressWarnings("MethodDoesntCallSuperMethod")
+   @Override
+   public StatsExtension clone() {
+      return new ServiceTime(histogram.copy());
+   }
+
+   @Override
+   public String[] headers() {
+      return HEADERS;
+   }
+
+   @Override
+   public String byHeader(String header) {
+      switch (header) {
+         case "mean":
+            return Util.prettyPrintNanos((long) histogram.getMean());
+         case "max":
+            return Util.prettyPrintNanos(histogram.getMaxValue());
+         default:
+            if (header.startsWith("p")) {
+               try {
+                  return Util.prettyPrintNanos(histogram.getValueAtPercentile(Double.parseDouble(header.substring(1))));
+               } catch (NumberFormatException e) {
+                  // fall through
+               }
+            }
+            return "<unknown header: " + header + ">";
+      }
+   }
+}
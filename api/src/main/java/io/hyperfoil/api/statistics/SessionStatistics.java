@@ -2,21 +2,35 @@ package io.hyperfoil.api.statistics;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 
+import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.StatisticsConfig;
 import io.hyperfoil.api.session.Session;
+import io.netty.util.internal.PlatformDependent;
 
 /**
  * This instance holds common statistics shared between all {@link Session sessions} (in given phase) driven by the same executor.
+ * <p>
+ * All methods except {@link #drain(SnapshotConsumer)} must be invoked from the executor. The executor periodically
+ * {@link #publish() publishes} completed samples into a single-producer queue; the collector
+ * {@link #drain(SnapshotConsumer) drains} it and the snapshots are recycled.
  */
 public class SessionStatistics {
+   private final IdentityHashMap<StatisticsConfig, SnapshotPool> pools = new IdentityHashMap<>();
+   private final Queue<Published> published = PlatformDependent.newSpscQueue();
    private Phase[] phases;
    private int[] stepIds;
    private Map<String, Statistics>[] maps;
    private int size;
+   private Phase[] tablePhases = new Phase[2];
+   private Statistics[][] tables = new Statistics[2][];
+   private int tableCount;
 
    @SuppressWarnings("unchecked")
    public SessionStatistics() {
@@ -25,12 +39,36 @@ public class SessionStatistics {
       maps = new Map[4];
    }
 
+   /**
+    * Returns table of statistics indexed by {@link StatisticsKey#index()}. Slots are populated lazily
+    * using {@link #getOrCreate(Phase, int, String, long)} so that the same instances are published.
+    *
+    * @param phase Phase the statistics belong to.
+    * @return Table shared by all sessions of this phase running on this executor.
+    */
+   public Statistics[] table(Phase phase) {
+      for (int i = 0; i < tableCount; ++i) {
+         if (tablePhases[i] == phase) {
+            return tables[i];
+         }
+      }
+      if (tableCount == tables.length) {
+         tablePhases = Arrays.copyOf(tablePhases, tableCount * 2);
+         tables = Arrays.copyOf(tables, tableCount * 2);
+      }
+      Statistics[] table = new Statistics[phase.scenario().statisticsKeys()];
+      tablePhases[tableCount] = phase;
+      tables[tableCount] = table;
+      ++tableCount;
+      return table;
+   }
+
    public Statistics getOrCreate(Phase phase, int stepId, String name, long startTime) {
       for (int i = 0; i < size; ++i) {
          if (stepIds[i] == stepId && phases[i] == phase) {
             Statistics s = maps[i].get(name);
             if (s == null) {
-               s = new Statistics(startTime);
+               s = createStatistics(phase, name, startTime);
                maps[i].put(name, s);
             }
             return s;
@@ -44,7 +82,7 @@ public class SessionStatistics {
 
       phases[size] = phase;
       stepIds[size] = stepId;
-      Statistics s = new Statistics(startTime);
+      Statistics s = createStatistics(phase, name, startTime);
       HashMap<String, Statistics> map = new HashMap<>();
       map.put(name, s);
       maps[size] = map;
@@ -52,6 +90,41 @@ public class SessionStatistics {
       return s;
    }
 
+   private Statistics createStatistics(Phase phase, String name, long startTime) {
+      Benchmark benchmark = phase.benchmark();
+      SnapshotPool pool = pools.computeIfAbsent(benchmark.statistics().forMetric(name), SnapshotPool::new);
+      return new Statistics(startTime, pool);
+   }
+
+   /**
+    * Hands over completed samples of all statistics to the collector. Must be invoked from the executor.
+    */
+   public void publish() {
+      for (int i = 0; i < size; ++i) {
+         Phase phase = phases[i];
+         int stepId = stepIds[i];
+         for (Map.Entry<String, Statistics> entry : maps[i].entrySet()) {
+            String metric = entry.getKey();
+            Statistics statistics = entry.getValue();
+            statistics.visitSnapshots(snapshot -> published.offer(new Published(phase, stepId, metric, snapshot, statistics.pool())));
+         }
+      }
+   }
+
+   /**
+    * Passes all published snapshots to the consumer; the snapshots are recycled after the consumer returns
+    * so it must not keep any reference to them. Can be invoked from any thread.
+    *
+    * @param consumer Receives the snapshots.
+    */
+   public synchronized void drain(SnapshotConsumer consumer) {
+      Published p;
+      while ((p = published.poll()) != null) {
+         consumer.accept(p.phase, p.stepId, p.metric, p.snapshot);
+         p.pool.release(p.snapshot);
+      }
+   }
+
    public int size() {
       return size;
    }
@@ -69,6 +142,16 @@ public class SessionStatistics {
    }
 
    public void prune(Phase phase) {
+      for (int i = 0; i < tableCount; ++i) {
+         if (tablePhases[i] == phase) {
+            --tableCount;
+            tablePhases[i] = tablePhases[tableCount];
+            tables[i] = tables[tableCount];
+            tablePhases[tableCount] = null;
+            tables[tableCount] = null;
+            break;
+         }
+      }
       int lastGood = size - 1;
       while (lastGood >= 0 && phases[lastGood] == phase) {
          lastGood--;
@@ -93,6 +176,26 @@ public class SessionStatistics {
       }
    }
 
+   public interface SnapshotConsumer {
+      void accept(Phase phase, int stepId, String metric, StatisticsSnapshot snapshot);
+   }
+
+   private static class Published {
+      final Phase phase;
+      final int stepId;
+      final String metric;
+      final StatisticsSnapshot snapshot;
+      final SnapshotPool pool;
+
+      Published(Phase phase, int stepId, String metric, StatisticsSnapshot snapshot, SnapshotPool pool) {
+         this.phase = phase;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.snapshot = snapshot;
+         this.pool = pool;
+      }
+   }
+
    private class It implements Iterator<Statistics> {
       int i;
       Iterator<Statistics> it;
@@ -0,0 +1,35 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.Queue;
+
+import io.hyperfoil.api.config.StatisticsConfig;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Recycles snapshots for {@link Statistics} with the same configuration. Snapshots are acquired by the executor
+ * recording the statistics and released (after being aggregated) by the collecting thread.
+ */
+public class SnapshotPool {
+   private final StatisticsConfig config;
+   // single consumer (the recording executor), released from any thread
+   private final Queue<StatisticsSnapshot> recycled = PlatformDependent.newMpscQueue();
+
+   public SnapshotPool(StatisticsConfig config) {
+      this.config = config;
+   }
+
+   public StatisticsConfig config() {
+      return config;
+   }
+
+   StatisticsSnapshot acquire() {
+      StatisticsSnapshot snapshot = recycled.poll();
+      return snapshot != null ? snapshot : new StatisticsSnapshot(config);
+   }
+
+   public void release(StatisticsSnapshot snapshot) {
+      snapshot.reset();
+      snapshot.sequenceId = -1;
+      recycled.offer(snapshot);
+   }
+}
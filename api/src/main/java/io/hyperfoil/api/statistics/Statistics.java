@@ -1,61 +1,95 @@
 package io.hyperfoil.api.statistics;
 
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import org.HdrHistogram.SingleWriterRecorder;
-import org.HdrHistogram.WriterReaderPhaser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.hyperfoil.api.config.StatisticsConfig;
+
 /**
- * This is a copy/subset of {@link SingleWriterRecorder} but uses {@link StatisticsSnapshot} instead of only
- * the histogram.
+ * Statistics for single metric recorded by single executor, split into samples by request start timestamp.
+ * <p>
+ * This class is not thread-safe: all methods including {@link #visitSnapshots(Consumer)} must be invoked
+ * from the thread recording the values. Published snapshots are handed over to the consumer; these can be
+ * recycled through the {@link SnapshotPool} after they are aggregated.
  */
 public class Statistics {
    private static final Logger log = LogManager.getLogger(Statistics.class);
-   private static final long SAMPLING_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1);
    private static final ThreadLocal<Long> lastWarnThrottle = ThreadLocal.withInitial(() -> Long.MIN_VALUE);
 
-   private static final AtomicIntegerFieldUpdater<Statistics> LU1 =
-         AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "lowestActive1");
-   private static final AtomicIntegerFieldUpdater<Statistics> LU2 =
-         AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "lowestActive2");
-
-   private final WriterReaderPhaser recordingPhaser = new WriterReaderPhaser();
+   private final SnapshotPool pool;
+   private final StatisticsConfig config;
+   private final long samplingPeriod;
    private final long highestTrackableValue;
-   // We'll start making space 4 samples (seconds) ahead; in case the readers fall behind the schedule
-   // this will help to keep the active array always big enough.
-   private int numSamples = 4;
-
-   @SuppressWarnings("unused")
-   private volatile int lowestActive1;
-   @SuppressWarnings("unused")
-   private volatile int lowestActive2;
-   private volatile int highestActive;
-   @SuppressWarnings("AtomicFieldUpdaterNotStaticFinal")
-   private volatile AtomicIntegerFieldUpdater<Statistics> lowestActiveUpdater = LU1;
-   private volatile AtomicReferenceArray<StatisticsSnapshot> active;
-   private AtomicReferenceArray<StatisticsSnapshot> inactive;
 
+   private StatisticsSnapshot[] samples = new StatisticsSnapshot[16];
+   // Lowest sample that was recorded since last publication
+   private int lowestActive;
+   private int highestActive;
    private long startTimestamp;
    private long endTimestamp = Long.MAX_VALUE;
-   private int lastLowestIndex;
 
    public Statistics(long startTimestamp) {
+      this(startTimestamp, new SnapshotPool(StatisticsConfig.DEFAULT));
+   }
+
+   /**
+    * @param startTimestamp Beginning of the first sample.
+    * @param pool Source of snapshots; defines histogram settings and sampling period.
+    */
+   public Statistics(long startTimestamp, SnapshotPool pool) {
       this.startTimestamp = startTimestamp;
-      active = new AtomicReferenceArray<>(16);
-      inactive = new AtomicReferenceArray<>(16);
-      StatisticsSnapshot first = new StatisticsSnapshot();
+      this.pool = pool;
+      this.config = pool.config();
+      this.samplingPeriod = config.samplingPeriod();
+      StatisticsSnapshot first = pool.acquire();
       first.sequenceId = 0;
-      active.set(0, first);
-      highestTrackableValue = first.histogram.getHighestTrackableValue();
+      samples[0] = first;
+      highestTrackableValue = first.histogram().getHighestTrackableValue();
+   }
+
+   SnapshotPool pool() {
+      return pool;
    }
 
    public void recordResponse(long startTimestamp, long responseTime) {
+      responseTime = trackable(responseTime);
+      StatisticsSnapshot active = active(startTimestamp);
+      active.histogram().recordValue(responseTime);
+      active.responseCount++;
+   }
+
+   /**
+    * Records response in a session that might have started later than scheduled.
+    *
+    * @param startTimestamp Request start timestamp, in milliseconds.
+    * @param serviceTime    Time between sending the request and receiving the response, in nanoseconds.
+    * @param startDelay     Delay of the session start, in nanoseconds, or negative value when the phase
+    *                       does not correct coordinated omission.
+    *                       See {@link io.hyperfoil.api.session.Session#claimStartDelay()}.
+    */
+   public void recordResponse(long startTimestamp, long serviceTime, long startDelay) {
+      if (startDelay < 0) {
+         recordResponse(startTimestamp, serviceTime);
+         return;
+      }
+      long responseTime = trackable(serviceTime + startDelay);
+      serviceTime = trackable(serviceTime);
+      StatisticsSnapshot active = active(startTimestamp);
+      active.histogram().recordValue(responseTime);
+      active.responseCount++;
+      ServiceTime service = (ServiceTime) active.extensions.get(ServiceTime.KEY);
+      if (service == null) {
+         service = new ServiceTime(config);
+         active.extensions.put(ServiceTime.KEY, service);
+      }
+      service.record(serviceTime);
+   }
+
+   private long trackable(long responseTime) {
       if (responseTime > highestTrackableValue) {
          // we don't use auto-resize histograms
          long lastWarn = lastWarnThrottle.get();
@@ -71,213 +105,127 @@ public class Statistics {
          } else if (warnings < 0xFFFF) {
             lastWarnThrottle.set(lastWarn + 1);
          }
-         responseTime = highestTrackableValue;
+         return highestTrackableValue;
       } else if (responseTime < 0) {
          log.warn("Response time {} is negative.", responseTime);
-         responseTime = 0;
-      }
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(startTimestamp);
-         active.histogram.recordValue(responseTime);
-         active.responseCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+         return 0;
       }
+      return responseTime;
    }
 
    public void incrementRequests(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.requestCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      StatisticsSnapshot active = active(timestamp);
+      active.requestCount++;
    }
 
    public void incrementTimeouts(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.requestTimeouts++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      StatisticsSnapshot active = active(timestamp);
+      active.requestTimeouts++;
    }
 
    public void incrementConnectionErrors(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.connectionErrors++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      StatisticsSnapshot active = active(timestamp);
+      active.connectionErrors++;
    }
 
    public void incrementInternalErrors(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.internalErrors++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      StatisticsSnapshot active = active(timestamp);
+      active.internalErrors++;
    }
 
    public void incrementBlockedTime(long timestamp, long blockedTime) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.blockedTime += blockedTime;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      StatisticsSnapshot active = active(timestamp);
+      active.blockedTime += blockedTime;
    }
 
    public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, LongUpdater<C> updater, long value) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         StatsExtension custom = active.extensions.get(key);
-         if (custom == null) {
-            custom = creator.get();
-            active.extensions.put(key, custom);
-         }
-         //noinspection unchecked
-         updater.update((C) custom, value);
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      StatisticsSnapshot active = active(timestamp);
+      StatsExtension custom = active.extensions.get(key);
+      if (custom == null) {
+         custom = creator.get();
+         active.extensions.put(key, custom);
       }
+      //noinspection unchecked
+      updater.update((C) custom, value);
    }
 
    public <C extends StatsExtension> void update(String key, long timestamp, Supplier<C> creator, ObjectUpdater<C> updater, Object value) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         StatsExtension custom = active.extensions.get(key);
-         if (custom == null) {
-            custom = creator.get();
-            active.extensions.put(key, custom);
-         }
-         //noinspection unchecked
-         updater.update((C) custom, value);
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      StatisticsSnapshot active = active(timestamp);
+      StatsExtension custom = active.extensions.get(key);
+      if (custom == null) {
+         custom = creator.get();
+         active.extensions.put(key, custom);
       }
+      //noinspection unchecked
+      updater.update((C) custom, value);
    }
 
    public void addInvalid(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.invalid++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
-   }
-
+      StatisticsSnapshot active = active(timestamp);
+      active.invalid++;
+   }
+
+   /**
+    * Hands over all samples that are complete (or all samples after {@link #end(long)}) to the consumer.
+    * The consumer becomes the owner of the snapshot and it should {@link SnapshotPool#release(StatisticsSnapshot) release}
+    * it when it's not needed anymore. Requests completing later than the sample was published are recorded into
+    * a new snapshot with the same {@link StatisticsSnapshot#sequenceId}.
+    *
+    * @param consumer Receives the snapshots.
+    */
    public void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
-      try {
-         recordingPhaser.readerLock();
-
-         if (++numSamples >= inactive.length()) {
-            AtomicReferenceArray<StatisticsSnapshot> temp = new AtomicReferenceArray<>(inactive.length() * 2);
-            for (int i = lastLowestIndex; i < inactive.length(); ++i) {
-               temp.set(i, inactive.get(i));
-            }
-            inactive = temp;
-         }
-
-         // Swap active and inactive histograms:
-         final AtomicReferenceArray<StatisticsSnapshot> tempHistogram = inactive;
-         inactive = active;
-         active = tempHistogram;
-
-         AtomicIntegerFieldUpdater<Statistics> inactiveUpdater = lowestActiveUpdater;
-         lowestActiveUpdater = inactiveUpdater == LU1 ? LU2 : LU1;
-
-         // Make sure we are not in the middle of recording a value on the previously active histogram:
-
-         // Flip phase to make sure no recordings that were in flight pre-flip are still active:
-         recordingPhaser.flipPhase(500000L /* yield in 0.5 msec units if needed */);
-
-         lastLowestIndex = Math.min(LU1.get(this), LU2.get(this));
-
-         int maxSamples;
-         // If the statistics is not finished don't publish the last timestamp
-         // as this might be shortened be the termination of the phase.
-         if (endTimestamp != Long.MAX_VALUE) {
-            maxSamples = Math.min(inactive.length(), highestActive + 1);
-         } else {
-            maxSamples = Math.min(inactive.length() - 1, highestActive);
-         }
-         // Make sure that few flips later we'll fetch the stats
-         inactiveUpdater.set(this, maxSamples);
-         publish(inactive, maxSamples, consumer);
-         if (endTimestamp != Long.MAX_VALUE) {
-            // all requests must be complete, let's scan the 'active' as well
-            publish(active, maxSamples, consumer);
-         }
-      } finally {
-         recordingPhaser.readerUnlock();
-      }
-   }
-
-   private void publish(AtomicReferenceArray<StatisticsSnapshot> array, int limit, Consumer<StatisticsSnapshot> consumer) {
-      for (int i = lastLowestIndex; i < limit; ++i) {
-         StatisticsSnapshot snapshot = array.get(i);
+      int limit;
+      // If the statistics is not finished don't publish the last sample
+      // as this might be shortened be the termination of the phase.
+      if (endTimestamp != Long.MAX_VALUE) {
+         limit = highestActive + 1;
+      } else {
+         limit = highestActive;
+      }
+      for (int i = lowestActive; i < limit; ++i) {
+         StatisticsSnapshot snapshot = samples[i];
          if (snapshot == null) {
             // nothing to do
-         } else if (snapshot.isEmpty()) {
-            array.set(i, null);
-         } else {
-            snapshot.histogram.setStartTimeStamp(startTimestamp + i * SAMPLING_PERIOD_MILLIS);
-            snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (i + 1) * SAMPLING_PERIOD_MILLIS));
-            consumer.accept(snapshot);
-            snapshot.reset();
+            continue;
          }
+         samples[i] = null;
+         if (snapshot.isEmpty()) {
+            pool.release(snapshot);
+            continue;
+         }
+         snapshot.histogram().setStartTimeStamp(startTimestamp + i * samplingPeriod);
+         snapshot.histogram().setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (i + 1) * samplingPeriod));
+         consumer.accept(snapshot);
       }
+      lowestActive = Math.max(lowestActive, limit);
    }
 
    public void start(long now) {
-      recordingPhaser.readerLock();
-      try {
-         startTimestamp = now;
-         endTimestamp = Long.MAX_VALUE;
-      } finally {
-         recordingPhaser.readerUnlock();
-      }
+      startTimestamp = now;
+      endTimestamp = Long.MAX_VALUE;
    }
 
    public void end(long now) {
-      recordingPhaser.readerLock();
-      try {
-         endTimestamp = now;
-      } finally {
-         recordingPhaser.readerUnlock();
-      }
+      endTimestamp = now;
    }
 
    private StatisticsSnapshot active(long timestamp) {
-      int index = (int) ((timestamp - startTimestamp) / SAMPLING_PERIOD_MILLIS);
-      AtomicReferenceArray<StatisticsSnapshot> active = this.active;
-      if (index >= active.length()) {
-         index = active.length() - 1;
-      } else if (index < 0) {
+      int index = (int) ((timestamp - startTimestamp) / samplingPeriod);
+      if (index < 0) {
          log.error("Record start timestamp {} predates statistics start {}", timestamp, startTimestamp);
          index = 0;
+      } else if (index >= samples.length) {
+         samples = Arrays.copyOf(samples, Math.max(samples.length * 2, index + 1));
       }
-      StatisticsSnapshot snapshot = active.get(index);
+      StatisticsSnapshot snapshot = samples[index];
       if (snapshot == null) {
-         snapshot = new StatisticsSnapshot();
+         snapshot = pool.acquire();
          snapshot.sequenceId = index;
-         active.set(index, snapshot);
+         samples[index] = snapshot;
+      }
+      if (index < lowestActive) {
+         lowestActive = index;
       }
-      lowestActiveUpdater.accumulateAndGet(this, index, Math::min);
-      // Highest active is increasing monotonically and it is updated only by the event-loop thread;
-      // therefore we don't have to use CAS operation
       if (index > highestActive) {
          highestActive = index;
       }
@@ -0,0 +1,83 @@
+package io.hyperfoil.api.statistics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Objects;
+
+import io.hyperfoil.impl.CollectingVisitor;
+
+/**
+ * Statically known combination of step and metric name. When the {@link io.hyperfoil.api.config.Scenario} is built
+ * each distinct key is assigned a dense index that is used to look up the {@link Statistics} in a per-executor table,
+ * rather than searching through step ids and metric names for every request.
+ */
+public class StatisticsKey implements Serializable {
+   private final int stepId;
+   private final String metric;
+   private int index = -1;
+
+   public StatisticsKey(int stepId, String metric) {
+      this.stepId = stepId;
+      this.metric = Objects.requireNonNull(metric);
+   }
+
+   public int stepId() {
+      return stepId;
+   }
+
+   public String metric() {
+      return metric;
+   }
+
+   /**
+    * @return Index into the statistics table or negative value if this key was not registered in any scenario.
+    */
+   public int index() {
+      return index;
+   }
+
+   public void setIndex(int index) {
+      assert this.index < 0 || this.index == index : "Current index " + this.index + ", suggested index " + index;
+      this.index = index;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      } else if (o instanceof StatisticsKey) {
+         StatisticsKey other = (StatisticsKey) o;
+         return stepId == other.stepId && metric.equals(other.metric);
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return 31 * stepId + metric.hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return metric;
+   }
+
+   public static class Visitor extends CollectingVisitor<StatisticsKey> {
+      private final ArrayList<StatisticsKey> keys = new ArrayList<>();
+
+      public Visitor() {
+         super(StatisticsKey.class);
+      }
+
+      @Override
+      protected boolean process(StatisticsKey value) {
+         keys.add(value);
+         return false;
+      }
+
+      public StatisticsKey[] keys() {
+         return keys.toArray(new StatisticsKey[0]);
+      }
+   }
+}
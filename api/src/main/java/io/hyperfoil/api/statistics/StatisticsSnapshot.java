@@ -4,17 +4,21 @@ import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.DoubleStream;
 
+import org.HdrHistogram.AbstractHistogram;
 import org.HdrHistogram.Histogram;
+import org.HdrHistogram.IntCountsHistogram;
+
+import io.hyperfoil.api.config.StatisticsConfig;
 
 /**
  * Non-thread safe mutable set of values.
  */
 public class StatisticsSnapshot implements Serializable {
    public int sequenceId = -1;
-   public final Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 2);
+   // Adding snapshot with higher precision replaces the histogram, see #add(StatisticsSnapshot)
+   private AbstractHistogram histogram;
    public int connectFailureCount;
    public int requestCount;
    public int responseCount;
@@ -25,6 +29,33 @@ public class StatisticsSnapshot implements Serializable {
    public long blockedTime;
    public final Map<String, StatsExtension> extensions = new HashMap<>();
 
+   /**
+    * Creates snapshot suitable for aggregation: the histogram grows to accommodate values from added snapshots.
+    */
+   public StatisticsSnapshot() {
+      histogram = new Histogram(StatisticsConfig.DEFAULT.highestTrackableValue(), StatisticsConfig.DEFAULT.significantDigits());
+      histogram.setAutoResize(true);
+   }
+
+   /**
+    * Creates snapshot for recording values that do not exceed {@link StatisticsConfig#highestTrackableValue()}.
+    */
+   public StatisticsSnapshot(StatisticsConfig config) {
+      if (config.compact()) {
+         histogram = new IntCountsHistogram(config.highestTrackableValue(), config.significantDigits());
+      } else {
+         histogram = new Histogram(config.highestTrackableValue(), config.significantDigits());
+      }
+   }
+
+   public StatisticsSnapshot(AbstractHistogram histogram) {
+      this.histogram = histogram;
+   }
+
+   public AbstractHistogram histogram() {
+      return histogram;
+   }
+
    public boolean isEmpty() {
       return requestCount + responseCount + invalid + connectionErrors + requestTimeouts + internalErrors == 0 &&
             extensions.values().stream().allMatch(StatsExtension::isNull);
@@ -54,6 +85,7 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public void add(StatisticsSnapshot other) {
+      ensurePrecision(other.histogram);
       histogram.add(other.histogram);
       requestCount += other.requestCount;
       responseCount += other.responseCount;
@@ -75,6 +107,16 @@ public class StatisticsSnapshot implements Serializable {
       }
    }
 
+   private void ensurePrecision(AbstractHistogram other) {
+      int significantDigits = other.getNumberOfSignificantValueDigits();
+      if (significantDigits > histogram.getNumberOfSignificantValueDigits()) {
+         Histogram precise = new Histogram(Math.max(histogram.getHighestTrackableValue(), other.getHighestTrackableValue()), significantDigits);
+         precise.setAutoResize(true);
+         precise.add(histogram);
+         histogram = precise;
+      }
+   }
+
    public void subtract(StatisticsSnapshot other) {
       histogram.subtract(other.histogram);
       requestCount -= other.requestCount;
@@ -0,0 +1,33 @@
+package io.hyperfoil.api.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Timer that delegates to the scheduling of the executor. Each scheduled timeout is a new task
+ * in the executor's priority queue.
+ */
+class ExecutorTimer implements Timer {
+   private final EventExecutor executor;
+
+   ExecutorTimer(EventExecutor executor) {
+      this.executor = executor;
+   }
+
+   @Override
+   public void schedule(Timeout timeout, long delay, TimeUnit timeUnit) {
+      cancel(timeout);
+      timeout.timer = this;
+      timeout.future = executor.schedule(timeout, delay, timeUnit);
+   }
+
+   @Override
+   public void cancel(Timeout timeout) {
+      if (timeout.future != null) {
+         timeout.future.cancel(false);
+         timeout.future = null;
+      }
+      timeout.timer = null;
+   }
+}
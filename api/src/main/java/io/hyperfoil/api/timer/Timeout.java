@@ -0,0 +1,47 @@
+package io.hyperfoil.api.timer;
+
+import java.util.Objects;
+
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Reusable timer node; the same instance can be scheduled repeatedly, one deadline at a time.
+ * It is intended to be embedded in pooled objects (requests, session resources) so that scheduling
+ * a timeout does not allocate.
+ */
+public final class Timeout implements Runnable {
+   private final Runnable task;
+   // Timer where this timeout is scheduled; null when it is not scheduled
+   Timer timer;
+   // TimingWheel: intrusive doubly-linked list in a bucket
+   Timeout prev;
+   Timeout next;
+   int bucket = -1;
+   long deadline;
+   // ExecutorTimer
+   ScheduledFuture<?> future;
+
+   public Timeout(Runnable task) {
+      this.task = Objects.requireNonNull(task);
+   }
+
+   public boolean isScheduled() {
+      return timer != null;
+   }
+
+   public void cancel() {
+      if (timer != null) {
+         timer.cancel(this);
+      }
+   }
+
+   /**
+    * Invoked by the timer when the timeout expires.
+    */
+   @Override
+   public void run() {
+      timer = null;
+      future = null;
+      task.run();
+   }
+}
@@ -0,0 +1,46 @@
+package io.hyperfoil.api.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Timer bound to single executor. All methods must be invoked from the executor thread.
+ */
+public interface Timer {
+   /**
+    * Schedule the timeout to be executed after given delay. If the timeout is already scheduled
+    * it is rescheduled to the new deadline.
+    *
+    * @param timeout  Timeout to schedule.
+    * @param delay    Delay.
+    * @param timeUnit Unit of the delay.
+    */
+   void schedule(Timeout timeout, long delay, TimeUnit timeUnit);
+
+   /**
+    * Remove the timeout from the timer. Use {@link Timeout#cancel()} instead.
+    *
+    * @param timeout Scheduled timeout.
+    */
+   void cancel(Timeout timeout);
+
+   /**
+    * Creates timer selected through {@link Properties#TIMER} (<code>wheel</code> or <code>executor</code>).
+    *
+    * @param executor Executor that will run the timeouts.
+    * @return New timer instance.
+    */
+   static Timer create(EventExecutor executor) {
+      String type = Properties.get(Properties.TIMER, "wheel");
+      switch (type.toLowerCase()) {
+         case "wheel":
+            return new TimingWheel(executor, TimeUnit.MILLISECONDS.toNanos(1));
+         case "executor":
+            return new ExecutorTimer(executor);
+         default:
+            throw new IllegalStateException("Unknown timer '" + type + "', use either 'wheel' or 'executor'.");
+      }
+   }
+}
@@ -0,0 +1,169 @@
+package io.hyperfoil.api.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Hierarchical timing wheel (in the fashion of the classic Linux kernel timers). The first level has 256 slots,
+ * one per tick, each further level has 64 slots covering 64 slots of the level below. Timeouts are linked
+ * into the slots through their intrusive links and therefore both scheduling and cancellation are O(1)
+ * and allocation-free. When the first level wraps around, timeouts from the current slot of the second
+ * level are redistributed to the first level (and so on for higher levels).
+ * <p>
+ * The wheel is driven by a periodic task in the executor that runs only while there are some timeouts scheduled.
+ * Timeouts never expire before the requested delay but they can expire up to one tick (and executor latency) later.
+ */
+class TimingWheel implements Timer, Runnable {
+   private static final Logger log = LogManager.getLogger(TimingWheel.class);
+
+   private static final int ROOT_BITS = 8;
+   private static final int ROOT_SIZE = 1 << ROOT_BITS;
+   private static final int ROOT_MASK = ROOT_SIZE - 1;
+   private static final int LEVEL_BITS = 6;
+   private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+   private static final int LEVEL_MASK = LEVEL_SIZE - 1;
+   private static final int LEVELS = 4;
+   private static final long MAX_DELTA = (1L << (ROOT_BITS + LEVELS * LEVEL_BITS)) - 1;
+
+   private final EventExecutor executor;
+   private final long tickNanos;
+   private final long origin = System.nanoTime();
+   // Root level is in 0 - 255, next levels follow with 64 slots each
+   private final Timeout[] heads = new Timeout[ROOT_SIZE + LEVELS * LEVEL_SIZE];
+   // Next tick to be processed
+   private long currentTick;
+   private int size;
+   private ScheduledFuture<?> tickFuture;
+
+   TimingWheel(EventExecutor executor, long tickNanos) {
+      this.executor = executor;
+      this.tickNanos = tickNanos;
+   }
+
+   @Override
+   public void schedule(Timeout timeout, long delay, TimeUnit timeUnit) {
+      assert executor.inEventLoop();
+      if (timeout.timer != null) {
+         timeout.timer.cancel(timeout);
+      }
+      long now = now();
+      if (size == 0) {
+         // Nothing to process between the last processed tick and now
+         currentTick = Math.max(currentTick, now);
+      }
+      // We add one tick to never expire prematurely
+      long delayTicks = (timeUnit.toNanos(delay) + tickNanos - 1) / tickNanos + 1;
+      timeout.deadline = now + delayTicks;
+      timeout.timer = this;
+      add(timeout);
+      if (++size == 1 && tickFuture == null) {
+         tickFuture = executor.scheduleAtFixedRate(this, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   @Override
+   public void cancel(Timeout timeout) {
+      assert executor.inEventLoop();
+      if (timeout.timer == this) {
+         unlink(timeout);
+         timeout.timer = null;
+         --size;
+      }
+   }
+
+   private long now() {
+      return (System.nanoTime() - origin) / tickNanos;
+   }
+
+   private void add(Timeout timeout) {
+      long deadline = timeout.deadline;
+      long delta = deadline - currentTick;
+      int bucket;
+      if (delta < 0) {
+         bucket = (int) (currentTick & ROOT_MASK);
+      } else if (delta < ROOT_SIZE) {
+         bucket = (int) (deadline & ROOT_MASK);
+      } else {
+         if (delta > MAX_DELTA) {
+            // This will be cascaded and re-added with the actual deadline
+            deadline = currentTick + MAX_DELTA;
+            delta = MAX_DELTA;
+         }
+         int level = 1;
+         while (delta >= 1L << (ROOT_BITS + level * LEVEL_BITS)) {
+            ++level;
+         }
+         int shift = ROOT_BITS + (level - 1) * LEVEL_BITS;
+         bucket = ROOT_SIZE + (level - 1) * LEVEL_SIZE + (int) ((deadline >> shift) & LEVEL_MASK);
+      }
+      timeout.bucket = bucket;
+      Timeout head = heads[bucket];
+      timeout.prev = null;
+      timeout.next = head;
+      if (head != null) {
+         head.prev = timeout;
+      }
+      heads[bucket] = timeout;
+   }
+
+   private void unlink(Timeout timeout) {
+      if (timeout.prev == null) {
+         heads[timeout.bucket] = timeout.next;
+      } else {
+         timeout.prev.next = timeout.next;
+      }
+      if (timeout.next != null) {
+         timeout.next.prev = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = -1;
+   }
+
+   private int cascade(int level) {
+      int shift = ROOT_BITS + (level - 1) * LEVEL_BITS;
+      int index = (int) ((currentTick >> shift) & LEVEL_MASK);
+      int bucket = ROOT_SIZE + (level - 1) * LEVEL_SIZE + index;
+      Timeout timeout = heads[bucket];
+      heads[bucket] = null;
+      while (timeout != null) {
+         Timeout next = timeout.next;
+         add(timeout);
+         timeout = next;
+      }
+      return index;
+   }
+
+   @Override
+   public void run() {
+      long now = now();
+      while (currentTick <= now && size > 0) {
+         int index = (int) (currentTick & ROOT_MASK);
+         if (index == 0) {
+            for (int level = 1; level <= LEVELS && cascade(level) == 0; ++level) {
+               // cascade further only when this level has wrapped around, too
+            }
+         }
+         ++currentTick;
+         Timeout timeout;
+         while ((timeout = heads[index]) != null) {
+            unlink(timeout);
+            --size;
+            try {
+               timeout.run();
+            } catch (Throwable t) {
+               log.error("Timeout task failed", t);
+            }
+         }
+      }
+      if (size == 0 && tickFuture != null) {
+         tickFuture.cancel(false);
+         tickFuture = null;
+      }
+   }
+}
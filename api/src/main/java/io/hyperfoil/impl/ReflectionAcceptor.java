@@ -11,6 +11,7 @@ import java.util.stream.Stream;
 
 import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.statistics.StatisticsKey;
 
 public class ReflectionAcceptor {
    private static final Class<?>[] BOXING_TYPES = new Class[]{
@@ -71,7 +72,7 @@ public class ReflectionAcceptor {
       if (value == null) {
          return true;
       }
-      if (value instanceof CharSequence || value instanceof ReadAccess) {
+      if (value instanceof CharSequence || value instanceof ReadAccess || value instanceof StatisticsKey) {
          return true;
       }
       Class<?> cls = value.getClass();
@@ -203,27 +203,13 @@ public class Util {
    public static String prettyPrintObject(Object value) {
       if (value instanceof byte[]) {
          byte[] bytes = (byte[]) value;
-         if (bytes.length == 0) {
-            return "";
-         }
-         StringBuilder sb = new StringBuilder("[");
-         sb.append((char) HEX[(bytes[0] >> 4)]);
-         sb.append((char) HEX[(bytes[0] & 0xF)]);
-         int length = Math.min(32, bytes.length);
-         for (int i = 1; i < length; ++i) {
-            sb.append(", ");
-            sb.append((char) HEX[(bytes[i] >> 4)]);
-            sb.append((char) HEX[(bytes[i] & 0xF)]);
-         }
-         if (bytes.length > 32) {
-            sb.append(", ... (total length: ").append(bytes.length).append(")");
-         }
-         sb.append("]=");
-         sb.append(new String(bytes, 0, Math.min(bytes.length, 32), StandardCharsets.UTF_8));
-         if (bytes.length > 32) {
-            sb.append("...");
-         }
-         return sb.toString();
+         return prettyPrintBytes(bytes, bytes.length);
+      } else if (value instanceof ByteBuffer) {
+         ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+         int totalLength = buffer.remaining();
+         byte[] bytes = new byte[Math.min(32, totalLength)];
+         buffer.get(bytes);
+         return prettyPrintBytes(bytes, totalLength);
       } else if (value instanceof Object[]) {
          return Arrays.toString((Object[]) value);
       } else {
@@ -231,6 +217,30 @@ public class Util {
       }
    }
 
+   private static String prettyPrintBytes(byte[] bytes, int totalLength) {
+      if (totalLength == 0) {
+         return "";
+      }
+      StringBuilder sb = new StringBuilder("[");
+      sb.append((char) HEX[(bytes[0] >> 4)]);
+      sb.append((char) HEX[(bytes[0] & 0xF)]);
+      int length = Math.min(32, bytes.length);
+      for (int i = 1; i < length; ++i) {
+         sb.append(", ");
+         sb.append((char) HEX[(bytes[i] >> 4)]);
+         sb.append((char) HEX[(bytes[i] & 0xF)]);
+      }
+      if (totalLength > 32) {
+         sb.append(", ... (total length: ").append(totalLength).append(")");
+      }
+      sb.append("]=");
+      sb.append(new String(bytes, 0, length, StandardCharsets.UTF_8));
+      if (totalLength > 32) {
+         sb.append("...");
+      }
+      return sb.toString();
+   }
+
    public static boolean hasPrefix(ByteBuf data, int offset, int length, byte[] prefix) {
       int i = 0;
       if (length < prefix.length) {
@@ -8,6 +8,7 @@ public interface Properties {
    String AGENT_JAVA_EXECUTABLE = "io.hyperfoil.agent.java.executable";
    String AGENT_NAME = "io.hyperfoil.agent.name";
    String BENCHMARK_DIR = "io.hyperfoil.benchmarkdir";
+   String COMPILE_SEQUENCES = "io.hyperfoil.compile.sequences";
    String CONTROLLER_CLUSTER_IP = "io.hyperfoil.controller.cluster.ip";
    String CONTROLLER_CLUSTER_PORT = "io.hyperfoil.controller.cluster.port";
    String CONTROLLER_EXTERNAL_URI = "io.hyperfoil.controller.external.uri";
@@ -26,15 +27,19 @@ public interface Properties {
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
    String DIST_DIR = "io.hyperfoil.distdir";
+   String HTTP_PARSER = "io.hyperfoil.http.parser";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
    String LOAD_DIR = "io.hyperfoil.loaddir";
    String MAX_IN_MEMORY_RUNS = "io.hyperfoil.max.in.memory.runs";
+   String MAX_IN_MEMORY_RUNS_BYTES = "io.hyperfoil.max.in.memory.runs.bytes";
+   String METRIC_MEMO_SIZE = "io.hyperfoil.metric.memo.size";
    String NETTY_TRANSPORT = "io.hyperfoil.netty.transport";
    String ROOT_DIR = "io.hyperfoil.rootdir";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
+   String TIMER = "io.hyperfoil.timer";
    String TRIGGER_URL = "io.hyperfoil.trigger.url";
    String CLI_REQUEST_TIMEOUT = "io.hyperfoil.cli.request.timeout";
 
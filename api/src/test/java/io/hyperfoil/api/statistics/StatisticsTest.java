@@ -0,0 +1,123 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.IntCountsHistogram;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.StatisticsConfig;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+public class StatisticsTest {
+   @Test
+   public void testSamplingPeriod() {
+      StatisticsConfig config = BenchmarkBuilder.builder().statistics()
+            .samplingPeriod(100, TimeUnit.MILLISECONDS).highestTrackableValue(10, TimeUnit.MINUTES).compact(true)
+            .build();
+      Statistics statistics = new Statistics(0, new SnapshotPool(config));
+      // More samples than would fit into the default array before first collection
+      for (int i = 0; i < 40; ++i) {
+         statistics.incrementRequests(i * 100 + 50);
+         statistics.recordResponse(i * 100 + 50, TimeUnit.MINUTES.toNanos(i % 20));
+      }
+      statistics.end(4000);
+      List<StatisticsSnapshot> snapshots = new ArrayList<>();
+      statistics.visitSnapshots(snapshot -> snapshots.add(snapshot.clone()));
+      assertEquals(40, snapshots.size());
+      for (int i = 0; i < 40; ++i) {
+         StatisticsSnapshot snapshot = snapshots.get(i);
+         assertEquals(i, snapshot.sequenceId);
+         assertEquals(i * 100, snapshot.histogram().getStartTimeStamp());
+         assertEquals((i + 1) * 100, snapshot.histogram().getEndTimeStamp());
+         assertEquals(1, snapshot.responseCount);
+         // values above highest trackable value are clamped
+         long expected = TimeUnit.MINUTES.toNanos(Math.min(i % 20, 10));
+         assertTrue(snapshot.histogram().valuesAreEquivalent(expected, snapshot.histogram().getMaxValue()));
+      }
+   }
+
+   @Test
+   public void testPublicationRecyclesSnapshots() {
+      SnapshotPool pool = new SnapshotPool(StatisticsConfig.DEFAULT);
+      Statistics statistics = new Statistics(0, pool);
+      statistics.incrementRequests(500);
+      statistics.incrementRequests(1500);
+      List<StatisticsSnapshot> snapshots = new ArrayList<>();
+      // the last sample is not complete yet
+      statistics.visitSnapshots(snapshots::add);
+      assertEquals(1, snapshots.size());
+      StatisticsSnapshot first = snapshots.get(0);
+      assertEquals(0, first.sequenceId);
+      assertEquals(1, first.requestCount);
+
+      pool.release(first);
+      assertEquals(-1, first.sequenceId);
+      assertTrue(first.isEmpty());
+      // late response for the already published sample reuses the released snapshot
+      statistics.recordResponse(700, 1000);
+      statistics.incrementRequests(2500);
+      snapshots.clear();
+      statistics.visitSnapshots(snapshots::add);
+      assertEquals(2, snapshots.size());
+      assertSame(first, snapshots.get(0));
+      assertEquals(0, first.sequenceId);
+      assertEquals(1, first.responseCount);
+      assertEquals(1, snapshots.get(1).sequenceId);
+
+      statistics.end(3000);
+      snapshots.clear();
+      statistics.visitSnapshots(snapshots::add);
+      assertEquals(1, snapshots.size());
+      assertEquals(2, snapshots.get(0).sequenceId);
+      assertEquals(3000, snapshots.get(0).histogram().getEndTimeStamp());
+   }
+
+   @Test
+   public void testAggregation() {
+      StatisticsConfig config = BenchmarkBuilder.builder().statistics()
+            .highestTrackableValue(1, TimeUnit.HOURS).significantDigits(4).compact(true).build();
+      StatisticsSnapshot recorded = new StatisticsSnapshot(config);
+      assertTrue(recorded.histogram() instanceof IntCountsHistogram);
+      recorded.histogram().recordValue(TimeUnit.MINUTES.toNanos(30));
+      recorded.histogram().recordValue(1234567);
+
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      sum.histogram().recordValue(1000);
+      sum.add(recorded);
+      assertEquals(4, sum.histogram().getNumberOfSignificantValueDigits());
+      assertEquals(3, sum.histogram().getTotalCount());
+      assertTrue(sum.histogram().valuesAreEquivalent(TimeUnit.MINUTES.toNanos(30), sum.histogram().getMaxValue()));
+      assertTrue(sum.histogram().valuesAreEquivalent(1234567, sum.histogram().getValueAtPercentile(50)));
+   }
+
+   @Test
+   public void testStartDelay() throws Exception {
+      Statistics statistics = new Statistics(0);
+      statistics.recordResponse(50, TimeUnit.MILLISECONDS.toNanos(2), -1);
+      statistics.recordResponse(150, TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(100));
+      statistics.recordResponse(250, TimeUnit.MILLISECONDS.toNanos(3), 0);
+      statistics.end(1000);
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      statistics.visitSnapshots(sum::add);
+
+      assertEquals(3, sum.responseCount);
+      assertTrue(sum.histogram().valuesAreEquivalent(TimeUnit.MILLISECONDS.toNanos(102), sum.histogram().getMaxValue()));
+      ServiceTime serviceTime = (ServiceTime) sum.extensions.get(ServiceTime.KEY);
+      // only responses in sessions with corrected start are recorded
+      assertEquals(2, serviceTime.histogram().getTotalCount());
+      assertTrue(serviceTime.histogram().valuesAreEquivalent(TimeUnit.MILLISECONDS.toNanos(3), serviceTime.histogram().getMaxValue()));
+
+      StatsExtension.registerSubtypes();
+      String json = DatabindCodec.mapper().writeValueAsString(serviceTime);
+      ServiceTime decoded = (ServiceTime) DatabindCodec.mapper().readValue(json, StatsExtension.class);
+      assertEquals(2, decoded.histogram().getTotalCount());
+      assertEquals(serviceTime.byHeader("p99"), decoded.byHeader("p99"));
+   }
+}
@@ -0,0 +1,75 @@
+package io.hyperfoil.api.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+
+public class TimingWheelTest {
+   private final DefaultEventExecutor executor = new DefaultEventExecutor();
+
+   @After
+   public void shutdown() {
+      executor.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testExpiration() throws InterruptedException {
+      TimingWheel wheel = new TimingWheel(executor, TimeUnit.MILLISECONDS.toNanos(1));
+      int count = 1000;
+      CountDownLatch latch = new CountDownLatch(count);
+      AtomicReference<String> error = new AtomicReference<>();
+      executor.execute(() -> {
+         for (int i = 0; i < count; ++i) {
+            // Make sure that we exercise cascading from the second level
+            long delay = ThreadLocalRandom.current().nextLong(600);
+            long start = System.nanoTime();
+            wheel.schedule(new Timeout(() -> {
+               long elapsed = System.nanoTime() - start;
+               if (elapsed < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                  error.set("Expired after " + elapsed + " ns, expected " + delay + " ms");
+               }
+               latch.countDown();
+            }), delay, TimeUnit.MILLISECONDS);
+         }
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(null, error.get());
+   }
+
+   @Test
+   public void testCancelAndReschedule() throws InterruptedException {
+      TimingWheel wheel = new TimingWheel(executor, TimeUnit.MILLISECONDS.toNanos(1));
+      AtomicInteger fired = new AtomicInteger();
+      CountDownLatch done = new CountDownLatch(1);
+      List<Timeout> timeouts = new ArrayList<>();
+      executor.execute(() -> {
+         for (int i = 0; i < 100; ++i) {
+            Timeout timeout = new Timeout(fired::incrementAndGet);
+            wheel.schedule(timeout, 10 + i, TimeUnit.MILLISECONDS);
+            timeouts.add(timeout);
+         }
+         for (int i = 0; i < timeouts.size(); i += 2) {
+            timeouts.get(i).cancel();
+            assertFalse(timeouts.get(i).isScheduled());
+         }
+         // Rescheduling moves the timeout so it fires only once
+         wheel.schedule(timeouts.get(1), 300, TimeUnit.MILLISECONDS);
+         wheel.schedule(new Timeout(done::countDown), 400, TimeUnit.MILLISECONDS);
+      });
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(50, fired.get());
+   }
+}
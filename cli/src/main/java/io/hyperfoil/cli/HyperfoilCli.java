@@ -27,6 +27,7 @@ import io.hyperfoil.cli.commands.Cpu;
 import io.hyperfoil.cli.commands.Edit;
 import io.hyperfoil.cli.commands.Exit;
 import io.hyperfoil.cli.commands.Export;
+import io.hyperfoil.cli.commands.Footprint;
 import io.hyperfoil.cli.commands.Help;
 import io.hyperfoil.cli.commands.Info;
 import io.hyperfoil.cli.commands.Inspect;
@@ -38,9 +39,11 @@ import io.hyperfoil.cli.commands.Report;
 import io.hyperfoil.cli.commands.Run;
 import io.hyperfoil.cli.commands.RunLocal;
 import io.hyperfoil.cli.commands.Runs;
+import io.hyperfoil.cli.commands.SelfTest;
 import io.hyperfoil.cli.commands.Sessions;
 import io.hyperfoil.cli.commands.Shutdown;
 import io.hyperfoil.cli.commands.StartLocal;
+import io.hyperfoil.cli.commands.StartMockServer;
 import io.hyperfoil.cli.commands.Stats;
 import io.hyperfoil.cli.commands.Status;
 import io.hyperfoil.cli.commands.Upload;
@@ -152,6 +155,7 @@ public class HyperfoilCli {
             Edit.class,
             Exit.class,
             Export.class,
+            Footprint.class,
             Help.class,
             Info.class,
             Inspect.class,
@@ -163,9 +167,11 @@ public class HyperfoilCli {
             RunLocal.class,
             Run.class,
             Runs.class,
+            SelfTest.class,
             Sessions.class,
             Shutdown.class,
             StartLocal.class,
+            StartMockServer.class,
             Stats.class,
             Status.class,
             Upload.class,
@@ -0,0 +1,103 @@
+package io.hyperfoil.cli.commands;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.option.Argument;
+import org.aesh.command.option.Option;
+import org.aesh.io.Resource;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.cli.CliUtil;
+import io.hyperfoil.cli.Table;
+import io.hyperfoil.cli.context.HyperfoilCommandInvocation;
+import io.hyperfoil.core.api.Plugin;
+import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.hyperfoil.core.impl.LocalBenchmarkData;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.core.session.SessionFootprint;
+import io.hyperfoil.impl.Util;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+
+@CommandDefinition(name = "footprint", description = "Estimate heap memory used by each session of a benchmark.")
+public class Footprint extends ServerCommand {
+   private static final Table<SessionFootprint.Item> FOOTPRINT = new Table<SessionFootprint.Item>()
+         .column("COMPONENT", item -> item.name)
+         .columnLong("BYTES", item -> item.bytes);
+
+   @Argument(description = "YAML benchmark definition file", required = true)
+   Resource benchmarkResource;
+
+   @Option(shortName = 's', description = "Number of sessions created for each scenario; the result is an average.", defaultValue = "100")
+   int sessions;
+
+   @Override
+   public CommandResult execute(HyperfoilCommandInvocation invocation) throws CommandException {
+      Resource sanitizedResource = CliUtil.sanitize(benchmarkResource);
+      Benchmark benchmark;
+      try {
+         benchmark = BenchmarkParser.instance().buildBenchmark(Util.toString(sanitizedResource.read()), new LocalBenchmarkData(Paths.get(sanitizedResource.getAbsolutePath())));
+      } catch (ParserException | BenchmarkDefinitionException e) {
+         invocation.error(e);
+         throw new CommandException("Failed to parse the benchmark.", e);
+      } catch (IOException e) {
+         invocation.error(e);
+         throw new CommandException("Failed to load the benchmark.", e);
+      }
+      // Plugins declare their own per-session resources; no connections are opened
+      EventLoopGroup eventLoopGroup = EventLoopFactory.INSTANCE.create(1);
+      EventLoop[] executors = StreamSupport.stream(eventLoopGroup.spliterator(), false).map(EventLoop.class::cast).toArray(EventLoop[]::new);
+      PluginRunData[] runData = benchmark.plugins().stream()
+            .map(config -> Plugin.lookup(config).createRunData(benchmark, executors, 0))
+            .toArray(PluginRunData[]::new);
+      try {
+         Map<String, List<SessionFootprint.Item>> footprints = new LinkedHashMap<>();
+         Map<Scenario, Boolean> measured = new IdentityHashMap<>();
+         for (Phase phase : benchmark.phases()) {
+            Scenario scenario = phase.scenario();
+            if (measured.put(scenario, Boolean.TRUE) != null) {
+               continue;
+            }
+            footprints.put(phase.name(), SessionFootprint.measure(scenario, sessions, session -> {
+               session.attach(executors[0], null, null, null, null, null);
+               for (PluginRunData data : runData) {
+                  data.initSession(session, 0, scenario, Clock.systemDefaultZone());
+               }
+            }));
+         }
+         Map<String, Stream<SessionFootprint.Item>> streams = new LinkedHashMap<>();
+         footprints.forEach((phase, items) -> streams.put(phase, items.stream()));
+         FOOTPRINT.print(invocation, "PHASE", streams);
+         invocation.println("");
+         footprints.forEach((phase, items) -> {
+            long bare = items.stream().filter(item -> SessionFootprint.SESSION.equals(item.name)).mapToLong(item -> item.bytes).sum();
+            long all = items.stream().mapToLong(item -> item.bytes).sum();
+            invocation.println(String.format("%s: %d bytes per reserved session including resources (bare session object %d bytes)", phase, all, bare));
+         });
+         return CommandResult.SUCCESS;
+      } catch (UnsupportedOperationException e) {
+         throw new CommandException("Cannot measure memory footprint: " + e.getMessage(), e);
+      } finally {
+         for (PluginRunData data : runData) {
+            data.shutdown();
+         }
+         eventLoopGroup.shutdownGracefully();
+      }
+   }
+}
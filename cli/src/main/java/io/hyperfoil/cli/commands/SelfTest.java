@@ -0,0 +1,160 @@
+package io.hyperfoil.cli.commands;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.option.Option;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.cli.context.HyperfoilCliContext;
+import io.hyperfoil.cli.context.HyperfoilCommandInvocation;
+import io.hyperfoil.controller.Client;
+import io.hyperfoil.controller.model.RequestStatisticsResponse;
+import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.hyperfoil.http.mock.MockHttpServer;
+import io.hyperfoil.impl.Util;
+
+@CommandDefinition(name = "self-test", description = "Measure maximum throughput of Hyperfoil against a mock server running in the CLI process.")
+public class SelfTest extends ServerCommand {
+   private static final String WARMUP_DURATION = "3s";
+
+   @Option(shortName = 'c', description = "Total number of HTTP connections (and concurrent users).", defaultValue = "10")
+   int connections;
+
+   @Option(shortName = 't', description = "Number of Hyperfoil threads.", defaultValue = "2")
+   int threads;
+
+   @Option(name = "server-threads", description = "Number of mock server threads; by default the same as Hyperfoil threads.", defaultValue = "0")
+   int serverThreads;
+
+   @Option(shortName = 'd', description = "Duration of the test, e.g. 10s or 1m, excluding warm-up.", defaultValue = "10s")
+   String duration;
+
+   @Option(shortName = 's', description = "Size of the response body in bytes.", defaultValue = "0")
+   int size;
+
+   @Option(description = "Use chunked transfer encoding.", hasValue = false)
+   boolean chunked;
+
+   @Option(description = "Use cleartext HTTP/2.", hasValue = false)
+   boolean http2;
+
+   @Override
+   public CommandResult execute(HyperfoilCommandInvocation invocation) throws CommandException, InterruptedException {
+      HyperfoilCliContext ctx = invocation.context();
+      if (ctx.localControllerHost() == null) {
+         // agents must run in this process to target the mock server
+         try {
+            invocation.executeCommand("start-local --quiet");
+         } catch (CommandException | InterruptedException e) {
+            throw e;
+         } catch (Exception e) {
+            throw new CommandException("Cannot start local controller: " + Util.explainCauses(e), e);
+         }
+      }
+      if (ctx.client() == null) {
+         throw new CommandException("Not connected to the local controller.");
+      }
+      MockHttpServer server;
+      try {
+         server = MockHttpServer.builder().port(0).threads(serverThreads > 0 ? serverThreads : threads)
+               .responseSize(size).chunked(chunked).http2(http2).start();
+      } catch (InterruptedException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CommandException("Cannot start mock server: " + Util.explainCauses(e), e);
+      }
+      try {
+         return runTest(invocation, server);
+      } finally {
+         server.stop();
+      }
+   }
+
+   private CommandResult runTest(HyperfoilCommandInvocation invocation, MockHttpServer server) throws InterruptedException {
+      // @formatter:off
+      BenchmarkBuilder builder = new BenchmarkBuilder(null, BenchmarkData.EMPTY)
+            .name("self-test")
+            .addPlugin(HttpPluginBuilder::new)
+               .ergonomics()
+                  .repeatCookies(false)
+                  .userAgentFromSession(false)
+               .endErgonomics()
+               .http()
+                  .host(server.host()).port(server.port())
+                  .allowHttp1x(!http2)
+                  .allowHttp2(http2)
+                  .sharedConnections(connections)
+               .endHttp()
+            .endPlugin()
+            .threads(threads);
+      // @formatter:on
+      addPhase(builder, "warmup", WARMUP_DURATION);
+      addPhase(builder, "test", duration).startAfterStrict("warmup");
+
+      invocation.println("Running self-test for " + WARMUP_DURATION + " warm-up and " + duration + " test, "
+            + threads + " threads and " + connections + " connections, " + (http2 ? "HTTP/2" : "HTTP/1.1")
+            + " responses with " + size + " bytes" + (chunked ? " (chunked)" : ""));
+
+      com.sun.management.OperatingSystemMXBean os = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+      long processCpuStart = os.getProcessCpuTime();
+      long serverCpuStart = server.cpuTime();
+
+      Client.BenchmarkRef benchmark = invocation.context().client().register(builder.build(), null);
+      Client.RunRef run = benchmark.start(null);
+      invocation.context().setServerRun(run);
+      while (!"TERMINATED".equals(run.statsRecent().status)) {
+         Thread.sleep(1000);
+      }
+      long serverCpu = server.cpuTime() - serverCpuStart;
+      // includes the controller and CLI, too, so this is rather an upper bound
+      long hyperfoilCpu = os.getProcessCpuTime() - processCpuStart - serverCpu;
+
+      RequestStatisticsResponse total = run.statsTotal();
+      long allRequests = total.statistics.stream().mapToLong(rs -> rs.summary.requestCount).sum();
+      RequestStats testStats = total.statistics.stream().filter(rs -> "test".equals(rs.phase)).findFirst().orElse(null);
+      if (testStats == null || allRequests == 0) {
+         invocation.error("Self-test did not produce any statistics, check run " + run.id() + " for errors.");
+         return CommandResult.FAILURE;
+      }
+      StatisticsSummary summary = testStats.summary;
+      double seconds = (summary.endTime - summary.startTime) / 1000d;
+      invocation.println("Requests/sec: " + String.format("%.02f", summary.requestCount / seconds));
+      StringBuilder responseTimes = new StringBuilder("Response time: mean ").append(Util.prettyPrintNanos(summary.meanResponseTime));
+      for (Map.Entry<Double, Long> entry : summary.percentileResponseTime.entrySet()) {
+         responseTimes.append(", p").append(entry.getKey()).append(' ').append(Util.prettyPrintNanos(entry.getValue()));
+      }
+      invocation.println(responseTimes.toString());
+      invocation.println(String.format("CPU time per request: Hyperfoil %s, mock server %s",
+            Util.prettyPrintNanos(hyperfoilCpu / allRequests), Util.prettyPrintNanos(serverCpu / allRequests)));
+      int errors = summary.connectionErrors + summary.requestTimeouts + summary.internalErrors + summary.invalid;
+      if (errors > 0) {
+         invocation.warn("There were " + errors + " errors during the test; the results are not reliable.");
+      }
+      return CommandResult.SUCCESS;
+   }
+
+   private PhaseBuilder<?> addPhase(BenchmarkBuilder builder, String name, String duration) {
+      // @formatter:off
+      return builder.addPhase(name).always(connections)
+            .duration(Util.parseToMillis(duration))
+            .scenario()
+               .initialSequence("request")
+                  .step(SC).httpRequest(HttpMethod.GET)
+                     .path("/")
+                  .endStep()
+               .endSequence()
+            .endScenario();
+      // @formatter:on
+   }
+}
@@ -0,0 +1,58 @@
+package io.hyperfoil.cli.commands;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aesh.command.CommandDefinition;
+import org.aesh.command.CommandException;
+import org.aesh.command.CommandResult;
+import org.aesh.command.option.Option;
+
+import io.hyperfoil.cli.context.HyperfoilCommandInvocation;
+import io.hyperfoil.http.mock.MockHttpServer;
+import io.hyperfoil.impl.Util;
+
+@CommandDefinition(name = "start-mock-server", description = "Start HTTP server responding with static responses within the CLI process.")
+public class StartMockServer extends ServerCommand {
+   @Option(description = "Host (interface) the server binds to.", defaultValue = "localhost")
+   String host;
+
+   @Option(shortName = 'p', description = "Listening port.", defaultValue = "8081")
+   int port;
+
+   @Option(shortName = 't', description = "Number of server threads.", defaultValue = "1")
+   int threads;
+
+   @Option(shortName = 's', description = "Size of the response body in bytes.", defaultValue = "0")
+   int size;
+
+   @Option(description = "Use chunked transfer encoding (HTTP/1.1 only).", hasValue = false)
+   boolean chunked;
+
+   @Option(name = "keep-alive", description = "Keep connections open after the response (HTTP/1.1 only).", defaultValue = "true")
+   boolean keepAlive;
+
+   @Option(description = "Accept cleartext HTTP/2 connections (prior knowledge or upgrade).", hasValue = false)
+   boolean http2;
+
+   @Option(shortName = 'l', description = "Delay before sending the response, e.g. 10ms.", defaultValue = "0ms")
+   String latency;
+
+   @Override
+   public CommandResult execute(HyperfoilCommandInvocation invocation) throws CommandException, InterruptedException {
+      MockHttpServer server;
+      try {
+         server = MockHttpServer.builder().host(host).port(port).threads(threads)
+               .responseSize(size).chunked(chunked).keepAlive(keepAlive).http2(http2)
+               .latency(Util.parseToNanos(latency), TimeUnit.NANOSECONDS)
+               .start();
+      } catch (InterruptedException e) {
+         throw e;
+      } catch (Exception e) {
+         // bind failures are thrown as checked exceptions without being declared
+         throw new CommandException("Cannot start mock server: " + Util.explainCauses(e), e);
+      }
+      invocation.context().addCleanup(server::stop);
+      invocation.println("Mock server started, listening on " + server.host() + ":" + server.port());
+      return CommandResult.SUCCESS;
+   }
+}
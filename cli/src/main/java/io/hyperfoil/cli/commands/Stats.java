@@ -67,39 +67,54 @@ public class Stats extends BaseRunIdCommand {
    @Override
    public CommandResult execute(HyperfoilCommandInvocation invocation) throws CommandException {
       Client.RunRef runRef = getRunRef(invocation);
-      boolean terminated = false;
-      int prevLines = -2;
-      for (; ; ) {
-         RequestStatisticsResponse stats;
-         try {
-            stats = total ? runRef.statsTotal() : runRef.statsRecent();
-         } catch (RestClientException e) {
-            if (e.getCause() instanceof InterruptedException) {
-               clearLines(invocation, 1);
-               invocation.println("");
+      // recent stats are pushed by the controller; total stats are still polled
+      Client.StatsStream statsStream = total ? null : runRef.statsStream();
+      try {
+         boolean terminated = false;
+         int prevLines = -2;
+         for (; ; ) {
+            RequestStatisticsResponse stats;
+            try {
+               stats = total ? runRef.statsTotal() : statsStream.next();
+            } catch (RestClientException e) {
+               if (e.getCause() instanceof InterruptedException) {
+                  clearLines(invocation, 1);
+                  invocation.println("");
+                  break;
+               }
+               invocation.error(e);
+               throw new CommandException("Cannot fetch stats for run " + runRef.id(), e);
+            }
+            if (stats == null || "TERMINATED".equals(stats.status)) {
+               // There are no (recent) stats, the run has probably terminated
+               stats = runRef.statsTotal();
+               terminated = true;
+            }
+            clearLines(invocation, prevLines + 2);
+            if (total || terminated) {
+               invocation.println("Total stats from run " + runRef.id());
+            } else {
+               invocation.println("Recent stats from run " + runRef.id());
+            }
+            if (extensions == null || extensions.isEmpty()) {
+               prevLines = showGeneralStats(invocation, stats);
+            } else {
+               prevLines = showExtensions(invocation, stats);
+            }
+            if (terminated) {
                break;
+            } else if (total) {
+               if (interruptibleDelay(invocation)) {
+                  break;
+               }
+            } else {
+               // the next update blocks until it arrives or the user interrupts us
+               invocation.println("Press " + invocation.context().interruptKey() + " to stop watching...");
             }
-            invocation.error(e);
-            throw new CommandException("Cannot fetch stats for run " + runRef.id(), e);
-         }
-         if ("TERMINATED".equals(stats.status)) {
-            // There are no (recent) stats, the run has probably terminated
-            stats = runRef.statsTotal();
-            terminated = true;
-         }
-         clearLines(invocation, prevLines + 2);
-         if (total || terminated) {
-            invocation.println("Total stats from run " + runRef.id());
-         } else {
-            invocation.println("Recent stats from run " + runRef.id());
-         }
-         if (extensions == null || extensions.isEmpty()) {
-            prevLines = showGeneralStats(invocation, stats);
-         } else {
-            prevLines = showExtensions(invocation, stats);
          }
-         if (terminated || interruptibleDelay(invocation)) {
-            break;
+      } finally {
+         if (statsStream != null) {
+            statsStream.close();
          }
       }
       return CommandResult.SUCCESS;
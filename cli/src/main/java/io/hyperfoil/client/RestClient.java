@@ -26,9 +26,12 @@ import io.hyperfoil.controller.model.Version;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.RequestOptions;
@@ -45,6 +48,7 @@ public class RestClient implements Client, Closeable {
    final Vertx vertx;
    final WebClientOptions options;
    private final WebClient client;
+   private final HttpClient httpClient;
    private String authorization;
 
    static {
@@ -62,6 +66,8 @@ public class RestClient implements Client, Closeable {
          options.setTrustAll(true).setVerifyHost(false);
       }
       client = WebClient.create(this.vertx, options.setFollowRedirects(false));
+      // WebClient cannot consume the response body incrementally
+      httpClient = this.vertx.createHttpClient(options);
       setPassword(password);
    }
 
@@ -108,6 +114,15 @@ public class RestClient implements Client, Closeable {
       return request;
    }
 
+   Future<HttpClientRequest> streamingRequest(HttpMethod method, String path, String accept) {
+      RequestOptions requestOptions = new RequestOptions().setMethod(method).setURI(path)
+            .putHeader(HttpHeaders.ACCEPT.toString(), accept);
+      if (authorization != null) {
+         requestOptions.putHeader(HttpHeaders.AUTHORIZATION.toString(), authorization);
+      }
+      return httpClient.request(requestOptions);
+   }
+
    HttpRequest<Buffer> request(HttpMethod method, boolean ssl, String host, int port, String path) {
       return client.request(method, new RequestOptions().setSsl(ssl).setHost(host).setPort(port).setURI(path));
    }
@@ -390,6 +405,7 @@ public class RestClient implements Client, Closeable {
    @Override
    public void close() {
       client.close();
+      httpClient.close();
    }
 
    public String toString() {
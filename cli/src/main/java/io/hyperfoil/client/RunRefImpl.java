@@ -132,6 +132,11 @@ public class RunRefImpl implements Client.RunRef {
             response -> Json.decodeValue(response.body(), RequestStatisticsResponse.class));
    }
 
+   @Override
+   public Client.StatsStream statsStream() {
+      return new StatsStreamImpl(client, "/run/" + id + "/stats/stream");
+   }
+
    @Override
    public byte[] statsAll(String format) {
       CompletableFuture<byte[]> future = new CompletableFuture<>();
@@ -0,0 +1,97 @@
+package io.hyperfoil.client;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import io.hyperfoil.controller.Client;
+import io.hyperfoil.controller.model.RequestStatisticsResponse;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.Json;
+import io.vertx.core.parsetools.RecordParser;
+
+/**
+ * Consumes <code>text/event-stream</code> response with one {@link RequestStatisticsResponse} per event.
+ */
+class StatsStreamImpl implements Client.StatsStream {
+   private static final Object END = new Object();
+   private static final String DATA = "data:";
+
+   private final RestClient client;
+   // contains either RequestStatisticsResponse, Throwable or END
+   private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+   private volatile HttpClientRequest request;
+   private volatile boolean closed;
+
+   StatsStreamImpl(RestClient client, String path) {
+      this.client = client;
+      client.vertx.runOnContext(nil -> client.streamingRequest(HttpMethod.GET, path, "text/event-stream")
+            .compose(req -> {
+               request = req;
+               return req.send();
+            }).onSuccess(response -> {
+               if (response.statusCode() != 200) {
+                  response.body().onComplete(body -> {
+                     String message = body.succeeded() ? body.result().toString() : "";
+                     queue.add(new RestClientException("Server responded with unexpected code: "
+                           + response.statusCode() + ", " + response.statusMessage() + ":\n" + message));
+                  });
+                  return;
+               }
+               response.handler(RecordParser.newDelimited("\n\n", event -> {
+                  StringBuilder data = new StringBuilder();
+                  for (String line : event.toString().split("\n")) {
+                     if (line.startsWith(DATA)) {
+                        data.append(line, DATA.length(), line.length());
+                     }
+                  }
+                  if (data.length() > 0) {
+                     try {
+                        queue.add(Json.decodeValue(data.toString(), RequestStatisticsResponse.class));
+                     } catch (Exception e) {
+                        queue.add(e);
+                     }
+                  }
+               }));
+               response.exceptionHandler(queue::add);
+               response.endHandler(nil2 -> queue.add(END));
+            }).onFailure(queue::add));
+   }
+
+   @Override
+   public RequestStatisticsResponse next() {
+      if (closed) {
+         return null;
+      }
+      Object item;
+      try {
+         item = queue.take();
+      } catch (InterruptedException e) {
+         throw new RestClientException(e);
+      }
+      if (item == END) {
+         // let subsequent calls return null as well
+         queue.add(END);
+         return null;
+      } else if (item instanceof RestClientException) {
+         throw (RestClientException) item;
+      } else if (item instanceof Throwable) {
+         throw new RestClientException((Throwable) item);
+      }
+      return (RequestStatisticsResponse) item;
+   }
+
+   @Override
+   public void close() {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      client.vertx.runOnContext(nil -> {
+         HttpClientRequest req = request;
+         if (req != null) {
+            req.reset();
+         }
+      });
+   }
+}
@@ -208,6 +208,9 @@ public class AgentVerticle extends AbstractVerticle {
             case TERMINATE:
                runner.terminatePhase(controlMessage.phase());
                break;
+            case SET_RATE:
+               runner.setUsersPerSec(controlMessage.phase(), controlMessage.usersPerSec());
+               break;
          }
       });
    }
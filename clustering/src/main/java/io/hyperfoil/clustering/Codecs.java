@@ -2,6 +2,7 @@ package io.hyperfoil.clustering;
 
 import java.util.ArrayList;
 
+import io.hyperfoil.api.statistics.StatsExtension;
 import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
@@ -37,5 +38,7 @@ public final class Codecs {
       eb.registerDefaultCodec(PhaseStatsCompleteMessage.class, new PhaseStatsCompleteMessage.Codec());
       eb.registerDefaultCodec(RequestStatsMessage.class, new RequestStatsMessage.Codec());
       eb.registerDefaultCodec(SessionStatsMessage.class, new SessionStatsMessage.Codec());
+      // RequestStatsMessage.Codec encodes extensions as JSON
+      StatsExtension.registerSubtypes();
    }
 }
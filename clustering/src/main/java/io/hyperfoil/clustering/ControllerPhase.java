@@ -4,8 +4,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.GlobalData;
+import io.hyperfoil.controller.RateSearch;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -20,6 +22,7 @@ public class ControllerPhase {
    private boolean failed;
    private Long delayStatsCompletionUntil = null;
    private Map<String, GlobalData.Accumulator> globalData = new HashMap<>();
+   private RateSearch rateSearch;
 
    public ControllerPhase(Phase definition) {
       this.definition = definition;
@@ -48,6 +51,25 @@ public class ControllerPhase {
       absoluteStartTime = time;
    }
 
+   /**
+    * @return Timestamp when the controller should finish this phase, or {@link Long#MAX_VALUE} if the phase
+    * has adaptive rate without duration and finishes when the search converges.
+    */
+   public long finishTime() {
+      if (definition.duration() < 0 && definition.model instanceof Model.AdaptiveRate) {
+         return Long.MAX_VALUE;
+      }
+      return absoluteStartTime + definition.duration();
+   }
+
+   public RateSearch rateSearch() {
+      return rateSearch;
+   }
+
+   public void rateSearch(RateSearch rateSearch) {
+      this.rateSearch = rateSearch;
+   }
+
    public long absoluteCompletionTime() {
       return absoluteCompletionTime;
    }
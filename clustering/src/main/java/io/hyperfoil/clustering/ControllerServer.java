@@ -23,6 +23,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -39,6 +40,7 @@ import io.hyperfoil.api.config.Model;
 import io.hyperfoil.clustering.util.PersistedBenchmarkData;
 import io.hyperfoil.clustering.webcli.WebCLI;
 import io.hyperfoil.controller.ApiService;
+import io.hyperfoil.controller.OpenMetricsWriter;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
@@ -85,6 +87,8 @@ class ControllerServer implements ApiService {
    private static final String MIME_TYPE_SERIALIZED = "application/java-serialized-object";
    private static final String MIME_TYPE_TEXT_PLAIN = "text/plain";
    private static final String MIME_TYPE_YAML = "text/vnd.yaml";
+   private static final String MIME_TYPE_EVENT_STREAM = "text/event-stream";
+   private static final long STATS_STREAM_PERIOD = 1000;
 
    private static final String KEYSTORE_PATH = Properties.get(Properties.CONTROLLER_KEYSTORE_PATH, null);
    private static final String KEYSTORE_PASSWORD = Properties.get(Properties.CONTROLLER_KEYSTORE_PASSWORD, null);
@@ -798,6 +802,53 @@ class ControllerServer implements ApiService {
       });
    }
 
+   @Override
+   public void getStatsStream(RoutingContext ctx, String runId) {
+      withStats(ctx, runId, run -> {
+         HttpServerResponse response = ctx.response().setChunked(true)
+               .putHeader(HttpHeaders.CONTENT_TYPE, MIME_TYPE_EVENT_STREAM)
+               .putHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+         // send current stats right away rather than waiting for next period
+         response.write(statsEvent(run));
+         if (run.terminateTime.future().isComplete()) {
+            response.end();
+            return;
+         }
+         run.statsSubscribers.add(response);
+         response.closeHandler(nil -> run.statsSubscribers.remove(response));
+         if (run.statsTimerId < 0) {
+            run.statsTimerId = controller.getVertx().setPeriodic(STATS_STREAM_PERIOD, timerId -> publishStats(run));
+         }
+      });
+   }
+
+   private void publishStats(Run run) {
+      boolean terminated = run.terminateTime.future().isComplete();
+      if (!run.statsSubscribers.isEmpty()) {
+         // the summary and its encoding are shared by all subscribers
+         Buffer event = statsEvent(run);
+         for (HttpServerResponse response : new ArrayList<>(run.statsSubscribers)) {
+            // a slow subscriber would rather miss an update than make us buffer the events
+            if (!response.writeQueueFull()) {
+               response.write(event);
+            }
+            if (terminated) {
+               response.end();
+            }
+         }
+      }
+      if (terminated || run.statsSubscribers.isEmpty()) {
+         run.statsSubscribers.clear();
+         controller.getVertx().cancelTimer(run.statsTimerId);
+         run.statsTimerId = -1;
+      }
+   }
+
+   private Buffer statsEvent(Run run) {
+      List<RequestStats> stats = run.statisticsStore().recentSummary(System.currentTimeMillis() - 5000);
+      return Buffer.buffer("data: ").appendString(Json.encode(statsToJson(run, stats))).appendString("\n\n");
+   }
+
    @Override
    public void getTotalStats(RoutingContext ctx, String runId) {
       withStats(ctx, runId, run -> {
@@ -1000,6 +1051,28 @@ class ControllerServer implements ApiService {
       ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset=utf-8").end(BEARER_TOKEN);
    }
 
+   @Override
+   public void getMetrics$text_plain(RoutingContext ctx) {
+      sendMetrics(ctx, false);
+   }
+
+   @Override
+   public void getMetrics$application_openmetrics_text(RoutingContext ctx) {
+      sendMetrics(ctx, true);
+   }
+
+   private void sendMetrics(RoutingContext ctx, boolean openMetrics) {
+      Map<String, StatisticsStore> stores = new TreeMap<>();
+      for (Run run : controller.runs.values()) {
+         if (!run.terminateTime.future().isComplete() && run.statisticsStore() != null) {
+            stores.put(run.id, run.statisticsStore());
+         }
+      }
+      ctx.response()
+            .putHeader(HttpHeaders.CONTENT_TYPE, openMetrics ? OpenMetricsWriter.CONTENT_TYPE_OPENMETRICS : OpenMetricsWriter.CONTENT_TYPE_PROMETHEUS)
+            .end(OpenMetricsWriter.write(stores, openMetrics));
+   }
+
    @Override
    public void getVersion(RoutingContext ctx) {
       ctx.response().end(Json.encodePrettily(new io.hyperfoil.controller.model.Version(Version.VERSION, Version.COMMIT_ID, controller.deploymentID(), new Date())));
@@ -35,6 +35,7 @@ import io.hyperfoil.controller.JsonLoader;
 import io.hyperfoil.core.hooks.ExecRunHook;
 import io.hyperfoil.controller.CsvWriter;
 import io.hyperfoil.controller.JsonWriter;
+import io.hyperfoil.controller.RateSearch;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.util.LowHigh;
@@ -62,9 +63,12 @@ import io.vertx.ext.cluster.infinispan.InfinispanClusterManager;
 
 import org.infinispan.commons.api.BasicCacheContainer;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -85,6 +89,7 @@ import java.util.stream.Collectors;
 public class ControllerVerticle extends AbstractVerticle implements NodeListener {
    private static final Logger log = LogManager.getLogger(ControllerVerticle.class);
    private static final int MAX_IN_MEMORY_RUNS = Properties.getInt(Properties.MAX_IN_MEMORY_RUNS, 20);
+   private static final long MAX_IN_MEMORY_RUNS_BYTES = Properties.getLong(Properties.MAX_IN_MEMORY_RUNS_BYTES, 256L << 20);
    static final String DEFAULT_STATS_JSON = "all.json";
 
    private EventBus eb;
@@ -92,6 +97,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
    private Deployer deployer;
    private final AtomicInteger runIds = new AtomicInteger();
    private final Map<String, Benchmark> benchmarks = new HashMap<>();
+   private final RunIndex runIndex = new RunIndex(Controller.RUN_DIR.resolve("index.jsonl"));
    private long timerId = -1;
 
    Map<String, Run> runs = new HashMap<>();
@@ -104,7 +110,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       vertx.exceptionHandler(throwable -> log.error("Uncaught error: ", throwable));
       if (Files.exists(Controller.RUN_DIR)) {
          try {
-            Files.list(Controller.RUN_DIR).forEach(this::updateRuns);
+            Map<String, JsonObject> index = runIndex.load();
+            Files.list(Controller.RUN_DIR).forEach(runDir -> updateRuns(runDir, index));
          } catch (IOException e) {
             log.error("Could not list run dir contents", e);
          } catch (Exception e) {
@@ -175,17 +182,26 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                   .map(ai -> ai.name).findFirst().orElse("<unknown>");
             if (statsMessage instanceof RequestStatsMessage) {
                RequestStatsMessage rsm = (RequestStatsMessage) statsMessage;
-               String phase = run.phase(rsm.phaseId);
-               if (rsm.statistics != null) {
+               List<RequestStatsMessage.Entry> entries;
+               try {
+                  entries = rsm.entries();
+               } catch (RuntimeException e) {
+                  // The agent still waits for the reply; record the error and drop the statistics
+                  log.error("Run {}: Cannot decode statistics from {}({})", rsm.runId, agentName, rsm.address, e);
+                  run.errors.add(new Run.Error(null, new BenchmarkExecutionException("Cannot decode statistics from " + agentName, e)));
+                  entries = Collections.emptyList();
+               }
+               for (RequestStatsMessage.Entry entry : entries) {
+                  String phase = run.phase(entry.phaseId);
                   log.debug("Run {}: Received stats from {}({}): {}/{}/{}:{} ({} requests)",
-                        rsm.runId, agentName, rsm.address, phase, rsm.stepId, rsm.metric,
-                        rsm.statistics.sequenceId, rsm.statistics.requestCount);
-                  boolean added = run.statisticsStore().record(agentName, rsm.phaseId, rsm.stepId, rsm.metric, rsm.statistics);
+                        rsm.runId, agentName, rsm.address, phase, entry.stepId, entry.metric,
+                        entry.statistics.sequenceId, entry.statistics.requestCount);
+                  boolean added = run.statisticsStore().record(agentName, entry.phaseId, entry.stepId, entry.metric, entry.statistics);
                   if (!added) {
                      // warning already logged
                      String errorMessage = String.format(
                            "Received statistics for %s/%d/%s:%d with %d requests but the statistics are already completed; these statistics won't be reported.",
-                           phase, rsm.stepId, rsm.metric, rsm.statistics.sequenceId, rsm.statistics.requestCount);
+                           phase, entry.stepId, entry.metric, entry.statistics.sequenceId, entry.statistics.requestCount);
                      run.errors.add(new Run.Error(null, new BenchmarkExecutionException(errorMessage)));
                   }
                }
@@ -371,7 +387,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
-   private void updateRuns(Path runDir) {
+   private void updateRuns(Path runDir, Map<String, JsonObject> index) {
       File file = runDir.toFile();
       if (!file.getName().matches("[0-9A-F][0-9A-F][0-9A-F][0-9A-F]")) {
          return;
@@ -381,19 +397,24 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (id >= runIds.get()) {
          runIds.set(id + 1);
       }
-      Path infoFile = runDir.resolve("info.json");
-      JsonObject info = new JsonObject();
-      if (infoFile.toFile().exists() && infoFile.toFile().isFile()) {
-         try {
-            info = new JsonObject(Files.readString(infoFile));
-         } catch (Exception e) {
-            log.error("Cannot read info for run {}", runId);
-            return;
+      JsonObject info = index.get(runId);
+      if (info == null) {
+         // run persisted before the index was introduced
+         info = new JsonObject();
+         Path infoFile = runDir.resolve("info.json");
+         if (infoFile.toFile().exists() && infoFile.toFile().isFile()) {
+            try {
+               info = new JsonObject(Files.readString(infoFile));
+            } catch (Exception e) {
+               log.error("Cannot read info for run {}", runId);
+               return;
+            }
+            runIndex.append(info);
          }
       }
       Benchmark benchmark = Benchmark.empty(info.getString("benchmark", "<unknown>"));
       Run run = new Run(runId, runDir, benchmark);
-      run.statsSupplier = () -> loadStats(runDir.resolve(DEFAULT_STATS_JSON), benchmark);
+      run.statsSupplier = () -> loadStats(run);
       run.completed = true;
       run.startTime = info.getLong("startTime", 0L);
       run.terminateTime.complete(info.getLong("terminateTime", 0L));
@@ -409,20 +430,23 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       runs.put(runId, run);
    }
 
-   private StatisticsStore loadStats(Path jsonPath, Benchmark benchmark) {
+   private StatisticsStore loadStats(Run run) {
+      Path jsonPath = run.dir.resolve(DEFAULT_STATS_JSON);
       File statsJson = jsonPath.toFile();
       if (!statsJson.exists() || !statsJson.isFile() || !statsJson.canRead()) {
          log.error("Cannot load stats from {}", jsonPath);
          return null;
       }
       log.info("Loading stats from {}", jsonPath);
-      StatisticsStore store = new StatisticsStore(benchmark, f -> { });
-      try {
-         JsonLoader.read(Files.readString(jsonPath, StandardCharsets.UTF_8), store);
+      StatisticsStore store = new StatisticsStore(run.benchmark, f -> { });
+      try (InputStream stream = new BufferedInputStream(new FileInputStream(statsJson))) {
+         JsonLoader.read(stream, store);
       } catch (Exception e) {
          log.error("Cannot load stats from " + jsonPath, e);
          return null;
       }
+      // the store is not assigned to the run yet
+      context.runOnContext(nil -> ensureMaxInMemoryRuns());
       return store;
    }
 
@@ -479,32 +503,43 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
    }
 
    Run createRun(Benchmark benchmark, String description) {
-      ensureMaxInMemoryRuns();
       String runId = String.format("%04X", runIds.getAndIncrement());
       Path runDir = Controller.RUN_DIR.resolve(runId);
       //noinspection ResultOfMethodCallIgnored
       runDir.toFile().mkdirs();
       Run run = new Run(runId, runDir, benchmark);
       run.initStore(new StatisticsStore(benchmark, failure -> log.warn("Failed verify SLA(s) for {}/{}: {}",
-            failure.phase(), failure.metric(), failure.message())));
+            failure.phase(), failure.metric(), failure.message()), runDir.resolve("series")));
       run.description = description;
       runs.put(run.id, run);
+      ensureMaxInMemoryRuns();
       PersistenceUtil.store(run.benchmark, run.dir);
       return run;
    }
 
+   /**
+    * Unloads statistics of least recently accessed runs when there are too many runs in memory
+    * or when their estimated footprint exceeds the budget. Runs in progress are never unloaded.
+    */
    private void ensureMaxInMemoryRuns() {
-      List<Run> loadedRuns = runs.values().stream().filter(Run::isLoaded)
-            .sorted(Comparator.comparing(r -> r.id)).collect(Collectors.toList());
-      if (loadedRuns.size() + 1 > MAX_IN_MEMORY_RUNS) {
-         loadedRuns.stream().limit(loadedRuns.size() + 1 - MAX_IN_MEMORY_RUNS).forEach(r -> {
-            log.info("Unloading run {}", r.id);
-            r.unload();
-            r.statsSupplier = () -> {
-               Path statsPath = Controller.RUN_DIR.resolve(r.id).resolve(DEFAULT_STATS_JSON);
-               return loadStats(statsPath, r.benchmark);
-            };
-         });
+      List<Run> loadedRuns = runs.values().stream().filter(Run::isLoaded).collect(Collectors.toList());
+      int count = loadedRuns.size();
+      long footprint = loadedRuns.stream().mapToLong(Run::estimatedFootprint).sum();
+      if (count <= MAX_IN_MEMORY_RUNS && footprint <= MAX_IN_MEMORY_RUNS_BYTES) {
+         return;
+      }
+      loadedRuns.sort(Comparator.comparingLong(Run::lastAccess));
+      for (Run r : loadedRuns) {
+         if (count <= MAX_IN_MEMORY_RUNS && footprint <= MAX_IN_MEMORY_RUNS_BYTES) {
+            break;
+         } else if (!r.completed) {
+            continue;
+         }
+         log.info("Unloading run {}", r.id);
+         footprint -= r.estimatedFootprint();
+         --count;
+         r.unload();
+         r.statsSupplier = () -> loadStats(r);
       }
    }
 
@@ -651,7 +686,13 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
       long now = System.currentTimeMillis();
       for (ControllerPhase phase : run.phases.values()) {
-         if (phase.status() == ControllerPhase.Status.RUNNING && phase.absoluteStartTime() + phase.definition().duration() <= now) {
+         if (phase.status() == ControllerPhase.Status.RUNNING && phase.definition().model instanceof Model.AdaptiveRate) {
+            adjustRate(run, phase, now);
+         }
+         if (phase.status() == ControllerPhase.Status.RUNNING && phase.finishTime() <= now) {
+            if (phase.rateSearch() != null) {
+               phase.rateSearch().complete();
+            }
             eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.FINISH, phase.definition().name, null));
             phase.status(run.id, ControllerPhase.Status.FINISHING);
          }
@@ -696,6 +737,28 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
+   private void adjustRate(Run run, ControllerPhase phase, long now) {
+      RateSearch search = phase.rateSearch();
+      if (search == null) {
+         phase.rateSearch(run.statisticsStore().startRateSearch(phase.definition(), now));
+         return;
+      } else if (search.evaluationTime() > now) {
+         return;
+      }
+      String name = phase.definition().name;
+      double usersPerSec = search.usersPerSec();
+      if (search.completeStep(now)) {
+         log.info("{} {} {} {} users per second, changing rate to {}", run.id, name,
+               search.steps().get(search.steps().size() - 1).failure == null ? "sustained" : "did not sustain",
+               usersPerSec, search.usersPerSec());
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.SET_RATE, name, null, search.usersPerSec()));
+      } else {
+         log.info("{} {} maximum sustainable rate is {} users per second", run.id, name, search.maxSustainableUsersPerSec());
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.FINISH, name, null));
+         phase.status(run.id, ControllerPhase.Status.FINISHING);
+      }
+   }
+
    private void stopSimulation(Run run) {
       if (run.terminateTime.future().isComplete()) {
          log.warn("Run {} already completed.", run.id);
@@ -777,6 +840,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
          try {
             Files.write(run.dir.resolve("info.json"), info.encodePrettily().getBytes(StandardCharsets.UTF_8));
+            // The index must not list runs that cannot be loaded
+            runIndex.append(info.copy().put("slaFailed", !run.statisticsStore().validateSlas()));
          } catch (IOException e) {
             log.error("Cannot write info file", e);
             future.fail(e);
@@ -793,6 +858,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             log.error("Cannot write to " + DEFAULT_STATS_JSON, e);
             future.fail(e);
          }
+         if (!future.future().failed()) {
+            // The series are persisted in the JSON and CSV files now
+            run.statisticsStore().deleteSeries();
+         }
          // combine shared and benchmark-private hooks
          List<RunHook> hooks = loadHooks("post");
          hooks.addAll(run.benchmark.postHooks());
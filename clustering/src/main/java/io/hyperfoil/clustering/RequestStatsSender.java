@@ -19,6 +19,7 @@ public class RequestStatsSender extends StatisticsCollector {
    private final String runId;
    private final EventBus eb;
    private final StatisticsConsumer sendStats = this::sendStats;
+   private final RequestStatsMessage.Builder messageBuilder = new RequestStatsMessage.Builder();
 
    public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId) {
       super(benchmark);
@@ -29,30 +30,26 @@ public class RequestStatsSender extends StatisticsCollector {
 
    public void send(CountDown completion) {
       visitStatistics(sendStats, completion);
+      if (!messageBuilder.isEmpty()) {
+         completion.increment();
+         eb.request(Feeds.STATS, messageBuilder.build(address, runId), reply -> completion.countDown());
+      }
    }
 
    private void sendStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
-      if (statistics.histogram.getEndTimeStamp() >= statistics.histogram.getStartTimeStamp()) {
+      if (statistics.histogram().getEndTimeStamp() >= statistics.histogram().getStartTimeStamp()) {
          log.debug("Sending stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
                statistics.sequenceId, statistics.requestCount, statistics.responseCount);
-         // On clustered eventbus, ObjectCodec is not called synchronously so we *must* do a copy here.
-         // (on a local eventbus we'd have to do a copy in transform() anyway)
-         StatisticsSnapshot copy = statistics.clone();
-         countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phase.id(), stepId, metric, copy),
-               reply -> countDown.countDown());
+         // The snapshot is encoded right away so we don't need to copy it before it's reset.
+         messageBuilder.add(phase.id(), stepId, metric, statistics);
       }
    }
 
    public void sendPhaseComplete(Phase phase, CountDown countDown) {
-      for (int phaseAndStepId : aggregated.keySet()) {
-         if (phase != null && phase != phases[phaseAndStepId >> 16]) {
-            continue;
-         }
-
+      if (aggregated.keySet().stream().anyMatch(phaseAndStepId -> phase == null || phase == phases[phaseAndStepId >> 16])) {
+         // The reply confirms that the controller has processed all statistics sent before.
          countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phaseAndStepId >> 16, -1, null, null),
-               reply -> countDown.countDown());
+         eb.request(Feeds.STATS, RequestStatsMessage.empty(address, runId), reply -> countDown.countDown());
       }
       if (phase == null) {
          // TODO: it would be better to not send this for those phases that are already complete
@@ -13,6 +13,7 @@ import io.hyperfoil.api.session.GlobalData;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.impl.Util;
 import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServerResponse;
 
 class Run {
    final String id;
@@ -24,6 +25,8 @@ class Run {
    final List<Error> errors = new ArrayList<>();
    final List<RunHookOutput> hookResults = new ArrayList<>();
    long deployTimerId;
+   long statsTimerId = -1;
+   final List<HttpServerResponse> statsSubscribers = new ArrayList<>();
    String description;
 
    long startTime = Long.MIN_VALUE;
@@ -32,6 +35,7 @@ class Run {
    boolean completed;
    Supplier<StatisticsStore> statsSupplier;
    private StatisticsStore statisticsStore;
+   private long lastAccess;
    Map<String, GlobalData.Element> newGlobalData = new HashMap<>();
 
    Run(String id, Path dir, Benchmark benchmark) {
@@ -51,11 +55,14 @@ class Run {
             .mapToLong(phase -> startTime + phase.definition().startTime()).min().orElse(Long.MAX_VALUE);
       long nextPhaseFinish = phases.values().stream()
             .filter(phase -> phase.status() == ControllerPhase.Status.RUNNING)
-            .mapToLong(phase -> phase.absoluteStartTime() + phase.definition().duration()).min().orElse(Long.MAX_VALUE);
+            .mapToLong(ControllerPhase::finishTime).min().orElse(Long.MAX_VALUE);
+      long nextRateStep = phases.values().stream()
+            .filter(phase -> phase.status() == ControllerPhase.Status.RUNNING && phase.rateSearch() != null)
+            .mapToLong(phase -> phase.rateSearch().evaluationTime()).min().orElse(Long.MAX_VALUE);
       long nextPhaseTerminate = phases.values().stream()
             .filter(phase -> (phase.status() == ControllerPhase.Status.RUNNING || phase.status() == ControllerPhase.Status.FINISHED) && phase.definition().maxDuration() >= 0)
             .mapToLong(phase -> phase.absoluteStartTime() + phase.definition().maxDuration()).min().orElse(Long.MAX_VALUE);
-      return Math.min(Math.min(nextPhaseStart, nextPhaseFinish), nextPhaseTerminate);
+      return Math.min(Math.min(nextPhaseStart, nextPhaseFinish), Math.min(nextRateStep, nextPhaseTerminate));
    }
 
    ControllerPhase[] getAvailablePhases() {
@@ -75,6 +82,7 @@ class Run {
    }
 
    public StatisticsStore statisticsStore() {
+      lastAccess = System.nanoTime();
       if (statisticsStore != null) {
          return statisticsStore;
       } else if (statsSupplier != null) {
@@ -84,11 +92,23 @@ class Run {
       }
    }
 
+   long lastAccess() {
+      return lastAccess;
+   }
+
+   long estimatedFootprint() {
+      StatisticsStore store = statisticsStore;
+      return store == null ? 0 : store.estimatedFootprint();
+   }
+
    public boolean isLoaded() {
       return statisticsStore != null;
    }
 
    public void unload() {
+      if (statisticsStore != null) {
+         statisticsStore.close();
+      }
       statisticsStore = null;
    }
 
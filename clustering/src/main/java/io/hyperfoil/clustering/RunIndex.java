@@ -0,0 +1,93 @@
+package io.hyperfoil.clustering;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.vertx.core.json.JsonObject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Summary of persisted runs, one JSON object per line. The file is append-only; when a run is present
+ * multiple times the last entry wins. Loading the index at startup spares reading <code>info.json</code>
+ * from each run directory.
+ */
+class RunIndex {
+   private static final Logger log = LogManager.getLogger(RunIndex.class);
+
+   private final Path file;
+
+   RunIndex(Path file) {
+      this.file = file;
+   }
+
+   /**
+    * @return Entries by run ID, in the order of the index.
+    */
+   synchronized Map<String, JsonObject> load() {
+      Map<String, JsonObject> entries = new LinkedHashMap<>();
+      if (!Files.exists(file)) {
+         return entries;
+      }
+      int lines = 0;
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+               continue;
+            }
+            ++lines;
+            try {
+               JsonObject entry = new JsonObject(line);
+               entries.put(entry.getString("id"), entry);
+            } catch (Exception e) {
+               // possibly an incomplete write when the controller was killed
+               log.warn("Ignoring invalid line in run index {}: {}", file, line);
+            }
+         }
+      } catch (IOException e) {
+         log.error("Cannot read run index " + file, e);
+         return entries;
+      }
+      if (lines > entries.size()) {
+         rewrite(entries);
+      }
+      return entries;
+   }
+
+   synchronized void append(JsonObject entry) {
+      try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+         writer.write(entry.encode());
+         writer.write('\n');
+      } catch (IOException e) {
+         log.error("Cannot append run " + entry.getString("id") + " to run index " + file, e);
+      }
+   }
+
+   private void rewrite(Map<String, JsonObject> entries) {
+      Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+         for (JsonObject entry : entries.values()) {
+            writer.write(entry.encode());
+            writer.write('\n');
+         }
+      } catch (IOException e) {
+         log.error("Cannot compact run index " + file, e);
+         return;
+      }
+      try {
+         Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+         log.error("Cannot replace run index " + file, e);
+      }
+   }
+}
@@ -32,6 +32,8 @@ public class SessionStatsSender implements SessionStatsConsumer {
       if (sessionStats == null) {
          sessionStats = new HashMap<>();
       }
-      sessionStats.put(phase, new LowHigh(minSessions, maxSessions));
+      LowHigh lowHigh = sessionStats.computeIfAbsent(phase, p -> new LowHigh());
+      lowHigh.low += minSessions;
+      lowHigh.high += maxSessions;
    }
 }
@@ -1,6 +1,11 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
 
 import io.hyperfoil.api.config.Benchmark;
 
@@ -38,5 +43,24 @@ public class AgentControlMessage implements Serializable {
       LIST_CONNECTIONS
    }
 
-   public static class Codec extends ObjectCodec<AgentControlMessage> {}
+   public static class Codec extends ObjectCodec<AgentControlMessage> {
+      @Override
+      protected ObjectOutputStream createOutput(OutputStream stream, AgentControlMessage message) throws IOException {
+         if (message.command != Command.INITIALIZE || message.benchmark().files().isEmpty()) {
+            return super.createOutput(stream, message);
+         }
+         // Steps carry the contents they need (see MappedFile), agents don't use the benchmark's copy of files
+         Map<String, byte[]> files = message.benchmark().files();
+         return new ObjectOutputStream(stream) {
+            {
+               enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) {
+               return obj == files ? Collections.emptyMap() : obj;
+            }
+         };
+      }
+   }
 }
@@ -9,11 +9,17 @@ public class PhaseControlMessage implements Serializable {
    private final Command command;
    private final String phase;
    private final Map<String, GlobalData.Element> globalData;
+   private final double usersPerSec;
 
    public PhaseControlMessage(Command command, String phase, Map<String, GlobalData.Element> globalData) {
+      this(command, phase, globalData, 0);
+   }
+
+   public PhaseControlMessage(Command command, String phase, Map<String, GlobalData.Element> globalData, double usersPerSec) {
       this.command = command;
       this.phase = phase;
       this.globalData = globalData;
+      this.usersPerSec = usersPerSec;
    }
 
    public Command command() {
@@ -28,11 +34,19 @@ public class PhaseControlMessage implements Serializable {
       return globalData;
    }
 
+   /**
+    * @return New arrival rate for {@link Command#SET_RATE}.
+    */
+   public double usersPerSec() {
+      return usersPerSec;
+   }
+
    public enum Command {
       RUN,
       FINISH,
       TRY_TERMINATE,
-      TERMINATE
+      TERMINATE,
+      SET_RATE
    }
 
    public static class Codec extends ObjectCodec<PhaseControlMessage> {}
@@ -1,20 +1,312 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.jackson.DatabindCodec;
 
+/**
+ * Statistics from one agent gathered during single collection period. The snapshots are encoded
+ * when the message is built as these are reset and reused afterwards; decoding happens lazily
+ * on the receiving side.
+ */
 public class RequestStatsMessage extends StatsMessage {
-   public final int phaseId;
-   public final int stepId;
-   public final String metric;
-   public final StatisticsSnapshot statistics;
+   private final transient Buffer data;
+   private transient List<Entry> entries;
 
-   public RequestStatsMessage(String address, String runId, int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+   private RequestStatsMessage(String address, String runId, Buffer data) {
       super(address, runId);
-      this.phaseId = phaseId;
-      this.stepId = stepId;
-      this.metric = metric;
-      this.statistics = statistics;
+      this.data = data;
+   }
+
+   /**
+    * @return Message without any statistics; the controller only acknowledges it.
+    */
+   public static RequestStatsMessage empty(String address, String runId) {
+      return new RequestStatsMessage(address, runId, Buffer.buffer(new byte[]{ 0 }));
+   }
+
+   public List<Entry> entries() {
+      if (entries == null) {
+         entries = decode(data.getByteBuf());
+      }
+      return entries;
+   }
+
+   private static List<Entry> decode(ByteBuf buf) {
+      int count = readVarInt(buf);
+      if (count == 0) {
+         return Collections.emptyList();
+      }
+      List<Entry> entries = new ArrayList<>(count);
+      List<String> strings = new ArrayList<>();
+      ObjectReader extensionReader = DatabindCodec.mapper().readerFor(StatsExtension.class);
+      ByteBuffer histogramBuffer = ByteBuffer.allocate(1024);
+      for (int i = 0; i < count; ++i) {
+         int phaseId = readVarInt(buf);
+         int stepId = readVarInt(buf);
+         String metric = readString(buf, strings);
+         int sequenceId = readVarInt(buf);
+         long startTimestamp = readVarLong(buf);
+         long endTimestamp = startTimestamp + readVarLong(buf);
+         int histogramLength = readVarInt(buf);
+         // HdrHistogram inflates directly from the backing array ignoring its offset, therefore we cannot
+         // pass a view of the message buffer
+         if (histogramBuffer.capacity() < histogramLength) {
+            histogramBuffer = ByteBuffer.allocate(histogramLength);
+         }
+         histogramBuffer.clear();
+         buf.readBytes(histogramBuffer.array(), 0, histogramLength);
+         histogramBuffer.limit(histogramLength);
+         Histogram histogram;
+         try {
+            histogram = Histogram.decodeFromCompressedByteBuffer(histogramBuffer, 0);
+         } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Cannot decode histogram for " + metric, e);
+         }
+         // the snapshot is summed with snapshots from other agents
+         histogram.setAutoResize(true);
+         histogram.setStartTimeStamp(startTimestamp);
+         histogram.setEndTimeStamp(endTimestamp);
+         StatisticsSnapshot snapshot = new StatisticsSnapshot(histogram);
+         snapshot.sequenceId = sequenceId;
+         snapshot.connectFailureCount = readVarInt(buf);
+         snapshot.requestCount = readVarInt(buf);
+         snapshot.responseCount = readVarInt(buf);
+         snapshot.invalid = readVarInt(buf);
+         snapshot.connectionErrors = readVarInt(buf);
+         snapshot.requestTimeouts = readVarInt(buf);
+         snapshot.internalErrors = readVarInt(buf);
+         snapshot.blockedTime = readVarLong(buf);
+         int extensions = readVarInt(buf);
+         for (int j = 0; j < extensions; ++j) {
+            String key = readString(buf, strings);
+            byte[] bytes = new byte[readVarInt(buf)];
+            buf.readBytes(bytes);
+            try {
+               snapshot.extensions.put(key, extensionReader.readValue(bytes));
+            } catch (IOException e) {
+               throw new UncheckedIOException("Cannot decode extension " + key + " for " + metric, e);
+            }
+         }
+         entries.add(new Entry(phaseId, stepId, metric, snapshot));
+      }
+      return entries;
+   }
+
+   private static String readString(ByteBuf buf, List<String> strings) {
+      int index = readVarInt(buf);
+      if (index < strings.size()) {
+         return strings.get(index);
+      }
+      int length = readVarInt(buf);
+      String str = buf.readCharSequence(length, StandardCharsets.UTF_8).toString();
+      strings.add(str);
+      return str;
+   }
+
+   private static void writeVarInt(ByteBuf buf, int value) {
+      while ((value & ~0x7F) != 0) {
+         buf.writeByte((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      buf.writeByte(value);
+   }
+
+   private static void writeVarLong(ByteBuf buf, long value) {
+      while ((value & ~0x7FL) != 0) {
+         buf.writeByte((int) (value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      buf.writeByte((int) value);
+   }
+
+   private static int readVarInt(ByteBuf buf) {
+      int value = 0;
+      for (int shift = 0; ; shift += 7) {
+         byte b = buf.readByte();
+         value |= (b & 0x7F) << shift;
+         if (b >= 0) {
+            return value;
+         }
+      }
    }
 
-   public static class Codec extends ObjectCodec<RequestStatsMessage> {}
+   private static long readVarLong(ByteBuf buf) {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+         byte b = buf.readByte();
+         value |= (long) (b & 0x7F) << shift;
+         if (b >= 0) {
+            return value;
+         }
+      }
+   }
+
+   public static class Entry {
+      public final int phaseId;
+      public final int stepId;
+      public final String metric;
+      public final StatisticsSnapshot statistics;
+
+      private Entry(int phaseId, int stepId, String metric, StatisticsSnapshot statistics) {
+         this.phaseId = phaseId;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.statistics = statistics;
+      }
+   }
+
+   /**
+    * Encodes snapshots into a message. Metric names and extension keys are written only once per message.
+    * Not thread-safe; the builder can be reused after calling {@link #build(String, String)}.
+    */
+   public static class Builder {
+      private final ObjectWriter extensionWriter = DatabindCodec.mapper().writerFor(StatsExtension.class);
+      private final Map<String, Integer> strings = new HashMap<>();
+      private final ByteBuf buf = Unpooled.buffer();
+      private ByteBuffer histogramBuffer = ByteBuffer.allocate(1024);
+      private int count;
+
+      public Builder add(int phaseId, int stepId, String metric, StatisticsSnapshot snapshot) {
+         writeVarInt(buf, phaseId);
+         writeVarInt(buf, stepId);
+         writeString(metric);
+         writeVarInt(buf, snapshot.sequenceId);
+         AbstractHistogram histogram = snapshot.histogram();
+         writeVarLong(buf, histogram.getStartTimeStamp());
+         writeVarLong(buf, histogram.getEndTimeStamp() - histogram.getStartTimeStamp());
+         // leave space for deflate overhead in case the data cannot be compressed
+         int capacity = histogram.getNeededByteBufferCapacity() + 64;
+         if (histogramBuffer.capacity() < capacity) {
+            histogramBuffer = ByteBuffer.allocate(capacity);
+         }
+         histogramBuffer.clear();
+         int histogramLength = histogram.encodeIntoCompressedByteBuffer(histogramBuffer, Deflater.BEST_SPEED);
+         writeVarInt(buf, histogramLength);
+         buf.writeBytes(histogramBuffer.array(), 0, histogramLength);
+         writeVarInt(buf, snapshot.connectFailureCount);
+         writeVarInt(buf, snapshot.requestCount);
+         writeVarInt(buf, snapshot.responseCount);
+         writeVarInt(buf, snapshot.invalid);
+         writeVarInt(buf, snapshot.connectionErrors);
+         writeVarInt(buf, snapshot.requestTimeouts);
+         writeVarInt(buf, snapshot.internalErrors);
+         writeVarLong(buf, snapshot.blockedTime);
+         int extensions = 0;
+         for (StatsExtension extension : snapshot.extensions.values()) {
+            if (extension != null) {
+               ++extensions;
+            }
+         }
+         writeVarInt(buf, extensions);
+         for (Map.Entry<String, StatsExtension> entry : snapshot.extensions.entrySet()) {
+            if (entry.getValue() == null) {
+               continue;
+            }
+            writeString(entry.getKey());
+            byte[] bytes;
+            try {
+               bytes = extensionWriter.writeValueAsBytes(entry.getValue());
+            } catch (IOException e) {
+               throw new UncheckedIOException("Cannot encode extension " + entry.getKey() + " for " + metric, e);
+            }
+            writeVarInt(buf, bytes.length);
+            buf.writeBytes(bytes);
+         }
+         ++count;
+         return this;
+      }
+
+      private void writeString(String str) {
+         Integer index = strings.get(str);
+         if (index != null) {
+            writeVarInt(buf, index);
+         } else {
+            index = strings.size();
+            strings.put(str, index);
+            writeVarInt(buf, index);
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(buf, bytes.length);
+            buf.writeBytes(bytes);
+         }
+      }
+
+      public boolean isEmpty() {
+         return count == 0;
+      }
+
+      public RequestStatsMessage build(String address, String runId) {
+         ByteBuf data = Unpooled.buffer(buf.readableBytes() + 5);
+         writeVarInt(data, count);
+         data.writeBytes(buf);
+         buf.clear();
+         strings.clear();
+         count = 0;
+         return new RequestStatsMessage(address, runId, Buffer.buffer(data));
+      }
+   }
+
+   public static class Codec implements MessageCodec<RequestStatsMessage, RequestStatsMessage> {
+      @Override
+      public void encodeToWire(Buffer buffer, RequestStatsMessage message) {
+         byte[] address = message.address.getBytes(StandardCharsets.UTF_8);
+         byte[] runId = message.runId.getBytes(StandardCharsets.UTF_8);
+         buffer.appendInt(address.length).appendBytes(address);
+         buffer.appendInt(runId.length).appendBytes(runId);
+         buffer.appendInt(message.data.length()).appendBuffer(message.data);
+      }
+
+      @Override
+      public RequestStatsMessage decodeFromWire(int pos, Buffer buffer) {
+         int addressLength = buffer.getInt(pos);
+         pos += 4;
+         String address = buffer.getString(pos, pos + addressLength, StandardCharsets.UTF_8.name());
+         pos += addressLength;
+         int runIdLength = buffer.getInt(pos);
+         pos += 4;
+         String runId = buffer.getString(pos, pos + runIdLength, StandardCharsets.UTF_8.name());
+         pos += runIdLength;
+         int dataLength = buffer.getInt(pos);
+         pos += 4;
+         return new RequestStatsMessage(address, runId, buffer.slice(pos, pos + dataLength));
+      }
+
+      @Override
+      public RequestStatsMessage transform(RequestStatsMessage message) {
+         // The data are already encoded and the message is immutable
+         return message;
+      }
+
+      @Override
+      public String name() {
+         return getClass().getName();
+      }
+
+      @Override
+      public byte systemCodecID() {
+         return -1;
+      }
+   }
 }
@@ -1,6 +1,5 @@
 package io.hyperfoil.controller;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +19,8 @@ final class Data {
    // When we receive snapshot with order #N we will attempt to compact agent snapshots #(N-60)
    // We are delaying this because the statistics for outlier may come with a significant delay
    private static final int MERGE_DELAY = 60;
+   // Rough size of StatisticsSummary with its percentiles and (empty) extensions
+   private static final int SUMMARY_FOOTPRINT = 512;
 
    private final StatisticsStore statisticsStore;
    final String phase;
@@ -30,12 +31,16 @@ final class Data {
    final StatisticsSnapshot total = new StatisticsSnapshot();
    final Map<String, StatisticsSnapshot> perAgent = new HashMap<>();
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
-   final List<StatisticsSummary> series = new ArrayList<>();
+   // the series are held on disk unless the store is loaded from persisted run
+   final List<StatisticsSummary> series;
    final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
    private int highestSequenceId = 0;
+   // Summary of the penultimate sequence, computed lazily once after each change and shared by all readers
+   private int recentSequenceId = -1;
+   private StatisticsSummary recent;
    private boolean completed;
 
    Data(StatisticsStore statisticsStore, String phase, boolean isWarmup, int stepId, String metric, Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas) {
@@ -46,6 +51,19 @@ final class Data {
       this.metric = metric;
       this.windowSlas = periodSlas;
       this.totalSlas = totalSlas;
+      this.series = statisticsStore.newSeries();
+   }
+
+   List<StatisticsSummary> agentSeries(String agentName) {
+      return agentSeries.computeIfAbsent(agentName, a -> statisticsStore.newSeries());
+   }
+
+   private static void addToSeries(List<StatisticsSummary> series, StatisticsSnapshot snapshot) {
+      if (series instanceof SeriesStore.Series) {
+         ((SeriesStore.Series) series).append(snapshot);
+      } else {
+         series.add(snapshot.summary(StatisticsStore.PERCENTILES));
+      }
    }
 
    boolean record(String agentName, StatisticsSnapshot stats) {
@@ -55,6 +73,13 @@ final class Data {
       }
       total.add(stats);
       perAgent.computeIfAbsent(agentName, a -> new StatisticsSnapshot()).add(stats);
+      // the last sequence is likely incomplete, we report the one before that
+      if (stats.sequenceId > recentSequenceId + 1) {
+         recentSequenceId = stats.sequenceId - 1;
+         recent = null;
+      } else if (stats.sequenceId == recentSequenceId) {
+         recent = null;
+      }
       IntObjectMap<StatisticsSnapshot> partialSnapshots = lastStats.computeIfAbsent(agentName, a -> new IntObjectHashMap<>());
       StatisticsSnapshot partialSnapshot = partialSnapshots.get(stats.sequenceId);
       if (partialSnapshot == null) {
@@ -79,11 +104,11 @@ final class Data {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             sum.add(snapshot);
-            agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>()).add(snapshot.summary(StatisticsStore.PERCENTILES));
+            addToSeries(agentSeries(entry.getKey()), snapshot);
          }
       }
       if (!sum.isEmpty()) {
-         series.add(sum.summary(StatisticsStore.PERCENTILES));
+         addToSeries(series, sum);
       }
       for (Map.Entry<SLA, StatisticsStore.Window> entry : windowSlas.entrySet()) {
          SLA sla = entry.getKey();
@@ -99,6 +124,25 @@ final class Data {
       }
    }
 
+   StatisticsSummary recentSummary() {
+      if (completed || recentSequenceId < 0) {
+         return null;
+      } else if (recent == null) {
+         StatisticsSnapshot sum = new StatisticsSnapshot();
+         for (IntObjectMap<StatisticsSnapshot> snapshots : lastStats.values()) {
+            StatisticsSnapshot snapshot = snapshots.get(recentSequenceId);
+            if (snapshot != null) {
+               sum.add(snapshot);
+            }
+         }
+         if (sum.isEmpty()) {
+            return null;
+         }
+         recent = sum.summary(StatisticsStore.PERCENTILES);
+      }
+      return recent;
+   }
+
    void completePhase() {
       for (int i = Math.max(0, highestSequenceId - MERGE_DELAY); i <= highestSequenceId; ++i) {
          mergeSnapshots(i);
@@ -126,4 +170,23 @@ final class Data {
    boolean isCompleted() {
       return completed;
    }
+
+   long estimatedFootprint() {
+      long footprint = total.histogram().getEstimatedFootprintInBytes();
+      for (StatisticsSnapshot snapshot : perAgent.values()) {
+         footprint += snapshot.histogram().getEstimatedFootprintInBytes();
+      }
+      for (IntObjectMap<StatisticsSnapshot> snapshots : lastStats.values()) {
+         for (StatisticsSnapshot snapshot : snapshots.values()) {
+            footprint += snapshot.histogram().getEstimatedFootprintInBytes();
+         }
+      }
+      // series stored on disk keep only the offsets of samples
+      int sampleFootprint = series instanceof SeriesStore.Series ? 8 : SUMMARY_FOOTPRINT;
+      footprint += (long) series.size() * sampleFootprint;
+      for (List<StatisticsSummary> list : agentSeries.values()) {
+         footprint += (long) list.size() * sampleFootprint;
+      }
+      return footprint;
+   }
 }
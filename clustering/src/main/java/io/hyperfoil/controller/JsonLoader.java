@@ -1,5 +1,8 @@
 package io.hyperfoil.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -7,8 +10,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 
-import org.HdrHistogram.Histogram;
+import org.HdrHistogram.AbstractHistogram;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
 
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
@@ -16,72 +24,145 @@ import io.hyperfoil.api.statistics.StatsExtension;
 import io.hyperfoil.api.config.SLA;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
 
 public class JsonLoader {
+   private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
 
    public static StatisticsStore read(String text, StatisticsStore store) {
-      JsonObject object = new JsonObject(text);
-      String schema = object.getString("$schema");
-      if (!JsonWriter.RUN_SCHEMA.equals(schema)) {
-         throw new IllegalArgumentException("Schema " + schema + " is not recognized.");
+      try (JsonParser parser = DatabindCodec.mapper().getFactory().createParser(text)) {
+         return read(parser, store);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
       }
-      for (Object item : object.getJsonArray("failures")) {
-         JsonObject failure = (JsonObject) item;
-         StatisticsSnapshot snapshot = new StatisticsSnapshot();
-         snapshot.histogram.setStartTimeStamp(failure.getLong("start"));
-         snapshot.histogram.setEndTimeStamp(failure.getLong("end"));
-         // ignoring percentiles
-         store.addFailure(new SLA.Failure(null, failure.getString("phase"), failure.getString("metric"), snapshot, failure.getString("message")));
+   }
+
+   /**
+    * Loads the statistics incrementally; only single item of the top-level arrays is held in memory
+    * as JSON tree at a time.
+    */
+   public static StatisticsStore read(InputStream stream, StatisticsStore store) throws IOException {
+      try (JsonParser parser = DatabindCodec.mapper().getFactory().createParser(stream)) {
+         return read(parser, store);
       }
-      int dataCounter = 0;
+   }
+
+   private static StatisticsStore read(JsonParser parser, StatisticsStore store) throws IOException {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+         throw new IllegalArgumentException("Expected JSON object.");
+      }
+      boolean schemaVerified = false;
+      int[] dataCounter = new int[1];
       // TODO: there could be multiple Data per phase+metric but stepId is not in JSON
       Map<String, Map<String, Data>> dataMap = new HashMap<>();
-      for (Object item : object.getJsonArray("stats")) {
-         JsonObject stats = (JsonObject) item;
-         Data data = new Data(store, stats.getString("name"), stats.getBoolean("isWarmup"), 0, stats.getString("metric"), Collections.emptyMap(), new SLA[0]);
-         dataMap.computeIfAbsent(data.phase, p -> new HashMap<>()).putIfAbsent(data.metric, data);
-         store.addData(dataCounter++, data.metric, data);
-         loadSnapshot(stats.getJsonObject("total"), data.total);
-         // We cannot use percentiles histogram since it always tells only upper bounds on the response time
-         // and the results would be way of (at least for the first bucket)
-         loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), data.total.histogram);
-         loadSeries(stats.getJsonArray("series"), data.series);
-      }
-
-      for (Object item : object.getJsonArray("sessions")) {
-         JsonObject ss = (JsonObject) item;
-         StatisticsStore.SessionPoolStats sps = new StatisticsStore.SessionPoolStats();
-         store.sessionPoolStats.put(ss.getString("name"), sps);
-         for (Object r : ss.getJsonArray("sessions")) {
-            JsonObject record = (JsonObject) r;
-            String agent = record.getString("agent");
-            long timestamp = record.getLong("timestamp");
-            int min = record.getInteger("minSessions");
-            int max = record.getInteger("maxSessions");
-            StatisticsStore.SessionPoolRecord ssRecord = new StatisticsStore.SessionPoolRecord(timestamp, min, max);
-            sps.records.computeIfAbsent(agent, a -> new ArrayList<>()).add(ssRecord);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+         String field = parser.getCurrentName();
+         parser.nextToken();
+         switch (field) {
+            case "$schema":
+               String schema = parser.getValueAsString();
+               if (!JsonWriter.RUN_SCHEMA.equals(schema)) {
+                  throw new IllegalArgumentException("Schema " + schema + " is not recognized.");
+               }
+               schemaVerified = true;
+               break;
+            case "failures":
+               forEachObject(parser, failure -> loadFailure(failure, store));
+               break;
+            case "stats":
+               forEachObject(parser, stats -> {
+                  Data data = new Data(store, stats.getString("name"), stats.getBoolean("isWarmup"), 0, stats.getString("metric"), Collections.emptyMap(), new SLA[0]);
+                  dataMap.computeIfAbsent(data.phase, p -> new HashMap<>()).putIfAbsent(data.metric, data);
+                  store.addData(dataCounter[0]++, data.metric, data);
+                  loadSnapshot(stats.getJsonObject("total"), data.total);
+                  // We cannot use percentiles histogram since it always tells only upper bounds on the response time
+                  // and the results would be way of (at least for the first bucket)
+                  loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), data.total.histogram());
+                  loadSeries(stats.getJsonArray("series"), data.series);
+               });
+               break;
+            case "sessions":
+               forEachObject(parser, ss -> loadSessions(ss, store));
+               break;
+            case "agents":
+               forEachObject(parser, agent -> loadAgent(agent, store, dataMap));
+               break;
+            case "connections":
+               loadConnections(readObject(parser), store);
+               break;
+            case "agentCpu":
+               loadAgentCpu(readObject(parser), store);
+               break;
+            case "adaptiveRate":
+               loadAdaptiveRate(readObject(parser), store);
+               break;
+            default:
+               parser.skipChildren();
          }
       }
+      if (!schemaVerified) {
+         throw new IllegalArgumentException("Schema is not defined.");
+      }
+      return store;
+   }
 
-      for (Object item : object.getJsonArray("agents")) {
-         JsonObject agent = (JsonObject) item;
-         String name = agent.getString("name");
-         for (Object s : agent.getJsonArray("stats")) {
-            JsonObject stats = (JsonObject) s;
-            String phase = stats.getString("name");
-            String metric = stats.getString("metric");
-            boolean isWarmup = stats.getBoolean("isWarmup");
-            Data data = dataMap.computeIfAbsent(phase, p -> new HashMap<>())
-                  .computeIfAbsent(metric, m -> new Data(store, phase, isWarmup, 0, metric, Collections.emptyMap(), new SLA[0]));
-            StatisticsSnapshot snapshot = new StatisticsSnapshot();
-            loadSnapshot(stats.getJsonObject("total"), snapshot);
-            loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), snapshot.histogram);
-            data.perAgent.put(name, snapshot);
-            loadSeries(stats.getJsonArray("series"), data.agentSeries.computeIfAbsent(name, a -> new ArrayList<>()));
-         }
+   private static JsonObject readObject(JsonParser parser) throws IOException {
+      if (parser.currentToken() != JsonToken.START_OBJECT) {
+         throw new IllegalArgumentException("Expected JSON object, got " + parser.currentToken());
+      }
+      return new JsonObject(parser.<Map<String, Object>>readValueAs(MAP_TYPE));
+   }
+
+   private static void forEachObject(JsonParser parser, Consumer<JsonObject> consumer) throws IOException {
+      if (parser.currentToken() != JsonToken.START_ARRAY) {
+         throw new IllegalArgumentException("Expected JSON array, got " + parser.currentToken());
       }
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+         consumer.accept(readObject(parser));
+      }
+   }
 
-      for (var targetEntry : object.getJsonObject("connections")) {
+   private static void loadFailure(JsonObject failure, StatisticsStore store) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.histogram().setStartTimeStamp(failure.getLong("start"));
+      snapshot.histogram().setEndTimeStamp(failure.getLong("end"));
+      // ignoring percentiles
+      store.addFailure(new SLA.Failure(null, failure.getString("phase"), failure.getString("metric"), snapshot, failure.getString("message")));
+   }
+
+   private static void loadSessions(JsonObject ss, StatisticsStore store) {
+      StatisticsStore.SessionPoolStats sps = new StatisticsStore.SessionPoolStats();
+      store.sessionPoolStats.put(ss.getString("name"), sps);
+      for (Object r : ss.getJsonArray("sessions")) {
+         JsonObject record = (JsonObject) r;
+         String agent = record.getString("agent");
+         long timestamp = record.getLong("timestamp");
+         int min = record.getInteger("minSessions");
+         int max = record.getInteger("maxSessions");
+         StatisticsStore.SessionPoolRecord ssRecord = new StatisticsStore.SessionPoolRecord(timestamp, min, max);
+         sps.records.computeIfAbsent(agent, a -> new ArrayList<>()).add(ssRecord);
+      }
+   }
+
+   private static void loadAgent(JsonObject agent, StatisticsStore store, Map<String, Map<String, Data>> dataMap) {
+      String name = agent.getString("name");
+      for (Object s : agent.getJsonArray("stats")) {
+         JsonObject stats = (JsonObject) s;
+         String phase = stats.getString("name");
+         String metric = stats.getString("metric");
+         boolean isWarmup = stats.getBoolean("isWarmup");
+         Data data = dataMap.computeIfAbsent(phase, p -> new HashMap<>())
+               .computeIfAbsent(metric, m -> new Data(store, phase, isWarmup, 0, metric, Collections.emptyMap(), new SLA[0]));
+         StatisticsSnapshot snapshot = new StatisticsSnapshot();
+         loadSnapshot(stats.getJsonObject("total"), snapshot);
+         loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), snapshot.histogram());
+         data.perAgent.put(name, snapshot);
+         loadSeries(stats.getJsonArray("series"), data.agentSeries(name));
+      }
+   }
+
+   private static void loadConnections(JsonObject connections, StatisticsStore store) {
+      for (var targetEntry : connections) {
          String target = targetEntry.getKey();
          var targetMap = store.connectionPoolStats.computeIfAbsent(target, t -> new HashMap<>());
          for (var typeEntry : (JsonObject) targetEntry.getValue()) {
@@ -94,24 +175,34 @@ public class JsonLoader {
             }
          }
       }
+   }
 
-      JsonObject agentCpu = object.getJsonObject("agentCpu");
-      if (agentCpu != null) {
-         for (var phaseEntry : agentCpu) {
-            HashMap<String, String> phaseData = new HashMap<>();
-            store.cpuUsage.putIfAbsent(phaseEntry.getKey(), phaseData);
-            for (var agentEntry : (JsonObject) phaseEntry.getValue()) {
-               phaseData.put(agentEntry.getKey(), String.valueOf(agentEntry.getValue()));
-            }
+   private static void loadAgentCpu(JsonObject agentCpu, StatisticsStore store) {
+      for (var phaseEntry : agentCpu) {
+         HashMap<String, String> phaseData = new HashMap<>();
+         store.cpuUsage.putIfAbsent(phaseEntry.getKey(), phaseData);
+         for (var agentEntry : (JsonObject) phaseEntry.getValue()) {
+            phaseData.put(agentEntry.getKey(), String.valueOf(agentEntry.getValue()));
          }
       }
+   }
 
-      return store;
+   private static void loadAdaptiveRate(JsonObject adaptiveRate, StatisticsStore store) {
+      for (var phaseEntry : adaptiveRate) {
+         JsonObject search = (JsonObject) phaseEntry.getValue();
+         List<RateSearch.Step> steps = new ArrayList<>();
+         for (Object item : search.getJsonArray("steps")) {
+            JsonObject step = (JsonObject) item;
+            steps.add(new RateSearch.Step(step.getLong("start"), step.getLong("end"), step.getDouble("usersPerSec"),
+                  step.getLong("requests"), step.getString("failure")));
+         }
+         store.rateSearches.put(phaseEntry.getKey(), new RateSearch(phaseEntry.getKey(), search.getDouble("maxSustainableUsersPerSec"), steps));
+      }
    }
 
    private static void loadSnapshot(JsonObject object, StatisticsSnapshot total) {
-      total.histogram.setStartTimeStamp(object.getLong("start"));
-      total.histogram.setEndTimeStamp(object.getLong("end"));
+      total.histogram().setStartTimeStamp(object.getLong("start"));
+      total.histogram().setEndTimeStamp(object.getLong("end"));
       JsonObject summary = object.getJsonObject("summary");
       total.requestCount = summary.getInteger("requestCount");
       total.responseCount = summary.getInteger("responseCount");
@@ -126,7 +217,7 @@ public class JsonLoader {
       }
    }
 
-   private static void loadHistogram(JsonArray array, Histogram histogram) {
+   private static void loadHistogram(JsonArray array, AbstractHistogram histogram) {
       for (Object item : array) {
          JsonObject bucket = (JsonObject) item;
          long from = bucket.getLong("from");
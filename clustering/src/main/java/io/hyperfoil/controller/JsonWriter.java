@@ -48,8 +48,8 @@ public class JsonWriter {
          jGenerator.writeStringField("metric", failure.metric());
          jGenerator.writeStringField("message", failure.message());
 
-         jGenerator.writeNumberField("start", failure.statistics().histogram.getStartTimeStamp());
-         jGenerator.writeNumberField("end", failure.statistics().histogram.getEndTimeStamp());
+         jGenerator.writeNumberField("start", failure.statistics().histogram().getStartTimeStamp());
+         jGenerator.writeNumberField("end", failure.statistics().histogram().getEndTimeStamp());
          jGenerator.writeObjectField("percentileResponseTime", failure.statistics().getPercentiles(StatisticsStore.PERCENTILES));
          jGenerator.writeEndObject();
       }
@@ -79,9 +79,9 @@ public class JsonWriter {
          jGenerator.writeFieldName("histogram");
          jGenerator.writeStartObject();
          jGenerator.writeFieldName("percentiles");
-         histogramArray(jGenerator, data.total.histogram.percentiles(5).iterator(), 100);
+         histogramArray(jGenerator, data.total.histogram().percentiles(5).iterator(), 100);
          jGenerator.writeFieldName("linear");
-         histogramArray(jGenerator, data.total.histogram.linearBucketValues(1_000_000).iterator(), 95);
+         histogramArray(jGenerator, data.total.histogram().linearBucketValues(1_000_000).iterator(), 95);
          jGenerator.writeEndObject(); //histogram
 
          jGenerator.writeFieldName("series");
@@ -166,10 +166,10 @@ public class JsonWriter {
                jGenerator.writeStartObject(); // histograms
 
                jGenerator.writeFieldName("percentiles");
-               histogramArray(jGenerator, data.perAgent.get(agent).histogram.percentiles(5).iterator(), 100);
+               histogramArray(jGenerator, data.perAgent.get(agent).histogram().percentiles(5).iterator(), 100);
 
                jGenerator.writeFieldName("linear");
-               histogramArray(jGenerator, data.perAgent.get(agent).histogram.linearBucketValues(1_000_000).iterator(), 95);
+               histogramArray(jGenerator, data.perAgent.get(agent).histogram().linearBucketValues(1_000_000).iterator(), 95);
 
                jGenerator.writeEndObject(); // histograms
 
@@ -214,6 +214,28 @@ public class JsonWriter {
       }
       jGenerator.writeEndObject(); // agentCpu
 
+      jGenerator.writeObjectFieldStart("adaptiveRate");
+      for (RateSearch search : store.rateSearches.values()) {
+         jGenerator.writeObjectFieldStart(search.phase());
+         jGenerator.writeNumberField("maxSustainableUsersPerSec", search.maxSustainableUsersPerSec());
+         jGenerator.writeBooleanField("completed", search.isCompleted());
+         jGenerator.writeArrayFieldStart("steps");
+         for (RateSearch.Step step : search.steps()) {
+            jGenerator.writeStartObject();
+            jGenerator.writeNumberField("start", step.start);
+            jGenerator.writeNumberField("end", step.end);
+            jGenerator.writeNumberField("usersPerSec", step.usersPerSec);
+            jGenerator.writeNumberField("requests", step.requests);
+            if (step.failure != null) {
+               jGenerator.writeStringField("failure", step.failure);
+            }
+            jGenerator.writeEndObject();
+         }
+         jGenerator.writeEndArray(); // steps
+         jGenerator.writeEndObject(); // phase
+      }
+      jGenerator.writeEndObject(); // adaptiveRate
+
       jGenerator.writeEndObject(); //root of object
    }
 
@@ -328,8 +350,8 @@ public class JsonWriter {
       generator.writeStartObject();
       generator.writeStringField("phase", data.phase);
       generator.writeStringField("metric", data.metric);
-      generator.writeNumberField("start", data.total.histogram.getStartTimeStamp());
-      generator.writeNumberField("end", data.total.histogram.getEndTimeStamp());
+      generator.writeNumberField("start", data.total.histogram().getStartTimeStamp());
+      generator.writeNumberField("end", data.total.histogram().getEndTimeStamp());
       generator.writeObjectField("summary", snapshot.summary(StatisticsStore.PERCENTILES));
       if (failures >= 0) {
          generator.writeNumberField("failures", failures);
@@ -0,0 +1,226 @@
+package io.hyperfoil.controller;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+/**
+ * Renders the latest state of {@link StatisticsStore statistics stores} in the Prometheus text exposition
+ * format (version 0.0.4) or in the OpenMetrics format. All values are read from the snapshots the store
+ * keeps anyway; the only computation is bucketing the histogram, which takes a single pass over its recorded values.
+ */
+public class OpenMetricsWriter {
+   public static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+   public static final String CONTENT_TYPE_OPENMETRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+   private static final String PREFIX = "hyperfoil_";
+   // Upper bounds of latency buckets, in nanoseconds
+   private static final long[] BUCKETS = {
+         100_000, 250_000, 500_000,
+         1_000_000, 2_500_000, 5_000_000,
+         10_000_000, 25_000_000, 50_000_000,
+         100_000_000, 250_000_000, 500_000_000,
+         1_000_000_000, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+   };
+   private static final String[] BUCKET_LABELS;
+   private static final Pattern CPU_USAGE = Pattern.compile("^\\s*([0-9.]+)%");
+
+   static {
+      BUCKET_LABELS = new String[BUCKETS.length];
+      for (int i = 0; i < BUCKETS.length; ++i) {
+         BUCKET_LABELS[i] = seconds(BUCKETS[i]);
+      }
+   }
+
+   private final StringBuilder sb = new StringBuilder();
+   private final boolean openMetrics;
+
+   private OpenMetricsWriter(boolean openMetrics) {
+      this.openMetrics = openMetrics;
+   }
+
+   /**
+    * @param stores      Statistics by run ID.
+    * @param openMetrics Use OpenMetrics format rather than Prometheus text format.
+    * @return Text exposition of the metrics.
+    */
+   public static String write(Map<String, StatisticsStore> stores, boolean openMetrics) {
+      OpenMetricsWriter writer = new OpenMetricsWriter(openMetrics);
+      List<Labeled<Data>> data = new ArrayList<>();
+      stores.forEach((runId, store) -> {
+         for (Map<String, Data> byMetric : store.data.values()) {
+            for (Data d : byMetric.values()) {
+               // the same metric can be recorded by several steps of one phase
+               data.add(new Labeled<>(d, "run", runId, "phase", d.phase, "step", String.valueOf(d.stepId), "metric", d.metric));
+            }
+         }
+      });
+      writer.counter(data, "requests", "Number of requests sent.", s -> s.requestCount);
+      writer.counter(data, "responses", "Number of responses received.", s -> s.responseCount);
+      writer.counter(data, "request_timeouts", "Number of requests that timed out.", s -> s.requestTimeouts);
+      writer.counter(data, "connection_errors", "Number of requests that failed due to connection errors.", s -> s.connectionErrors);
+      writer.counter(data, "internal_errors", "Number of requests that failed due to internal errors.", s -> s.internalErrors);
+      writer.counter(data, "invalid_responses", "Number of responses marked as invalid.", s -> s.invalid);
+      writer.blockedTime(data);
+      writer.histogram(data);
+
+      List<Labeled<StatisticsStore.SessionPoolRecord>> sessions = new ArrayList<>();
+      List<Labeled<StatisticsStore.ConnectionPoolStats>> connections = new ArrayList<>();
+      List<Labeled<Double>> cpuUsage = new ArrayList<>();
+      stores.forEach((runId, store) -> {
+         store.sessionPoolStats.forEach((phase, sps) -> sps.records.forEach((agent, records) -> {
+            if (!records.isEmpty()) {
+               sessions.add(new Labeled<>(records.get(records.size() - 1), "run", runId, "phase", phase, "agent", agent));
+            }
+         }));
+         store.connectionPoolStats.forEach((authority, byType) -> byType.forEach((type, byAgent) -> byAgent.forEach((agent, records) -> {
+            if (!records.isEmpty()) {
+               connections.add(new Labeled<>(records.get(records.size() - 1), "run", runId, "authority", authority, "type", type, "agent", agent));
+            }
+         })));
+         store.cpuUsage.forEach((phase, byAgent) -> byAgent.forEach((agent, usage) -> {
+            Matcher matcher = usage == null ? null : CPU_USAGE.matcher(usage);
+            if (matcher != null && matcher.find()) {
+               cpuUsage.add(new Labeled<>(Double.parseDouble(matcher.group(1)) / 100, "run", runId, "phase", phase, "agent", agent));
+            }
+         }));
+      });
+      writer.gauge(sessions, "session_pool_min", "Minimum number of sessions in use during the last reporting period.", r -> r.low);
+      writer.gauge(sessions, "session_pool_max", "Maximum number of sessions in use during the last reporting period.", r -> r.high);
+      writer.gauge(connections, "connection_pool_min", "Minimum number of connections during the last reporting period.", r -> r.low);
+      writer.gauge(connections, "connection_pool_max", "Maximum number of connections during the last reporting period.", r -> r.high);
+      writer.header("agent_cpu_usage_ratio", "gauge", "Average CPU usage of the agent's machine during the completed phase.");
+      for (Labeled<Double> usage : cpuUsage) {
+         writer.sample("agent_cpu_usage_ratio", usage.labels, null, null).append(plain(usage.value)).append('\n');
+      }
+      if (openMetrics) {
+         writer.sb.append("# EOF\n");
+      }
+      return writer.sb.toString();
+   }
+
+   private void counter(List<Labeled<Data>> data, String name, String help, ToLongFunction<StatisticsSnapshot> value) {
+      header(name, "counter", help);
+      for (Labeled<Data> d : data) {
+         sample(name + "_total", d.labels, null, null).append(value.applyAsLong(d.value.total)).append('\n');
+      }
+   }
+
+   private void blockedTime(List<Labeled<Data>> data) {
+      header("blocked_seconds", "counter", "Time spent blocked waiting for a connection or session.");
+      for (Labeled<Data> d : data) {
+         sample("blocked_seconds_total", d.labels, null, null).append(seconds(d.value.total.blockedTime)).append('\n');
+      }
+   }
+
+   private void histogram(List<Labeled<Data>> data) {
+      String name = "response_time_seconds";
+      header(name, "histogram", "Response time distribution.");
+      long[] counts = new long[BUCKETS.length];
+      for (Labeled<Data> d : data) {
+         AbstractHistogram histogram = d.value.total.histogram();
+         long total = 0;
+         double sum = 0;
+         int bucket = 0;
+         for (HistogramIterationValue value : histogram.recordedValues()) {
+            long count = value.getCountAtValueIteratedTo();
+            long highest = value.getValueIteratedTo();
+            while (bucket < BUCKETS.length && BUCKETS[bucket] < highest) {
+               counts[bucket++] = total;
+            }
+            total += count;
+            sum += (double) histogram.medianEquivalentValue(highest) * count;
+         }
+         while (bucket < BUCKETS.length) {
+            counts[bucket++] = total;
+         }
+         for (int i = 0; i < BUCKETS.length; ++i) {
+            sample(name + "_bucket", d.labels, "le", BUCKET_LABELS[i]).append(counts[i]).append('\n');
+         }
+         sample(name + "_bucket", d.labels, "le", "+Inf").append(total).append('\n');
+         sample(name + "_count", d.labels, null, null).append(total).append('\n');
+         sample(name + "_sum", d.labels, null, null).append(plain(sum / TimeUnit.SECONDS.toNanos(1))).append('\n');
+      }
+   }
+
+   private <T> void gauge(List<Labeled<T>> items, String name, String help, ToLongFunction<T> value) {
+      header(name, "gauge", help);
+      for (Labeled<T> item : items) {
+         sample(name, item.labels, null, null).append(value.applyAsLong(item.value)).append('\n');
+      }
+   }
+
+   private void header(String name, String type, String help) {
+      // Prometheus format names the counter family including the suffix
+      String family = PREFIX + name + (!openMetrics && type.equals("counter") ? "_total" : "");
+      sb.append("# HELP ").append(family).append(' ').append(help).append('\n');
+      sb.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+   }
+
+   private StringBuilder sample(String name, String[] labels, String extraLabel, String extraValue) {
+      sb.append(PREFIX).append(name).append('{');
+      for (int i = 0; i < labels.length; i += 2) {
+         if (i > 0) {
+            sb.append(',');
+         }
+         label(labels[i], labels[i + 1]);
+      }
+      if (extraLabel != null) {
+         sb.append(',');
+         label(extraLabel, extraValue);
+      }
+      return sb.append("} ");
+   }
+
+   private void label(String name, String value) {
+      sb.append(name).append("=\"");
+      if (value != null) {
+         for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+               case '\\':
+                  sb.append("\\\\");
+                  break;
+               case '"':
+                  sb.append("\\\"");
+                  break;
+               case '\n':
+                  sb.append("\\n");
+                  break;
+               default:
+                  sb.append(c);
+            }
+         }
+      }
+      sb.append('"');
+   }
+
+   private static String seconds(long nanos) {
+      return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+   }
+
+   // Double.toString() would use scientific notation for small and large values
+   private static String plain(double value) {
+      return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+   }
+
+   private static class Labeled<T> {
+      final T value;
+      final String[] labels;
+
+      Labeled(T value, String... labels) {
+         this.value = value;
+         this.labels = labels;
+      }
+   }
+}
@@ -0,0 +1,164 @@
+package io.hyperfoil.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.hyperfoil.api.config.Model;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+/**
+ * Searches for the highest arrival rate in {@link Model.AdaptiveRate adaptive-rate phase} that satisfies its SLA.
+ * The rate is raised by the increment after each step that satisfies the SLA; after the first violation
+ * the interval between the highest sustainable and the lowest unsustainable rate is bisected until it is
+ * narrower than the resolution.
+ * <p>
+ * Statistics from all metrics and agents are merged into single snapshot per step; snapshots that started
+ * before the current step (received late from agents) are ignored. As agents send statistics only after each
+ * sampling period the step is evaluated with a delay; the rate is not changed until then but snapshots
+ * that started after the end of the step are not accounted to any step.
+ * <p>
+ * Every user is expected to execute at least one request; a step that recorded less than half of the requests
+ * expected at its rate (e.g. because the agents stalled) did not measure the rate and fails.
+ */
+public class RateSearch {
+   private final String phase;
+   private final Model.AdaptiveRate model;
+   private final long evaluationDelay;
+   private final List<Step> steps = new ArrayList<>();
+   private final StatisticsSnapshot stepStats = new StatisticsSnapshot();
+   private double usersPerSec;
+   private double sustainable;
+   private double unsustainable = Double.POSITIVE_INFINITY;
+   private long stepStart;
+   private boolean completed;
+
+   RateSearch(String phase, Model.AdaptiveRate model, long startTime, long evaluationDelay) {
+      this.phase = phase;
+      this.model = model;
+      this.evaluationDelay = evaluationDelay;
+      this.usersPerSec = model.initialUsersPerSec;
+      this.stepStart = startTime;
+   }
+
+   // used when loading persisted results
+   RateSearch(String phase, double maxSustainableUsersPerSec, List<Step> steps) {
+      this.phase = phase;
+      this.model = null;
+      this.evaluationDelay = 0;
+      this.sustainable = maxSustainableUsersPerSec;
+      this.steps.addAll(steps);
+      this.completed = true;
+   }
+
+   void record(StatisticsSnapshot stats) {
+      long startTime = stats.histogram().getStartTimeStamp();
+      if (!completed && startTime >= stepStart && startTime < stepEnd()) {
+         stepStats.add(stats);
+      }
+   }
+
+   public String phase() {
+      return phase;
+   }
+
+   /**
+    * @return Arrival rate in the current step.
+    */
+   public double usersPerSec() {
+      return usersPerSec;
+   }
+
+   public long stepEnd() {
+      return stepStart + model.stepDuration;
+   }
+
+   /**
+    * @return Time when all statistics for the current step should be received.
+    */
+   public long evaluationTime() {
+      return stepEnd() + evaluationDelay;
+   }
+
+   public boolean isCompleted() {
+      return completed;
+   }
+
+   /**
+    * @return Highest rate that satisfied the SLA, or 0 if none did.
+    */
+   public double maxSustainableUsersPerSec() {
+      return sustainable;
+   }
+
+   public List<Step> steps() {
+      return Collections.unmodifiableList(steps);
+   }
+
+   /**
+    * Evaluates the SLA for the current step and moves to the next one.
+    *
+    * @param timestamp Start of the next step; not before {@link #evaluationTime()}.
+    * @return True if the search continues with {@link #usersPerSec() new rate}, false if it has converged.
+    */
+   public boolean completeStep(long timestamp) {
+      if (completed) {
+         return false;
+      }
+      String failure = validate();
+      steps.add(new Step(stepStart, stepEnd(), usersPerSec, stepStats.requestCount, failure));
+      stepStats.reset();
+      stepStart = timestamp;
+      if (failure == null) {
+         sustainable = Math.max(sustainable, usersPerSec);
+      } else {
+         unsustainable = Math.min(unsustainable, usersPerSec);
+      }
+      if (unsustainable == Double.POSITIVE_INFINITY) {
+         if (usersPerSec >= model.maxUsersPerSec) {
+            completed = true;
+         } else {
+            usersPerSec = Math.min(usersPerSec + model.usersPerSecIncrement, model.maxUsersPerSec);
+         }
+      } else if (unsustainable - sustainable <= model.resolution) {
+         completed = true;
+      } else {
+         usersPerSec = (sustainable + unsustainable) / 2;
+      }
+      return !completed;
+   }
+
+   private String validate() {
+      double expectedUsers = usersPerSec * model.stepDuration / 1000;
+      if (stepStats.requestCount == 0 || stepStats.requestCount < expectedUsers / 2) {
+         return String.format("Step recorded only %d requests, expected at least %.0f users.", stepStats.requestCount, expectedUsers);
+      }
+      SLA.Failure failure = model.sla.validate(phase, null, stepStats);
+      return failure == null ? null : failure.message();
+   }
+
+   /**
+    * Ends the search prematurely, e.g. when the phase duration elapses.
+    */
+   public void complete() {
+      completed = true;
+   }
+
+   public static class Step {
+      public final long start;
+      public final long end;
+      public final double usersPerSec;
+      public final long requests;
+      // null if SLA was satisfied
+      public final String failure;
+
+      Step(long start, long end, double usersPerSec, long requests, String failure) {
+         this.start = start;
+         this.end = end;
+         this.usersPerSec = usersPerSec;
+         this.requests = requests;
+         this.failure = failure;
+      }
+   }
+}
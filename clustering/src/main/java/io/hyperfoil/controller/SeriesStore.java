@@ -0,0 +1,346 @@
+package io.hyperfoil.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+/**
+ * Append-only on-disk storage of the series of all phases, steps and metrics. Each sample is stored
+ * as a fixed-width record of counters followed by the compressed histogram and extensions of the sample.
+ * All series share a single file, so the controller holds one file descriptor regardless of the number of metrics;
+ * each {@link Series} keeps offsets of its records in memory, so a lookup does not scan the file.
+ * The file is memory-mapped for reading in chunks.
+ * The file is only a spill area for the run in progress: it is removed once the run is persisted
+ * (or when the store is closed), the permanent format is the JSON written by {@link JsonWriter}.
+ */
+final class SeriesStore implements Closeable {
+   private static final int MAGIC = 0x48465352; // HFSR
+   private static final short VERSION = 2;
+   // 64 MB
+   private static final int DEFAULT_CHUNK_SHIFT = 26;
+   private static final TypeReference<SortedMap<String, StatsExtension>> EXTENSIONS_TYPE = new TypeReference<>() {};
+
+   private final Path path;
+   private final FileChannel channel;
+   private final ChunkedMapping mapping;
+   private final int recordLength;
+   private final ByteBuffer recordBuffer;
+   private final ByteBuffer readBuffer;
+   private final ObjectWriter extensionsWriter = DatabindCodec.mapper().writerFor(EXTENSIONS_TYPE);
+   private final ObjectReader extensionsReader = DatabindCodec.mapper().readerFor(EXTENSIONS_TYPE);
+   private ByteBuffer histogramBuffer = ByteBuffer.allocate(1024);
+   private long fileSize;
+
+   SeriesStore(Path dir) {
+      this(dir, DEFAULT_CHUNK_SHIFT);
+   }
+
+   SeriesStore(Path dir, int chunkShift) {
+      path = dir.resolve("series");
+      try {
+         Files.createDirectories(dir);
+         channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+         ByteArrayOutputStream header = new ByteArrayOutputStream();
+         DataOutputStream output = new DataOutputStream(header);
+         output.writeInt(MAGIC);
+         output.writeShort(VERSION);
+         output.writeInt(StatisticsStore.PERCENTILES.length);
+         for (double p : StatisticsStore.PERCENTILES) {
+            output.writeDouble(p);
+         }
+         output.flush();
+         fileSize = write(channel, ByteBuffer.wrap(header.toByteArray()), 0);
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot create series in " + dir, e);
+      }
+      // start, end, min, mean, max, percentiles, 6 counters, blocked time, histogram and extensions length
+      recordLength = 5 * 8 + StatisticsStore.PERCENTILES.length * 8 + 6 * 4 + 8 + 4 + 4;
+      recordBuffer = ByteBuffer.allocate(recordLength);
+      readBuffer = ByteBuffer.allocate(recordLength);
+      mapping = new ChunkedMapping(channel, chunkShift);
+   }
+
+   synchronized Series newSeries() {
+      return new Series();
+   }
+
+   private synchronized void append(Series series, StatisticsSnapshot snapshot) {
+      AbstractHistogram histogram = snapshot.histogram();
+      long recordOffset = fileSize;
+      int histogramLength = 0;
+      byte[] extensions = null;
+      try {
+         if (histogram.getTotalCount() > 0) {
+            int capacity = histogram.getNeededByteBufferCapacity() + 64;
+            if (histogramBuffer.capacity() < capacity) {
+               histogramBuffer = ByteBuffer.allocate(capacity);
+            }
+            histogramBuffer.clear();
+            histogramLength = histogram.encodeIntoCompressedByteBuffer(histogramBuffer, Deflater.BEST_SPEED);
+            histogramBuffer.flip();
+         }
+         if (!snapshot.extensions.isEmpty()) {
+            extensions = extensionsWriter.writeValueAsBytes(new TreeMap<>(snapshot.extensions));
+         }
+
+         ByteBuffer buffer = recordBuffer.clear();
+         buffer.putLong(histogram.getStartTimeStamp());
+         buffer.putLong(histogram.getEndTimeStamp());
+         buffer.putLong(histogram.getMinValue());
+         buffer.putLong((long) histogram.getMean());
+         buffer.putLong(histogram.getMaxValue());
+         for (double p : StatisticsStore.PERCENTILES) {
+            buffer.putLong(histogram.getValueAtPercentile(p * 100));
+         }
+         buffer.putInt(snapshot.requestCount);
+         buffer.putInt(snapshot.responseCount);
+         buffer.putInt(snapshot.invalid);
+         buffer.putInt(snapshot.connectionErrors);
+         buffer.putInt(snapshot.requestTimeouts);
+         buffer.putInt(snapshot.internalErrors);
+         buffer.putLong(snapshot.blockedTime);
+         buffer.putInt(histogramLength);
+         buffer.putInt(extensions == null ? 0 : extensions.length);
+         fileSize += write(channel, buffer.flip(), fileSize);
+         if (histogramLength > 0) {
+            fileSize += write(channel, histogramBuffer, fileSize);
+         }
+         if (extensions != null) {
+            fileSize += write(channel, ByteBuffer.wrap(extensions), fileSize);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot append to series", e);
+      }
+      series.add(recordOffset);
+   }
+
+   private static int write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+      int written = 0;
+      while (buffer.hasRemaining()) {
+         written += channel.write(buffer, position + written);
+      }
+      return written;
+   }
+
+   private synchronized ByteBuffer readRecord(Series series, int index) throws IOException {
+      mapping.read(series.offsets[index], readBuffer.clear(), fileSize);
+      return readBuffer;
+   }
+
+   private synchronized StatisticsSummary read(Series series, int index) {
+      try {
+         ByteBuffer record = readRecord(series, index);
+         int pos = 0;
+         long startTime = record.getLong(pos);
+         long endTime = record.getLong(pos += 8);
+         long minResponseTime = record.getLong(pos += 8);
+         long meanResponseTime = record.getLong(pos += 8);
+         long maxResponseTime = record.getLong(pos += 8);
+         TreeMap<Double, Long> percentiles = new TreeMap<>();
+         for (double p : StatisticsStore.PERCENTILES) {
+            percentiles.put(p * 100, record.getLong(pos += 8));
+         }
+         int requestCount = record.getInt(pos += 8);
+         int responseCount = record.getInt(pos += 4);
+         int invalid = record.getInt(pos += 4);
+         int connectionErrors = record.getInt(pos += 4);
+         int requestTimeouts = record.getInt(pos += 4);
+         int internalErrors = record.getInt(pos += 4);
+         long blockedTime = record.getLong(pos += 4);
+         int histogramLength = record.getInt(pos += 8);
+         int extensionsLength = record.getInt(pos + 4);
+         long blobOffset = series.offsets[index] + recordLength;
+         SortedMap<String, StatsExtension> extensions;
+         if (extensionsLength == 0) {
+            extensions = new TreeMap<>();
+         } else {
+            byte[] bytes = new byte[extensionsLength];
+            mapping.read(blobOffset + histogramLength, ByteBuffer.wrap(bytes), fileSize);
+            extensions = extensionsReader.readValue(bytes);
+         }
+         return new StatisticsSummary(startTime, endTime, minResponseTime, meanResponseTime, maxResponseTime,
+               percentiles, requestCount, responseCount, invalid, connectionErrors, requestTimeouts, internalErrors,
+               blockedTime, extensions);
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot read series", e);
+      }
+   }
+
+   private synchronized AbstractHistogram readHistogram(Series series, int index) {
+      try {
+         ByteBuffer record = readRecord(series, index);
+         int histogramLength = record.getInt(recordLength - 8);
+         long startTime = record.getLong(0);
+         long endTime = record.getLong(8);
+         long blobOffset = series.offsets[index] + recordLength;
+         AbstractHistogram histogram;
+         if (histogramLength == 0) {
+            histogram = new StatisticsSnapshot().histogram();
+         } else {
+            // HdrHistogram reads the backing array directly, we cannot pass a slice of the mapped buffer
+            ByteBuffer buffer = ByteBuffer.allocate(histogramLength);
+            mapping.read(blobOffset, buffer, fileSize);
+            histogram = Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+         }
+         histogram.setStartTimeStamp(startTime);
+         histogram.setEndTimeStamp(endTime);
+         return histogram;
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot read series", e);
+      } catch (DataFormatException e) {
+         throw new IllegalStateException("Cannot decode histogram", e);
+      }
+   }
+
+   /**
+    * Removes the file; the data can be still read (on platforms that allow removing open files)
+    * until the store is closed.
+    */
+   synchronized void delete() {
+      try {
+         Files.deleteIfExists(path);
+      } catch (IOException e) {
+         // retried on close
+      }
+   }
+
+   @Override
+   public synchronized void close() {
+      mapping.release();
+      try {
+         channel.close();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      delete();
+   }
+
+   /**
+    * Read-only mapping of a file that grows by appending. The file is mapped in chunks so that offsets
+    * are not limited by the size of a single {@link MappedByteBuffer}. Complete chunks are mapped only once;
+    * the last chunk is remapped only when a read reaches past its current mapping.
+    */
+   private static final class ChunkedMapping {
+      private final FileChannel channel;
+      private final int chunkShift;
+      private final long chunkSize;
+      private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+      ChunkedMapping(FileChannel channel, int chunkShift) {
+         this.channel = channel;
+         this.chunkShift = chunkShift;
+         this.chunkSize = 1L << chunkShift;
+      }
+
+      void read(long position, ByteBuffer target, long fileSize) throws IOException {
+         while (target.hasRemaining()) {
+            int index = (int) (position >>> chunkShift);
+            int offset = (int) (position & (chunkSize - 1));
+            int length = (int) Math.min(target.remaining(), chunkSize - offset);
+            ByteBuffer chunk = chunk(index, offset + length, fileSize).duplicate();
+            chunk.limit(offset + length).position(offset);
+            target.put(chunk);
+            position += length;
+         }
+         target.flip();
+      }
+
+      private MappedByteBuffer chunk(int index, int required, long fileSize) throws IOException {
+         while (chunks.size() <= index) {
+            chunks.add(null);
+         }
+         MappedByteBuffer chunk = chunks.get(index);
+         if (chunk == null || chunk.capacity() < required) {
+            long start = (long) index << chunkShift;
+            long size = Math.min(chunkSize, fileSize - start);
+            if (size < required) {
+               throw new IOException("Reading past the end of file: " + (start + required) + " > " + fileSize);
+            }
+            // The previous mapping of this chunk is unmapped once it's garbage-collected
+            chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            chunks.set(index, chunk);
+         }
+         return chunk;
+      }
+
+      void release() {
+         chunks.clear();
+      }
+   }
+
+   /**
+    * View of single series. Appending a {@link StatisticsSummary} is not supported as the store records
+    * histogram of each sample; use {@link #append(StatisticsSnapshot)} instead.
+    */
+   final class Series extends AbstractList<StatisticsSummary> {
+      // offsets of the records in the file
+      private long[] offsets = new long[16];
+      private int size;
+
+      private Series() {
+      }
+
+      private void add(long offset) {
+         if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+         }
+         offsets[size++] = offset;
+      }
+
+      void append(StatisticsSnapshot snapshot) {
+         SeriesStore.this.append(this, snapshot);
+      }
+
+      AbstractHistogram histogram(int index) {
+         checkIndex(index);
+         return readHistogram(this, index);
+      }
+
+      @Override
+      public StatisticsSummary get(int index) {
+         checkIndex(index);
+         return read(this, index);
+      }
+
+      @Override
+      public int size() {
+         synchronized (SeriesStore.this) {
+            return size;
+         }
+      }
+
+      private void checkIndex(int index) {
+         if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+         }
+      }
+   }
+}
@@ -1,14 +1,19 @@
 package io.hyperfoil.controller;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.config.StatisticsConfig;
 import io.hyperfoil.core.util.LowHigh;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -17,8 +22,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.OptionalInt;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -31,6 +34,9 @@ public class StatisticsStore {
                .thenComparing(rs -> rs.phase).thenComparing(rs -> rs.metric);
 
    private final Benchmark benchmark;
+   private final Path seriesDir;
+   // created on first use, shared by all phases and metrics
+   private SeriesStore seriesStore;
    final Map<Integer, Map<String, Data>> data = new HashMap<>();
    private final Consumer<SLA.Failure> failureHandler;
    final List<SLA.Failure> failures = new ArrayList<>();
@@ -39,9 +45,19 @@ public class StatisticsStore {
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
    final Map<String, Map<String, Map<String, List<ConnectionPoolStats>>>> connectionPoolStats = new HashMap<>();
    final Map<String, Map<String, String>> cpuUsage = new HashMap<>();
+   final Map<String, RateSearch> rateSearches = new HashMap<>();
 
    public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this(benchmark, failureHandler, null);
+   }
+
+   /**
+    * @param seriesDir Directory where the series are stored while the run is in progress,
+    *                  or <code>null</code> to keep the series in memory.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, Path seriesDir) {
       this.benchmark = benchmark;
+      this.seriesDir = seriesDir;
       this.failureHandler = failureHandler;
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
@@ -57,7 +73,8 @@ public class StatisticsStore {
       Map<String, Data> map = this.data.computeIfAbsent((phaseId << 16) + stepId, phaseStep -> new HashMap<>());
       Data data = map.get(metric);
       if (data == null) {
-         long collectionPeriod = benchmark.statisticsCollectionPeriod();
+         // Windows are filled with merged samples, one per sampling period
+         long samplingPeriod = benchmark.statistics().forMetric(metric).samplingPeriod();
          Phase phase = benchmark.phases().stream().filter(p -> p.id() == phaseId).findFirst().get();
          SLA[] sla;
          if (stepId != 0) {
@@ -68,17 +85,94 @@ public class StatisticsStore {
          }
          Map<SLA, Window> rings = sla == null ? Collections.emptyMap() :
                Stream.of(sla).filter(s -> s.window() > 0).collect(
-                     Collectors.toMap(Function.identity(), s -> new Window((int) (s.window() / collectionPeriod))));
+                     Collectors.toMap(Function.identity(), s -> new Window((int) (s.window() / samplingPeriod))));
          SLA[] total = sla == null ? new SLA[0] : Stream.of(sla).filter(s -> s.window() <= 0).toArray(SLA[]::new);
          map.put(metric, data = new Data(this, phase.name, phase.isWarmup, stepId, metric, rings, total));
       }
-      return data.record(agentName, stats);
+      if (!data.record(agentName, stats)) {
+         return false;
+      }
+      if (!rateSearches.isEmpty()) {
+         RateSearch search = rateSearches.get(data.phase);
+         if (search != null) {
+            search.record(stats);
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @param phase     Phase with {@link Model.AdaptiveRate adaptive rate}.
+    * @param timestamp Start of the first step.
+    * @return New search, its result will be included in the report.
+    */
+   public RateSearch startRateSearch(Phase phase, long timestamp) {
+      // agents send the statistics at the end of each sampling period
+      long samplingPeriod = Stream.concat(Stream.of(benchmark.statistics()), benchmark.statistics().metrics().values().stream())
+            .mapToLong(StatisticsConfig::samplingPeriod).max().orElse(0);
+      RateSearch search = new RateSearch(phase.name, (Model.AdaptiveRate) phase.model, timestamp, samplingPeriod);
+      rateSearches.put(phase.name, search);
+      return search;
+   }
+
+   List<StatisticsSummary> newSeries() {
+      if (seriesDir == null) {
+         return new ArrayList<>();
+      }
+      if (seriesStore == null) {
+         seriesStore = new SeriesStore(seriesDir);
+      }
+      return seriesStore.newSeries();
+   }
+
+   /**
+    * @return Rough estimate of heap memory held by this store, in bytes.
+    */
+   public long estimatedFootprint() {
+      long footprint = 0;
+      for (Map<String, Data> m : this.data.values()) {
+         for (Data data : m.values()) {
+            footprint += data.estimatedFootprint();
+         }
+      }
+      return footprint;
+   }
+
+   /**
+    * Removes files holding the series after these were persisted in another format. The series can be still read
+    * until the store is closed, on platforms that do not allow removing open files the files are removed on close.
+    */
+   public void deleteSeries() {
+      if (seriesStore != null) {
+         seriesStore.delete();
+      }
+      deleteSeriesDir();
+   }
+
+   /**
+    * Releases and removes files holding the series. The store cannot be used afterwards.
+    */
+   public void close() {
+      if (seriesStore != null) {
+         seriesStore.close();
+      }
+      deleteSeriesDir();
+   }
+
+   private void deleteSeriesDir() {
+      if (seriesDir != null) {
+         try {
+            Files.deleteIfExists(seriesDir);
+         } catch (IOException e) {
+            // directory not empty yet, retried on close
+         }
+      }
    }
 
    public void addFailure(String phase, String metric, long startTimestamp, long endTimestamp, String cause) {
       StatisticsSnapshot statistics = new StatisticsSnapshot();
-      statistics.histogram.setStartTimeStamp(startTimestamp);
-      statistics.histogram.setEndTimeStamp(endTimestamp);
+      statistics.histogram().setStartTimeStamp(startTimestamp);
+      statistics.histogram().setEndTimeStamp(endTimestamp);
       failures.add(new SLA.Failure(null, phase, metric, statistics, cause));
    }
 
@@ -112,8 +206,8 @@ public class StatisticsStore {
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
             if (data.phase.equals(phase)) {
-               data.total.histogram.setStartTimeStamp(Math.min(start, data.total.histogram.getStartTimeStamp()));
-               data.total.histogram.setEndTimeStamp(Math.max(completion, data.total.histogram.getEndTimeStamp()));
+               data.total.histogram().setStartTimeStamp(Math.min(start, data.total.histogram().getStartTimeStamp()));
+               data.total.histogram().setEndTimeStamp(Math.max(completion, data.total.histogram().getEndTimeStamp()));
             }
          }
       }
@@ -127,23 +221,14 @@ public class StatisticsStore {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
-            OptionalInt lastSequenceId = data.lastStats.values().stream()
-                  .flatMapToInt(map -> map.keySet().stream().mapToInt(Integer::intValue)).max();
-            if (lastSequenceId.isEmpty()) {
-               continue;
-            }
-            // We'll use one id before the last one since the last one is likely not completed yet
-            int penultimateId = lastSequenceId.getAsInt() - 1;
-            StatisticsSnapshot sum = new StatisticsSnapshot();
-            data.lastStats.values().stream().map(map -> map.get(penultimateId))
-                  .filter(Objects::nonNull).forEach(sum::add);
-            if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
+            StatisticsSummary summary = data.recentSummary();
+            if (summary == null || summary.startTime < minValidTimestamp) {
                continue;
             }
             List<String> failures = this.failures.stream()
                   .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
                   .map(SLA.Failure::message).collect(Collectors.toList());
-            result.add(new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures, data.isWarmup));
+            result.add(new RequestStats(data.phase, data.stepId, data.metric, summary, failures, data.isWarmup));
          }
       }
       result.sort(REQUEST_STATS_COMPARATOR);
@@ -175,7 +260,7 @@ public class StatisticsStore {
       if (data == null) {
          return null;
       }
-      return HistogramConverter.convert(phase, metric, data.total.histogram);
+      return HistogramConverter.convert(phase, metric, data.total.histogram());
    }
 
    public void recordSessionStats(String address, long timestamp, String phase, int minSessions, int maxSessions) {
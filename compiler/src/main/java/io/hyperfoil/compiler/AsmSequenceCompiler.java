@@ -0,0 +1,176 @@
+package io.hyperfoil.compiler;
+
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kohsuke.MetaInfServices;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import io.hyperfoil.api.config.CompiledSteps;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.api.SequenceCompiler;
+
+/**
+ * Generates a class per sequence that holds each step in a field typed to the step's concrete class and dispatches
+ * {@link CompiledSteps#invoke(int, Session)} through a <code>tableswitch</code>. Each step gets its own
+ * <code>invokevirtual</code> call site with a single receiver type, so the JIT can inline the step even when
+ * the scenario uses many different step implementations.
+ * <p>
+ * When the concrete class is not accessible from the generated class (it's not public or it's not visible through
+ * its classloader) we use the nearest accessible superclass, falling back to the {@link Step} interface.
+ */
+@MetaInfServices(SequenceCompiler.class)
+public class AsmSequenceCompiler implements SequenceCompiler {
+   private static final String PREFIX = "io/hyperfoil/compiler/CompiledSequence$";
+   private static final String STEP = Type.getInternalName(Step.class);
+   private static final String INVOKE_DESCRIPTOR = Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(Session.class));
+   private static final AtomicInteger COUNTER = new AtomicInteger();
+
+   @Override
+   public CompiledSteps compile(Sequence sequence) {
+      Step[] steps = sequence.steps();
+      GeneratedClassLoader loader = new GeneratedClassLoader(parentLoader());
+      Class<?>[] types = new Class<?>[steps.length];
+      for (int i = 0; i < steps.length; ++i) {
+         types[i] = staticType(steps[i].getClass(), loader);
+      }
+      String name = PREFIX + COUNTER.incrementAndGet();
+      Class<?> clazz = loader.define(name.replace('/', '.'), generate(name, types));
+      try {
+         return (CompiledSteps) clazz.getConstructor(Step[].class).newInstance((Object) steps);
+      } catch (ReflectiveOperationException e) {
+         throw new IllegalStateException("Cannot instantiate compiled sequence " + sequence.name(), e);
+      }
+   }
+
+   private static ClassLoader parentLoader() {
+      ClassLoader context = Thread.currentThread().getContextClassLoader();
+      if (context != null && isVisible(CompiledSteps.class, context) && isVisible(Session.class, context)) {
+         return context;
+      }
+      return AsmSequenceCompiler.class.getClassLoader();
+   }
+
+   private static Class<?> staticType(Class<?> clazz, ClassLoader loader) {
+      for (; clazz != null && Step.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
+         if (isAccessible(clazz) && isVisible(clazz, loader)) {
+            return clazz;
+         }
+      }
+      return Step.class;
+   }
+
+   private static boolean isAccessible(Class<?> clazz) {
+      if (clazz.isAnonymousClass() || clazz.isLocalClass() || clazz.isSynthetic()) {
+         return false;
+      }
+      for (Class<?> c = clazz; c != null; c = c.getDeclaringClass()) {
+         if (!Modifier.isPublic(c.getModifiers())) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isVisible(Class<?> clazz, ClassLoader loader) {
+      try {
+         return Class.forName(clazz.getName(), false, loader) == clazz;
+      } catch (ClassNotFoundException | LinkageError e) {
+         return false;
+      }
+   }
+
+   static byte[] generate(String name, Class<?>[] types) {
+      ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+         @Override
+         protected String getCommonSuperClass(String type1, String type2) {
+            // We never merge frames with different reference types and we don't want ASM to load classes
+            return "java/lang/Object";
+         }
+      };
+      cw.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null,
+            "java/lang/Object", new String[]{ Type.getInternalName(CompiledSteps.class) });
+      for (int i = 0; i < types.length; ++i) {
+         cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, field(i), Type.getDescriptor(types[i]), null, null).visitEnd();
+      }
+      generateConstructor(cw, name, types);
+      generateInvoke(cw, name, types);
+      cw.visitEnd();
+      return cw.toByteArray();
+   }
+
+   private static void generateConstructor(ClassWriter cw, String name, Class<?>[] types) {
+      MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>",
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Step[].class)), null, null);
+      mv.visitCode();
+      mv.visitVarInsn(Opcodes.ALOAD, 0);
+      mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+      for (int i = 0; i < types.length; ++i) {
+         mv.visitVarInsn(Opcodes.ALOAD, 0);
+         mv.visitVarInsn(Opcodes.ALOAD, 1);
+         mv.visitLdcInsn(i);
+         mv.visitInsn(Opcodes.AALOAD);
+         if (types[i] != Step.class) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(types[i]));
+         }
+         mv.visitFieldInsn(Opcodes.PUTFIELD, name, field(i), Type.getDescriptor(types[i]));
+      }
+      mv.visitInsn(Opcodes.RETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+   }
+
+   private static void generateInvoke(ClassWriter cw, String name, Class<?>[] types) {
+      MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke",
+            Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.INT_TYPE, Type.getType(Session.class)), null, null);
+      mv.visitCode();
+      Label invalid = new Label();
+      if (types.length > 0) {
+         Label[] labels = new Label[types.length];
+         for (int i = 0; i < labels.length; ++i) {
+            labels[i] = new Label();
+         }
+         mv.visitVarInsn(Opcodes.ILOAD, 1);
+         mv.visitTableSwitchInsn(0, types.length - 1, invalid, labels);
+         for (int i = 0; i < types.length; ++i) {
+            mv.visitLabel(labels[i]);
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, name, field(i), Type.getDescriptor(types[i]));
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            if (types[i] == Step.class) {
+               mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, STEP, "invoke", INVOKE_DESCRIPTOR, true);
+            } else {
+               mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(types[i]), "invoke", INVOKE_DESCRIPTOR, false);
+            }
+            mv.visitInsn(Opcodes.IRETURN);
+         }
+      }
+      mv.visitLabel(invalid);
+      mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+      mv.visitInsn(Opcodes.DUP);
+      mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "()V", false);
+      mv.visitInsn(Opcodes.ATHROW);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+   }
+
+   private static String field(int index) {
+      return "step" + index;
+   }
+
+   private static class GeneratedClassLoader extends ClassLoader {
+      GeneratedClassLoader(ClassLoader parent) {
+         super(parent);
+      }
+
+      Class<?> define(String name, byte[] bytes) {
+         return defineClass(name, bytes, 0, bytes.length);
+      }
+   }
+}
@@ -0,0 +1,117 @@
+package io.hyperfoil.compiler;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.CompiledSteps;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.session.BaseScenarioTest;
+import io.hyperfoil.core.steps.NoopStep;
+import io.hyperfoil.internal.Properties;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class AsmSequenceCompilerTest extends BaseScenarioTest {
+   private static final AtomicInteger PUBLIC_INVOCATIONS = new AtomicInteger();
+   private static final AtomicInteger HIDDEN_INVOCATIONS = new AtomicInteger();
+   private static final AtomicInteger INTERPRETED_INVOCATIONS = new AtomicInteger();
+
+   @Test
+   public void testStaticTypes() throws Exception {
+      Sequence sequence = new Sequence("test", 0, 0, 0, new Step[]{ new PublicStep(), new HiddenStep(), new NoopStep() });
+      CompiledSteps compiled = new AsmSequenceCompiler().compile(sequence);
+      assertThat(compiled.getClass().getDeclaredField("step0").getType()).isEqualTo(PublicStep.class);
+      assertThat(compiled.getClass().getDeclaredField("step1").getType()).isEqualTo(Step.class);
+      assertThat(compiled.getClass().getDeclaredField("step2").getType()).isEqualTo(NoopStep.class);
+
+      PUBLIC_INVOCATIONS.set(0);
+      HIDDEN_INVOCATIONS.set(0);
+      INTERPRETED_INVOCATIONS.set(0);
+      assertThat(compiled.invoke(0, null)).isTrue();
+      assertThat(compiled.invoke(1, null)).isFalse();
+      assertThat(compiled.invoke(2, null)).isTrue();
+      assertThat(PUBLIC_INVOCATIONS.get()).isEqualTo(1);
+      assertThat(HIDDEN_INVOCATIONS.get()).isEqualTo(1);
+      assertThat(INTERPRETED_INVOCATIONS.get()).isEqualTo(0);
+      assertThatThrownBy(() -> compiled.invoke(3, null)).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> compiled.invoke(-1, null)).isInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void testEmptySequence() {
+      CompiledSteps compiled = new AsmSequenceCompiler().compile(new Sequence("empty", 0, 0, 0, new Step[0]));
+      assertThatThrownBy(() -> compiled.invoke(0, null)).isInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void testScenario() {
+      scenario(5)
+            .initialSequence("first")
+            .step(new PublicStep())
+            .step(SC).stopwatch().step(new NoopStep()).endStep()
+            .step(SC).nextSequence("second")
+            .endSequence()
+            .sequence("second")
+            .step(new PublicStep());
+
+      Benchmark benchmark = benchmarkBuilder.build();
+      PUBLIC_INVOCATIONS.set(0);
+      INTERPRETED_INVOCATIONS.set(0);
+      Map<String, StatisticsSnapshot> stats;
+      System.setProperty(Properties.COMPILE_SEQUENCES, "true");
+      try {
+         stats = runScenario(benchmark);
+      } finally {
+         System.clearProperty(Properties.COMPILE_SEQUENCES);
+      }
+      for (Sequence sequence : benchmark.phases().iterator().next().scenario().sequences()) {
+         assertThat(sequence.compiled()).as(sequence.name()).isNotNull();
+      }
+      assertThat(stats.get("first").responseCount).isEqualTo(5);
+      assertThat(PUBLIC_INVOCATIONS.get()).isEqualTo(10);
+      assertThat(INTERPRETED_INVOCATIONS.get()).isEqualTo(0);
+   }
+
+   @Override
+   protected int threads() {
+      return 1;
+   }
+
+   private static boolean calledFromCompiledSequence() {
+      return StackWalker.getInstance().walk(frames -> frames.skip(2).findFirst())
+            .map(frame -> frame.getClassName().startsWith("io.hyperfoil.compiler.CompiledSequence$")).orElse(false);
+   }
+
+   public static class PublicStep implements Step {
+      @Override
+      public boolean invoke(Session session) {
+         PUBLIC_INVOCATIONS.incrementAndGet();
+         if (!calledFromCompiledSequence()) {
+            INTERPRETED_INVOCATIONS.incrementAndGet();
+         }
+         return true;
+      }
+   }
+
+   static class HiddenStep implements Step {
+      @Override
+      public boolean invoke(Session session) {
+         HIDDEN_INVOCATIONS.incrementAndGet();
+         if (!calledFromCompiledSequence()) {
+            INTERPRETED_INVOCATIONS.incrementAndGet();
+         }
+         return false;
+      }
+   }
+}
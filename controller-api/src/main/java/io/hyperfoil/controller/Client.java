@@ -91,6 +91,13 @@ public interface Client {
 
       RequestStatisticsResponse statsTotal();
 
+      /**
+       * Subscribes to recent statistics pushed by the controller every second.
+       *
+       * @return Stream that must be closed when no more updates are needed.
+       */
+      StatsStream statsStream();
+
       byte[] statsAll(String format);
 
       Histogram histogram(String phase, int stepId, String metric);
@@ -102,6 +109,18 @@ public interface Client {
       Map<String, Map<String, String>> agentCpu();
    }
 
+   interface StatsStream extends AutoCloseable {
+      /**
+       * Blocks until the controller sends another update.
+       *
+       * @return Recent statistics or <code>null</code> when the stream has ended (e.g. because the run terminated).
+       */
+      RequestStatisticsResponse next();
+
+      @Override
+      void close();
+   }
+
    class MinMax {
       public final int min;
       public final int max;
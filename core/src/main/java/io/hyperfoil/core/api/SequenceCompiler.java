@@ -0,0 +1,18 @@
+package io.hyperfoil.core.api;
+
+import java.util.ServiceLoader;
+
+import io.hyperfoil.api.config.CompiledSteps;
+import io.hyperfoil.api.config.Sequence;
+
+/**
+ * Optional service turning steps of a {@link Sequence} into {@link CompiledSteps}. Compilation is enabled through
+ * {@link io.hyperfoil.internal.Properties#COMPILE_SEQUENCES}; the implementation is looked up using {@link ServiceLoader}.
+ */
+public interface SequenceCompiler {
+   static SequenceCompiler lookup() {
+      return ServiceLoader.load(SequenceCompiler.class).findFirst().orElse(null);
+   }
+
+   CompiledSteps compile(Sequence sequence);
+}
@@ -4,6 +4,7 @@ import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.function.Supplier;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.collection.LimitedPool;
 import io.hyperfoil.api.session.Session;
 
@@ -35,5 +36,5 @@ public class LimitedPoolResource<T> extends LimitedPool<T> implements Session.Re
       reset(originalObjects);
    }
 
-   public static class Key<T> implements Session.ResourceKey<LimitedPoolResource<T>> {}
+   public static class Key<T> extends ResourceSlots.Key<LimitedPoolResource<T>> {}
 }
@@ -3,6 +3,7 @@ package io.hyperfoil.core.data;
 import java.util.Arrays;
 import java.util.Objects;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.Action;
@@ -131,5 +132,5 @@ public class Queue implements Session.Resource {
       }
    }
 
-   public static class Key implements Session.ResourceKey<Queue> {}
+   public static class Key extends ResourceSlots.Key<Queue> {}
 }
@@ -121,6 +121,13 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       }
    }
 
+   /**
+    * @return True if the pattern does not reference any session variables.
+    */
+   public boolean isConstant() {
+      return components.length == 0 || components.length == 1 && components[0] instanceof StringComponent;
+   }
+
    @Override
    public String apply(Session session) {
       if (components.length == 1 && components[0] instanceof StringComponent) {
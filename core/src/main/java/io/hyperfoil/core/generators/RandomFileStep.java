@@ -1,13 +1,14 @@
 package io.hyperfoil.core.generators;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import org.kohsuke.MetaInfServices;
 
-import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.BenchmarkBuilder;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.Name;
@@ -16,17 +17,21 @@ import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.util.MappedFile;
 import io.hyperfoil.impl.Util;
 
 public class RandomFileStep implements Step {
    private final WeightedGenerator generator;
+   // Exactly one of these is set
    private final byte[][] fileBytes;
+   private final MappedFile[] files;
    private final ObjectAccess toVar;
    private final ObjectAccess filenameVar;
 
-   public RandomFileStep(WeightedGenerator generator, byte[][] fileBytes, ObjectAccess toVar, ObjectAccess filenameVar) {
+   public RandomFileStep(WeightedGenerator generator, byte[][] fileBytes, MappedFile[] files, ObjectAccess toVar, ObjectAccess filenameVar) {
       this.generator = generator;
       this.fileBytes = fileBytes;
+      this.files = files;
       this.toVar = toVar;
       this.filenameVar = filenameVar;
    }
@@ -34,7 +39,8 @@ public class RandomFileStep implements Step {
    @Override
    public boolean invoke(Session session) {
       int index = generator.randomIndex();
-      toVar.setObject(session, fileBytes[index]);
+      // Each variable gets its own view so that readers cannot affect each other
+      toVar.setObject(session, fileBytes != null ? fileBytes[index] : files[index].buffer());
       if (filenameVar != null) {
          filenameVar.setObject(session, generator.items()[index]);
       }
@@ -66,6 +72,7 @@ public class RandomFileStep implements Step {
       private String toVar;
       private WeightedGenerator.Builder<Builder> weighted = new WeightedGenerator.Builder<>(this);
       private String filenameVar;
+      private boolean byteBuffer;
 
       /**
        * Potentially weighted list of files to choose from.
@@ -77,7 +84,7 @@ public class RandomFileStep implements Step {
       }
 
       /**
-       * Variable where the chosen byte array should be stored.
+       * Variable where the contents of the chosen file should be stored.
        *
        * @param var Variable name.
        * @return Self.
@@ -98,19 +105,47 @@ public class RandomFileStep implements Step {
          return this;
       }
 
+      /**
+       * Store the contents as a read-only <code>java.nio.ByteBuffer</code> instead of a byte array.
+       * The files are memory-mapped on the agents and their contents are not copied to heap;
+       * each invocation stores a new view of the contents. Default is <code>false</code>.
+       *
+       * @param byteBuffer Use <code>java.nio.ByteBuffer</code>.
+       * @return Self.
+       */
+      public Builder byteBuffer(boolean byteBuffer) {
+         this.byteBuffer = byteBuffer;
+         return this;
+      }
+
       @Override
       public List<Step> build() {
          WeightedGenerator generator = weighted.build();
-         BenchmarkData data = Locator.current().benchmark().data();
+         BenchmarkBuilder benchmark = Locator.current().benchmark();
          List<byte[]> fileBytes = new ArrayList<>();
+         List<MappedFile> files = new ArrayList<>();
          for (String file : generator.items()) {
             try {
-               fileBytes.add(Util.toByteArray(data.readFile(file)));
+               if (byteBuffer) {
+                  MappedFile mappedFile = MappedFile.load(benchmark, file);
+                  if (mappedFile == null) {
+                     throw new BenchmarkDefinitionException("Cannot read bytes from file " + file + " (not found).");
+                  }
+                  files.add(mappedFile);
+               } else {
+                  try (InputStream stream = benchmark.data().readFile(file)) {
+                     if (stream == null) {
+                        throw new BenchmarkDefinitionException("Cannot read bytes from file " + file + " (not found).");
+                     }
+                     fileBytes.add(Util.toByteArray(stream));
+                  }
+               }
             } catch (IOException e) {
                throw new BenchmarkDefinitionException("Cannot read bytes from file " + file);
             }
          }
-         return Collections.singletonList(new RandomFileStep(generator, fileBytes.toArray(new byte[0][]),
+         return Collections.singletonList(new RandomFileStep(generator,
+               byteBuffer ? null : fileBytes.toArray(new byte[0][]), byteBuffer ? files.toArray(new MappedFile[0]) : null,
                SessionFactory.objectAccess(toVar), SessionFactory.objectAccess(filenameVar)));
       }
    }
@@ -11,6 +11,7 @@ import org.apache.logging.log4j.LogManager;
 
 public class DefragProcessor extends Processor.BaseDelegating implements ResourceUtilizer, Session.ResourceKey<DefragProcessor.Context> {
    private static final Logger log = LogManager.getLogger(DefragProcessor.class);
+   private int resourceIndex = -1;
 
    public static Processor of(Processor delegate, boolean fragmented) {
       return fragmented ? new DefragProcessor(delegate) : delegate;
@@ -35,6 +36,16 @@ public class DefragProcessor extends Processor.BaseDelegating implements Resourc
       }
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
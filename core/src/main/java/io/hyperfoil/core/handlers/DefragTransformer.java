@@ -11,6 +11,7 @@ import org.apache.logging.log4j.LogManager;
 
 public class DefragTransformer extends Transformer.BaseDelegating implements ResourceUtilizer, Session.ResourceKey<DefragTransformer.Context> {
    private static final Logger log = LogManager.getLogger(DefragTransformer.class);
+   private int resourceIndex = -1;
 
    public DefragTransformer(Transformer delegate) {
       super(delegate);
@@ -31,6 +32,16 @@ public class DefragTransformer extends Transformer.BaseDelegating implements Res
       }
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       // Note: contrary to the recommended pattern the Context won't reserve all objects ahead, the CompositeByteBuf
@@ -30,6 +30,7 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
    private static final int FCOMMENT = 16;   // File comment
 
    private final ReadAccess encodingVar;
+   private int resourceIndex = -1;
 
    public GzipInflatorProcessor(Processor[] processors, ReadAccess encodingVar) {
       super(processors);
@@ -59,6 +60,16 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
       resource.process(session, data, offset, length);
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, InflaterResource::new);
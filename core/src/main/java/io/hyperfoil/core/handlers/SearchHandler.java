@@ -16,6 +16,7 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
    private final int beginHash, endHash;
    private final int beginCoef, endCoef;
    private Processor processor;
+   private int resourceIndex = -1;
 
    public SearchHandler(String begin, String end, Processor processor) {
       this.begin = begin.getBytes(StandardCharsets.UTF_8);
@@ -96,6 +97,16 @@ public class SearchHandler implements Processor, ResourceUtilizer, Session.Resou
       processor.after(session);
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -17,6 +17,7 @@ public class SearchValidator implements Processor, ResourceUtilizer, Session.Res
    private final int hash;
    private final int coef;
    private final IntPredicate match;
+   private int resourceIndex = -1;
 
    /**
     * @param text  Search pattern.
@@ -73,6 +74,16 @@ public class SearchValidator implements Processor, ResourceUtilizer, Session.Res
       }
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
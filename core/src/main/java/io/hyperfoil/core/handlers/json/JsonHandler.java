@@ -14,6 +14,7 @@ import io.netty.buffer.ByteBuf;
 import io.hyperfoil.api.session.Session;
 
 public class JsonHandler extends JsonParser implements Processor, ResourceUtilizer, Session.ResourceKey<JsonHandler.Context> {
+   private int resourceIndex = -1;
 
    public JsonHandler(String query, boolean delete, Transformer replace, Processor processor) {
       super(query.trim(), delete, replace, processor);
@@ -52,6 +53,16 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
             '}';
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -17,6 +17,7 @@ public class JsonUnquotingTransformer implements Transformer, Processor, Resourc
    private static final ByteBuf TAB = Unpooled.wrappedBuffer("\t".getBytes(StandardCharsets.UTF_8));
 
    protected final Transformer delegate;
+   private int resourceIndex = -1;
 
    public JsonUnquotingTransformer(Transformer delegate) {
       this.delegate = delegate;
@@ -151,6 +152,16 @@ public class JsonUnquotingTransformer implements Transformer, Processor, Resourc
       delegate.after(session);
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -0,0 +1,287 @@
+package io.hyperfoil.core.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import io.hyperfoil.api.collection.ElasticPool;
+import io.hyperfoil.api.session.Session;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Session pool that keeps a stack of sessions for each executor. Sessions are always released by the executor
+ * they are bound to and land in the stack owned by that executor; the owner acquires sessions from its own stack
+ * without any contention. Only when the local stack is depleted the pool tries to steal sessions from other executors.
+ * Threads that don't belong to any executor (e.g. when starting an <code>atOnce</code> phase) always steal,
+ * rotating the starting executor to distribute sessions evenly.
+ * <p>
+ * Usage is tracked for each executor separately (based on the executor the session is bound to);
+ * {@link #minUsed()} and {@link #maxUsed()} return the sums of these.
+ */
+public class AffinityAwareSessionPool implements ElasticPool<Session> {
+   // Static: Netty never releases thread-local indices, a per-pool instance would leak one for each pool
+   private static final FastThreadLocal<LocalIndex> LOCAL_INDEX = new FastThreadLocal<>() {
+      @Override
+      protected LocalIndex initialValue() {
+         return new LocalIndex();
+      }
+   };
+
+   private final EventExecutor[] executors;
+   private final Supplier<Session> sessionSupplier;
+   private final Supplier<Session> depletionSupplier;
+   // Sessions released from a thread that does not own any stack, or that did not fit into the stack
+   private final Queue<Session> overflow = new ConcurrentLinkedQueue<>();
+   private final ExecutorStack[] stacks;
+   private int created;
+   // Races on this are harmless, the value is used only for load distribution
+   private int nextSteal;
+
+   public AffinityAwareSessionPool(EventExecutor[] executors, Supplier<Session> sessionSupplier, Supplier<Session> depletionSupplier) {
+      this.executors = executors;
+      this.sessionSupplier = sessionSupplier;
+      this.depletionSupplier = depletionSupplier;
+      this.stacks = new ExecutorStack[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         stacks[i] = new ExecutorStack(i, 0);
+      }
+   }
+
+   @Override
+   public Session acquire() {
+      ExecutorStack local = localStack();
+      Session session = null;
+      if (local != null) {
+         session = local.pop();
+      }
+      if (session == null) {
+         session = overflow.poll();
+      }
+      if (session == null) {
+         int start = local == null ? nextSteal++ : local.id + 1;
+         for (int i = 0; i < stacks.length && session == null; ++i) {
+            ExecutorStack victim = stacks[Math.floorMod(start + i, stacks.length)];
+            if (victim != local) {
+               session = victim.steal();
+            }
+         }
+      }
+      if (session == null) {
+         session = depletionSupplier.get();
+      }
+      if (session != null) {
+         stacks[session.agentThreadId()].incrementUsed();
+      }
+      return session;
+   }
+
+   @Override
+   public void release(Session session) {
+      stacks[session.agentThreadId()].decrementUsed();
+      ExecutorStack local = localStack();
+      if (local == null || !local.push(session)) {
+         overflow.add(session);
+      }
+   }
+
+   /**
+    * Creates sessions up to the total capacity. This method must not be invoked concurrently with
+    * {@link #acquire()} or {@link #release(Session)}; it is meant to be called during initialization only.
+    *
+    * @param capacity Total number of sessions in the pool.
+    */
+   @Override
+   public void reserve(int capacity) {
+      if (created >= capacity) {
+         return;
+      }
+      int perExecutor = (capacity + executors.length - 1) / executors.length;
+      for (int i = 0; i < stacks.length; ++i) {
+         ExecutorStack stack = stacks[i];
+         if (stack.capacity() < perExecutor) {
+            ExecutorStack resized = new ExecutorStack(i, perExecutor);
+            Session session;
+            while ((session = stack.pop()) != null) {
+               resized.push(session);
+            }
+            stacks[i] = resized;
+         }
+      }
+      while (created < capacity) {
+         Session session = sessionSupplier.get();
+         ++created;
+         if (!stacks[session.agentThreadId()].push(session)) {
+            overflow.add(session);
+         }
+      }
+   }
+
+   private ExecutorStack localStack() {
+      LocalIndex local = LOCAL_INDEX.get();
+      // All pools in a run share the same executors array so this is computed once per thread and run
+      if (local.executors != executors) {
+         local.executors = executors;
+         local.index = -1;
+         for (int i = 0; i < executors.length; ++i) {
+            if (executors[i].inEventLoop()) {
+               local.index = i;
+               break;
+            }
+         }
+      }
+      return local.index < 0 ? null : stacks[local.index];
+   }
+
+   @Override
+   public int minUsed() {
+      int sum = 0;
+      for (ExecutorStack stack : stacks) {
+         sum += stack.minUsed;
+      }
+      return sum;
+   }
+
+   @Override
+   public int maxUsed() {
+      int sum = 0;
+      for (ExecutorStack stack : stacks) {
+         sum += stack.maxUsed;
+      }
+      return sum;
+   }
+
+   @Override
+   public void resetStats() {
+      for (ExecutorStack stack : stacks) {
+         stack.resetStats();
+      }
+   }
+
+   public int executors() {
+      return stacks.length;
+   }
+
+   public int minUsed(int executorId) {
+      return stacks[executorId].minUsed;
+   }
+
+   public int maxUsed(int executorId) {
+      return stacks[executorId].maxUsed;
+   }
+
+   public void resetStats(int executorId) {
+      stacks[executorId].resetStats();
+   }
+
+   /**
+    * Fixed-size work-stealing stack (Chase-Lev deque). Only the owning executor can {@link #push(Session)}
+    * and {@link #pop()}, other threads can {@link #steal()} from the other end.
+    */
+   private static final class ExecutorStack {
+      private static final AtomicLongFieldUpdater<ExecutorStack> TOP =
+            AtomicLongFieldUpdater.newUpdater(ExecutorStack.class, "top");
+      private static final AtomicIntegerFieldUpdater<ExecutorStack> USED =
+            AtomicIntegerFieldUpdater.newUpdater(ExecutorStack.class, "used");
+      private static final AtomicIntegerFieldUpdater<ExecutorStack> MIN_USED =
+            AtomicIntegerFieldUpdater.newUpdater(ExecutorStack.class, "minUsed");
+      private static final AtomicIntegerFieldUpdater<ExecutorStack> MAX_USED =
+            AtomicIntegerFieldUpdater.newUpdater(ExecutorStack.class, "maxUsed");
+
+      private final int id;
+      private final AtomicReferenceArray<Session> elements;
+      private final int mask;
+      private volatile long top;
+      private volatile long bottom;
+      private volatile int used;
+      private volatile int minUsed;
+      private volatile int maxUsed;
+
+      ExecutorStack(int id, int capacity) {
+         this.id = id;
+         mask = capacity == 0 ? 0 : (1 << 32 - Integer.numberOfLeadingZeros(capacity - 1)) - 1;
+         elements = new AtomicReferenceArray<>(capacity == 0 ? 0 : mask + 1);
+      }
+
+      int capacity() {
+         return elements.length();
+      }
+
+      boolean push(Session session) {
+         long b = bottom;
+         if (b - top >= elements.length()) {
+            return false;
+         }
+         elements.set((int) (b & mask), session);
+         bottom = b + 1;
+         return true;
+      }
+
+      Session pop() {
+         long b = bottom - 1;
+         bottom = b;
+         long t = top;
+         if (t > b) {
+            bottom = b + 1;
+            return null;
+         }
+         Session session = elements.get((int) (b & mask));
+         if (t == b) {
+            // Last element, compete with thieves
+            if (!TOP.compareAndSet(this, t, t + 1)) {
+               session = null;
+            }
+            bottom = b + 1;
+         }
+         return session;
+      }
+
+      Session steal() {
+         for (; ; ) {
+            long t = top;
+            if (t >= bottom) {
+               return null;
+            }
+            Session session = elements.get((int) (t & mask));
+            if (TOP.compareAndSet(this, t, t + 1)) {
+               return session;
+            }
+         }
+      }
+
+      // Sessions bound to this executor can be acquired from other threads (stealing, atOnce start)
+      // so the watermarks are updated with CAS rather than a racy read-modify-write.
+      void incrementUsed() {
+         int current = USED.incrementAndGet(this);
+         for (int max = maxUsed; current > max; max = maxUsed) {
+            if (MAX_USED.compareAndSet(this, max, current)) {
+               break;
+            }
+         }
+      }
+
+      void decrementUsed() {
+         int current = USED.decrementAndGet(this);
+         for (int min = minUsed; current < min; min = minUsed) {
+            if (MIN_USED.compareAndSet(this, min, current)) {
+               break;
+            }
+         }
+         assert current >= 0;
+      }
+
+      void resetStats() {
+         int current = used;
+         MIN_USED.set(this, current);
+         MAX_USED.set(this, current);
+      }
+   }
+
+   private static class LocalIndex {
+      EventExecutor[] executors;
+      int index = -1;
+   }
+}
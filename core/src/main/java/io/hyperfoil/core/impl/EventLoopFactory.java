@@ -4,15 +4,27 @@ import io.hyperfoil.internal.Properties;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.kqueue.KQueue;
 import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.kqueue.KQueueServerSocketChannel;
 import io.netty.channel.kqueue.KQueueSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
 
 public abstract class EventLoopFactory {
+   private static final Logger log = LogManager.getLogger(EventLoopFactory.class);
    public static final EventLoopFactory INSTANCE;
 
    static {
@@ -28,18 +40,30 @@ public abstract class EventLoopFactory {
             case "kqueue":
                INSTANCE = new KqueueEventLoopFactory();
                break;
-            // TODO: io_uring requires kernel >= 5.9
+            case "io_uring":
+               // io_uring requires kernel >= 5.9 and might be disabled in containers
+               if (IOUring.isAvailable()) {
+                  INSTANCE = new IOUringEventLoopFactory();
+               } else {
+                  log.warn("Transport io_uring is not available, using the default one.", IOUring.unavailabilityCause());
+                  INSTANCE = defaultFactory();
+               }
+               break;
             default:
-               throw new IllegalStateException("Unknown transport '" + transport + "', use either 'nio' or 'epoll'.");
+               throw new IllegalStateException("Unknown transport '" + transport + "', use either 'nio', 'epoll', 'kqueue' or 'io_uring'.");
          }
       } else {
-         if (Epoll.isAvailable()) {
-            INSTANCE = new EpollEventLoopFactory();
-         } else if (KQueue.isAvailable()) {
-            INSTANCE = new KqueueEventLoopFactory();
-         } else {
-            INSTANCE = new NioEventLoopFactory();
-         }
+         INSTANCE = defaultFactory();
+      }
+   }
+
+   private static EventLoopFactory defaultFactory() {
+      if (Epoll.isAvailable()) {
+         return new EpollEventLoopFactory();
+      } else if (KQueue.isAvailable()) {
+         return new KqueueEventLoopFactory();
+      } else {
+         return new NioEventLoopFactory();
       }
    }
 
@@ -47,6 +71,8 @@ public abstract class EventLoopFactory {
 
    public abstract Class<? extends SocketChannel> socketChannel();
 
+   public abstract Class<? extends ServerSocketChannel> serverSocketChannel();
+
    private static class NioEventLoopFactory extends EventLoopFactory {
       @Override
       public EventLoopGroup create(int threads) {
@@ -57,6 +83,11 @@ public abstract class EventLoopFactory {
       public Class<? extends SocketChannel> socketChannel() {
          return NioSocketChannel.class;
       }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return NioServerSocketChannel.class;
+      }
    }
 
    private static class EpollEventLoopFactory extends EventLoopFactory {
@@ -69,6 +100,11 @@ public abstract class EventLoopFactory {
       public Class<? extends SocketChannel> socketChannel() {
          return EpollSocketChannel.class;
       }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return EpollServerSocketChannel.class;
+      }
    }
 
    private static class KqueueEventLoopFactory extends EventLoopFactory {
@@ -81,5 +117,27 @@ public abstract class EventLoopFactory {
       public Class<? extends SocketChannel> socketChannel() {
          return KQueueSocketChannel.class;
       }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return KQueueServerSocketChannel.class;
+      }
+   }
+
+   private static class IOUringEventLoopFactory extends EventLoopFactory {
+      @Override
+      public EventLoopGroup create(int threads) {
+         return new IOUringEventLoopGroup(threads);
+      }
+
+      @Override
+      public Class<? extends SocketChannel> socketChannel() {
+         return IOUringSocketChannel.class;
+      }
+
+      @Override
+      public Class<? extends ServerSocketChannel> serverSocketChannel() {
+         return IOUringServerSocketChannel.class;
+      }
    }
 }
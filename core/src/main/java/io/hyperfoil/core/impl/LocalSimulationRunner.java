@@ -9,6 +9,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.PhaseInstance;
 import io.hyperfoil.core.impl.statistics.StatisticsCollector;
@@ -36,6 +37,12 @@ public class LocalSimulationRunner extends SimulationRunner {
       if (benchmark.phases().isEmpty()) {
          throw new BenchmarkDefinitionException("No phases/scenarios have been defined");
       }
+      for (Phase phase : benchmark.phases()) {
+         // the rate search runs in the controller
+         if (phase.model instanceof Model.AdaptiveRate) {
+            throw new BenchmarkDefinitionException("Phase " + phase.name + " uses adaptive rate; this is not supported in local runs.");
+         }
+      }
 
       CountDownLatch latch = new CountDownLatch(1);
       init();
@@ -1,6 +1,7 @@
 package io.hyperfoil.core.impl;
 
 import io.hyperfoil.api.config.Model;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.collection.ElasticPool;
@@ -16,9 +17,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
 import java.util.stream.IntStream;
 
 public abstract class PhaseInstanceImpl implements PhaseInstance {
@@ -59,6 +63,7 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       constructors.put(Model.Always.class, Always::new);
       constructors.put(Model.RampRate.class, RampRate::new);
       constructors.put(Model.ConstantRate.class, ConstantRate::new);
+      constructors.put(Model.AdaptiveRate.class, AdaptiveRate::new);
       constructors.put(Model.Sequentially.class, Sequentially::new);
       constructors.put(Model.Noop.class, Noop::new);
    }
@@ -215,6 +220,15 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
    }
 
    protected boolean startNewSession() {
+      return startNewSession(Long.MIN_VALUE);
+   }
+
+   /**
+    * @param intendedStart {@link System#nanoTime()} when the session should start, or {@link Long#MIN_VALUE}
+    *                      when coordinated omission is not corrected.
+    * @return True if the session could not be started.
+    */
+   protected boolean startNewSession(long intendedStart) {
       int numActive = activeSessions.incrementAndGet();
       if (numActive < 0) {
          // finished
@@ -235,7 +249,11 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          notifyFinished(null);
          return true;
       }
-      session.start(this);
+      if (intendedStart == Long.MIN_VALUE) {
+         session.start(this);
+      } else {
+         session.start(this, intendedStart);
+      }
       return false;
    }
 
@@ -314,16 +332,34 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
       }
    }
 
+   /**
+    * Each executor runs its own share of the arrival rate: users arrive at times when the cumulative number
+    * of users expected by the model reaches given positions. With <code>variance</code> the positions follow
+    * a Poisson process, otherwise every executor takes every n-th position (offset by its index).
+    * Sessions are acquired and started from the executor that scheduled them, so normally they don't
+    * need to be handed over to another thread.
+    */
    protected abstract static class OpenModelPhase extends PhaseInstanceImpl {
       protected final int maxSessions;
-      protected final Random random = new Random();
-      protected double nextScheduled;
       protected AtomicLong throttledUsers = new AtomicLong(0);
-      protected long startedOrThrottledUsers = 0;
+      // Scheduled starts of throttled users, null unless the phase corrects coordinated omission
+      private final DelayedStarts delayedStarts;
+      protected volatile long absoluteStartNanos;
+      private volatile Arrivals[] arrivals;
+      // Replaced in tests
+      LongSupplier nanoTime = System::nanoTime;
 
       protected OpenModelPhase(Phase def, String runId, int agentId) {
          super(def, runId, agentId);
-         maxSessions = Math.max(1, def.benchmark().slice(((Model.OpenModel) def.model).maxSessions, agentId));
+         Model.OpenModel model = (Model.OpenModel) def.model;
+         maxSessions = Math.max(1, def.benchmark().slice(model.maxSessions, agentId));
+         delayedStarts = model.correctCoordinatedOmission ? new DelayedStarts() : null;
+      }
+
+      @Override
+      public void start(EventExecutorGroup executorGroup) {
+         absoluteStartNanos = nanoTime.getAsLong();
+         super.start(executorGroup);
       }
 
       @Override
@@ -331,43 +367,45 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          if (status.isFinished()) {
             return;
          }
-         long now = System.currentTimeMillis();
-         long delta = now - absoluteStartTime;
-         long nextDelta;
-         Model.OpenModel model = (Model.OpenModel) def.model;
-
-         if (model.variance) {
-            while (delta > nextScheduled) {
-               if (startNewSession()) {
-                  throttledUsers.incrementAndGet();
-               }
-               startedOrThrottledUsers++;
-               // TODO: after many iterations there will be some skew due to imprecise double calculations
-               // Maybe we could restart from the expected rate every 1000th session?
-               nextScheduled = nextSessionRandomized();
-            }
-         } else {
-            long required = nextSessionMetronome(delta);
-            for (long i = required - startedOrThrottledUsers; i > 0; --i) {
-               if (startNewSession()) {
-                  throttledUsers.addAndGet(i);
-                  break;
-               }
-            }
-            startedOrThrottledUsers = Math.max(required, startedOrThrottledUsers);
+         int executors = 0;
+         for (EventExecutor ignored : executorGroup) {
+            ++executors;
          }
-         nextDelta = (long) Math.ceil(nextScheduled);
+         Arrivals[] arrivals = new Arrivals[executors];
+         int index = 0;
+         for (EventExecutor executor : executorGroup) {
+            arrivals[index] = new Arrivals(executor, index, executors);
+            executor.execute(arrivals[index++]);
+         }
+         this.arrivals = arrivals;
+      }
 
-         if (trace) {
-            log.trace("{}: {} after start, {} started ({} throttled), next user in {} ms", def.name, delta,
-                  startedOrThrottledUsers, throttledUsers.get(), nextDelta - delta);
+      /**
+       * Recomputes the next arrival on all executors, e.g. after a change of the rate.
+       */
+      protected void reschedule() {
+         Arrivals[] arrivals = this.arrivals;
+         if (arrivals != null) {
+            for (Arrivals a : arrivals) {
+               a.executor.execute(a::reschedule);
+            }
          }
-         executorGroup.schedule(() -> proceed(executorGroup), nextDelta - delta, TimeUnit.MILLISECONDS);
       }
 
-      protected abstract long nextSessionMetronome(long delta);
+      /**
+       * @param users Expected number of users started since the beginning of the phase.
+       * @return Time since the beginning of the phase in seconds, or infinity if the number of users
+       * is never reached.
+       */
+      protected abstract double inverseCumulativeUsers(double users);
 
-      protected abstract double nextSessionRandomized();
+      private void throttle(long intendedStart, long users) {
+         if (delayedStarts != null) {
+            // the start must be available before notifyFinished can see the increment
+            delayedStarts.add(intendedStart, users);
+         }
+         throttledUsers.addAndGet(users);
+      }
 
       @Override
       public void reserveSessions() {
@@ -381,10 +419,12 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
             long throttled = throttledUsers.get();
             while (throttled != 0) {
                if (throttledUsers.compareAndSet(throttled, throttled - 1)) {
-                  // TODO: it would be nice to compensate response times
-                  // in these invocations for the fact that we're applying
-                  // SUT feedback, but that would be imprecise anyway.
-                  session.start(this);
+                  if (delayedStarts == null) {
+                     session.start(this);
+                  } else {
+                     // response times will include the time this user spent waiting for a session
+                     session.start(this, delayedStarts.poll());
+                  }
                   return;
                } else {
                   throttled = throttledUsers.get();
@@ -393,41 +433,198 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          }
          super.notifyFinished(session);
       }
+
+      /**
+       * Arrivals handled by single executor; all methods are invoked in this executor only.
+       */
+      private final class Arrivals implements Runnable {
+         private final EventExecutor executor;
+         private final ArrivalSchedule schedule;
+         private long nextArrival;
+         private long started;
+         private ScheduledFuture<?> timer;
+
+         Arrivals(EventExecutor executor, int index, int executors) {
+            this.executor = executor;
+            Random random = ((Model.OpenModel) def.model).variance ? new Random() : null;
+            this.schedule = new ArrivalSchedule(OpenModelPhase.this::inverseCumulativeUsers, index, executors, random);
+            advance();
+         }
+
+         private void advance() {
+            setNextArrival(schedule.next());
+         }
+
+         private void setNextArrival(long offset) {
+            nextArrival = offset == Long.MAX_VALUE ? Long.MAX_VALUE : absoluteStartNanos + offset;
+         }
+
+         private void reschedule() {
+            if (timer != null) {
+               timer.cancel(false);
+               timer = null;
+            }
+            // the user waiting for the old timer has not arrived yet; compute its arrival at the current rate
+            setNextArrival(schedule.current());
+            run();
+         }
+
+         @Override
+         public void run() {
+            timer = null;
+            if (status.isFinished()) {
+               return;
+            }
+            long now = nanoTime.getAsLong();
+            while (nextArrival != Long.MAX_VALUE && nextArrival - now <= 0) {
+               long intendedStart = delayedStarts == null ? Long.MIN_VALUE : nextArrival;
+               if (startNewSession(intendedStart)) {
+                  throttle(nextArrival, 1);
+               }
+               ++started;
+               advance();
+            }
+            if (trace) {
+               log.trace("{}: {} ns after start, {} started or throttled on this executor ({} throttled in total), next user in {} ns",
+                     def.name, now - absoluteStartNanos, started, throttledUsers.get(), nextArrival - now);
+            }
+            if (nextArrival != Long.MAX_VALUE) {
+               timer = executor.schedule(this, nextArrival - now, TimeUnit.NANOSECONDS);
+            }
+         }
+      }
+   }
+
+   /**
+    * Arrival times of users handled by single executor out of <code>n</code>.
+    */
+   static final class ArrivalSchedule {
+      private final DoubleUnaryOperator inverseCumulativeUsers;
+      private final int executors;
+      private final Random random;
+      private double position;
+
+      /**
+       * @param inverseCumulativeUsers Function returning time in seconds when the cumulative number of users is reached.
+       * @param index Index of the executor.
+       * @param executors Number of executors.
+       * @param random Random generator for Poisson process, or <code>null</code> for evenly spaced arrivals.
+       */
+      ArrivalSchedule(DoubleUnaryOperator inverseCumulativeUsers, int index, int executors, Random random) {
+         this.inverseCumulativeUsers = inverseCumulativeUsers;
+         this.executors = executors;
+         this.random = random;
+         // metronome: executor with index i starts users i + 1, i + 1 + n, i + 1 + 2n...
+         position = random != null ? 0 : index + 1 - executors;
+      }
+
+      /**
+       * @return Nanoseconds since the beginning of the phase when the next user arrives,
+       * or {@link Long#MAX_VALUE} if it never does.
+       */
+      long next() {
+         if (random != null) {
+            // superposition of n Poisson processes with 1/n of the intensity each
+            position += executors * -Math.log(Math.max(1e-20, random.nextDouble()));
+         } else {
+            position += executors;
+         }
+         return current();
+      }
+
+      /**
+       * @return Nanoseconds since the beginning of the phase when the user returned by last {@link #next()}
+       * arrives with the current rate, or {@link Long#MAX_VALUE} if it never does.
+       */
+      long current() {
+         double seconds = inverseCumulativeUsers.applyAsDouble(position);
+         // the phase would be long over
+         if (Double.isNaN(seconds) || seconds > Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+         }
+         return (long) (seconds * 1_000_000_000L);
+      }
+   }
+
+   /**
+    * FIFO of scheduled start times (as in {@link System#nanoTime()}) with the number of users that should
+    * have started at that time.
+    */
+   static final class DelayedStarts {
+      // pairs of timestamp and count
+      private long[] ring = new long[32];
+      private int head;
+      private int size;
+
+      synchronized void add(long timestamp, long count) {
+         int capacity = ring.length / 2;
+         if (size > 0) {
+            int last = (head + size - 1) % capacity * 2;
+            if (ring[last] == timestamp) {
+               ring[last + 1] += count;
+               return;
+            }
+         }
+         if (size == capacity) {
+            long[] newRing = new long[ring.length * 2];
+            for (int i = 0; i < size; ++i) {
+               int index = (head + i) % capacity * 2;
+               newRing[2 * i] = ring[index];
+               newRing[2 * i + 1] = ring[index + 1];
+            }
+            ring = newRing;
+            head = 0;
+            capacity = ring.length / 2;
+         }
+         int index = (head + size) % capacity * 2;
+         ring[index] = timestamp;
+         ring[index + 1] = count;
+         ++size;
+      }
+
+      /**
+       * @return Scheduled start of the oldest throttled user or {@link Long#MIN_VALUE} if there is none.
+       */
+      synchronized long poll() {
+         if (size == 0) {
+            return Long.MIN_VALUE;
+         }
+         int index = head * 2;
+         long timestamp = ring[index];
+         if (--ring[index + 1] == 0) {
+            head = (head + 1) % (ring.length / 2);
+            --size;
+         }
+         return timestamp;
+      }
    }
 
    public static class RampRate extends OpenModelPhase {
       private final double initialUsersPerSec;
-      private final double targetUsersPerSec;
+      // change of rate per second
+      private final double acceleration;
 
       public RampRate(Phase def, String runId, int agentId) {
          super(def, runId, agentId);
          Model.RampRate model = (Model.RampRate) def.model;
          initialUsersPerSec = def.benchmark().slice(model.initialUsersPerSec, agentId);
-         targetUsersPerSec = def.benchmark().slice(model.targetUsersPerSec, agentId);
-         nextScheduled = model.variance ? nextSessionRandomized() : 0;
-      }
-
-      @Override
-      protected long nextSessionMetronome(long delta) {
-         double progress = (targetUsersPerSec - initialUsersPerSec) / (def.duration * 1000);
-         long required = (long) (((progress * (delta + 1)) / 2 + initialUsersPerSec / 1000) * delta);
-         // Next time is the root of quadratic equation
-         double bCoef = progress + initialUsersPerSec / 500;
-         nextScheduled = Math.ceil((-bCoef + Math.sqrt(bCoef * bCoef + 8 * progress * (startedOrThrottledUsers + 1))) / (2 * progress));
-         return required;
+         double targetUsersPerSec = def.benchmark().slice(model.targetUsersPerSec, agentId);
+         acceleration = (targetUsersPerSec - initialUsersPerSec) * 1000 / def.duration;
       }
 
       @Override
-      protected double nextSessionRandomized() {
-         // we're solving quadratic equation coming from t = (duration * -log(rand))/(((t + now) * (target - initial)) + initial * duration)
-         double aCoef = (targetUsersPerSec - initialUsersPerSec);
-         if (aCoef < 0.000001) {
-            // prevent division 0f/0f
-            return 1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / initialUsersPerSec;
+      protected double inverseCumulativeUsers(double users) {
+         if (users <= 0) {
+            return 0;
          }
-         double bCoef = nextScheduled * (targetUsersPerSec - initialUsersPerSec) + initialUsersPerSec * def.duration;
-         double cCoef = def.duration * 1000 * Math.log(random.nextDouble());
-         return nextScheduled + (-bCoef + Math.sqrt(bCoef * bCoef - 4 * aCoef * cCoef)) / (2 * aCoef);
+         // root of acceleration / 2 * t^2 + initialUsersPerSec * t - users = 0, in a form that does not
+         // suffer from cancellation and works for zero acceleration, too
+         double discriminant = initialUsersPerSec * initialUsersPerSec + 2 * acceleration * users;
+         if (discriminant < 0) {
+            // decreasing rate reaches zero before this number of users
+            return Double.POSITIVE_INFINITY;
+         }
+         return 2 * users / (initialUsersPerSec + Math.sqrt(discriminant));
       }
    }
 
@@ -438,19 +635,61 @@ public abstract class PhaseInstanceImpl implements PhaseInstance {
          super(def, runId, agentId);
          Model.ConstantRate model = (Model.ConstantRate) def.model;
          usersPerSec = def.benchmark().slice(model.usersPerSec, agentId);
-         nextScheduled = model.variance ? nextSessionRandomized() : 0;
       }
 
       @Override
-      protected long nextSessionMetronome(long delta) {
-         long required = (long) (delta * usersPerSec / 1000);
-         nextScheduled = (1000 * (startedOrThrottledUsers + 1) + usersPerSec) / usersPerSec;
-         return required;
+      protected double inverseCumulativeUsers(double users) {
+         return users / usersPerSec;
+      }
+   }
+
+   /**
+    * Constant rate that can be changed by the controller while the phase is running. Users that have already
+    * arrived keep their start time, the arrivals pending on each executor are rescheduled at the new rate.
+    */
+   public static class AdaptiveRate extends OpenModelPhase {
+      private volatile RateChange lastChange;
+
+      public AdaptiveRate(Phase def, String runId, int agentId) {
+         super(def, runId, agentId);
+         Model.AdaptiveRate model = (Model.AdaptiveRate) def.model;
+         lastChange = new RateChange(0, 0, def.benchmark().slice(model.initialUsersPerSec, agentId));
+      }
+
+      /**
+       * @param usersPerSec New arrival rate for all agents.
+       */
+      public void setUsersPerSec(double usersPerSec) {
+         if (!(usersPerSec > 0)) {
+            // the arrivals would stop for the rest of the phase
+            throw new IllegalArgumentException("Rate of phase " + def.name + " must be positive, got " + usersPerSec);
+         }
+         RateChange last = lastChange;
+         double seconds = (nanoTime.getAsLong() - absoluteStartNanos) / 1_000_000_000d;
+         double users = last.users + (seconds - last.seconds) * last.usersPerSec;
+         log.debug("{} changing rate from {} to {} users per second", def.name, last.usersPerSec, usersPerSec);
+         lastChange = new RateChange(seconds, users, def.benchmark().slice(usersPerSec, agentId()));
+         reschedule();
       }
 
       @Override
-      protected double nextSessionRandomized() {
-         return nextScheduled + (1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / usersPerSec);
+      protected double inverseCumulativeUsers(double users) {
+         RateChange last = lastChange;
+         return last.seconds + (users - last.users) / last.usersPerSec;
+      }
+
+      private static final class RateChange {
+         // seconds since the beginning of the phase
+         final double seconds;
+         // cumulative users expected at that time
+         final double users;
+         final double usersPerSec;
+
+         RateChange(double seconds, double users, double usersPerSec) {
+            this.seconds = seconds;
+            this.users = users;
+            this.usersPerSec = usersPerSec;
+         }
       }
    }
 
@@ -1,5 +1,9 @@
 package io.hyperfoil.core.impl;
 
+/**
+ * Receives usage of the session pool; this can be invoked multiple times for the same phase,
+ * once for each executor.
+ */
 public interface SessionStatsConsumer {
    void accept(String phase, int minSessions, int maxSessions);
 }
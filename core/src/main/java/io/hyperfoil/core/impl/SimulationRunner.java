@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -20,6 +21,7 @@ import java.util.stream.StreamSupport;
 import io.hyperfoil.api.BenchmarkExecutionException;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.session.AgentData;
 import io.hyperfoil.api.session.ControllerListener;
 import io.hyperfoil.api.session.GlobalData;
@@ -28,13 +30,16 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ThreadData;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.timer.Timer;
 import io.hyperfoil.core.api.Plugin;
 import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.api.SequenceCompiler;
 import io.hyperfoil.core.session.AgentDataImpl;
 import io.hyperfoil.core.session.GlobalDataImpl;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.session.ThreadDataImpl;
 import io.hyperfoil.core.util.CpuWatchdog;
+import io.hyperfoil.core.util.MappedFile;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
 import io.netty.channel.EventLoop;
@@ -46,6 +51,7 @@ import io.vertx.core.Handler;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.message.FormattedMessage;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -64,11 +70,13 @@ public class SimulationRunner {
    private final Map<String, SharedResources> sharedResources = new HashMap<>();
    protected final EventLoopGroup eventLoopGroup;
    protected final EventLoop[] executors;
+   private final Timer[] timers;
    private final Queue<Phase> toPrune;
    private final PluginRunData[] runData;
    private ControllerListener controllerListener;
    private final Consumer<Throwable> errorHandler;
    private boolean isDepletedMessageQuietened;
+   private ScheduledFuture<?>[] publishTasks;
    private Thread jitterWatchdog;
    private CpuWatchdog cpuWatchdog;
    private final GlobalDataImpl[] globalData;
@@ -77,6 +85,7 @@ public class SimulationRunner {
    public SimulationRunner(Benchmark benchmark, String runId, int agentId, Consumer<Throwable> errorHandler) {
       this.eventLoopGroup = EventLoopFactory.INSTANCE.create(benchmark.threads(agentId));
       this.executors = StreamSupport.stream(eventLoopGroup.spliterator(), false).map(EventLoop.class::cast).toArray(EventLoop[]::new);
+      this.timers = Arrays.stream(executors).map(Timer::create).toArray(Timer[]::new);
       this.benchmark = benchmark;
       this.runId = runId;
       this.agentId = agentId;
@@ -93,6 +102,13 @@ public class SimulationRunner {
    }
 
    public void init() {
+      if (Properties.getBoolean(Properties.COMPILE_SEQUENCES)) {
+         compileSequences();
+      }
+      // Map file contents before the run rather than on first use
+      MappedFile.collect(benchmark.phases().stream()
+            .filter(def -> def.scenario != null).map(def -> def.scenario.sequences()).toArray())
+            .forEach(MappedFile::map);
       AgentData agentData = new AgentDataImpl();
       ThreadData[] threadData = new ThreadData[executors.length];
       Arrays.setAll(threadData, executorId -> new ThreadDataImpl());
@@ -117,7 +133,7 @@ public class SimulationRunner {
                   this.sessions.add(session);
                   phaseSessions.add(session);
                }
-               session.attach(executors[executorId], threadData[executorId], agentData, globalData[executorId], statistics[executorId]);
+               session.attach(executors[executorId], timers[executorId], threadData[executorId], agentData, globalData[executorId], statistics[executorId]);
                for (int i = 0; i < runData.length; ++i) {
                   runData[i].initSession(session, executorId, def.scenario, DEFAULT_CLOCK);
                }
@@ -125,7 +141,7 @@ public class SimulationRunner {
                return session;
             };
             SharedResources finalSharedResources = sharedResources;
-            sharedResources.sessionPool = new ElasticPoolImpl<>(sessionSupplier, () -> {
+            sharedResources.sessionPool = new AffinityAwareSessionPool(executors, sessionSupplier, () -> {
                if (!isDepletedMessageQuietened) {
                   log.warn("Pool depleted, throttling execution! Enable trace logging to see subsequent pool depletion messages.");
                   isDepletedMessageQuietened = true;
@@ -143,6 +159,15 @@ public class SimulationRunner {
          phase.reserveSessions();
          // at this point all session resources should be reserved
       }
+      // Executors hand over completed samples from their own thread; collectors only drain the queues.
+      // Samples close once per collection period so a periodic task is sufficient; a tail task
+      // (executeAfterEventLoopIteration) would have to be re-registered on every iteration.
+      long collectionPeriod = benchmark.statisticsCollectionPeriod();
+      publishTasks = new ScheduledFuture<?>[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         int executorId = i;
+         publishTasks[i] = executors[i].scheduleAtFixedRate(() -> publishStatistics(executorId), collectionPeriod, collectionPeriod, TimeUnit.MILLISECONDS);
+      }
       // hint the GC to tenure sessions
       System.gc();
 
@@ -153,6 +178,38 @@ public class SimulationRunner {
       cpuWatchdog.start();
    }
 
+   private void compileSequences() {
+      SequenceCompiler compiler = SequenceCompiler.lookup();
+      if (compiler == null) {
+         log.warn("Sequence compilation is enabled but there is no compiler on classpath, steps will be interpreted.");
+         return;
+      }
+      for (Phase def : benchmark.phases()) {
+         if (def.scenario == null) {
+            continue;
+         }
+         for (Sequence sequence : def.scenario.sequences()) {
+            // Phases can share the scenario
+            if (sequence.compiled() != null) {
+               continue;
+            }
+            try {
+               sequence.setCompiled(compiler.compile(sequence));
+            } catch (Throwable t) {
+               log.warn(new FormattedMessage("Failed to compile sequence {}, steps will be interpreted.", sequence.name()), t);
+            }
+         }
+      }
+   }
+
+   private void publishStatistics(int executorId) {
+      for (SharedResources resources : sharedResources.values()) {
+         if (resources.statistics != null) {
+            resources.statistics[executorId].publish();
+         }
+      }
+   }
+
    public void openConnections(Handler<AsyncResult<Void>> handler) {
       @SuppressWarnings("rawtypes") ArrayList<Future> futures = new ArrayList<>();
       for (PluginRunData plugin : runData) {
@@ -220,6 +277,7 @@ public class SimulationRunner {
          if (executors[i].inEventLoop()) {
             if (statistics != null) {
                applyToPhase(statistics, phase, now, Statistics::end);
+               statistics.publish();
             }
             globalCollector.collect(phase.name, globalData[i]);
          } else {
@@ -231,6 +289,7 @@ public class SimulationRunner {
                   globalCollector.collect(phase.name, gd);
                   if (statistics != null) {
                      applyToPhase(statistics, phase, now, Statistics::end);
+                     statistics.publish();
                   }
                   cf.complete(null);
                } catch (Throwable t) {
@@ -258,6 +317,11 @@ public class SimulationRunner {
       if (cpuWatchdog != null) {
          cpuWatchdog.stop();
       }
+      if (publishTasks != null) {
+         for (ScheduledFuture<?> task : publishTasks) {
+            task.cancel(false);
+         }
+      }
       for (PluginRunData plugin : runData) {
          plugin.shutdown();
       }
@@ -330,12 +394,14 @@ public class SimulationRunner {
       }
    }
 
-   private void recordSessionStats(ElasticPoolImpl<Session> sessionPool, String phaseName, SessionStatsConsumer consumer) {
-      int minUsed = sessionPool.minUsed();
-      int maxUsed = sessionPool.maxUsed();
-      sessionPool.resetStats();
-      if (minUsed <= maxUsed && maxUsed != 0) {
-         consumer.accept(phaseName, minUsed, maxUsed);
+   private void recordSessionStats(AffinityAwareSessionPool sessionPool, String phaseName, SessionStatsConsumer consumer) {
+      for (int i = 0; i < sessionPool.executors(); ++i) {
+         int minUsed = sessionPool.minUsed(i);
+         int maxUsed = sessionPool.maxUsed(i);
+         sessionPool.resetStats(i);
+         if (minUsed <= maxUsed && maxUsed != 0) {
+            consumer.accept(phaseName, minUsed, maxUsed);
+         }
       }
    }
 
@@ -376,6 +442,15 @@ public class SimulationRunner {
       instances.get(phase).finish();
    }
 
+   public void setUsersPerSec(String phase, double usersPerSec) {
+      PhaseInstance phaseInstance = instances.get(phase);
+      if (phaseInstance instanceof PhaseInstanceImpl.AdaptiveRate) {
+         ((PhaseInstanceImpl.AdaptiveRate) phaseInstance).setUsersPerSec(usersPerSec);
+      } else {
+         log.error("Cannot change rate of phase {}: {}", phase, phaseInstance);
+      }
+   }
+
    public void tryTerminatePhase(String phase) {
       instances.get(phase).tryTerminate();
    }
@@ -409,7 +484,7 @@ public class SimulationRunner {
       static final SharedResources NONE = new SharedResources(0);
 
       PhaseInstance currentPhase;
-      ElasticPoolImpl<Session> sessionPool;
+      AffinityAwareSessionPool sessionPool;
       List<Session> sessions;
       SessionStatistics[] statistics;
 
@@ -8,7 +8,6 @@ import java.util.function.Consumer;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.statistics.SessionStatistics;
-import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.core.util.CountDown;
 import io.netty.util.collection.IntObjectHashMap;
@@ -30,30 +29,23 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
 
    @Override
    public void accept(SessionStatistics statistics) {
-      for (int i = 0; i < statistics.size(); ++i) {
-         int phaseAndStepId = (statistics.phase(i).id() << 16) + statistics.step(i);
-
+      statistics.drain((phase, stepId, metric, snapshot) -> {
+         assert snapshot.sequenceId >= 0;
+         int phaseAndStepId = (phase.id() << 16) + stepId;
          Map<String, IntObjectMap<StatisticsSnapshot>> metricMap = aggregated.get(phaseAndStepId);
          if (metricMap == null) {
             metricMap = new HashMap<>();
             aggregated.put(phaseAndStepId, metricMap);
          }
-
-         for (Map.Entry<String, Statistics> entry : statistics.stats(i).entrySet()) {
-            String metric = entry.getKey();
-            IntObjectMap<StatisticsSnapshot> snapshots = metricMap.computeIfAbsent(metric, k -> new IntObjectHashMap<>());
-            entry.getValue().visitSnapshots(snapshot -> {
-               assert snapshot.sequenceId >= 0;
-               StatisticsSnapshot existing = snapshots.get(snapshot.sequenceId);
-               if (existing == null) {
-                  existing = new StatisticsSnapshot();
-                  existing.sequenceId = snapshot.sequenceId;
-                  snapshots.put(snapshot.sequenceId, existing);
-               }
-               existing.add(snapshot);
-            });
+         IntObjectMap<StatisticsSnapshot> snapshots = metricMap.computeIfAbsent(metric, k -> new IntObjectHashMap<>());
+         StatisticsSnapshot existing = snapshots.get(snapshot.sequenceId);
+         if (existing == null) {
+            existing = new StatisticsSnapshot();
+            existing.sequenceId = snapshot.sequenceId;
+            snapshots.put(snapshot.sequenceId, existing);
          }
-      }
+         existing.add(snapshot);
+      });
    }
 
    public void visitStatistics(StatisticsConsumer consumer, CountDown countDown) {
@@ -1,9 +1,23 @@
 package io.hyperfoil.core.metric;
 
+import io.hyperfoil.api.config.Visitor;
+
 public class AuthorityAndPathMetric implements MetricSelector {
+   @Visitor.Ignore
+   private transient MetricMemo memo = new MetricMemo(AuthorityAndPathMetric::concat);
+
+   private static String concat(String authority, String path) {
+      return authority + path;
+   }
+
+   private Object readResolve() {
+      memo = new MetricMemo(AuthorityAndPathMetric::concat);
+      return this;
+   }
 
    @Override
    public String apply(String authority, String path) {
-      return authority == null ? path : authority + path;
+      // memoizing saves both the concatenation and hash code computation when looking up the statistics
+      return authority == null ? path : memo.get(authority, path);
    }
 }
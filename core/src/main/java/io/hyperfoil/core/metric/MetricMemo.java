@@ -0,0 +1,105 @@
+package io.hyperfoil.core.metric;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+
+import io.hyperfoil.internal.Properties;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Bounded LRU cache of metric names selected for given authority and path. Each thread (executor) uses its own cache
+ * so the lookups don't need any synchronization; the lookup does not concatenate authority and path either.
+ * Both the number of authorities and the number of paths per authority are bounded.
+ * <p>
+ * The thread-local is shared by all instances: Netty never releases thread-local indices, so an instance field
+ * would grow the index table of every event loop with each loaded benchmark. The caches are held weakly
+ * and go away together with the memo.
+ */
+class MetricMemo {
+   private static final int MAX_SIZE = Properties.getInt(Properties.METRIC_MEMO_SIZE, 1024);
+   private static final int MAX_AUTHORITIES = 64;
+
+   private static final FastThreadLocal<Map<MetricMemo, Cache>> CACHES = new FastThreadLocal<>() {
+      @Override
+      protected Map<MetricMemo, Cache> initialValue() {
+         return new WeakHashMap<>();
+      }
+   };
+
+   private final BiFunction<String, String, String> selector;
+   private final List<Cache> caches = new CopyOnWriteArrayList<>();
+
+   /**
+    * @param selector Function evaluated on cache miss.
+    */
+   MetricMemo(BiFunction<String, String, String> selector) {
+      this.selector = selector;
+   }
+
+   private Cache cache() {
+      Map<MetricMemo, Cache> threadCaches = CACHES.get();
+      Cache cache = threadCaches.get(this);
+      if (cache == null) {
+         cache = new Cache();
+         caches.add(cache);
+         threadCaches.put(this, cache);
+      }
+      return cache;
+   }
+
+   String get(String authority, String path) {
+      Cache cache = cache();
+      Lru<String> lru = cache.byAuthority.get(authority);
+      if (lru == null) {
+         lru = new Lru<>(MAX_SIZE);
+         cache.byAuthority.put(authority, lru);
+      }
+      String metric = lru.get(path);
+      if (metric != null || lru.containsKey(path)) {
+         cache.hits++;
+         return metric;
+      }
+      cache.misses++;
+      metric = selector.apply(authority, path);
+      lru.put(path, metric);
+      return metric;
+   }
+
+   /**
+    * @return Approximate number of lookups served from the cache, summed over all threads.
+    */
+   long hits() {
+      return caches.stream().mapToLong(c -> c.hits).sum();
+   }
+
+   /**
+    * @return Approximate number of lookups that had to evaluate the selector, summed over all threads.
+    */
+   long misses() {
+      return caches.stream().mapToLong(c -> c.misses).sum();
+   }
+
+   private static class Cache {
+      final Lru<Lru<String>> byAuthority = new Lru<>(MAX_AUTHORITIES);
+      long hits;
+      long misses;
+   }
+
+   private static class Lru<V> extends LinkedHashMap<String, V> {
+      private final int maxSize;
+
+      Lru(int maxSize) {
+         super(16, 0.75f, true);
+         this.maxSize = maxSize;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+         return size() > maxSize;
+      }
+   }
+}
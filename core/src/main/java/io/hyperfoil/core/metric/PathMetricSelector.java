@@ -1,13 +1,18 @@
 package io.hyperfoil.core.metric;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import io.hyperfoil.api.config.ListBuilder;
 import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.core.util.Trie;
 import io.hyperfoil.function.SerializableFunction;
+import io.netty.util.concurrent.FastThreadLocal;
 
 /**
  * Allows categorizing request statistics into metrics based on the request path. The expressions are evaluated
@@ -17,12 +22,21 @@ import io.hyperfoil.function.SerializableFunction;
  * <li><code>regexp</code> (don't do any replaces and use the full path), e.g. <code>.*.jpg</code>
  * <li><code>-&gt; name</code> (metric applied if none of the previous expressions match).
  * </ul>
+ * The selected metric is cached for each path (per thread); consecutive expressions that are just literal prefixes
+ * (e.g. <code>/api/.*</code>) or suffixes (e.g. <code>.*\.jpg</code>) are evaluated together using a {@link Trie}.
  */
 public class PathMetricSelector implements ListBuilder, MetricSelector {
+   private static final String LINE_TERMINATORS = "\n\r\u0085\u2028\u2029";
+
    public List<SerializableFunction<String, String>> tests = new ArrayList<>();
+   @Visitor.Ignore
+   private transient MetricMemo memo = new MetricMemo(this::select);
+   @Visitor.Ignore
+   private transient volatile List<Function<String, String>> stages;
 
    @Override
    public void nextItem(String item) {
+      stages = null;
       item = item.trim();
       int arrow = item.indexOf("->");
       if (arrow < 0) {
@@ -38,11 +52,38 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
       }
    }
 
+   private Object readResolve() {
+      memo = new MetricMemo(this::select);
+      return this;
+   }
+
    @Override
    public String apply(String authority, String path) {
+      return memo.get(authority, path);
+   }
+
+   /**
+    * @return Number of paths that were resolved from cache.
+    */
+   public long memoHits() {
+      return memo.hits();
+   }
+
+   /**
+    * @return Number of paths that had to be matched against the expressions.
+    */
+   public long memoMisses() {
+      return memo.misses();
+   }
+
+   private String select(String authority, String path) {
       String combined = authority != null ? authority + path : path;
-      for (SerializableFunction<String, String> test : tests) {
-         String result = test.apply(combined);
+      List<Function<String, String>> stages = this.stages;
+      if (stages == null) {
+         this.stages = stages = compile();
+      }
+      for (int i = 0; i < stages.size(); ++i) {
+         String result = stages.get(i).apply(combined);
          if (result != null) {
             return result;
          }
@@ -50,6 +91,152 @@ public class PathMetricSelector implements ListBuilder, MetricSelector {
       return null;
    }
 
+   private List<Function<String, String>> compile() {
+      List<Function<String, String>> stages = new ArrayList<>();
+      TrieMatch.Builder group = null;
+      for (SerializableFunction<String, String> test : tests) {
+         String regexp = null, replacement = null;
+         if (test instanceof SimpleMatch) {
+            regexp = ((SimpleMatch) test).pattern();
+         } else if (test instanceof ReplaceMatch && isLiteral(((ReplaceMatch) test).replacement)) {
+            regexp = ((ReplaceMatch) test).pattern();
+            replacement = ((ReplaceMatch) test).replacement;
+         }
+         String prefix = regexp != null && regexp.endsWith(".*") ? literal(regexp.substring(0, regexp.length() - 2)) : null;
+         String suffix = regexp != null && regexp.startsWith(".*") ? literal(regexp.substring(2)) : null;
+         if (group != null && !(group.suffix ? suffix != null : prefix != null)) {
+            stages.add(group.build());
+            group = null;
+         }
+         if (prefix == null && suffix == null) {
+            stages.add(test);
+            continue;
+         } else if (group == null) {
+            group = new TrieMatch.Builder(prefix == null);
+         }
+         group.add(prefix != null ? prefix : suffix, replacement);
+      }
+      if (group != null) {
+         stages.add(group.build());
+      }
+      return stages;
+   }
+
+   private static boolean isLiteral(String replacement) {
+      return replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0;
+   }
+
+   /**
+    * @return Plain ASCII string matched by the regular expression or <code>null</code> if the regexp uses any
+    *    special constructs.
+    */
+   private static String literal(String regexp) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < regexp.length(); ++i) {
+         char c = regexp.charAt(i);
+         if (c == '\\') {
+            if (++i >= regexp.length()) {
+               return null;
+            }
+            c = regexp.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+               // character classes, back-references, quoting...
+               return null;
+            }
+         } else if (".[]{}()*+?^$|".indexOf(c) >= 0) {
+            return null;
+         }
+         if (c >= 0x80) {
+            return null;
+         }
+         sb.append(c);
+      }
+      return sb.length() == 0 ? null : sb.toString();
+   }
+
+   /**
+    * Group of consecutive expressions matching literal prefix (or suffix) followed (preceded) by <code>.*</code>.
+    * The first expression in the list order wins, just like when evaluating them one by one.
+    */
+   private static class TrieMatch implements Function<String, String> {
+      // Shared by all instances; selectors are evaluated on event loops that never release thread-local indices
+      private static final FastThreadLocal<Trie.State> STATE = new FastThreadLocal<>() {
+         @Override
+         protected Trie.State initialValue() {
+            return new Trie.State();
+         }
+      };
+
+      private final boolean suffix;
+      private final Trie trie;
+      // null means that the path itself is used as metric
+      private final String[] replacements;
+
+      private TrieMatch(boolean suffix, Trie trie, String[] replacements) {
+         this.suffix = suffix;
+         this.trie = trie;
+         this.replacements = replacements;
+      }
+
+      @Override
+      public String apply(String path) {
+         Trie.State state = STATE.get();
+         state.reset(trie);
+         int best = Integer.MAX_VALUE;
+         int length = path.length();
+         for (int i = 0; i < length && state.canMatch(); ++i) {
+            int pos = suffix ? length - 1 - i : i;
+            char c = path.charAt(pos);
+            // literals are ASCII-only so anything else cannot match
+            int terminal = state.next(c < 0x80 ? (byte) c : (byte) 0xFF);
+            if (terminal >= 0 && terminal < best && matchesRest(path, pos)) {
+               best = terminal;
+            }
+         }
+         if (best == Integer.MAX_VALUE) {
+            return null;
+         }
+         return replacements[best] == null ? path : replacements[best];
+      }
+
+      // '.' in the .* part does not match line terminators
+      private boolean matchesRest(String path, int pos) {
+         int from = suffix ? 0 : pos + 1;
+         int to = suffix ? pos : path.length();
+         for (int i = from; i < to; ++i) {
+            if (LINE_TERMINATORS.indexOf(path.charAt(i)) >= 0) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      private static class Builder {
+         final boolean suffix;
+         // keeps the first occurrence of duplicate literal
+         final Map<String, String> literals = new LinkedHashMap<>();
+
+         Builder(boolean suffix) {
+            this.suffix = suffix;
+         }
+
+         void add(String literal, String replacement) {
+            if (suffix) {
+               literal = new StringBuilder(literal).reverse().toString();
+            }
+            // null replacement is a valid value so we cannot use putIfAbsent
+            if (!literals.containsKey(literal)) {
+               literals.put(literal, replacement);
+            }
+         }
+
+         TrieMatch build() {
+            return new TrieMatch(suffix, new Trie(literals.keySet().toArray(new String[0])),
+                  literals.values().toArray(new String[0]));
+         }
+      }
+   }
+
    private static class SimpleMatch implements SerializableFunction<String, String> {
       @Visitor.Invoke(method = "pattern")
       private final Pattern pattern;
@@ -11,4 +11,8 @@ public class ProvidedMetricSelector implements MetricSelector {
    public String apply(String authority, String path) {
       return name;
    }
+
+   public String name() {
+      return name;
+   }
 }
@@ -63,6 +63,7 @@ public class BenchmarkParser extends AbstractMappingParser<BenchmarkBuilder> {
       register("phases", new PhasesParser());
       register("threads", new PropertyParser.Int<>(BenchmarkBuilder::threads));
       register("statisticsCollectionPeriod", new PropertyParser.Int<>(BenchmarkBuilder::statisticsCollectionPeriod));
+      register("statistics", new Adapter<>(BenchmarkBuilder::statistics, new StatisticsParser()));
       // simplified single-phase definition
       register("usersPerSec", new PropertyParser.Double<>((bb, value) -> bb.singleConstantRatePhase().usersPerSec(value)));
       register("duration", new PropertyParser.TimeMillis<>((bb, value) -> bb.singleConstantRatePhase().duration(value)));
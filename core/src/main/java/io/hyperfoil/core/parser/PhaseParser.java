@@ -78,6 +78,7 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
          register("maxSessions", new PropertyParser.Int<>((builder, sessions) -> ((PhaseBuilder.OpenModel<?>) builder).maxSessions(sessions)));
          register("variance", new PropertyParser.Boolean<>((builder, variance) -> ((PhaseBuilder.OpenModel<?>) builder).variance(variance)));
          register("sessionLimitPolicy", new PropertyParser.Enum<>(SessionLimitPolicy.values(), (builder, policy) -> ((PhaseBuilder.OpenModel<?>) builder).sessionLimitPolicy(policy)));
+         register("correctCoordinatedOmission", new PropertyParser.Boolean<>((builder, correct) -> ((PhaseBuilder.OpenModel<?>) builder).correctCoordinatedOmission(correct)));
       }
    }
 
@@ -113,6 +114,22 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
       }
    }
 
+   static class AdaptiveRate extends OpenModel {
+      AdaptiveRate() {
+         register("initialUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).initialUsersPerSec(rate)));
+         register("usersPerSecIncrement", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).usersPerSecIncrement(rate)));
+         register("maxUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).maxUsersPerSec(rate)));
+         register("resolution", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.AdaptiveRate) builder).resolution(rate)));
+         register("stepDuration", new PropertyParser.TimeMillis<>((builder, duration) -> ((PhaseBuilder.AdaptiveRate) builder).stepDuration(duration)));
+         register("sla", new ReflectionParser<PhaseBuilder<?>, SLABuilder<?>>(builder -> ((PhaseBuilder.AdaptiveRate) builder).sla()));
+      }
+
+      @Override
+      protected PhaseBuilder.AdaptiveRate type(PhaseBuilder.Catalog catalog) {
+         return catalog.adaptiveRate(-1);
+      }
+   }
+
    static class CustomSLAParser implements Parser<PhaseBuilder<?>> {
       @Override
       public void parse(Context ctx, PhaseBuilder<?> target) throws ParserException {
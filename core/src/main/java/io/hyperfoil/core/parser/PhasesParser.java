@@ -54,6 +54,7 @@ class PhasesParser extends AbstractParser<BenchmarkBuilder, PhaseBuilder.Catalog
          }
       });
       register("constantRate", new PhaseParser.ConstantRate());
+      register("adaptiveRate", new PhaseParser.AdaptiveRate());
    }
 
    @Override
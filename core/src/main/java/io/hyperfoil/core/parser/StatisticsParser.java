@@ -0,0 +1,21 @@
+package io.hyperfoil.core.parser;
+
+import io.hyperfoil.api.config.StatisticsConfigBuilder;
+
+class StatisticsParser extends AbstractMappingParser<StatisticsConfigBuilder> {
+   StatisticsParser() {
+      this(true);
+   }
+
+   private StatisticsParser(boolean allowMetrics) {
+      register("highestTrackableValue", new PropertyParser.String<>(StatisticsConfigBuilder::highestTrackableValue));
+      register("significantDigits", new PropertyParser.Int<>(StatisticsConfigBuilder::significantDigits));
+      register("samplingPeriod", new PropertyParser.String<>(StatisticsConfigBuilder::samplingPeriod));
+      register("compact", new PropertyParser.Boolean<>(StatisticsConfigBuilder::compact));
+      if (allowMetrics) {
+         StatisticsParser metricParser = new StatisticsParser(false);
+         register("metrics", (ctx, target) -> ctx.parseMapping(target,
+               event -> (ctx2, target2) -> metricParser.parse(ctx2, target2.metric(event.getValue()))));
+      }
+   }
+}
@@ -16,6 +16,7 @@ import io.hyperfoil.api.session.IntAccess;
 import io.hyperfoil.api.session.ReadAccess;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.WriteAccess;
+import io.hyperfoil.api.timer.Timer;
 import io.hyperfoil.core.impl.PhaseInstanceImpl;
 import io.hyperfoil.core.util.Unique;
 import io.netty.util.concurrent.EventExecutorGroup;
@@ -59,7 +60,7 @@ public final class SessionFactory {
          public void reserveSessions() {
          }
       });
-      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null, null);
+      session.attach(ImmediateEventExecutor.INSTANCE, Timer.create(ImmediateEventExecutor.INSTANCE), null, null, null, null);
       session.reserve(dummyScenario);
       return session;
    }
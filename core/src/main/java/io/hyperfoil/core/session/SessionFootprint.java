@@ -0,0 +1,130 @@
+package io.hyperfoil.core.session;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Estimates heap memory retained by sessions of a scenario. Instead of guessing object sizes we read the number
+ * of bytes allocated by the current thread, as reported by the JVM, while sessions are created and reserved
+ * (including all resources declared by steps and plugins). Nearly everything allocated at this point is retained
+ * for the whole run, so the numbers are a close upper bound.
+ */
+public final class SessionFootprint {
+   /**
+    * The session object alone, without variables and resources.
+    */
+   public static final String SESSION = "session";
+   public static final String VARIABLES = "variables";
+   /**
+    * Space for resources and everything allocated in reserve() that is not a resource created by the session.
+    */
+   public static final String DECLARATIONS = "declarations";
+
+   private SessionFootprint() {
+   }
+
+   /**
+    * @param scenario Measured scenario.
+    * @param samples Number of sessions created; the result is an average.
+    * @param init Initialization of the session before it is reserved, e.g. by plugins.
+    * @return Components of a reserved session in order, with the average number of bytes per session.
+    * The sum of all items is the footprint of the reserved session.
+    */
+   public static List<Item> measure(Scenario scenario, int samples, Consumer<Session> init) {
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)
+            || !((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled()) {
+         throw new UnsupportedOperationException("This JVM does not track memory allocated by threads.");
+      }
+      Meter meter = new Meter((com.sun.management.ThreadMXBean) threadMXBean, Thread.currentThread().getId());
+
+      // The first session triggers class initialization and lambda linkage; don't count it in.
+      measureOnce(scenario, init, meter);
+      meter.reset();
+
+      for (int i = 0; i < samples; ++i) {
+         measureOnce(scenario, init, meter);
+      }
+      List<Item> items = new ArrayList<>();
+      items.add(new Item(SESSION, meter.session / samples));
+      items.add(new Item(VARIABLES, meter.variables / samples));
+      long resources = meter.resources.values().stream().mapToLong(Long::longValue).sum();
+      items.add(new Item(DECLARATIONS, (meter.reserved - resources) / samples));
+      meter.resources.forEach((name, bytes) -> items.add(new Item(name, bytes / samples)));
+      return items;
+   }
+
+   private static void measureOnce(Scenario scenario, Consumer<Session> init, Meter meter) {
+      // Variables are created in the constructor; the difference from a throw-away session without them
+      // gives their footprint
+      long start = meter.allocatedBytes();
+      new SessionImpl(scenario, 0, 0, false);
+      long probeCreated = meter.allocatedBytes();
+      SessionImpl session = new SessionImpl(scenario, 0, 0);
+      long created = meter.allocatedBytes();
+      session.footprint = meter;
+      init.accept(session);
+      session.reserve(scenario);
+      long reserved = meter.allocatedBytes();
+      session.footprint = null;
+      meter.session += probeCreated - start;
+      meter.variables += (created - probeCreated) - (probeCreated - start);
+      meter.reserved += reserved - created;
+      session.destroy();
+   }
+
+   private static String name(Class<?> clazz) {
+      String name = clazz.getName();
+      return name.substring(name.lastIndexOf('.') + 1);
+   }
+
+   static final class Meter {
+      private final com.sun.management.ThreadMXBean allocationCounter;
+      private final long threadId;
+      long session;
+      long variables;
+      long reserved;
+      final Map<String, Long> resources = new LinkedHashMap<>();
+
+      private Meter(com.sun.management.ThreadMXBean allocationCounter, long threadId) {
+         this.allocationCounter = allocationCounter;
+         this.threadId = threadId;
+      }
+
+      long allocatedBytes() {
+         return allocationCounter.getThreadAllocatedBytes(threadId);
+      }
+
+      void recordResource(Session.Resource resource, long bytes) {
+         resources.merge(name(resource.getClass()), bytes, Long::sum);
+      }
+
+      private void reset() {
+         session = 0;
+         variables = 0;
+         reserved = 0;
+         resources.clear();
+      }
+   }
+
+   public static class Item {
+      /**
+       * Part of the session: {@link #SESSION}, {@link #VARIABLES}, {@link #DECLARATIONS} or name of resource class.
+       */
+      public final String name;
+      public final long bytes;
+
+      Item(String name, long bytes) {
+         this.name = name;
+         this.bytes = bytes;
+      }
+   }
+}
@@ -8,25 +8,25 @@ import io.hyperfoil.api.session.GlobalData;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.api.session.ThreadData;
 import io.hyperfoil.api.statistics.SessionStatistics;
+import io.hyperfoil.api.timer.Timer;
 import io.netty.util.concurrent.EventExecutor;
-import io.hyperfoil.api.collection.LimitedPool;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Scenario;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsKey;
 import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.ResourceSlots;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.message.FormattedMessage;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -34,11 +34,22 @@ class SessionImpl implements Session {
    private static final Logger log = LogManager.getLogger(SessionImpl.class);
    private static final boolean trace = log.isTraceEnabled();
 
+   private static final Object[] NO_RESOURCES = new Object[0];
+   private static final SequenceInstance[] NO_SEQUENCES = new SequenceInstance[0];
+
    private final Var[] vars;
-   private final Map<ResourceKey<?>, Object> resources = new HashMap<>();
+   private final ResourceSlots resourceSlots;
+   // Indexed by ResourceSlots.Slot.index; holds a Resource, Resource[] for per-sequence resources or null
+   private Object[] resources = NO_RESOURCES;
+   // Set only while the footprint is measured
+   SessionFootprint.Meter footprint;
    private final List<Var> allVars = new ArrayList<>();
    private final List<Resource> allResources = new ArrayList<>();
-   private final LimitedPool<SequenceInstance> sequencePool;
+   // Sequence instances are created on demand, up to maxSequences
+   private final int maxSequences;
+   private SequenceInstance[] freeSequences = NO_SEQUENCES;
+   private int numFreeSequences;
+   private int numCreatedSequences;
    private final SequenceInstance[] runningSequences;
    private final BitSet usedSequences;
    private final Consumer<SequenceInstance> releaseSequence = this::releaseSequence;
@@ -48,25 +59,42 @@ class SessionImpl implements Session {
    private Request currentRequest;
    private boolean scheduled;
    private boolean resetting = true;
+   // Intrusive link for SessionRunQueue
+   SessionImpl nextInQueue;
+   private boolean queued;
+   private boolean startPending;
+   private long intendedStart;
+   private long startDelay = -1;
 
    private EventExecutor executor;
+   private Timer timer;
    private ThreadData threadData;
    private AgentData agentData;
    private GlobalData globalData;
    private SessionStatistics statistics;
+   // Statistics of current phase indexed by StatisticsKey.index(), obtained lazily from the executor
+   private Statistics[] statisticsTable;
 
    private final int threadId;
    private final int uniqueId;
 
-   private final Callable<Void> deferredStart = this::deferredStart;
+   // Used when the session is scheduled from another thread
+   private final Runnable deferredStart = this::deferredStart;
+   private final Runnable deferredRun = this::call;
 
    SessionImpl(Scenario scenario, int threadId, int uniqueId) {
-      this.sequencePool = new LimitedPool<>(scenario.maxSequences(), SequenceInstance::new);
+      this(scenario, threadId, uniqueId, true);
+   }
+
+   // Session without variables is used only to measure the footprint, see SessionFootprint
+   SessionImpl(Scenario scenario, int threadId, int uniqueId, boolean createVars) {
+      this.maxSequences = scenario.maxSequences();
+      this.resourceSlots = scenario.resourceSlots();
       this.threadId = threadId;
       this.runningSequences = new SequenceInstance[scenario.maxSequences()];
       this.usedSequences = new BitSet(scenario.sumConcurrency());
       this.uniqueId = uniqueId;
-      this.vars = scenario.createVars(this);
+      this.vars = createVars ? scenario.createVars(this) : null;
    }
 
    @Override
@@ -75,9 +103,9 @@ class SessionImpl implements Session {
       for (int i = 0; i < sequences.length; i++) {
          // We set current sequence so that we know the concurrency of current context in declareResource()
          Sequence sequence = sequences[i];
-         currentSequence(sequencePool.acquire().reset(sequence, 0, null, null));
+         currentSequence(acquireSequence().reset(sequence, 0, null, null));
          sequence.reserve(this);
-         sequencePool.release(currentSequence);
+         releaseToPool(currentSequence);
          currentSequence = null;
       }
    }
@@ -128,6 +156,11 @@ class SessionImpl implements Session {
       return executor;
    }
 
+   @Override
+   public Timer timer() {
+      return timer;
+   }
+
    @Override
    public ThreadData threadData() {
       return threadData;
@@ -148,6 +181,15 @@ class SessionImpl implements Session {
       return phase;
    }
 
+   @Override
+   public long claimStartDelay() {
+      long delay = startDelay;
+      if (delay > 0) {
+         startDelay = 0;
+      }
+      return delay;
+   }
+
    @Override
    public long phaseStartTimestamp() {
       return phase.absoluteStartTime();
@@ -164,47 +206,68 @@ class SessionImpl implements Session {
 
    @Override
    public <R extends Resource> void declareResource(ResourceKey<R> key, Supplier<R> resourceSupplier, boolean singleton) {
-      if (resources.containsKey(key)) {
+      // Current sequence should be null only during unit testing
+      int concurrency = singleton || currentSequence == null ? 0 : currentSequence.definition().concurrency();
+      ResourceSlots.Slot slot = resourceSlots.register(key, concurrency);
+      if (isDeclared(slot.index)) {
          return;
       }
-      // Current sequence should be null only during unit testing
-      int concurrency = currentSequence == null ? 0 : currentSequence.definition().concurrency();
-      if (!singleton && concurrency > 0) {
-         Resource[] array = new Resource[concurrency];
-         for (int i = 0; i < concurrency; ++i) {
-            R resource = resourceSupplier.get();
-            array[i] = resource;
-            allResources.add(resource);
+      // Resources are created when the session is reserved rather than on the first (timed) request
+      if (slot.concurrency > 0) {
+         Resource[] array = new Resource[slot.concurrency];
+         for (int i = 0; i < array.length; ++i) {
+            array[i] = createResource(resourceSupplier);
          }
-         resources.put(key, array);
+         resources[slot.index] = array;
       } else {
-         R resource = resourceSupplier.get();
-         resources.put(key, resource);
-         allResources.add(resource);
+         resources[slot.index] = createResource(resourceSupplier);
       }
    }
 
    @Override
    public <R extends Resource> void declareSingletonResource(ResourceKey<R> key, R resource) {
-      if (resources.containsKey(key)) {
+      ResourceSlots.Slot slot = resourceSlots.register(key, 0);
+      if (isDeclared(slot.index)) {
          return;
       }
-      resources.put(key, resource);
+      resources[slot.index] = resource;
       allResources.add(resource);
    }
 
+   private boolean isDeclared(int index) {
+      if (index >= resources.length) {
+         resources = Arrays.copyOf(resources, Math.max(index + 1, resourceSlots.size()));
+         return false;
+      }
+      return resources[index] != null;
+   }
+
+   private Resource createResource(Supplier<? extends Resource> supplier) {
+      Resource resource;
+      if (footprint == null) {
+         resource = supplier.get();
+      } else {
+         long before = footprint.allocatedBytes();
+         resource = supplier.get();
+         footprint.recordResource(resource, footprint.allocatedBytes() - before);
+      }
+      allResources.add(resource);
+      return resource;
+   }
+
    @SuppressWarnings("unchecked")
    @Override
    public <R extends Resource> R getResource(ResourceKey<R> key) {
-      Object res = resources.get(key);
-      if (res == null) {
+      // Resolved through the index stored in the key; the map is used only for keys that don't store it
+      ResourceSlots.Slot slot = resourceSlots.get(key);
+      if (slot == null || slot.index >= resources.length) {
          return null;
-      } else if (res instanceof Resource[]) {
-         Resource[] array = (Resource[]) res;
-         return (R) array[currentSequence.index()];
-      } else {
-         return (R) res;
       }
+      Object resource = resources[slot.index];
+      if (slot.concurrency > 0 && resource != null) {
+         return (R) ((Resource[]) resource)[currentSequence.index()];
+      }
+      return (R) resource;
    }
 
    @SuppressWarnings("unchecked")
@@ -313,7 +376,27 @@ class SessionImpl implements Session {
 
    private void releaseSequence(SequenceInstance sequence) {
       usedSequences.clear(sequence.definition().offset() + sequence.index());
-      sequencePool.release(sequence);
+      releaseToPool(sequence);
+   }
+
+   private SequenceInstance acquireSequence() {
+      if (numFreeSequences > 0) {
+         SequenceInstance instance = freeSequences[--numFreeSequences];
+         freeSequences[numFreeSequences] = null;
+         return instance;
+      } else if (numCreatedSequences < maxSequences) {
+         ++numCreatedSequences;
+         return new SequenceInstance();
+      } else {
+         return null;
+      }
+   }
+
+   private void releaseToPool(SequenceInstance sequence) {
+      if (numFreeSequences == freeSequences.length) {
+         freeSequences = Arrays.copyOf(freeSequences, Math.min(maxSequences, Math.max(4, 2 * freeSequences.length)));
+      }
+      freeSequences[numFreeSequences++] = sequence;
    }
 
 
@@ -330,9 +413,10 @@ class SessionImpl implements Session {
    }
 
    @Override
-   public void attach(EventExecutor executor, ThreadData threadData, AgentData agentData, GlobalData globalData, SessionStatistics statistics) {
+   public void attach(EventExecutor executor, Timer timer, ThreadData threadData, AgentData agentData, GlobalData globalData, SessionStatistics statistics) {
       assert this.executor == null;
       this.executor = executor;
+      this.timer = timer;
       this.threadData = threadData;
       this.agentData = agentData;
       this.globalData = globalData;
@@ -341,20 +425,58 @@ class SessionImpl implements Session {
 
    @Override
    public void start(PhaseInstance phase) {
+      start(phase, Long.MIN_VALUE);
+   }
+
+   @Override
+   public void start(PhaseInstance phase, long intendedStartNanos) {
+      intendedStart = intendedStartNanos;
       if (trace) {
          log.trace("#{} Session starting in {}", uniqueId, phase.definition().name);
       }
       resetPhase(phase);
-      executor.submit(deferredStart);
+      if (executor.inEventLoop()) {
+         startPending = true;
+         enqueue();
+      } else {
+         executor.execute(deferredStart);
+      }
    }
 
-   private Void deferredStart() {
+   private void deferredStart() {
       resetting = false;
-      for (Sequence sequence : phase.definition().scenario().initialSequences()) {
-         startSequence(sequence, false, ConcurrencyPolicy.FAIL);
+      // waiting in the executor queue delays the session, too
+      startDelay = intendedStart == Long.MIN_VALUE ? -1 : Math.max(0, System.nanoTime() - intendedStart);
+      try {
+         for (Sequence sequence : phase.definition().scenario().initialSequences()) {
+            startSequence(sequence, false, ConcurrencyPolicy.FAIL);
+         }
+      } catch (SessionStopException e) {
+         log.trace("#{} Session was stopped.", uniqueId);
+         return;
+      } catch (Throwable t) {
+         log.error(new FormattedMessage("#{} Uncaught error", uniqueId), t);
+         phase.fail(t);
+         return;
       }
       call();
-      return null;
+   }
+
+   private void enqueue() {
+      if (!queued) {
+         queued = true;
+         SessionRunQueue.current().add(this, executor);
+      }
+   }
+
+   void runQueued() {
+      queued = false;
+      if (startPending) {
+         startPending = false;
+         deferredStart();
+      } else if (scheduled) {
+         call();
+      }
    }
 
    @Override
@@ -377,7 +499,7 @@ class SessionImpl implements Session {
          index = currentSequence.index();
       }
 
-      SequenceInstance instance = sequencePool.acquire();
+      SequenceInstance instance = acquireSequence();
       // Lookup first unused index
       for (; ; ) {
          if (sequence.concurrency() == 0) {
@@ -386,12 +508,12 @@ class SessionImpl implements Session {
                if (sequence == currentSequence.definition()) {
                   log.info("Hint: maybe you intended only to restart the current sequence?");
                }
-               sequencePool.release(instance);
+               releaseToPool(instance);
                fail(new IllegalStateException("Cannot start sequence '" + sequence.name() + "' as it is not concurrent"));
             }
          } else if (index >= sequence.concurrency()) {
             if (instance != null) {
-               sequencePool.release(instance);
+               releaseToPool(instance);
             }
             if (policy == ConcurrencyPolicy.WARN) {
                log.warn("Cannot start sequence {}, exceeded maximum concurrency ({})", sequence.name(), sequence.concurrency());
@@ -435,7 +557,11 @@ class SessionImpl implements Session {
    public void proceed() {
       if (!scheduled) {
          scheduled = true;
-         executor.submit(this);
+         if (executor.inEventLoop()) {
+            enqueue();
+         } else {
+            executor.execute(deferredRun);
+         }
       }
    }
 
@@ -444,6 +570,24 @@ class SessionImpl implements Session {
       return statistics.getOrCreate(phase.definition(), stepId, name, phase.absoluteStartTime());
    }
 
+   @Override
+   public Statistics statistics(StatisticsKey key) {
+      int index = key.index();
+      if (index < 0) {
+         return statistics(key.stepId(), key.metric());
+      }
+      Statistics[] table = statisticsTable;
+      if (table == null) {
+         statisticsTable = table = statistics.table(phase.definition());
+      }
+      Statistics s = table[index];
+      if (s == null) {
+         s = statistics(key.stepId(), key.metric());
+         table[index] = s;
+      }
+      return s;
+   }
+
    @Override
    public void pruneStats(Phase phase) {
       statistics.prune(phase);
@@ -460,7 +604,7 @@ class SessionImpl implements Session {
          r.onSessionReset(this);
       }
       assert usedSequences.isEmpty();
-      assert sequencePool.isFull();
+      assert numFreeSequences == numCreatedSequences;
    }
 
    public void resetPhase(PhaseInstance newPhase) {
@@ -472,6 +616,7 @@ class SessionImpl implements Session {
       assert phase == null || newPhase.definition().sharedResources.equals(phase.definition().sharedResources);
       assert phase == null || phase.status().isTerminated();
       phase = newPhase;
+      statisticsTable = null;
    }
 
    @Override
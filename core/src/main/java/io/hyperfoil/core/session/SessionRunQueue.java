@@ -0,0 +1,72 @@
+package io.hyperfoil.core.session;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Sessions that are ready to run in this executor. The queue is an intrusive linked list (through
+ * {@link SessionImpl#nextInQueue}) so scheduling a session does not allocate anything. The whole queue
+ * is drained by a single task; on regular event loops the task is executed at the end of event-loop
+ * iteration so that wakeups caused by I/O in one iteration are batched.
+ * <p>
+ * The queue must be accessed only from the executor thread.
+ */
+final class SessionRunQueue implements Runnable {
+   private static final FastThreadLocal<SessionRunQueue> QUEUES = new FastThreadLocal<>() {
+      @Override
+      protected SessionRunQueue initialValue() {
+         return new SessionRunQueue();
+      }
+   };
+
+   private SessionImpl head;
+   private SessionImpl tail;
+   private boolean registered;
+
+   private SessionRunQueue() {
+   }
+
+   /**
+    * @return Queue for current thread. The caller must be in the event loop of the executor passed to
+    * {@link #add(SessionImpl, EventExecutor)}.
+    */
+   static SessionRunQueue current() {
+      return QUEUES.get();
+   }
+
+   void add(SessionImpl session, EventExecutor executor) {
+      assert session.nextInQueue == null;
+      if (tail == null) {
+         head = session;
+      } else {
+         tail.nextInQueue = session;
+      }
+      tail = session;
+      if (!registered) {
+         registered = true;
+         // DefaultEventLoop does not process tail tasks
+         if (executor instanceof SingleThreadEventLoop && !(executor instanceof DefaultEventLoop)) {
+            ((SingleThreadEventLoop) executor).executeAfterEventLoopIteration(this);
+         } else {
+            executor.execute(this);
+         }
+      }
+   }
+
+   @Override
+   public void run() {
+      SessionImpl session = head;
+      head = null;
+      tail = null;
+      registered = false;
+      // Sessions scheduled while we run these will be added to a new list
+      while (session != null) {
+         SessionImpl next = session.nextInQueue;
+         session.nextInQueue = null;
+         session.runQueued();
+         session = next;
+      }
+   }
+}
@@ -3,19 +3,20 @@ package io.hyperfoil.core.steps;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.session.PhaseInstance;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
-import io.netty.util.concurrent.ScheduledFuture;
+import io.hyperfoil.api.timer.Timeout;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 public class DelaySessionStartStep implements Step, ResourceUtilizer {
    private static final Logger log = LogManager.getLogger(DelaySessionStartStep.class);
-   public static final Session.ResourceKey<Holder> KEY = new Session.ResourceKey<>() {};
+   public static final Session.ResourceKey<Holder> KEY = new ResourceSlots.Key<>();
 
    private final String[] sequences;
    private final double targetRate;
@@ -49,13 +50,12 @@ public class DelaySessionStartStep implements Step, ResourceUtilizer {
       long now = System.currentTimeMillis();
       long next = holder.startTimeWithOffset + (long) (holder.iteration * holder.period);
       if (now < next) {
-         if (holder.future == null) {
+         if (!holder.timeout.isScheduled()) {
             log.trace("#{} scheduling in {} ms", session.uniqueId(), next - now);
-            holder.future = session.executor().schedule(session, next - now, TimeUnit.MILLISECONDS);
+            session.timer().schedule(holder.timeout, next - now, TimeUnit.MILLISECONDS);
          }
          return false;
       }
-      holder.future = null;
       holder.iteration++;
       for (String sequence : sequences) {
          session.startSequence(sequence, false, Session.ConcurrencyPolicy.FAIL);
@@ -65,26 +65,27 @@ public class DelaySessionStartStep implements Step, ResourceUtilizer {
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(KEY, Holder::new, true);
+      session.declareResource(KEY, () -> new Holder(session), true);
    }
 
    public static class Holder implements Session.Resource {
       public int iteration = 0;
       public long startTimeWithOffset = Long.MIN_VALUE;
       public double period;
-      public ScheduledFuture<Void> future;
+      public final Timeout timeout;
       public PhaseInstance phase;
 
+      public Holder(Session session) {
+         timeout = new Timeout(session::proceed);
+      }
+
       public long lastStartTime() {
          return startTimeWithOffset + (long) ((iteration - 1) * period);
       }
 
       @Override
       public void onSessionReset(Session session) {
-         if (future != null) {
-            future.cancel(false);
-            future = null;
-         }
+         timeout.cancel();
       }
    }
 }
@@ -1,5 +1,6 @@
 package io.hyperfoil.core.steps;
 
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -35,6 +36,13 @@ public class JsonStep implements Step {
    @Override
    public boolean invoke(Session session) {
       Object object = fromVar.getObject(session);
+      if (object instanceof ByteBuffer) {
+         // The parser works on arrays; mapped file contents must be copied
+         ByteBuffer buffer = ((ByteBuffer) object).duplicate();
+         byte[] bytes = new byte[buffer.remaining()];
+         buffer.get(bytes);
+         object = bytes;
+      }
       if (object instanceof byte[]) {
          ByteArrayParser.Context ctx = session.getResource(byteArrayParser);
          byteArrayParser.before(session);
@@ -42,7 +50,7 @@ public class JsonStep implements Step {
          byteArrayParser.after(session);
          ctx.reset();
       } else {
-         throw new IllegalStateException("Unexpected format of input (expecting byte[]): " + object);
+         throw new IllegalStateException("Unexpected format of input (expecting byte[] or ByteBuffer): " + object);
       }
       return true;
    }
@@ -93,10 +101,22 @@ public class JsonStep implements Step {
    }
 
    private static class ByteArrayParser extends JsonParser implements ResourceUtilizer, Session.ResourceKey<ByteArrayParser.Context> {
+      private int resourceIndex = -1;
+
       public ByteArrayParser(String query, boolean delete, Transformer replace, Processor processor) {
          super(query, delete, replace, processor);
       }
 
+      @Override
+      public int resourceIndex() {
+         return resourceIndex;
+      }
+
+      @Override
+      public void setResourceIndex(int index) {
+         resourceIndex = index;
+      }
+
       @Override
       public void reserve(Session session) {
          session.declareResource(this, Context::new);
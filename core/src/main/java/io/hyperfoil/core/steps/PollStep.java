@@ -6,8 +6,10 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.timer.Timeout;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.function.SerializableBiConsumer;
@@ -19,7 +21,7 @@ import io.hyperfoil.function.SerializablePredicate;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-public class PollStep<T> implements Step {
+public class PollStep<T> implements Step, ResourceUtilizer, Session.ResourceKey<PollStep.Context> {
    private static final Logger log = LogManager.getLogger(PollStep.class);
 
    private final SerializableFunction<Session, T> provider;
@@ -28,6 +30,7 @@ public class PollStep<T> implements Step {
    private final SerializableBiConsumer<Session, T> recycler;
    private final long periodMs;
    private final int maxRetries;
+   private int resourceIndex = -1;
 
    public PollStep(SerializableFunction<Session, T> provider, ObjectAccess toVar, SerializableBiPredicate<Session, T> filter, SerializableBiConsumer<Session, T> recycler, long periodMs, int maxRetries) {
       this.provider = provider;
@@ -45,7 +48,7 @@ public class PollStep<T> implements Step {
          if (object == null) {
             // Note: it's possible that we'll try to poll earlier
             log.trace("Did not fetch object, scheduling #{} in {}", session.uniqueId(), periodMs);
-            session.executor().schedule(session, periodMs, TimeUnit.MILLISECONDS);
+            scheduleRetry(session);
             return false;
          } else if (filter.test(session, object)) {
             toVar.setObject(session, object);
@@ -56,10 +59,45 @@ public class PollStep<T> implements Step {
       }
       // We did not have an accepting match
       log.trace("Not accepted, scheduling #{} in {}", session.uniqueId(), periodMs);
-      session.executor().schedule(session, periodMs, TimeUnit.MILLISECONDS);
+      scheduleRetry(session);
       return false;
    }
 
+   private void scheduleRetry(Session session) {
+      Timeout timeout = session.getResource(this).timeout;
+      if (!timeout.isScheduled()) {
+         session.timer().schedule(timeout, periodMs, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(this, () -> new Context(session));
+   }
+
+   static class Context implements Session.Resource {
+      private final Timeout timeout;
+
+      Context(Session session) {
+         timeout = new Timeout(session::proceed);
+      }
+
+      @Override
+      public void onSessionReset(Session session) {
+         timeout.cancel();
+      }
+   }
+
    /**
     * Periodically tries to insert object into session variable.
     */
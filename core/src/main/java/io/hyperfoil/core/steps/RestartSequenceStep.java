@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.kohsuke.MetaInfServices;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
@@ -16,7 +17,7 @@ public class RestartSequenceStep implements Step {
 
    public static Session.ResourceKey<Trigger> createTriggerKey() {
       // we cannot call this directly from any builder because it would capture reference to instantiating class
-      return new Session.ResourceKey<>() {};
+      return new ResourceSlots.Key<>();
    }
 
    public RestartSequenceStep(Session.ResourceKey<Trigger> triggerKey) {
@@ -18,6 +18,7 @@ import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.config.BaseSequenceBuilder;
+import io.hyperfoil.api.timer.Timeout;
 import io.hyperfoil.core.builders.BaseStepBuilder;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.util.Unique;
@@ -27,12 +28,13 @@ import io.hyperfoil.function.SerializableToLongFunction;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-public class ScheduleDelayStep implements Step, ResourceUtilizer {
+public class ScheduleDelayStep implements Step, ResourceUtilizer, Session.ResourceKey<ScheduleDelayStep.Timestamp> {
    private static final Logger log = LogManager.getLogger(ScheduleDelayStep.class);
 
    private final ObjectAccess key;
    private final Type type;
    private final SerializableToLongFunction<Session> duration;
+   private int resourceIndex = -1;
 
    public ScheduleDelayStep(ObjectAccess key, Type type, SerializableToLongFunction<Session> duration) {
       this.key = key;
@@ -63,16 +65,30 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       long delay = blockedUntil.timestamp - now;
       if (delay > 0) {
          log.trace("Scheduling #{} to run in {}", session.uniqueId(), delay);
-         session.executor().schedule(session, delay, TimeUnit.MILLISECONDS);
+         // If the timeout is already scheduled it is moved: awaitDelay checks only the latest timestamp
+         session.timer().schedule(blockedUntil.timeout, delay, TimeUnit.MILLISECONDS);
       } else {
          log.trace("Continuing, duration {} resulted in delay {}", duration, delay);
       }
       return true;
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
-      key.setObject(session, new Timestamp());
+      Timestamp timestamp = new Timestamp(session);
+      key.setObject(session, timestamp);
+      // Registered as a resource to cancel the timeout when the session is reset
+      session.declareSingletonResource(this, timestamp);
    }
 
    public enum Type {
@@ -96,8 +112,19 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       NEGATIVE_EXPONENTIAL
    }
 
-   static class Timestamp {
+   static class Timestamp implements Session.Resource {
+      final Timeout timeout;
       long timestamp = Long.MAX_VALUE;
+
+      Timestamp(Session session) {
+         timeout = new Timeout(session::proceed);
+      }
+
+      @Override
+      public void onSessionReset(Session session) {
+         // A pending timeout would wake up the session after it has been recycled
+         timeout.cancel();
+      }
    }
 
    /**
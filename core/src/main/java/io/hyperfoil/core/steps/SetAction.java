@@ -154,11 +154,23 @@ public class SetAction implements Action {
    }
 
    private abstract static class ValueSupplier<T> implements SerializableFunction<Session, Object>, Session.ResourceKey<ValueResource<T>>, ResourceUtilizer {
+      private int resourceIndex = -1;
+
       @Override
       public T apply(Session session) {
          return session.getResource(this).object;
       }
 
+      @Override
+      public int resourceIndex() {
+         return resourceIndex;
+      }
+
+      @Override
+      public void setResourceIndex(int index) {
+         resourceIndex = index;
+      }
+
       @Override
       public void reserve(Session session) {
          session.declareResource(this, () -> new ValueResource<>(create(session), this::reset));
@@ -4,6 +4,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.statistics.StatisticsKey;
+import io.hyperfoil.core.metric.MetricSelector;
+import io.hyperfoil.core.metric.ProvidedMetricSelector;
 
 public abstract class StatisticsStep implements Step {
    private static final AtomicInteger ID_COUNTER = new AtomicInteger();
@@ -25,4 +28,15 @@ public abstract class StatisticsStep implements Step {
    public int id() {
       return id;
    }
+
+   /**
+    * @param metricSelector Selector used by this step.
+    * @return Key for metric known at build time or <code>null</code> if the metric depends on the request.
+    */
+   protected StatisticsKey statisticsKey(MetricSelector metricSelector) {
+      if (metricSelector instanceof ProvidedMetricSelector) {
+         return new StatisticsKey(id, ((ProvidedMetricSelector) metricSelector).name());
+      }
+      return null;
+   }
 }
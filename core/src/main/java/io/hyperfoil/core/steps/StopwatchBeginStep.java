@@ -29,6 +29,7 @@ public class StopwatchBeginStep implements Step, ResourceUtilizer {
          StartTime startTime = (StartTime) key.activate(session);
          startTime.timestampMillis = System.currentTimeMillis();
          startTime.timestampNanos = System.nanoTime();
+         startTime.startDelay = session.claimStartDelay();
       }
       return true;
    }
@@ -42,6 +43,7 @@ public class StopwatchBeginStep implements Step, ResourceUtilizer {
    static class StartTime {
       long timestampMillis;
       long timestampNanos;
+      long startDelay;
    }
 
    /**
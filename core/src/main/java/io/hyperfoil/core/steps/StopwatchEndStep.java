@@ -3,24 +3,25 @@ package io.hyperfoil.core.steps;
 import io.hyperfoil.api.session.ReadAccess;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsKey;
 
 public class StopwatchEndStep extends StatisticsStep {
    private final ReadAccess key;
-   private final String metrics;
+   private final StatisticsKey metrics;
 
    public StopwatchEndStep(ReadAccess key, String metrics) {
       super(StatisticsStep.nextId());
       this.key = key;
-      this.metrics = metrics;
+      this.metrics = new StatisticsKey(id(), metrics);
    }
 
    @Override
    public boolean invoke(Session session) {
       long now = System.nanoTime();
       StopwatchBeginStep.StartTime startTime = (StopwatchBeginStep.StartTime) key.getObject(session);
-      Statistics statistics = session.statistics(id(), metrics);
+      Statistics statistics = session.statistics(metrics);
       statistics.incrementRequests(startTime.timestampMillis);
-      statistics.recordResponse(startTime.timestampMillis, now - startTime.timestampNanos);
+      statistics.recordResponse(startTime.timestampMillis, now - startTime.timestampNanos, startTime.startDelay);
       // TODO: record any request/response counts?
       return true;
    }
@@ -1,5 +1,7 @@
 package io.hyperfoil.core.util;
 
+import java.nio.ByteBuffer;
+
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.ReadAccess;
 import io.hyperfoil.api.session.Session;
@@ -30,6 +32,9 @@ public class FromVarBytesGenerator implements SerializableBiFunction<Session, Co
          return Util.string2byteBuf(str, connection.context().alloc().buffer(str.length()));
       } else if (value instanceof byte[]) {
          return Unpooled.wrappedBuffer((byte[]) value);
+      } else if (value instanceof ByteBuffer) {
+         // e.g. memory-mapped file contents; the wrapper uses its own slice so the buffer can be used again
+         return Unpooled.wrappedBuffer((ByteBuffer) value);
       } else {
          log.error("#{} Cannot encode contents of var {}: {}", session.uniqueId(), fromVar, value);
          return null;
@@ -0,0 +1,187 @@
+package io.hyperfoil.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.impl.CollectingVisitor;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Contents of a file from {@link BenchmarkData} used in requests or variables.
+ * <p>
+ * The bytes travel with the benchmark and stay on heap until the contents are first used or the
+ * {@link io.hyperfoil.core.impl.SimulationRunner runner} {@link #map() maps} the file on the agent.
+ * Then the bytes are written to a temporary file and memory-mapped: the heap does not hold a copy
+ * and all sessions share the same read-only pages. The mapping is never removed explicitly as buffers
+ * handed out may still be in use; it is removed when this object and all buffers are garbage-collected.
+ */
+public final class MappedFile implements Serializable {
+   private static final int CHUNK_SIZE = 64 * 1024;
+   // Steps of one benchmark referencing the same file share the instance; serialization keeps the identity
+   private static final Map<BenchmarkBuilder, Map<String, MappedFile>> LOADED = new WeakHashMap<>();
+
+   private final String name;
+   @Visitor.Ignore
+   private transient int length;
+   // Contents until the file is mapped
+   @Visitor.Ignore
+   private transient byte[] bytes;
+   @Visitor.Ignore
+   private transient volatile ByteBuffer mapping;
+
+   public MappedFile(String name, byte[] bytes) {
+      this.name = name;
+      this.bytes = bytes;
+      this.length = bytes.length;
+   }
+
+   /**
+    * @param benchmark Benchmark being built.
+    * @param path Path to the file.
+    * @return Contents of the file, or <code>null</code> if the file does not exist.
+    * @throws IOException When the file cannot be read.
+    */
+   public static MappedFile load(BenchmarkBuilder benchmark, String path) throws IOException {
+      synchronized (LOADED) {
+         MappedFile file = LOADED.computeIfAbsent(benchmark, b -> new HashMap<>()).get(path);
+         if (file != null) {
+            return file;
+         }
+      }
+      MappedFile file;
+      try (InputStream stream = benchmark.data().readFile(path)) {
+         if (stream == null) {
+            return null;
+         }
+         file = new MappedFile(path, Util.toByteArray(stream));
+      }
+      synchronized (LOADED) {
+         MappedFile existing = LOADED.computeIfAbsent(benchmark, b -> new HashMap<>()).putIfAbsent(path, file);
+         return existing != null ? existing : file;
+      }
+   }
+
+   /**
+    * @param root Object graph, e.g. sequences of a scenario.
+    * @return All distinct files referenced from the graph.
+    */
+   public static List<MappedFile> collect(Object root) {
+      List<MappedFile> files = new ArrayList<>();
+      new CollectingVisitor<>(MappedFile.class) {
+         @Override
+         protected boolean process(MappedFile file) {
+            files.add(file);
+            return false;
+         }
+      }.visit(root);
+      return files;
+   }
+
+   public String name() {
+      return name;
+   }
+
+   public int length() {
+      return length;
+   }
+
+   /**
+    * @return Read-only view of the contents with its own position and limit.
+    */
+   public ByteBuffer buffer() {
+      return mapping().duplicate();
+   }
+
+   /**
+    * @return Read-only buffer wrapping the contents. Releasing it does not affect the mapping.
+    */
+   public ByteBuf byteBuf() {
+      return Unpooled.wrappedBuffer(mapping());
+   }
+
+   /**
+    * Maps the contents now rather than on first use.
+    */
+   public void map() {
+      mapping();
+   }
+
+   private ByteBuffer mapping() {
+      ByteBuffer mapping = this.mapping;
+      if (mapping == null) {
+         synchronized (this) {
+            mapping = this.mapping;
+            if (mapping == null) {
+               try {
+                  mapping = map(bytes);
+               } catch (IOException e) {
+                  throw new IllegalStateException("Cannot map contents of " + name, e);
+               }
+               this.mapping = mapping;
+               bytes = null;
+            }
+         }
+      }
+      return mapping;
+   }
+
+   private static ByteBuffer map(byte[] bytes) throws IOException {
+      Path tempFile = Files.createTempFile("hyperfoil-", ".data");
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+         ByteBuffer buffer = ByteBuffer.wrap(bytes);
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         // The mapping stays valid after the channel is closed and the file is unlinked
+         return channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes.length);
+      } finally {
+         // where the file cannot be removed now try on exit
+         try {
+            Files.delete(tempFile);
+         } catch (IOException e) {
+            tempFile.toFile().deleteOnExit();
+         }
+      }
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      out.writeInt(length);
+      ByteBuffer contents;
+      synchronized (this) {
+         contents = bytes != null ? ByteBuffer.wrap(bytes) : mapping.duplicate();
+      }
+      byte[] chunk = new byte[Math.min(CHUNK_SIZE, length)];
+      while (contents.hasRemaining()) {
+         int length = Math.min(chunk.length, contents.remaining());
+         contents.get(chunk, 0, length);
+         out.write(chunk, 0, length);
+      }
+   }
+
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      length = in.readInt();
+      // The controller never maps the contents, agents map them when the runner starts
+      bytes = new byte[length];
+      in.readFully(bytes);
+   }
+}
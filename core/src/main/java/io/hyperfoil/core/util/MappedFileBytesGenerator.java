@@ -0,0 +1,20 @@
+package io.hyperfoil.core.util;
+
+import io.hyperfoil.api.connection.Connection;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.function.SerializableBiFunction;
+import io.netty.buffer.ByteBuf;
+
+public class MappedFileBytesGenerator implements SerializableBiFunction<Session, Connection, ByteBuf> {
+   private final MappedFile file;
+
+   public MappedFileBytesGenerator(MappedFile file) {
+      this.file = file;
+   }
+
+   @Override
+   public ByteBuf apply(Session session, Connection connection) {
+      // The wrapper is cheap and its release does not unmap the file; contents are not copied
+      return file.byteBuf();
+   }
+}
@@ -57,11 +57,25 @@ public class Trie implements Serializable {
    }
 
    public State newState() {
-      return new State();
+      return new State(this);
    }
 
-   public class State {
-      Node[] current = firstNodes;
+   /**
+    * Matching state; not bound to a single trie so that one instance can be reused with {@link #reset(Trie)}.
+    */
+   public static class State {
+      private Trie trie;
+      private Node[] current;
+
+      /**
+       * Creates a state that must be bound to a trie using {@link #reset(Trie)} before use.
+       */
+      public State() {
+      }
+
+      private State(Trie trie) {
+         reset(trie);
+      }
 
       public int next(byte b) {
          if (current == null) {
@@ -79,8 +93,20 @@ public class Trie implements Serializable {
          return -1;
       }
 
+      /**
+       * @return False when no further input can reach a terminal.
+       */
+      public boolean canMatch() {
+         return current != null;
+      }
+
       public void reset() {
-         current = firstNodes;
+         current = trie.firstNodes;
+      }
+
+      public void reset(Trie trie) {
+         this.trie = trie;
+         this.current = trie.firstNodes;
       }
    }
 
@@ -0,0 +1,171 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.StreamSupport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+
+public class AffinityAwareSessionPoolTest {
+   private static final int EXECUTORS = 4;
+   private static final int SESSIONS = 64;
+   private static final int ITERATIONS = 100000;
+
+   private final DefaultEventLoopGroup group = new DefaultEventLoopGroup(EXECUTORS);
+   private final EventLoop[] executors = StreamSupport.stream(group.spliterator(), false)
+         .map(EventLoop.class::cast).toArray(EventLoop[]::new);
+   private final Scenario scenario = new Scenario(new Sequence[0], new Sequence[0], 0, 0);
+   private final List<Session> created = new ArrayList<>();
+
+   @After
+   public void shutdown() {
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   private AffinityAwareSessionPool createPool() {
+      AffinityAwareSessionPool pool = new AffinityAwareSessionPool(executors, () -> {
+         int executorId = created.size() % EXECUTORS;
+         Session session = SessionFactory.create(scenario, executorId, created.size());
+         session.attach(executors[executorId], null, null, null, null, null);
+         created.add(session);
+         return session;
+      }, () -> null);
+      pool.reserve(SESSIONS);
+      return pool;
+   }
+
+   @Test
+   public void testAcquireFromForeignThread() {
+      AffinityAwareSessionPool pool = createPool();
+      Set<Session> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+      int[] perExecutor = new int[EXECUTORS];
+      for (int i = 0; i < SESSIONS; ++i) {
+         Session session = pool.acquire();
+         assertThat(session).isNotNull();
+         assertThat(acquired.add(session)).isTrue();
+         perExecutor[session.agentThreadId()]++;
+      }
+      assertThat(pool.acquire()).isNull();
+      for (int count : perExecutor) {
+         assertThat(count).isEqualTo(SESSIONS / EXECUTORS);
+      }
+      assertThat(pool.maxUsed()).isEqualTo(SESSIONS);
+      for (int i = 0; i < EXECUTORS; ++i) {
+         assertThat(pool.maxUsed(i)).isEqualTo(SESSIONS / EXECUTORS);
+      }
+   }
+
+   @Test
+   public void testConcurrentStealing() throws InterruptedException {
+      AffinityAwareSessionPool pool = createPool();
+      Set<Session> inUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      AtomicInteger acquisitions = new AtomicInteger();
+      CountDownLatch latch = new CountDownLatch(EXECUTORS);
+      for (EventLoop executor : executors) {
+         executor.execute(() -> {
+            try {
+               // Sessions are always released on the executor they are bound to
+               ArrayDeque<Session> held = new ArrayDeque<>();
+               for (int i = 0; i < ITERATIONS; ++i) {
+                  if (held.isEmpty() || ThreadLocalRandom.current().nextBoolean()) {
+                     Session session = pool.acquire();
+                     if (session != null) {
+                        acquisitions.incrementAndGet();
+                        assertThat(inUse.add(session)).as("Session %s acquired twice", session).isTrue();
+                        held.add(session);
+                     }
+                  } else {
+                     Session session = held.poll();
+                     assertThat(inUse.remove(session)).isTrue();
+                     session.executor().execute(() -> pool.release(session));
+                  }
+               }
+               for (Session session : held) {
+                  assertThat(inUse.remove(session)).isTrue();
+                  session.executor().execute(() -> pool.release(session));
+               }
+            } catch (Throwable t) {
+               error.set(t);
+            } finally {
+               latch.countDown();
+            }
+         });
+      }
+      assertThat(latch.await(60, TimeUnit.SECONDS)).isTrue();
+      // Wait until all releases are processed
+      CountDownLatch released = new CountDownLatch(EXECUTORS);
+      for (EventLoop executor : executors) {
+         executor.execute(released::countDown);
+      }
+      assertThat(released.await(10, TimeUnit.SECONDS)).isTrue();
+      if (error.get() != null) {
+         throw new AssertionError(error.get());
+      }
+      assertThat(acquisitions.get()).isPositive();
+
+      Set<Session> all = Collections.newSetFromMap(new IdentityHashMap<>());
+      Session session;
+      while ((session = pool.acquire()) != null) {
+         assertThat(all.add(session)).isTrue();
+      }
+      assertThat(all).hasSize(SESSIONS);
+   }
+
+   @Test
+   public void testWatermarksWithConcurrentAcquire() throws Exception {
+      AffinityAwareSessionPool pool = createPool();
+      pool.resetStats();
+      // Foreign threads steal sessions bound to all executors at the same time
+      ExecutorService foreignThreads = Executors.newFixedThreadPool(EXECUTORS);
+      Set<Session> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+      try {
+         List<Future<List<Session>>> futures = new ArrayList<>();
+         for (int i = 0; i < EXECUTORS; ++i) {
+            futures.add(foreignThreads.submit(() -> {
+               List<Session> sessions = new ArrayList<>();
+               for (int j = 0; j < SESSIONS / EXECUTORS; ++j) {
+                  sessions.add(pool.acquire());
+               }
+               return sessions;
+            }));
+         }
+         for (Future<List<Session>> future : futures) {
+            for (Session session : future.get(10, TimeUnit.SECONDS)) {
+               assertThat(session).isNotNull();
+               assertThat(acquired.add(session)).isTrue();
+            }
+         }
+      } finally {
+         foreignThreads.shutdownNow();
+      }
+      assertThat(acquired).hasSize(SESSIONS);
+      assertThat(pool.maxUsed()).isEqualTo(SESSIONS);
+      assertThat(pool.minUsed()).isZero();
+      for (int i = 0; i < EXECUTORS; ++i) {
+         assertThat(pool.maxUsed(i)).isEqualTo(SESSIONS / EXECUTORS);
+      }
+   }
+}
@@ -0,0 +1,123 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.core.steps.NoopStep;
+
+public class ArrivalRateTest {
+   private static final int EXECUTORS = 4;
+   private static final int RATE = 4000;
+   private static final long DURATION = TimeUnit.SECONDS.toNanos(2);
+
+   @Test
+   public void testMetronome() {
+      PhaseInstanceImpl.ConstantRate phase = new PhaseInstanceImpl.ConstantRate(phase(b -> b.constantRate(RATE).variance(false)), "run", 0);
+      List<Long> all = new ArrayList<>();
+      long expectedGap = TimeUnit.SECONDS.toNanos(1) / RATE;
+      for (int i = 0; i < EXECUTORS; ++i) {
+         List<Long> arrivals = arrivals(new PhaseInstanceImpl.ArrivalSchedule(phase::inverseCumulativeUsers, i, EXECUTORS, null), DURATION);
+         // executors share the load evenly and each of them takes every n-th user
+         assertThat(arrivals).hasSize(RATE * 2 / EXECUTORS);
+         assertThat(arrivals.get(0)).isCloseTo((i + 1) * expectedGap, within(1L));
+         for (int j = 1; j < arrivals.size(); ++j) {
+            assertThat(arrivals.get(j) - arrivals.get(j - 1)).isCloseTo(EXECUTORS * expectedGap, within(1L));
+         }
+         all.addAll(arrivals);
+      }
+      // with evenly spaced arrivals there are no bursts
+      all.sort(Long::compare);
+      for (int i = 0; i < all.size(); ++i) {
+         assertThat(all.get(i)).isCloseTo((i + 1) * expectedGap, within(1L));
+      }
+   }
+
+   @Test
+   public void testPoisson() {
+      PhaseInstanceImpl.ConstantRate phase = new PhaseInstanceImpl.ConstantRate(phase(b -> b.constantRate(RATE).variance(true)), "run", 0);
+      int total = 0;
+      for (int i = 0; i < EXECUTORS; ++i) {
+         List<Long> arrivals = arrivals(new PhaseInstanceImpl.ArrivalSchedule(phase::inverseCumulativeUsers, i, EXECUTORS, new Random(i)), DURATION);
+         assertThat(arrivals.size()).isBetween(RATE * 2 / EXECUTORS * 90 / 100, RATE * 2 / EXECUTORS * 110 / 100);
+         total += arrivals.size();
+      }
+      assertThat(total).isBetween(RATE * 2 * 95 / 100, RATE * 2 * 105 / 100);
+   }
+
+   @Test
+   public void testRamp() {
+      PhaseInstanceImpl.RampRate phase = new PhaseInstanceImpl.RampRate(phase(b -> b.rampRate(RATE / 2, RATE * 3 / 2).variance(false)), "run", 0);
+      List<Long> all = new ArrayList<>();
+      for (int i = 0; i < EXECUTORS; ++i) {
+         all.addAll(arrivals(new PhaseInstanceImpl.ArrivalSchedule(phase::inverseCumulativeUsers, i, EXECUTORS, null), DURATION));
+      }
+      // average rate is RATE, the last user arrives at the very end of the phase
+      assertThat(all.size()).isBetween(RATE * 2 - 1, RATE * 2);
+      // the rate is increasing: first half of the phase should start 3/8 of users
+      long firstHalf = all.stream().filter(ts -> ts <= DURATION / 2).count();
+      assertThat(firstHalf).isBetween(RATE * 2 * 3 / 8 - 1L, RATE * 2 * 3 / 8 + 1L);
+   }
+
+   @Test
+   public void testAdaptiveRate() {
+      PhaseInstanceImpl.AdaptiveRate phase = new PhaseInstanceImpl.AdaptiveRate(phase(b -> b.adaptiveRate(1000).variance(false)), "run", 0);
+      long[] now = { 0 };
+      phase.nanoTime = () -> now[0];
+      phase.absoluteStartNanos = 0;
+      PhaseInstanceImpl.ArrivalSchedule schedule = new PhaseInstanceImpl.ArrivalSchedule(phase::inverseCumulativeUsers, 0, 1, null);
+      long arrival = 0;
+      for (int i = 1; i <= 1000; ++i) {
+         arrival = schedule.next();
+         assertThat(arrival).isCloseTo(i * TimeUnit.MILLISECONDS.toNanos(1), within(1L));
+      }
+      // the rate applies to arrivals after the change
+      now[0] = TimeUnit.SECONDS.toNanos(1);
+      phase.setUsersPerSec(2000);
+      assertThat(schedule.next() - arrival).isCloseTo(TimeUnit.MICROSECONDS.toNanos(500), within(1L));
+      assertThat(schedule.next() - arrival).isCloseTo(TimeUnit.MILLISECONDS.toNanos(1), within(1L));
+   }
+
+   @Test
+   public void testAdaptiveRateIncrease() {
+      PhaseInstanceImpl.AdaptiveRate phase = new PhaseInstanceImpl.AdaptiveRate(phase(b -> b.adaptiveRate(1).variance(false)), "run", 0);
+      long[] now = { 0 };
+      phase.nanoTime = () -> now[0];
+      phase.absoluteStartNanos = 0;
+      PhaseInstanceImpl.ArrivalSchedule schedule = new PhaseInstanceImpl.ArrivalSchedule(phase::inverseCumulativeUsers, 0, 1, null);
+      assertThat(schedule.next()).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+      assertThat(schedule.next()).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+      // the pending arrival is moved closer rather than waiting for the timer computed at the old rate
+      now[0] = TimeUnit.MILLISECONDS.toNanos(1500);
+      phase.setUsersPerSec(1000);
+      assertThat(schedule.current()).isCloseTo(TimeUnit.MICROSECONDS.toNanos(1500500), within(1L));
+      assertThat(schedule.next()).isCloseTo(TimeUnit.MICROSECONDS.toNanos(1501500), within(1L));
+      assertThatThrownBy(() -> phase.setUsersPerSec(0)).isInstanceOf(IllegalArgumentException.class);
+   }
+
+   private static List<Long> arrivals(PhaseInstanceImpl.ArrivalSchedule schedule, long until) {
+      List<Long> arrivals = new ArrayList<>();
+      for (long arrival = schedule.next(); arrival <= until; arrival = schedule.next()) {
+         arrivals.add(arrival);
+      }
+      return arrivals;
+   }
+
+   private static Phase phase(Function<PhaseBuilder.Catalog, PhaseBuilder.OpenModel<?>> model) {
+      BenchmarkBuilder benchmark = BenchmarkBuilder.builder().name("test").threads(EXECUTORS);
+      model.apply(benchmark.addPhase("test")).maxSessions(RATE).duration(DURATION / 1_000_000)
+            .scenario().initialSequence("test").step(new NoopStep()).endSequence();
+      return benchmark.build().phases().stream().filter(p -> p.name().equals("test")).findFirst().orElseThrow();
+   }
+}
@@ -0,0 +1,35 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class DelayedStartsTest {
+   @Test
+   public void testFifo() {
+      PhaseInstanceImpl.DelayedStarts starts = new PhaseInstanceImpl.DelayedStarts();
+      assertThat(starts.poll()).isEqualTo(Long.MIN_VALUE);
+      starts.add(10, 2);
+      starts.add(10, 1);
+      for (int i = 0; i < 100; ++i) {
+         starts.add(20 + i, 1);
+      }
+      assertThat(starts.poll()).isEqualTo(10);
+      assertThat(starts.poll()).isEqualTo(10);
+      assertThat(starts.poll()).isEqualTo(10);
+      for (int i = 0; i < 50; ++i) {
+         assertThat(starts.poll()).isEqualTo(20 + i);
+      }
+      // wrap around the ring before it grows again
+      for (int i = 0; i < 100; ++i) {
+         starts.add(200 + i, 1);
+      }
+      for (int i = 50; i < 100; ++i) {
+         assertThat(starts.poll()).isEqualTo(20 + i);
+      }
+      for (int i = 0; i < 100; ++i) {
+         assertThat(starts.poll()).isEqualTo(200 + i);
+      }
+      assertThat(starts.poll()).isEqualTo(Long.MIN_VALUE);
+   }
+}
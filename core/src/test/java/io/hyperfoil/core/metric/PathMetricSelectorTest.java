@@ -0,0 +1,90 @@
+package io.hyperfoil.core.metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class PathMetricSelectorTest {
+   private static final String[] ITEMS = {
+         "/api/v1/.* -> api-v1",
+         "/api/.*",
+         "/static/.* -> static",
+         ".*\\.jpg",
+         ".*\\.png -> images",
+         ".*\\.jpg -> never",
+         "([^?]*)(\\?.*)? -> $1",
+   };
+   private static final String[] PATHS = {
+         "/api/v1/users", "/api/v2/users", "/api/", "/api", "/static/app.js", "/static/logo.jpg", "/img/logo.jpg",
+         "/img/logo.png", "/img/logo.png?v=1", "/index.html?foo=bar", "/api/v1/\n", "/é.jpg", "", "/api/v1", "/apix/logo.jpg",
+   };
+
+   @Test
+   public void testSameAsSequentialEvaluation() {
+      PathMetricSelector selector = selector();
+      for (int i = 0; i < 2; ++i) {
+         for (String path : PATHS) {
+            assertThat(selector.apply(null, path)).as(path).isEqualTo(sequential(null, path));
+            assertThat(selector.apply("example.com:8080", path)).as(path).isEqualTo(sequential("example.com:8080", path));
+         }
+      }
+      assertThat(selector.memoMisses()).isEqualTo(2 * PATHS.length);
+      assertThat(selector.memoHits()).isEqualTo(2 * PATHS.length);
+   }
+
+   @Test
+   public void testAuthoritiesBounded() {
+      PathMetricSelector selector = selector();
+      for (int i = 0; i < 200; ++i) {
+         selector.apply("host" + i, "/api");
+      }
+      // the least recently used authorities have been evicted
+      assertThat(selector.apply("host0", "/api")).isEqualTo("host0/api");
+      assertThat(selector.memoMisses()).isEqualTo(201);
+      assertThat(selector.apply("host199", "/api")).isEqualTo("host199/api");
+      assertThat(selector.memoHits()).isEqualTo(1);
+   }
+
+   @Test
+   public void testSerialization() throws Exception {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+         output.writeObject(selector());
+      }
+      PathMetricSelector selector;
+      try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         selector = (PathMetricSelector) input.readObject();
+      }
+      assertThat(selector.apply(null, "/api/v1/users")).isEqualTo("api-v1");
+      assertThat(selector.apply(null, "/img/logo.png")).isEqualTo("images");
+      assertThat(selector.memoMisses()).isEqualTo(2);
+   }
+
+   private static PathMetricSelector selector() {
+      PathMetricSelector selector = new PathMetricSelector();
+      for (String item : ITEMS) {
+         selector.nextItem(item);
+      }
+      return selector;
+   }
+
+   private static String sequential(String authority, String path) {
+      String combined = authority != null ? authority + path : path;
+      for (String item : ITEMS) {
+         int arrow = item.indexOf("->");
+         Pattern pattern = Pattern.compile((arrow < 0 ? item : item.substring(0, arrow)).trim());
+         Matcher matcher = pattern.matcher(combined);
+         if (matcher.matches()) {
+            return arrow < 0 ? combined : matcher.replaceFirst(item.substring(arrow + 2).trim());
+         }
+      }
+      return null;
+   }
+}
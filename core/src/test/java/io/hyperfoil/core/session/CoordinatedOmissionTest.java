@@ -0,0 +1,54 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.NoopStep;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class CoordinatedOmissionTest extends BaseScenarioTest {
+   private static final long BLOCK_MILLIS = 20;
+
+   @Test
+   public void testStartDelayRecordedOnce() {
+      // Each session blocks the only executor so that it cannot keep up with the rate and sessions start late
+      benchmarkBuilder.addPhase("test").constantRate(100).duration(1000).maxSessions(200)
+            .correctCoordinatedOmission(true).scenario()
+            .initialSequence("first")
+            .step((Step) session -> {
+               try {
+                  Thread.sleep(BLOCK_MILLIS);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+               return true;
+            })
+            .step(SC).stopwatch().step(new NoopStep()).endStep()
+            .step(SC).nextSequence("second")
+            .endSequence()
+            .sequence("second")
+            .step(SC).stopwatch().step(new NoopStep()).endStep();
+
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      StatisticsSnapshot first = stats.get("first");
+      StatisticsSnapshot second = stats.get("second");
+      assertThat(first.responseCount).isEqualTo(second.responseCount).isPositive();
+      // The first request carries the start delay, later requests in the same session don't
+      assertThat(first.histogram().getMaxValue()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(5 * BLOCK_MILLIS));
+      assertThat(second.histogram().getMaxValue()).isLessThan(TimeUnit.MILLISECONDS.toNanos(BLOCK_MILLIS));
+   }
+
+   @Override
+   protected int threads() {
+      return 1;
+   }
+}
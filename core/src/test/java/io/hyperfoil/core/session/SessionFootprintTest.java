@@ -0,0 +1,103 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ResourceSlots;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.session.Session;
+
+public class SessionFootprintTest {
+   @Test
+   public void testResourcesCreatedOnReserve() {
+      BufferStep step = new BufferStep();
+      Sequence sequence = new Sequence("test", 0, 2, 0, new Step[]{ step });
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[]{ sequence }, 16, 16);
+      Session session = SessionFactory.create(scenario, 0, 0);
+      session.reserve(scenario);
+      // one buffer for each sequence instance
+      assertThat(step.created.get()).isEqualTo(2);
+      assertThat(step.resourceIndex()).isZero();
+
+      session.currentSequence(new SequenceInstance().reset(sequence, 1, null, null));
+      Buffer buffer = session.getResource(step);
+      assertThat(buffer).isNotNull();
+      assertThat(session.getResource(step)).isSameAs(buffer);
+
+      session.currentSequence(new SequenceInstance().reset(sequence, 0, null, null));
+      assertThat(session.getResource(step)).isNotSameAs(buffer).isNotNull();
+      assertThat(step.created.get()).isEqualTo(2);
+      assertThat(session.getResource(new BufferStep())).isNull();
+   }
+
+   @Test
+   public void testKeySharedByScenarios() {
+      ResourceSlots.Key<Buffer> shared = new ResourceSlots.Key<>();
+      Scenario first = new Scenario(new Sequence[0], new Sequence[0], 16, 16);
+      Scenario second = new Scenario(new Sequence[0], new Sequence[0], 16, 16);
+      Session firstSession = SessionFactory.create(first, 0, 0);
+      firstSession.declareSingletonResource(shared, new Buffer());
+      Session secondSession = SessionFactory.create(second, 0, 1);
+      secondSession.declareSingletonResource(new ResourceSlots.Key<>(), new Buffer());
+      Buffer buffer = new Buffer();
+      secondSession.declareSingletonResource(shared, buffer);
+      // the key stores the index from the second scenario; the first one must not use it
+      assertThat(shared.resourceIndex()).isEqualTo(1);
+      assertThat(secondSession.getResource(shared)).isSameAs(buffer);
+      assertThat(firstSession.getResource(shared)).isNotNull().isNotSameAs(buffer);
+   }
+
+   @Test
+   public void testFootprint() {
+      Sequence sequence = new Sequence("test", 0, 2, 0, new Step[]{ new BufferStep() });
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[]{ sequence }, 16, 16);
+      List<SessionFootprint.Item> items = SessionFootprint.measure(scenario, 10, session -> { });
+      assertThat(items).extracting(item -> item.name)
+            .containsExactly(SessionFootprint.SESSION, SessionFootprint.VARIABLES, SessionFootprint.DECLARATIONS,
+                  "SessionFootprintTest$Buffer");
+      assertThat(items.get(0).bytes).isPositive();
+      // two buffers, one for each sequence instance
+      assertThat(items.get(3).bytes).isGreaterThanOrEqualTo(2 * 1024);
+      assertThat(items.get(2).bytes).isLessThan(1024);
+   }
+
+   public static class BufferStep implements Step, ResourceUtilizer, Session.ResourceKey<Buffer> {
+      final AtomicInteger created = new AtomicInteger();
+      private int resourceIndex = -1;
+
+      @Override
+      public boolean invoke(Session session) {
+         return true;
+      }
+
+      @Override
+      public int resourceIndex() {
+         return resourceIndex;
+      }
+
+      @Override
+      public void setResourceIndex(int index) {
+         resourceIndex = index;
+      }
+
+      @Override
+      public void reserve(Session session) {
+         session.declareResource(this, () -> {
+            created.incrementAndGet();
+            return new Buffer();
+         });
+      }
+   }
+
+   public static class Buffer implements Session.Resource {
+      final byte[] data = new byte[1024];
+   }
+}
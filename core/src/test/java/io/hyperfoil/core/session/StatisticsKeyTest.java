@@ -0,0 +1,39 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.NoopStep;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class StatisticsKeyTest extends BaseScenarioTest {
+   @Test
+   public void test() {
+      scenario(5)
+            .initialSequence("first")
+            .step(SC).stopwatch().step(new NoopStep()).endStep()
+            .step(SC).nextSequence("second")
+            .endSequence()
+            .sequence("second")
+            .step(SC).stopwatch().step(new NoopStep()).endStep();
+
+      Benchmark benchmark = benchmarkBuilder.build();
+      assertThat(benchmark.phases().iterator().next().scenario().statisticsKeys()).isEqualTo(2);
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      assertThat(stats.get("first").responseCount).isEqualTo(5);
+      assertThat(stats.get("second").responseCount).isEqualTo(5);
+   }
+
+   @Override
+   protected int threads() {
+      return 1;
+   }
+}
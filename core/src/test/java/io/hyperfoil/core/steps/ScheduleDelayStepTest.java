@@ -0,0 +1,49 @@
+package io.hyperfoil.core.steps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.timer.Timer;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.test.TestUtil;
+import io.netty.channel.DefaultEventLoop;
+
+public class ScheduleDelayStepTest {
+   private final DefaultEventLoop eventLoop = new DefaultEventLoop();
+
+   @After
+   public void shutdown() {
+      eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   @Test
+   public void testTimeoutCancelledOnReset() throws Exception {
+      Locator.push(TestUtil.locator());
+      ObjectAccess key = SessionFactory.objectAccess("delay");
+      Locator.pop();
+      ScheduleDelayStep step = new ScheduleDelayStep(key, ScheduleDelayStep.Type.FROM_NOW, s -> 60_000);
+      Sequence sequence = new Sequence("test", 0, 1, 0, new Step[]{ step });
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[]{ sequence }, 16, 16);
+      Session session = SessionFactory.create(scenario, 0, 0);
+      session.attach(eventLoop, Timer.create(eventLoop), null, null, null, null);
+      eventLoop.submit(() -> {
+         session.reserve(scenario);
+         step.invoke(session);
+         ScheduleDelayStep.Timestamp timestamp = (ScheduleDelayStep.Timestamp) key.getObject(session);
+         assertThat(timestamp.timeout.isScheduled()).isTrue();
+
+         session.reset();
+         assertThat(timestamp.timeout.isScheduled()).isFalse();
+      }).get(10, TimeUnit.SECONDS);
+   }
+}
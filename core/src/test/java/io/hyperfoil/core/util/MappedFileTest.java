@@ -0,0 +1,118 @@
+package io.hyperfoil.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkData;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+public class MappedFileTest {
+   @Test
+   public void testLoadedOncePerBenchmark() throws IOException {
+      byte[] contents = randomBytes(100);
+      AtomicInteger reads = new AtomicInteger();
+      BenchmarkBuilder benchmark = BenchmarkBuilder.builder().data(new TestData(contents, reads));
+      MappedFile file = MappedFile.load(benchmark, "foo.bin");
+      assertThat(MappedFile.load(benchmark, "foo.bin")).isSameAs(file);
+      assertThat(reads.get()).isEqualTo(1);
+      assertThat(MappedFile.load(benchmark, "missing.bin")).isNull();
+
+      BenchmarkBuilder other = BenchmarkBuilder.builder().data(new TestData(contents, reads));
+      assertThat(MappedFile.load(other, "foo.bin")).isNotSameAs(file);
+   }
+
+   @Test
+   public void testMappedAfterDeserialization() throws IOException, ClassNotFoundException {
+      // larger than a single chunk
+      byte[] contents = randomBytes(200 * 1024 + 17);
+      MappedFile file = new MappedFile("foo.bin", contents);
+      MappedFile[] copies = (MappedFile[]) roundTrip(new MappedFile[]{ file, file });
+      assertThat(copies[1]).isSameAs(copies[0]);
+      MappedFile copy = copies[0];
+      assertThat(copy.name()).isEqualTo("foo.bin");
+      assertThat(copy.length()).isEqualTo(contents.length);
+
+      ByteBuffer buffer = copy.buffer();
+      assertThat(buffer.isReadOnly()).isTrue();
+      assertThat(buffer.isDirect()).isTrue();
+      byte[] read = new byte[buffer.remaining()];
+      buffer.get(read);
+      assertThat(read).isEqualTo(contents);
+      // Each view has its own position
+      assertThat(copy.buffer().remaining()).isEqualTo(contents.length);
+
+      // Serializing mapped contents again works, too
+      MappedFile secondCopy = (MappedFile) roundTrip(copy);
+      assertThat(secondCopy.buffer()).isEqualTo(ByteBuffer.wrap(contents));
+   }
+
+   @Test
+   public void testByteBufRelease() {
+      byte[] contents = randomBytes(1000);
+      MappedFile file = new MappedFile("foo.bin", contents);
+      for (int i = 0; i < 3; ++i) {
+         ByteBuf buf = file.byteBuf();
+         assertThat(buf.isDirect()).isTrue();
+         assertThat(buf.isReadOnly()).isTrue();
+         assertThat(ByteBufUtil.getBytes(buf)).isEqualTo(contents);
+         buf.skipBytes(buf.readableBytes());
+         assertThat(buf.release()).isTrue();
+      }
+      assertThat(file.length()).isEqualTo(contents.length);
+   }
+
+   private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+         output.writeObject(object);
+      }
+      try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         return input.readObject();
+      }
+   }
+
+   private static byte[] randomBytes(int length) {
+      byte[] bytes = new byte[length];
+      ThreadLocalRandom.current().nextBytes(bytes);
+      return bytes;
+   }
+
+   private static class TestData implements BenchmarkData {
+      private final byte[] contents;
+      private final AtomicInteger reads;
+
+      TestData(byte[] contents, AtomicInteger reads) {
+         this.contents = contents;
+         this.reads = reads;
+      }
+
+      @Override
+      public InputStream readFile(String file) {
+         if (!file.equals("foo.bin")) {
+            return null;
+         }
+         reads.incrementAndGet();
+         return new ByteArrayInputStream(contents);
+      }
+
+      @Override
+      public Map<String, byte[]> files() {
+         return Collections.emptyMap();
+      }
+   }
+}
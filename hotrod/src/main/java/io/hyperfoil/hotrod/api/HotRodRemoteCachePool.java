@@ -1,11 +1,12 @@
 package io.hyperfoil.hotrod.api;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.hotrod.connection.HotRodRemoteCachePoolImpl;
 
 public interface HotRodRemoteCachePool extends Session.Resource {
 
-   Session.ResourceKey<HotRodRemoteCachePool> KEY = new Session.ResourceKey<>() {};
+   Session.ResourceKey<HotRodRemoteCachePool> KEY = new ResourceSlots.Key<>();
 
    static HotRodRemoteCachePool get(Session session) {
       return session.getResource(KEY);
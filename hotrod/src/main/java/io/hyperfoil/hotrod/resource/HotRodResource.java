@@ -2,18 +2,21 @@ package io.hyperfoil.hotrod.resource;
 
 import java.util.concurrent.CompletableFuture;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 
 public class HotRodResource implements Session.Resource {
 
    private long startTimestampNanos;
    private long startTimestampMillis;
+   private long startDelay;
    private CompletableFuture future;
 
-   public void set(CompletableFuture future, long startTimestampNanos, long startTimestampMillis) {
+   public void set(CompletableFuture future, long startTimestampNanos, long startTimestampMillis, long startDelay) {
       this.future = future;
       this.startTimestampNanos = startTimestampNanos;
       this.startTimestampMillis = startTimestampMillis;
+      this.startDelay = startDelay;
    }
 
    public boolean isComplete() {
@@ -28,7 +31,10 @@ public class HotRodResource implements Session.Resource {
       return startTimestampNanos;
    }
 
-   public static class Key implements Session.ResourceKey<HotRodResource> {
+   public long getStartDelay() {
+      return startDelay;
+   }
 
+   public static class Key extends ResourceSlots.Key<HotRodResource> {
    }
 }
@@ -8,6 +8,7 @@ import org.infinispan.client.hotrod.exceptions.HotRodTimeoutException;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsKey;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.core.metric.MetricSelector;
 import io.hyperfoil.core.steps.StatisticsStep;
@@ -23,6 +24,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
    final SerializableFunction<Session, HotRodOperation> operation;
    final SerializableFunction<Session, String> cacheName;
    final MetricSelector metricSelector;
+   final StatisticsKey statisticsKey;
    final SerializableFunction<Session, String> keyGenerator;
    final SerializableFunction<Session, String> valueGenerator;
 
@@ -37,6 +39,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       this.operation = operation;
       this.cacheName = cacheName;
       this.metricSelector = metricSelector;
+      this.statisticsKey = statisticsKey(metricSelector);
       this.keyGenerator = keyGenerator;
       this.valueGenerator = valueGenerator;
    }
@@ -58,8 +61,8 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       }
       HotRodRemoteCachePool pool = HotRodRemoteCachePool.get(session);
       HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString remoteCache = pool.getRemoteCache(cacheName);
-      String metric = metricSelector.apply(null, cacheName);
-      Statistics statistics = session.statistics(id(), metric);
+      String metric = statisticsKey != null ? null : metricSelector.apply(null, cacheName);
+      Statistics statistics = statistics(session, metric);
 
       long startTimestampMs = System.currentTimeMillis();
       long startTimestampNanos = System.nanoTime();
@@ -81,7 +84,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
          assert session.executor().inEventLoop();
          session.proceed();
       });
-      session.getResource(futureWrapperKey).set(future, startTimestampNanos, startTimestampMs);
+      session.getResource(futureWrapperKey).set(future, startTimestampNanos, startTimestampMs, session.claimStartDelay());
 
       return true;
    }
@@ -91,8 +94,12 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       session.declareResource(futureWrapperKey, HotRodResource::new);
    }
 
+   private Statistics statistics(Session session, String metric) {
+      return statisticsKey != null ? session.statistics(statisticsKey) : session.statistics(id(), metric);
+   }
+
    private void trackResponseError(Session session, String metric, Object ex) {
-      Statistics statistics = session.statistics(id(), metric);
+      Statistics statistics = statistics(session, metric);
       if (ex instanceof TimeoutException || ex instanceof HotRodTimeoutException) {
          statistics.incrementTimeouts(System.currentTimeMillis());
       } else {
@@ -107,7 +114,7 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       long startTimestampNanos = resource.getStartTimestampNanos();
       long endTimestampNanos = System.nanoTime();
 
-      Statistics statistics = session.statistics(id(), metric);
-      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
+      Statistics statistics = statistics(session, metric);
+      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos, resource.getStartDelay());
    }
 }
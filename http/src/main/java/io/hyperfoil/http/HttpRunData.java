@@ -103,6 +103,7 @@ public class HttpRunData implements PluginRunData {
                });
       }
       session.declareSingletonResource(HttpDestinationTable.KEY, destinations);
+      // Created eagerly to keep the allocation out of the first (timed) request
       session.declareSingletonResource(HttpCache.KEY, new HttpCacheImpl(clock));
       session.declareSingletonResource(HttpRequestPool.KEY, new HttpRequestPool(scenario, session));
    }
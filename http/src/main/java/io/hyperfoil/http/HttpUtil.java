@@ -8,6 +8,7 @@ import java.util.TimeZone;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.AsciiString;
@@ -19,6 +20,7 @@ public final class HttpUtil {
    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
    private static final byte[] BYTES_80 = "80".getBytes(StandardCharsets.UTF_8);
    private static final byte[] BYTES_443 = "443".getBytes(StandardCharsets.UTF_8);
+   private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
 
    public static final String HTTP_PREFIX = "http://";
    public static final String HTTPS_PREFIX = "https://";
@@ -333,4 +335,30 @@ public final class HttpUtil {
    public static int prefixLength(boolean isHttp) {
       return isHttp ? HTTP_PREFIX.length() : HTTPS_PREFIX.length();
    }
+
+   /**
+    * Writes HTTP/1.1 request line, replacing spaces in the path with <code>%20</code> (or <code>+</code> in query).
+    */
+   public static void writeRequestLine(ByteBuf buf, HttpMethod method, CharSequence path) {
+      buf.writeBytes(method.netty.asciiName().array());
+      buf.writeByte(' ');
+      boolean beforeQuestion = true;
+      for (int i = 0; i < path.length(); ++i) {
+         if (path.charAt(i) == ' ') {
+            if (beforeQuestion) {
+               buf.writeByte(0xFF & '%');
+               buf.writeByte(0xFF & '2');
+               buf.writeByte(0xFF & '0');
+            } else {
+               buf.writeByte(0xFF & '+');
+            }
+         } else {
+            if (path.charAt(i) == '?') {
+               beforeQuestion = false;
+            }
+            buf.writeByte(0xFF & path.charAt(i));
+         }
+      }
+      buf.writeBytes(HTTP1_1);
+   }
 }
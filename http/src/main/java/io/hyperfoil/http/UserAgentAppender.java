@@ -23,11 +23,23 @@ public class UserAgentAppender implements SerializableBiConsumer<Session, HttpRe
       HOSTNAME = hostname;
    }
 
+   private int resourceIndex = -1;
+
    @Override
    public void accept(Session session, HttpRequestWriter httpRequestWriter) {
       httpRequestWriter.putHeader(HttpHeaderNames.USER_AGENT, session.getResource(this).id);
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       SessionId sessionId = new SessionId(new AsciiString("#" + session.uniqueId() + "@" + HOSTNAME));
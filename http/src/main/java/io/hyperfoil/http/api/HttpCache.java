@@ -1,9 +1,10 @@
 package io.hyperfoil.http.api;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 
 public interface HttpCache extends Session.Resource {
-   Session.ResourceKey<HttpCache> KEY = new Session.ResourceKey<>() {};
+   Session.ResourceKey<HttpCache> KEY = new ResourceSlots.Key<>();
 
    void beforeRequestHeaders(HttpRequest request);
 
@@ -16,6 +16,7 @@ public interface HttpConnection extends Connection {
    void attach(HttpConnectionPool pool);
 
    void request(HttpRequest request,
+                HttpRequestTemplate template,
                 BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                 boolean injectHostHeader,
                 BiFunction<Session, Connection, ByteBuf> bodyGenerator);
@@ -1,12 +1,13 @@
 package io.hyperfoil.http.api;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 
 /**
  * Manages all {@link HttpConnectionPool http connection pools} for sessions in single executor.
  */
 public interface HttpDestinationTable extends Session.Resource {
-   Session.ResourceKey<HttpDestinationTable> KEY = new Session.ResourceKey<>() {};
+   Session.ResourceKey<HttpDestinationTable> KEY = new ResourceSlots.Key<>();
 
    HttpConnectionPool getConnectionPoolByName(String endpoint);
 
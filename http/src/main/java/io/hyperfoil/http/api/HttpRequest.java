@@ -50,6 +50,14 @@ public class HttpRequest extends Request {
                     BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                     boolean injectHostHeader,
                     BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
+      send(connection, null, headerAppenders, injectHostHeader, bodyGenerator);
+   }
+
+   public void send(HttpConnection connection,
+                    HttpRequestTemplate template,
+                    BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
+                    boolean injectHostHeader,
+                    BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       if (session.currentRequest() != null) {
          // Refuse to fire request from other request's handler as the other handlers
          // would have messed up current request in session.
@@ -62,7 +70,7 @@ public class HttpRequest extends Request {
 
       attach(connection);
       connection.attach(pool);
-      connection.request(this, headerAppenders, injectHostHeader, bodyGenerator);
+      connection.request(this, template, headerAppenders, injectHostHeader, bodyGenerator);
    }
 
    @Override
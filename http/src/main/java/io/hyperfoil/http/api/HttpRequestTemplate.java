@@ -0,0 +1,167 @@
+package io.hyperfoil.http.api;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.hyperfoil.api.config.Visitor;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.http.HttpUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.util.AsciiString;
+
+/**
+ * Parts of the request that don't change between invocations of the same step, encoded when the benchmark is built.
+ * The request line is used only if the method and path of the actual request match; headers are a prefix
+ * of the header appenders in the step and replace these.
+ */
+public final class HttpRequestTemplate implements Serializable {
+   // Names of headers that must be reported to HttpCache
+   private static final AsciiString[] CACHE_HEADERS = {
+         HttpHeaderNames.CACHE_CONTROL, HttpHeaderNames.PRAGMA, HttpHeaderNames.IF_MATCH, HttpHeaderNames.IF_NONE_MATCH
+   };
+
+   private final HttpMethod method;
+   private final String path;
+   @Visitor.Ignore
+   private final byte[] requestLine;
+   private final Header[] headers;
+
+   private HttpRequestTemplate(HttpMethod method, String path, Header[] headers) {
+      this.method = method;
+      this.path = path;
+      if (method != null && path != null) {
+         ByteBuf buf = Unpooled.buffer();
+         HttpUtil.writeRequestLine(buf, method, path);
+         this.requestLine = new byte[buf.readableBytes()];
+         buf.readBytes(this.requestLine);
+      } else {
+         this.requestLine = null;
+      }
+      this.headers = headers;
+   }
+
+   /**
+    * @param request Request being sent.
+    * @return True if {@link #writeRequestLine(ByteBuf)} can be used for this request.
+    */
+   public boolean hasRequestLine(HttpRequest request) {
+      return requestLine != null && request.method == method && path.equals(request.path);
+   }
+
+   public void writeRequestLine(ByteBuf buf) {
+      buf.writeBytes(requestLine);
+   }
+
+   /**
+    * Writes encoded headers (including CRLF) directly into the buffer.
+    */
+   public void writeHeaders(HttpRequest request, ByteBuf buf, HttpCache httpCache) {
+      for (Header header : headers) {
+         buf.writeBytes(header.bytes);
+         if (header.pattern != null) {
+            header.pattern.accept(request.session, buf);
+            buf.writeByte('\r').writeByte('\n');
+         } else if (header.cacheRelevant) {
+            httpCache.requestHeader(request, header.name, header.value);
+         }
+      }
+   }
+
+   /**
+    * Writes headers through the writer; used when the protocol requires the headers as separate name-value pairs.
+    */
+   public void writeHeaders(Session session, HttpRequestWriter writer) {
+      for (Header header : headers) {
+         writer.putHeader(header.name, header.pattern != null ? header.pattern.apply(session) : header.value);
+      }
+   }
+
+   private static boolean isCacheRelevant(CharSequence name) {
+      for (AsciiString cacheHeader : CACHE_HEADERS) {
+         if (cacheHeader.contentEqualsIgnoreCase(name)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static class Header implements Serializable {
+      private final CharSequence name;
+      private final CharSequence value;
+      private final Pattern pattern;
+      private final boolean cacheRelevant;
+      // Whole header line for constant headers, only the 'name: ' prefix for generated ones
+      @Visitor.Ignore
+      private final byte[] bytes;
+
+      private Header(CharSequence name, CharSequence value, Pattern pattern) {
+         this.name = name;
+         this.value = value;
+         this.pattern = pattern;
+         this.cacheRelevant = isCacheRelevant(name);
+         String line = pattern == null ? name + ": " + value + "\r\n" : name + ": ";
+         this.bytes = line.getBytes(StandardCharsets.UTF_8);
+      }
+   }
+
+   public static class Builder {
+      private HttpMethod method;
+      private String path;
+      private final List<Header> headers = new ArrayList<>();
+
+      /**
+       * @param method Constant method of the request.
+       * @param path Constant path of the request.
+       * @return Self.
+       */
+      public Builder requestLine(HttpMethod method, String path) {
+         this.method = method;
+         this.path = path;
+         return this;
+      }
+
+      /**
+       * @param name Header name.
+       * @param value Constant header value.
+       * @return Self.
+       */
+      public Builder header(CharSequence name, CharSequence value) {
+         headers.add(new Header(name, value, null));
+         return this;
+      }
+
+      /**
+       * Adds header with value generated by the pattern. Headers that need to be inspected by the HTTP cache
+       * cannot be added this way as the value is written to the buffer directly.
+       *
+       * @param name Header name.
+       * @param pattern Header value.
+       * @return True if the header was added.
+       */
+      public boolean header(CharSequence name, Pattern pattern) {
+         if (pattern.isConstant()) {
+            header(name, pattern.apply(null));
+            return true;
+         } else if (isCacheRelevant(name)) {
+            return false;
+         }
+         headers.add(new Header(name, null, pattern));
+         return true;
+      }
+
+      /**
+       * @return Template or <code>null</code> if there's nothing to precompute.
+       */
+      public HttpRequestTemplate build() {
+         if (method == null && headers.isEmpty()) {
+            return null;
+         }
+         return new HttpRequestTemplate(method, path, headers.toArray(new Header[0]));
+      }
+   }
+}
@@ -0,0 +1,15 @@
+package io.hyperfoil.http.config;
+
+public enum FlushPolicy {
+   /**
+    * Each request is flushed to the socket right after it is written.
+    */
+   IMMEDIATE,
+   /**
+    * Requests are written into the connection but the flush is deferred until the end of current event-loop
+    * iteration; requests sent by multiple sessions over the same (pipelined or multiplexed) connection
+    * within one iteration end up in a single write to the socket.
+    * The start timestamp of these requests is set when the connection is flushed.
+    */
+   COALESCE
+}
@@ -46,11 +46,13 @@ public class Http implements Serializable {
    private final KeyManager keyManager;
    private final TrustManager trustManager;
    private final ConnectionStrategy connectionStrategy;
+   private final FlushPolicy flushPolicy;
 
    public Http(String name, boolean isDefault, String originalDestination, Protocol protocol, String host, int port, String[] addresses,
                HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit, ConnectionPoolConfig sharedConnections,
                boolean directHttp2, long requestTimeout, boolean rawBytesHandlers,
-               KeyManager keyManager, TrustManager trustManager, ConnectionStrategy connectionStrategy) {
+               KeyManager keyManager, TrustManager trustManager, ConnectionStrategy connectionStrategy,
+               FlushPolicy flushPolicy) {
       this.name = name;
       this.isDefault = isDefault;
       this.originalDestination = originalDestination;
@@ -68,6 +70,7 @@ public class Http implements Serializable {
       this.keyManager = keyManager;
       this.trustManager = trustManager;
       this.connectionStrategy = connectionStrategy;
+      this.flushPolicy = flushPolicy;
    }
 
    public String name() {
@@ -143,6 +146,10 @@ public class Http implements Serializable {
       return connectionStrategy;
    }
 
+   public FlushPolicy flushPolicy() {
+      return flushPolicy;
+   }
+
    public static class KeyManager implements Serializable {
       private final String storeType;
       private final byte[] storeBytes;
@@ -58,6 +58,7 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
    private KeyManagerBuilder keyManager = new KeyManagerBuilder(this);
    private TrustManagerBuilder trustManager = new TrustManagerBuilder(this);
    private ConnectionStrategy connectionStrategy = ConnectionStrategy.SHARED_POOL;
+   private FlushPolicy flushPolicy = FlushPolicy.IMMEDIATE;
 
    public static HttpBuilder forTesting() {
       return new HttpBuilder(null);
@@ -219,6 +220,11 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return connectionStrategy;
    }
 
+   public HttpBuilder flushPolicy(FlushPolicy flushPolicy) {
+      this.flushPolicy = flushPolicy;
+      return this;
+   }
+
    public void prepareBuild() {
    }
 
@@ -251,7 +257,7 @@ public class HttpBuilder implements BuilderBase<HttpBuilder> {
       return http = new Http(name, isDefault, originalDestination, protocol, host, protocol.portOrDefault(port), addresses.toArray(new String[0]),
             httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams, pipeliningLimit,
             sharedConnections.build(), directHttp2, requestTimeout, rawBytesHandlers, keyManager.build(), trustManager.build(),
-            connectionStrategy);
+            connectionStrategy, flushPolicy);
    }
 
    public static class KeyManagerBuilder implements BuilderBase<KeyManagerBuilder> {
@@ -0,0 +1,69 @@
+package io.hyperfoil.http.connection;
+
+import java.util.ArrayList;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Connections that have some requests written but not flushed yet. All of these are flushed in a single task
+ * executed at the end of event-loop iteration, after the sessions woken up in this iteration have sent
+ * their requests.
+ * <p>
+ * The coalescer must be accessed only from the executor thread.
+ */
+final class FlushCoalescer implements Runnable {
+   private static final FastThreadLocal<FlushCoalescer> COALESCERS = new FastThreadLocal<>() {
+      @Override
+      protected FlushCoalescer initialValue() {
+         return new FlushCoalescer();
+      }
+   };
+
+   private ArrayList<Target> pending = new ArrayList<>();
+   private ArrayList<Target> flushing = new ArrayList<>();
+   private boolean registered;
+
+   private FlushCoalescer() {
+   }
+
+   static FlushCoalescer current() {
+      return COALESCERS.get();
+   }
+
+   void add(Target target, EventExecutor executor) {
+      pending.add(target);
+      if (!registered) {
+         registered = true;
+         // DefaultEventLoop does not process tail tasks
+         if (executor instanceof SingleThreadEventLoop && !(executor instanceof DefaultEventLoop)) {
+            ((SingleThreadEventLoop) executor).executeAfterEventLoopIteration(this);
+         } else {
+            executor.execute(this);
+         }
+      }
+   }
+
+   @Override
+   public void run() {
+      // Flushing can complete requests synchronously (e.g. failed writes) and cause new writes;
+      // these are added to the other list and processed in another run.
+      ArrayList<Target> targets = pending;
+      pending = flushing;
+      flushing = targets;
+      registered = false;
+      for (int i = 0; i < targets.size(); ++i) {
+         targets.get(i).flushPending();
+      }
+      targets.clear();
+   }
+
+   interface Target {
+      /**
+       * Flush all requests written so far, setting their start timestamps to the moment of flush.
+       */
+      void flushPending();
+   }
+}
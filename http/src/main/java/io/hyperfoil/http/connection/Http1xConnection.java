@@ -1,6 +1,7 @@
 package io.hyperfoil.http.connection;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -10,11 +11,14 @@ import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.impl.Util;
+import io.hyperfoil.http.HttpUtil;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
+import io.hyperfoil.http.config.FlushPolicy;
 import io.hyperfoil.http.config.Http;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -30,15 +34,16 @@ import org.apache.logging.log4j.LogManager;
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
-class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
+class Http1xConnection extends ChannelDuplexHandler implements HttpConnection, FlushCoalescer.Target {
    private static final Logger log = LogManager.getLogger(Http1xConnection.class);
    private static final boolean trace = log.isTraceEnabled();
-   private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
 
    private final Deque<HttpRequest> inflights;
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
    private final boolean secure;
    private final int pipeliningLimit;
+   // Requests written but not flushed yet; null when the flushes are not coalesced
+   private final ArrayList<HttpRequest> unflushed;
 
    private HttpConnectionPool pool;
    private ChannelHandlerContext ctx;
@@ -52,6 +57,7 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       this.inflights = new ArrayDeque<>(client.config().pipeliningLimit());
       this.secure = client.isSecure();
       this.pipeliningLimit = client.config().pipeliningLimit();
+      this.unflushed = client.config().flushPolicy() == FlushPolicy.COALESCE ? new ArrayList<>(pipeliningLimit) : null;
    }
 
    @Override
@@ -98,6 +104,9 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    }
 
    private void cancelRequests(Throwable cause) {
+      if (unflushed != null) {
+         unflushed.clear();
+      }
       HttpRequest request;
       while ((request = inflights.poll()) != null) {
          pool.release(this, false, true);
@@ -114,32 +123,18 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
 
    @Override
    public void request(HttpRequest request,
+                       HttpRequestTemplate template,
                        BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                        boolean injectHostHeader,
                        BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
       assert aboutToSend > 0;
       aboutToSend--;
       ByteBuf buf = ctx.alloc().buffer();
-      buf.writeBytes(request.method.netty.asciiName().array());
-      buf.writeByte(' ');
-      boolean beforeQuestion = true;
-      for (int i = 0; i < request.path.length(); ++i) {
-         if (request.path.charAt(i) == ' ') {
-            if (beforeQuestion) {
-               buf.writeByte(0xFF & '%');
-               buf.writeByte(0xFF & '2');
-               buf.writeByte(0xFF & '0');
-            } else {
-               buf.writeByte(0xFF & '+');
-            }
-         } else {
-            if (request.path.charAt(i) == '?') {
-               beforeQuestion = false;
-            }
-            buf.writeByte(0xFF & request.path.charAt(i));
-         }
+      if (template != null && template.hasRequestLine(request)) {
+         template.writeRequestLine(buf);
+      } else {
+         HttpUtil.writeRequestLine(buf, request.method, request.path);
       }
-      buf.writeBytes(HTTP1_1);
 
       if (injectHostHeader) {
          writeHeader(buf, HttpHeaderNames.HOST.array(), pool.clientPool().originalDestinationBytes());
@@ -161,6 +156,9 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       HttpCache httpCache = HttpCache.get(request.session);
       httpCache.beforeRequestHeaders(request);
       // TODO: if headers are strings, UTF-8 conversion creates a lot of trash
+      if (template != null) {
+         template.writeHeaders(request, buf, httpCache);
+      }
       HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, buf);
       if (headerAppenders != null) {
          // TODO: allocation, if it's not eliminated we could store a reusable object
@@ -174,6 +172,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
+         buf.release();
+         body.release();
          // prevent adding to available twice
          if (inFlight() != pipeliningLimit - 1) {
             pool.afterRequestSent(this);
@@ -185,7 +185,18 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       inflights.add(request);
       ChannelPromise writePromise = ctx.newPromise();
       writePromise.addListener(request);
-      if (body.isReadable()) {
+      if (unflushed != null) {
+         if (body.isReadable()) {
+            ctx.write(buf);
+            ctx.write(body, writePromise);
+         } else {
+            ctx.write(buf, writePromise);
+         }
+         if (unflushed.isEmpty()) {
+            FlushCoalescer.current().add(this, ctx.executor());
+         }
+         unflushed.add(request);
+      } else if (body.isReadable()) {
          ctx.write(buf);
          ctx.writeAndFlush(body, writePromise);
       } else {
@@ -194,6 +205,25 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       pool.afterRequestSent(this);
    }
 
+   @Override
+   public void flushPending() {
+      if (unflushed.isEmpty()) {
+         // requests were cancelled in the meantime
+         return;
+      }
+      long timestampMillis = System.currentTimeMillis();
+      long timestampNanos = System.nanoTime();
+      for (int i = 0; i < unflushed.size(); ++i) {
+         HttpRequest request = unflushed.get(i);
+         // The request could have been completed and reused in the meantime
+         if (request.isRunning() && request.connection() == this) {
+            request.setStartTimestamps(timestampMillis, timestampNanos);
+         }
+      }
+      unflushed.clear();
+      ctx.flush();
+   }
+
    private void writeHeader(ByteBuf buf, byte[] name, byte[] value) {
       buf.writeBytes(name).writeByte(':').writeByte(' ').writeBytes(value).writeByte('\r').writeByte('\n');
    }
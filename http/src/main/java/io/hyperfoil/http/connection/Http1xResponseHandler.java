@@ -23,6 +23,14 @@ public class Http1xResponseHandler extends BaseResponseHandler {
    private static final byte CR = 13;
    private static final byte LF = 10;
    private static final int MAX_LINE_LENGTH = 4096;
+   private static final long LF_PATTERN = Swar.pattern(LF);
+   private static final long COLON_PATTERN = Swar.pattern((byte) ':');
+   private static final Swar.Words CONTENT_LENGTH = new Swar.Words(HttpHeaderNames.CONTENT_LENGTH);
+   private static final Swar.Words TRANSFER_ENCODING = new Swar.Words(HttpHeaderNames.TRANSFER_ENCODING);
+   private static final Swar.Words CHUNKED = new Swar.Words(HttpHeaderValues.CHUNKED);
+
+   // Scan the input by words rather than by bytes
+   private final boolean swar;
 
    private State state = State.STATUS;
    private boolean crRead = false;
@@ -39,8 +47,9 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       TRAILERS
    }
 
-   Http1xResponseHandler(HttpConnection connection) {
+   Http1xResponseHandler(HttpConnection connection, boolean swar) {
       super(connection);
+      this.swar = swar;
    }
 
    @Override
@@ -105,39 +114,32 @@ public class Http1xResponseHandler extends BaseResponseHandler {
 
    private int readStatus(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
       int lineStartIndex = buf.readerIndex();
-      for (; readerIndex < buf.writerIndex(); ++readerIndex) {
-         byte val = buf.getByte(readerIndex);
-         if (val == CR) {
-            crRead = true;
-         } else if (val == LF && crRead) {
-            crRead = false;
-            ByteBuf lineBuf = buf;
-            if (lastLine.isReadable()) {
-               assert lineStartIndex == buf.readerIndex();
-               copyLastLine(buf, lineStartIndex, readerIndex);
-               lineBuf = lastLine;
-               lineStartIndex = 0;
-            }
-            // skip HTTP version
-            int j = lineStartIndex;
-            for (; j < lineBuf.writerIndex(); ++j) {
-               if (lineBuf.getByte(j) == ' ') {
-                  break;
-               }
-            }
-            status = readDecNumber(lineBuf, j);
-            if (status >= 100 && status < 200 || status == 204 || status == 304) {
-               contentLength = 0;
+      readerIndex = nextLineEnd(buf, readerIndex);
+      if (readerIndex >= 0) {
+         ByteBuf lineBuf = buf;
+         if (lastLine.isReadable()) {
+            assert lineStartIndex == buf.readerIndex();
+            copyLastLine(buf, lineStartIndex, readerIndex);
+            lineBuf = lastLine;
+            lineStartIndex = 0;
+         }
+         // skip HTTP version
+         int j = lineStartIndex;
+         for (; j < lineBuf.writerIndex(); ++j) {
+            if (lineBuf.getByte(j) == ' ') {
+               break;
             }
-            onStatus(status);
-            state = State.HEADERS;
-            lastLine.writerIndex(0);
-            return readerIndex + 1;
-         } else {
-            crRead = false;
          }
+         status = readDecNumber(lineBuf, j);
+         if (status >= 100 && status < 200 || status == 204 || status == 304) {
+            contentLength = 0;
+         }
+         onStatus(status);
+         state = State.HEADERS;
+         lastLine.writerIndex(0);
+         return readerIndex + 1;
       }
-      copyLastLine(buf, lineStartIndex, readerIndex);
+      copyLastLine(buf, lineStartIndex, buf.writerIndex());
       passFullBuffer(ctx, buf);
       return -1;
    }
@@ -145,67 +147,59 @@ public class Http1xResponseHandler extends BaseResponseHandler {
    private int readHeaders(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
       int lineStartIndex = readerIndex;
       int lineEndIndex;
-      for (; readerIndex < buf.writerIndex(); ++readerIndex) {
-         byte val = buf.getByte(readerIndex);
-         if (val == CR) {
-            crRead = true;
-         } else if (val == LF && crRead) {
-            crRead = false;
-            ByteBuf lineBuf;
-            // lineStartIndex is valid only if lastLine is empty - otherwise we would ignore an incomplete line
-            // in the buffer
-            if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
-                  || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
-               // empty line ends the headers
-               HttpRequest httpRequest = connection.peekRequest(0);
-               // Unsolicited response 408 may not have a matching request
-               if (httpRequest != null) {
-                  switch (httpRequest.method) {
-                     case HEAD:
-                     case CONNECT:
-                        contentLength = 0;
-                        chunked = false;
-                  }
-               }
-               state = State.BODY;
-               lastLine.writerIndex(0);
-               if (contentLength >= 0) {
-                  responseBytes = readerIndex - buf.readerIndex() + contentLength + 1;
-               }
-               return readerIndex + 1;
-            } else if (lastLine.isReadable()) {
-               copyLastLine(buf, lineStartIndex, readerIndex);
-               lineBuf = lastLine;
-               lineEndIndex = lastLine.readableBytes() + readerIndex - lineStartIndex - 1; // account the CR
-               lineStartIndex = 0;
-            } else {
-               lineBuf = buf;
-               lineEndIndex = readerIndex - 1; // account the CR
-            }
-            if (matches(lineBuf, lineStartIndex, HttpHeaderNames.CONTENT_LENGTH)) {
-               contentLength = readDecNumber(lineBuf, lineStartIndex + HttpHeaderNames.CONTENT_LENGTH.length() + 1);
-            } else if (matches(lineBuf, lineStartIndex, HttpHeaderNames.TRANSFER_ENCODING)) {
-               chunked = matches(lineBuf, lineStartIndex + HttpHeaderNames.TRANSFER_ENCODING.length() + 1, HttpHeaderValues.CHUNKED);
-               skipChunkBytes = 0;
-            }
-            int endOfNameIndex = lineStartIndex, startOfValueIndex = lineStartIndex;
-            for (int i = lineStartIndex + 1; i < lineEndIndex; ++i) {
-               if (lineBuf.getByte(i) == ':') {
-                  for (endOfNameIndex = i - 1; endOfNameIndex >= lineStartIndex && lineBuf.getByte(endOfNameIndex) == ' '; --endOfNameIndex)
-                     ;
-                  for (startOfValueIndex = i + 1; startOfValueIndex < lineEndIndex && lineBuf.getByte(startOfValueIndex) == ' '; ++startOfValueIndex)
-                     ;
-                  break;
+      while ((readerIndex = nextLineEnd(buf, readerIndex)) >= 0) {
+         ByteBuf lineBuf;
+         // lineStartIndex is valid only if lastLine is empty - otherwise we would ignore an incomplete line
+         // in the buffer
+         if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+               || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
+            // empty line ends the headers
+            HttpRequest httpRequest = connection.peekRequest(0);
+            // Unsolicited response 408 may not have a matching request
+            if (httpRequest != null) {
+               switch (httpRequest.method) {
+                  case HEAD:
+                  case CONNECT:
+                     contentLength = 0;
+                     chunked = false;
                }
             }
-            onHeaderRead(lineBuf, lineStartIndex, endOfNameIndex + 1, startOfValueIndex, lineEndIndex);
+            state = State.BODY;
             lastLine.writerIndex(0);
-            lineStartIndex = readerIndex + 1;
+            if (contentLength >= 0) {
+               responseBytes = readerIndex - buf.readerIndex() + contentLength + 1;
+            }
+            return readerIndex + 1;
+         } else if (lastLine.isReadable()) {
+            copyLastLine(buf, lineStartIndex, readerIndex);
+            lineBuf = lastLine;
+            // lastLine already contains the part from this buffer
+            lineEndIndex = lastLine.readableBytes() - 1; // account the CR
+            lineStartIndex = 0;
          } else {
-            crRead = false;
+            lineBuf = buf;
+            lineEndIndex = readerIndex - 1; // account the CR
          }
+         if (matches(lineBuf, lineStartIndex, lineEndIndex, CONTENT_LENGTH)) {
+            contentLength = readDecNumber(lineBuf, lineStartIndex + HttpHeaderNames.CONTENT_LENGTH.length() + 1);
+         } else if (matches(lineBuf, lineStartIndex, lineEndIndex, TRANSFER_ENCODING)) {
+            chunked = matches(lineBuf, lineStartIndex + HttpHeaderNames.TRANSFER_ENCODING.length() + 1, lineEndIndex, CHUNKED);
+            skipChunkBytes = 0;
+         }
+         int endOfNameIndex = lineStartIndex, startOfValueIndex = lineStartIndex;
+         int colonIndex = indexOfColon(lineBuf, lineStartIndex + 1, lineEndIndex);
+         if (colonIndex >= 0) {
+            for (endOfNameIndex = colonIndex - 1; endOfNameIndex >= lineStartIndex && lineBuf.getByte(endOfNameIndex) == ' '; --endOfNameIndex)
+               ;
+            for (startOfValueIndex = colonIndex + 1; startOfValueIndex < lineEndIndex && lineBuf.getByte(startOfValueIndex) == ' '; ++startOfValueIndex)
+               ;
+         }
+         onHeaderRead(lineBuf, lineStartIndex, endOfNameIndex + 1, startOfValueIndex, lineEndIndex);
+         lastLine.writerIndex(0);
+         lineStartIndex = readerIndex + 1;
+         readerIndex = lineStartIndex;
       }
-      copyLastLine(buf, lineStartIndex, readerIndex);
+      copyLastLine(buf, lineStartIndex, buf.writerIndex());
       passFullBuffer(ctx, buf);
       return -1;
    }
@@ -244,44 +238,38 @@ public class Http1xResponseHandler extends BaseResponseHandler {
 
    private int readChunks(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
       int lineStartOffset = readerIndex;
-      for (; readerIndex < buf.writerIndex(); ++readerIndex) {
-         byte val = buf.getByte(readerIndex);
-         if (val == CR) {
-            crRead = true;
-         } else if (val == LF && crRead) {
-            try {
-               ByteBuf lineBuf = buf;
-               if (lastLine.isReadable()) {
-                  copyLastLine(buf, lineStartOffset, readerIndex);
-                  lineBuf = lastLine;
-                  lineStartOffset = 0;
-               }
-               int partSize = readHexNumber(lineBuf, lineStartOffset);
-               if (partSize == 0) {
-                  onBodyPart(Unpooled.EMPTY_BUFFER, 0, 0, true);
-                  chunked = false;
-                  state = State.TRAILERS;
-                  return readerIndex + 1;
-               } else if (readerIndex + 3 + partSize < buf.writerIndex()) {
-                  onBodyPart(buf, readerIndex + 1, partSize, false);
-                  readerIndex += partSize; // + 1 from for loop, +2 below
-                  if (buf.getByte(++readerIndex) != CR || buf.getByte(++readerIndex) != LF) {
-                     throw new IllegalStateException("Chunk must end with CRLF!");
-                  }
-                  lineStartOffset = readerIndex + 1;
-                  assert skipChunkBytes == 0;
-               } else {
-                  onBodyPart(buf, readerIndex + 1, Math.min(buf.writerIndex() - readerIndex - 1, partSize), false);
-                  skipChunkBytes = readerIndex + 3 + partSize - buf.writerIndex();
-                  passFullBuffer(ctx, buf);
-                  return -1;
+      while ((readerIndex = nextLineEnd(buf, readerIndex)) >= 0) {
+         try {
+            ByteBuf lineBuf = buf;
+            if (lastLine.isReadable()) {
+               copyLastLine(buf, lineStartOffset, readerIndex);
+               lineBuf = lastLine;
+               lineStartOffset = 0;
+            }
+            int partSize = readHexNumber(lineBuf, lineStartOffset);
+            if (partSize == 0) {
+               onBodyPart(Unpooled.EMPTY_BUFFER, 0, 0, true);
+               chunked = false;
+               state = State.TRAILERS;
+               return readerIndex + 1;
+            } else if (readerIndex + 3 + partSize < buf.writerIndex()) {
+               onBodyPart(buf, readerIndex + 1, partSize, false);
+               readerIndex += partSize; // +2 below
+               if (buf.getByte(++readerIndex) != CR || buf.getByte(++readerIndex) != LF) {
+                  throw new IllegalStateException("Chunk must end with CRLF!");
                }
-            } finally {
-               crRead = false;
-               lastLine.writerIndex(0);
+               lineStartOffset = readerIndex + 1;
+               readerIndex = lineStartOffset;
+               assert skipChunkBytes == 0;
+            } else {
+               onBodyPart(buf, readerIndex + 1, Math.min(buf.writerIndex() - readerIndex - 1, partSize), false);
+               skipChunkBytes = readerIndex + 3 + partSize - buf.writerIndex();
+               passFullBuffer(ctx, buf);
+               return -1;
             }
-         } else {
+         } finally {
             crRead = false;
+            lastLine.writerIndex(0);
          }
       }
       copyLastLine(buf, lineStartOffset, buf.writerIndex());
@@ -291,24 +279,70 @@ public class Http1xResponseHandler extends BaseResponseHandler {
 
    private int readTrailers(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
       int lineStartIndex = readerIndex;
-      for (; readerIndex < buf.writerIndex(); ++readerIndex) {
-         byte val = buf.getByte(readerIndex);
+      while ((readerIndex = nextLineEnd(buf, readerIndex)) >= 0) {
+         // lineStartIndex is valid only if lastLine is empty, as in readHeaders
+         if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+               || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
+            // empty line ends the trailers and whole message
+            responseBytes = readerIndex + 1 - buf.readerIndex();
+            reset();
+            return handleBuffer(ctx, buf, 0) ? buf.readerIndex() : -1;
+         }
+         lastLine.writerIndex(0);
+         lineStartIndex = readerIndex + 1;
+         readerIndex = lineStartIndex;
+      }
+      copyLastLine(buf, lineStartIndex, buf.writerIndex());
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   /**
+    * Finds the end of line, tracking CR at the end of the buffer in {@link #crRead}.
+    *
+    * @return Index of LF that is preceded by CR, or -1 if there's no complete line in the buffer.
+    */
+   private int nextLineEnd(ByteBuf buf, int index) {
+      int end = buf.writerIndex();
+      if (swar) {
+         while (index < end) {
+            int lfIndex = Swar.indexOf(buf, index, end, LF_PATTERN);
+            if (lfIndex < 0) {
+               crRead = buf.getByte(end - 1) == CR;
+               return -1;
+            }
+            boolean cr = lfIndex == index ? crRead : buf.getByte(lfIndex - 1) == CR;
+            crRead = false;
+            if (cr) {
+               return lfIndex;
+            }
+            index = lfIndex + 1;
+         }
+         return -1;
+      }
+      for (; index < end; ++index) {
+         byte val = buf.getByte(index);
          if (val == CR) {
             crRead = true;
          } else if (val == LF && crRead) {
-            if (readerIndex - lineStartIndex == 1 || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
-               // empty line ends the trailers and whole message
-               responseBytes = readerIndex + 1 - buf.readerIndex();
-               reset();
-               return handleBuffer(ctx, buf, 0) ? buf.readerIndex() : -1;
-            }
-            lineStartIndex = readerIndex + 1;
+            crRead = false;
+            return index;
          } else {
             crRead = false;
          }
       }
-      copyLastLine(buf, lineStartIndex, readerIndex);
-      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   private int indexOfColon(ByteBuf buf, int index, int end) {
+      if (swar) {
+         return Swar.indexOf(buf, index, end, COLON_PATTERN);
+      }
+      for (; index < end; ++index) {
+         if (buf.getByte(index) == ':') {
+            return index;
+         }
+      }
       return -1;
    }
 
@@ -340,8 +374,12 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       onData(ctx, buf);
    }
 
-   private boolean matches(ByteBuf buf, int bufOffset, AsciiString string) {
+   private boolean matches(ByteBuf buf, int bufOffset, int end, Swar.Words words) {
       bufOffset = skipWhitespaces(buf, bufOffset);
+      if (swar) {
+         return words.matches(buf, bufOffset, end);
+      }
+      AsciiString string = words.string;
       if (bufOffset + string.length() > buf.writerIndex()) {
          return false;
       }
@@ -1,6 +1,7 @@
 package io.hyperfoil.http.connection;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.function.BiConsumer;
@@ -15,8 +16,10 @@ import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.api.HttpResponseHandlers;
+import io.hyperfoil.http.config.FlushPolicy;
 import io.hyperfoil.http.config.Http;
 import io.hyperfoil.impl.Util;
 import io.netty.buffer.ByteBuf;
@@ -31,6 +34,7 @@ import io.netty.handler.codec.http2.Http2EventAdapter;
 import io.netty.handler.codec.http2.Http2Exception;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.util.AsciiString;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
 import io.netty.util.internal.AppendableCharSequence;
@@ -41,7 +45,7 @@ import org.apache.logging.log4j.LogManager;
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
-class Http2Connection extends Http2EventAdapter implements HttpConnection {
+class Http2Connection extends Http2EventAdapter implements HttpConnection, FlushCoalescer.Target {
    private static final Logger log = LogManager.getLogger(Http2Connection.class);
    private static final boolean trace = log.isTraceEnabled();
 
@@ -51,6 +55,16 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private final IntObjectMap<HttpRequest> streams = new IntObjectHashMap<>();
    private final long clientMaxStreams;
    private final boolean secure;
+   // Requests written but not flushed yet; null when the flushes are not coalesced
+   private final ArrayList<HttpRequest> unflushed;
+   // Encoder writes the headers synchronously so we can reuse the instance for all requests
+   private final Http2Headers headers = new DefaultHttp2Headers();
+   private final AsciiString scheme;
+   private final AsciiString authority;
+   private final AsciiString host;
+   // Body size is often the same for all requests on the connection; cache its textual form
+   private int lastContentLength = -1;
+   private AsciiString lastContentLengthValue;
 
    private HttpConnectionPool pool;
    private int aboutToSend;
@@ -69,6 +83,10 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       this.encoder = encoder;
       this.clientMaxStreams = this.maxStreams = clientPool.config().maxHttp2Streams();
       this.secure = clientPool.isSecure();
+      this.unflushed = clientPool.config().flushPolicy() == FlushPolicy.COALESCE ? new ArrayList<>() : null;
+      this.scheme = AsciiString.of(clientPool.scheme());
+      this.authority = AsciiString.of(clientPool.authority());
+      this.host = AsciiString.of(clientPool.config().originalDestination());
 
       Http2EventAdapter listener = new EventAdapter();
 
@@ -126,6 +144,7 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    }
 
    public void request(HttpRequest request,
+                       HttpRequestTemplate template,
                        BiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                        boolean injectHostHeader,
                        BiFunction<Session, Connection, ByteBuf> bodyGenerator) {
@@ -158,17 +177,21 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          request.path = temp.toString();
       }
 
-      Http2Headers headers = new DefaultHttp2Headers().method(request.method.name()).scheme(httpClientPool.scheme())
-            .path(request.path).authority(httpClientPool.authority());
+      Http2Headers headers = this.headers;
+      headers.clear();
+      headers.method(request.method.netty.asciiName()).scheme(scheme).path(request.path).authority(authority);
       // HTTPS selects host via SNI headers, duplicate Host header could confuse the server/proxy
-      if (injectHostHeader && !pool.clientPool().config().protocol().secure()) {
-         headers.add(HttpHeaderNames.HOST, httpClientPool.config().originalDestination());
+      if (injectHostHeader && !httpClientPool.config().protocol().secure()) {
+         headers.add(HttpHeaderNames.HOST, host);
       }
       if (buf != null && buf.readableBytes() > 0) {
-         headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+         headers.add(HttpHeaderNames.CONTENT_LENGTH, contentLength(buf.readableBytes()));
       }
 
       HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, headers);
+      if (template != null) {
+         template.writeHeaders(request.session, writer);
+      }
       if (headerAppenders != null) {
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
             headerAppender.accept(request.session, writer);
@@ -178,6 +201,9 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
+         if (buf != null) {
+            buf.release();
+         }
          // prevent adding to available list twice
          if (streams.size() != maxStreams - 1) {
             pool.afterRequestSent(this);
@@ -201,11 +227,45 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          encoder.writeData(context, id, buf, 0, true, writePromise);
       }
       writePromise.addListener(request);
-      context.flush();
+      if (unflushed != null) {
+         if (unflushed.isEmpty()) {
+            FlushCoalescer.current().add(this, context.executor());
+         }
+         unflushed.add(request);
+      } else {
+         context.flush();
+      }
       dispatchedRequest = null;
       pool.afterRequestSent(this);
    }
 
+   private AsciiString contentLength(int length) {
+      if (length != lastContentLength) {
+         lastContentLength = length;
+         lastContentLengthValue = AsciiString.of(Integer.toString(length));
+      }
+      return lastContentLengthValue;
+   }
+
+   @Override
+   public void flushPending() {
+      if (unflushed.isEmpty()) {
+         // requests were cancelled in the meantime
+         return;
+      }
+      long timestampMillis = System.currentTimeMillis();
+      long timestampNanos = System.nanoTime();
+      for (int i = 0; i < unflushed.size(); ++i) {
+         HttpRequest request = unflushed.get(i);
+         // The request could have been completed and reused in the meantime
+         if (request.isRunning() && request.connection() == this) {
+            request.setStartTimestamps(timestampMillis, timestampNanos);
+         }
+      }
+      unflushed.clear();
+      context.flush();
+   }
+
    @Override
    public HttpRequest dispatchedRequest() {
       return dispatchedRequest;
@@ -275,6 +335,9 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    }
 
    void cancelRequests(Throwable cause) {
+      if (unflushed != null) {
+         unflushed.clear();
+      }
       for (Iterator<HttpRequest> iterator = streams.values().iterator(); iterator.hasNext(); ) {
          HttpRequest request = iterator.next();
          iterator.remove();
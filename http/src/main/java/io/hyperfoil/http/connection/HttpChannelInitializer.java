@@ -20,8 +20,11 @@ import io.netty.handler.codec.http2.Http2ClientUpgradeCodec;
 import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
 import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.internal.Properties;
 
 class HttpChannelInitializer extends ChannelInitializer<Channel> {
+   private static final boolean SWAR_PARSER = "swar".equalsIgnoreCase(Properties.get(Properties.HTTP_PARSER, "bytes"));
+
    private final HttpClientPoolImpl clientPool;
    private final BiConsumer<HttpConnection, Throwable> handler;
    private final Http2ConnectionHandlerBuilder http2ConnectionHandlerBuilder;
@@ -87,7 +90,7 @@ class HttpChannelInitializer extends ChannelInitializer<Channel> {
    private void initHttp1xConnection(ChannelPipeline pipeline) {
       Http1xConnection connection = new Http1xConnection(clientPool, handler);
       if (clientPool.http.rawBytesHandlers()) {
-         pipeline.addLast(new Http1xResponseHandler(connection));
+         pipeline.addLast(new Http1xResponseHandler(connection, SWAR_PARSER));
          pipeline.addLast(new RawRequestHandler(connection));
       }
       pipeline.addLast("handler", connection);
@@ -0,0 +1,109 @@
+package io.hyperfoil.http.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AsciiString;
+
+/**
+ * SIMD-within-a-register helpers: these process the buffer by 8-byte words rather than by single bytes.
+ * {@link ByteBuf#getLong(int)} is big-endian so the first byte in the buffer is the most significant byte of the word.
+ */
+final class Swar {
+   private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+   private static final long BYTES = 0x0101010101010101L;
+
+   private Swar() {
+   }
+
+   /**
+    * @param b Searched byte.
+    * @return Word with the byte repeated in each position.
+    */
+   static long pattern(byte b) {
+      return (b & 0xFFL) * BYTES;
+   }
+
+   /**
+    * @param buf Searched buffer.
+    * @param index First index (inclusive).
+    * @param end Last index (exclusive).
+    * @param pattern Searched byte created through {@link #pattern(byte)}.
+    * @return Index of the first occurrence of the byte or -1 if it is not present.
+    */
+   static int indexOf(ByteBuf buf, int index, int end, long pattern) {
+      for (; index + Long.BYTES <= end; index += Long.BYTES) {
+         long word = buf.getLong(index) ^ pattern;
+         // Unlike the common (word - 0x01..) & ~word & 0x80.. this does not produce false positives
+         // in bytes preceding the first match, so we can use the position of the highest bit.
+         long tmp = (word & LOW_BITS) + LOW_BITS;
+         tmp = ~(tmp | word | LOW_BITS);
+         if (tmp != 0) {
+            return index + (Long.numberOfLeadingZeros(tmp) >>> 3);
+         }
+      }
+      byte b = (byte) pattern;
+      for (; index < end; ++index) {
+         if (buf.getByte(index) == b) {
+            return index;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Case-insensitive ASCII string precompiled into 8-byte words.
+    */
+   static final class Words {
+      final AsciiString string;
+      final long[] words;
+      // Letters are matched case-insensitively by setting the 0x20 bit on both sides
+      final long[] caseMasks;
+      final long tailMask;
+
+      Words(AsciiString string) {
+         this.string = string;
+         int length = string.length();
+         int numWords = (length + Long.BYTES - 1) / Long.BYTES;
+         words = new long[numWords];
+         caseMasks = new long[numWords];
+         for (int i = 0; i < length; ++i) {
+            int shift = (Long.BYTES - 1 - i % Long.BYTES) * 8;
+            byte b = string.byteAt(i);
+            if (b >= 'A' && b <= 'Z' || b >= 'a' && b <= 'z') {
+               caseMasks[i / Long.BYTES] |= 0x20L << shift;
+            }
+            words[i / Long.BYTES] |= ((b | (caseMasks[i / Long.BYTES] >>> shift)) & 0xFFL) << shift;
+         }
+         int tailBytes = length % Long.BYTES;
+         tailMask = tailBytes == 0 ? -1L : -1L << (Long.BYTES - tailBytes) * 8;
+      }
+
+      /**
+       * @param buf Buffer.
+       * @param index Position where the string should start.
+       * @param end Last index (exclusive) where the string must end.
+       * @return True if the buffer contains the string on given position, ignoring case.
+       */
+      boolean matches(ByteBuf buf, int index, int end) {
+         if (index + string.length() > end) {
+            return false;
+         }
+         int last = words.length - 1;
+         for (int i = 0; i < last; ++i, index += Long.BYTES) {
+            if ((buf.getLong(index) | caseMasks[i]) != words[i]) {
+               return false;
+            }
+         }
+         if (index + Long.BYTES <= buf.writerIndex()) {
+            return ((buf.getLong(index) | caseMasks[last]) & tailMask) == words[last];
+         }
+         // Not enough bytes in the buffer to read whole word
+         for (int i = last * Long.BYTES; i < string.length(); ++i, ++index) {
+            int shift = (Long.BYTES - 1 - i % Long.BYTES) * 8;
+            if (((buf.getByte(index) | (caseMasks[last] >>> shift)) & 0xFF) != ((words[last] >>> shift) & 0xFF)) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+}
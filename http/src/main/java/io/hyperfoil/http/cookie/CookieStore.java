@@ -2,6 +2,7 @@ package io.hyperfoil.http.cookie;
 
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.http.api.HttpRequestWriter;
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.http.HttpUtil;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -14,7 +15,7 @@ class CookieStore implements Session.Resource {
    private static final Logger log = LogManager.getLogger(CookieRecorder.class);
 
    // We need only single object for all cookies
-   public static final Session.ResourceKey<CookieStore> COOKIES = new Session.ResourceKey<CookieStore>() {};
+   public static final Session.ResourceKey<CookieStore> COOKIES = new ResourceSlots.Key<>();
 
    private static final Attribute[] ATTRIBUTES = Attribute.values();
    private static final int MAX_SITES = 16;
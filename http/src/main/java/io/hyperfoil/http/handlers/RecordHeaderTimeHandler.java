@@ -12,20 +12,19 @@ import io.hyperfoil.impl.Util;
 import io.hyperfoil.http.api.HttpRequest;
 import io.hyperfoil.http.api.HeaderHandler;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsKey;
 import io.hyperfoil.function.SerializableToLongFunction;
 import io.netty.util.AsciiString;
 
 public class RecordHeaderTimeHandler implements HeaderHandler {
-   private final int stepId;
    private final String header;
-   private final String statistics;
+   private final StatisticsKey statistics;
    private final SerializableToLongFunction<CharSequence> transform;
    private transient AsciiString asciiHeader;
 
    public RecordHeaderTimeHandler(int stepId, String header, String statistics, SerializableToLongFunction<CharSequence> transform) {
-      this.stepId = stepId;
       this.header = header;
-      this.statistics = statistics;
+      this.statistics = new StatisticsKey(stepId, statistics);
       this.transform = transform;
       this.asciiHeader = new AsciiString(header);
    }
@@ -45,7 +44,7 @@ public class RecordHeaderTimeHandler implements HeaderHandler {
          // we're not recording negative values
          return;
       }
-      Statistics statistics = request.session.statistics(stepId, this.statistics);
+      Statistics statistics = request.session.statistics(this.statistics);
       // we need to set both requests and responses to calculate stats properly
       statistics.incrementRequests(request.startTimestampMillis());
       statistics.recordResponse(request.startTimestampMillis(), longValue);
@@ -28,6 +28,7 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
    private static final byte[] SCRIPT = "script".getBytes(StandardCharsets.UTF_8);
 
    private final TagHandler[] handlers;
+   private int resourceIndex = -1;
 
    private HtmlHandler(TagHandler... handlers) {
       this.handlers = handlers;
@@ -195,6 +196,16 @@ public class HtmlHandler implements Processor, ResourceUtilizer, Session.Resourc
       }
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       session.declareResource(this, Context::new);
@@ -0,0 +1,108 @@
+package io.hyperfoil.http.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Responds to each complete HTTP/1.x request. When the response is pre-encoded the bytes are written
+ * directly to the channel, otherwise (when running behind HTTP/2 upgrade codec) we write a full response.
+ */
+class Http1xMockHandler extends ChannelInboundHandlerAdapter {
+   private final MockHttpServer.Builder config;
+   private final ByteBuf body;
+   private final ByteBuf encodedResponse;
+
+   Http1xMockHandler(MockHttpServer.Builder config, ByteBuf body, ByteBuf encodedResponse) {
+      this.config = config;
+      this.body = body;
+      this.encodedResponse = encodedResponse;
+   }
+
+   static ByteBuf encodeResponse(MockHttpServer.Builder config, ByteBuf body) {
+      StringBuilder sb = new StringBuilder("HTTP/1.1 200 OK\r\ncontent-type: text/plain\r\n");
+      if (!config.keepAlive) {
+         sb.append("connection: close\r\n");
+      }
+      if (config.chunked) {
+         sb.append("transfer-encoding: chunked\r\n\r\n");
+      } else {
+         sb.append("content-length: ").append(config.responseSize).append("\r\n\r\n");
+      }
+      ByteBuf buf = Unpooled.directBuffer();
+      buf.writeCharSequence(sb, StandardCharsets.US_ASCII);
+      if (config.chunked) {
+         for (int offset = 0; offset < body.readableBytes(); offset += MockHttpServer.CHUNK_SIZE) {
+            int length = Math.min(MockHttpServer.CHUNK_SIZE, body.readableBytes() - offset);
+            buf.writeCharSequence(Integer.toHexString(length), StandardCharsets.US_ASCII);
+            buf.writeShort(0x0D0A);
+            buf.writeBytes(body, body.readerIndex() + offset, length);
+            buf.writeShort(0x0D0A);
+         }
+         buf.writeCharSequence("0\r\n\r\n", StandardCharsets.US_ASCII);
+      } else {
+         buf.writeBytes(body, body.readerIndex(), body.readableBytes());
+      }
+      return buf;
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      try {
+         if (msg instanceof LastHttpContent) {
+            if (config.latencyNanos > 0) {
+               ctx.executor().schedule(() -> {
+                  respond(ctx);
+                  ctx.flush();
+               }, config.latencyNanos, TimeUnit.NANOSECONDS);
+            } else {
+               respond(ctx);
+            }
+         }
+      } finally {
+         ReferenceCountUtil.release(msg);
+      }
+   }
+
+   @Override
+   public void channelReadComplete(ChannelHandlerContext ctx) {
+      ctx.flush();
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      ctx.close();
+   }
+
+   private void respond(ChannelHandlerContext ctx) {
+      ChannelFuture future;
+      if (encodedResponse != null) {
+         future = ctx.write(encodedResponse.retainedDuplicate());
+      } else {
+         FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, body.retainedDuplicate());
+         response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.TEXT_PLAIN);
+         response.headers().set(HttpHeaderNames.CONTENT_LENGTH, body.readableBytes());
+         if (!config.keepAlive) {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+         }
+         future = ctx.write(response);
+      }
+      if (!config.keepAlive) {
+         future.addListener(ChannelFutureListener.CLOSE);
+      }
+   }
+}
@@ -0,0 +1,111 @@
+package io.hyperfoil.http.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.AbstractHttp2ConnectionHandlerBuilder;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2ConnectionDecoder;
+import io.netty.handler.codec.http2.Http2ConnectionEncoder;
+import io.netty.handler.codec.http2.Http2ConnectionHandler;
+import io.netty.handler.codec.http2.Http2FrameAdapter;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2Settings;
+
+/**
+ * Responds to each HTTP/2 stream once the request is complete (end of stream is received).
+ */
+class Http2MockHandler extends Http2ConnectionHandler {
+   private final MockHttpServer.Builder config;
+   private final ByteBuf body;
+   private final Http2Headers headers;
+
+   private Http2MockHandler(Http2ConnectionDecoder decoder, Http2ConnectionEncoder encoder, Http2Settings initialSettings,
+                            MockHttpServer.Builder config, ByteBuf body) {
+      super(decoder, encoder, initialSettings);
+      this.config = config;
+      this.body = body;
+      this.headers = new DefaultHttp2Headers().status("200")
+            .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.TEXT_PLAIN)
+            .setInt(HttpHeaderNames.CONTENT_LENGTH, body.readableBytes());
+   }
+
+   static Http2MockHandler create(MockHttpServer.Builder config, ByteBuf body) {
+      return new Builder(config, body).build();
+   }
+
+   @Override
+   public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+      if (evt instanceof HttpServerUpgradeHandler.UpgradeEvent) {
+         // the upgrade request is implicitly stream 1
+         onRequest(ctx, 1);
+      }
+      super.userEventTriggered(ctx, evt);
+   }
+
+   private void onRequest(ChannelHandlerContext ctx, int streamId) {
+      if (config.latencyNanos > 0) {
+         ctx.executor().schedule(() -> {
+            respond(ctx, streamId);
+            flush(ctx);
+         }, config.latencyNanos, TimeUnit.NANOSECONDS);
+      } else {
+         respond(ctx, streamId);
+      }
+   }
+
+   private void respond(ChannelHandlerContext ctx, int streamId) {
+      boolean hasBody = body.isReadable();
+      encoder().writeHeaders(ctx, streamId, headers, 0, !hasBody, ctx.newPromise());
+      if (hasBody) {
+         encoder().writeData(ctx, streamId, body.retainedDuplicate(), 0, true, ctx.newPromise());
+      }
+   }
+
+   private static class Builder extends AbstractHttp2ConnectionHandlerBuilder<Http2MockHandler, Builder> {
+      private final MockHttpServer.Builder config;
+      private final ByteBuf body;
+
+      Builder(MockHttpServer.Builder config, ByteBuf body) {
+         this.config = config;
+         this.body = body;
+      }
+
+      @Override
+      protected Http2MockHandler build() {
+         return super.build();
+      }
+
+      @Override
+      protected Http2MockHandler build(Http2ConnectionDecoder decoder, Http2ConnectionEncoder encoder, Http2Settings initialSettings) {
+         Http2MockHandler handler = new Http2MockHandler(decoder, encoder, initialSettings, config, body);
+         frameListener(new Http2FrameAdapter() {
+            @Override
+            public int onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding, boolean endOfStream) {
+               if (endOfStream) {
+                  handler.onRequest(ctx, streamId);
+               }
+               return data.readableBytes() + padding;
+            }
+
+            @Override
+            public void onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers, int padding, boolean endOfStream) {
+               if (endOfStream) {
+                  handler.onRequest(ctx, streamId);
+               }
+            }
+
+            @Override
+            public void onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers, int streamDependency,
+                                      short weight, boolean exclusive, int padding, boolean endOfStream) {
+               onHeadersRead(ctx, streamId, headers, padding, endOfStream);
+            }
+         });
+         return handler;
+      }
+   }
+}
@@ -0,0 +1,236 @@
+package io.hyperfoil.http.mock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.http.HttpRequestDecoder;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.util.AsciiString;
+import io.netty.util.concurrent.EventExecutor;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Minimalistic HTTP server responding to any request with the same static response. It is meant to be used
+ * as a reference target that is faster than the load generator, e.g. to find out the maximum throughput
+ * of Hyperfoil itself on given hardware.
+ * <p>
+ * The server uses the same transport as the agents (see {@link EventLoopFactory}). With HTTP/2 enabled
+ * it accepts cleartext connections either with prior knowledge or upgraded from HTTP/1.1;
+ * connections that do not upgrade are served using HTTP/1.1.
+ */
+public class MockHttpServer {
+   private static final Logger log = LogManager.getLogger(MockHttpServer.class);
+   private static final byte[] ALPHABET = "abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+   static final int CHUNK_SIZE = 4096;
+
+   private final Builder config;
+   private final EventLoopGroup eventLoopGroup;
+   private final Channel serverChannel;
+   private final long[] threadIds;
+   private final ByteBuf body;
+   private final ByteBuf http1xResponse;
+
+   private MockHttpServer(Builder config) throws InterruptedException {
+      this.config = config;
+      this.body = Unpooled.directBuffer(config.responseSize).writeBytes(body(config.responseSize));
+      this.http1xResponse = Http1xMockHandler.encodeResponse(config, body);
+      this.eventLoopGroup = EventLoopFactory.INSTANCE.create(config.threads);
+      try {
+         this.serverChannel = new ServerBootstrap()
+               .group(eventLoopGroup)
+               .channel(EventLoopFactory.INSTANCE.serverSocketChannel())
+               .childOption(ChannelOption.TCP_NODELAY, true)
+               .childHandler(new ChannelInitializer<>() {
+                  @Override
+                  protected void initChannel(Channel ch) {
+                     initPipeline(ch.pipeline());
+                  }
+               })
+               .bind(config.host, config.port).sync().channel();
+      } catch (InterruptedException | RuntimeException e) {
+         eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+         releaseBuffers();
+         throw e;
+      }
+      List<Long> ids = new ArrayList<>();
+      for (EventExecutor executor : eventLoopGroup) {
+         try {
+            ids.add(executor.submit(() -> Thread.currentThread().getId()).get());
+         } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+         }
+      }
+      this.threadIds = ids.stream().mapToLong(Long::longValue).toArray();
+      log.info("Mock HTTP server listening on {}:{}", host(), port());
+   }
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   private static byte[] body(int size) {
+      byte[] bytes = new byte[size];
+      for (int i = 0; i < size; ++i) {
+         bytes[i] = ALPHABET[i % ALPHABET.length];
+      }
+      return bytes;
+   }
+
+   private void initPipeline(ChannelPipeline pipeline) {
+      if (config.http2) {
+         HttpServerCodec codec = new HttpServerCodec();
+         HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(codec, protocol -> {
+            if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
+               return new Http2ServerUpgradeCodec(Http2MockHandler.create(config, body));
+            } else {
+               return null;
+            }
+         });
+         pipeline.addLast(new CleartextHttp2ServerUpgradeHandler(codec, upgradeHandler, Http2MockHandler.create(config, body)));
+         pipeline.addLast(new Http1xMockHandler(config, body, null));
+      } else {
+         pipeline.addLast(new HttpRequestDecoder());
+         pipeline.addLast(new Http1xMockHandler(config, body, http1xResponse));
+      }
+   }
+
+   public String host() {
+      return config.host;
+   }
+
+   public int port() {
+      return ((InetSocketAddress) serverChannel.localAddress()).getPort();
+   }
+
+   /**
+    * @return CPU time consumed by the server threads since it was started, in nanoseconds.
+    */
+   public long cpuTime() {
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      long sum = 0;
+      for (long id : threadIds) {
+         long cpuTime = threadMXBean.getThreadCpuTime(id);
+         if (cpuTime > 0) {
+            sum += cpuTime;
+         }
+      }
+      return sum;
+   }
+
+   public void stop() {
+      serverChannel.close().awaitUninterruptibly();
+      eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).awaitUninterruptibly();
+      releaseBuffers();
+   }
+
+   private void releaseBuffers() {
+      body.release();
+      http1xResponse.release();
+   }
+
+   public static class Builder {
+      String host = "localhost";
+      int port = 8080;
+      int threads = 1;
+      int responseSize = 0;
+      boolean chunked;
+      boolean keepAlive = true;
+      boolean http2;
+      long latencyNanos;
+
+      private Builder() {
+      }
+
+      public Builder host(String host) {
+         this.host = host;
+         return this;
+      }
+
+      /**
+       * @param port Listening port; 0 means that a random free port will be used.
+       * @return Self.
+       */
+      public Builder port(int port) {
+         this.port = port;
+         return this;
+      }
+
+      public Builder threads(int threads) {
+         this.threads = threads;
+         return this;
+      }
+
+      public Builder responseSize(int responseSize) {
+         this.responseSize = responseSize;
+         return this;
+      }
+
+      /**
+       * Use chunked transfer encoding (in chunks of 4 kB) instead of content-length. Applies to HTTP/1.1 only.
+       *
+       * @param chunked Enable chunking.
+       * @return Self.
+       */
+      public Builder chunked(boolean chunked) {
+         this.chunked = chunked;
+         return this;
+      }
+
+      /**
+       * When disabled, the server responds with <code>connection: close</code> and closes the connection
+       * after each response. Applies to HTTP/1.1 only.
+       *
+       * @param keepAlive Keep the connection open.
+       * @return Self.
+       */
+      public Builder keepAlive(boolean keepAlive) {
+         this.keepAlive = keepAlive;
+         return this;
+      }
+
+      public Builder http2(boolean http2) {
+         this.http2 = http2;
+         return this;
+      }
+
+      /**
+       * @param latency Delay between receiving the request and sending the response.
+       * @param unit Time unit.
+       * @return Self.
+       */
+      public Builder latency(long latency, TimeUnit unit) {
+         this.latencyNanos = unit.toNanos(latency);
+         return this;
+      }
+
+      public MockHttpServer start() throws InterruptedException {
+         if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+         } else if (responseSize < 0) {
+            throw new IllegalArgumentException("Response size must not be negative.");
+         }
+         return new MockHttpServer(this);
+      }
+   }
+}
@@ -5,6 +5,7 @@ import org.yaml.snakeyaml.events.SequenceStartEvent;
 
 import io.hyperfoil.api.config.BenchmarkBuilder;
 import io.hyperfoil.http.config.ConnectionStrategy;
+import io.hyperfoil.http.config.FlushPolicy;
 import io.hyperfoil.http.config.HttpBuilder;
 import io.hyperfoil.http.config.HttpPluginBuilder;
 import io.hyperfoil.http.config.Protocol;
@@ -35,6 +36,7 @@ public class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       register("keyManager", new ReflectionParser<>(HttpBuilder::keyManager));
       register("trustManager", new ReflectionParser<>(HttpBuilder::trustManager));
       register("connectionStrategy", new PropertyParser.Enum<>(ConnectionStrategy.values(), HttpBuilder::connectionStrategy));
+      register("flushPolicy", new PropertyParser.Enum<>(FlushPolicy.values(), HttpBuilder::flushPolicy));
    }
 
    @Override
@@ -6,6 +6,8 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.util.BitSetResource;
 
 class BeforeSyncRequestStep implements Step, ResourceUtilizer, Session.ResourceKey<BitSetResource> {
+   private int resourceIndex = -1;
+
    @Override
    public boolean invoke(Session s) {
       BitSetResource resource = s.getResource(this);
@@ -13,6 +15,16 @@ class BeforeSyncRequestStep implements Step, ResourceUtilizer, Session.ResourceK
       return true;
    }
 
+   @Override
+   public int resourceIndex() {
+      return resourceIndex;
+   }
+
+   @Override
+   public void setResourceIndex(int index) {
+      resourceIndex = index;
+   }
+
    @Override
    public void reserve(Session session) {
       int concurrency = session.currentSequence().definition().concurrency();
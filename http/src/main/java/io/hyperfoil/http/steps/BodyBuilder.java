@@ -1,7 +1,6 @@
 package io.hyperfoil.http.steps;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
@@ -11,7 +10,8 @@ import io.hyperfoil.core.generators.Pattern;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.util.ConstantBytesGenerator;
 import io.hyperfoil.core.util.FromVarBytesGenerator;
-import io.hyperfoil.impl.Util;
+import io.hyperfoil.core.util.MappedFile;
+import io.hyperfoil.core.util.MappedFileBytesGenerator;
 
 /**
  * Allows building HTTP request body from session variables.
@@ -81,12 +81,12 @@ public class BodyBuilder {
     */
    public BodyBuilder fromFile(String path) {
       parent.body(() -> {
-         try (InputStream inputStream = Locator.current().benchmark().data().readFile(path)) {
-            if (inputStream == null) {
+         try {
+            MappedFile file = MappedFile.load(Locator.current().benchmark(), path);
+            if (file == null) {
                throw new BenchmarkDefinitionException("Cannot load file `" + path + "` for randomItem (not found).");
             }
-            byte[] bytes = Util.toByteArray(inputStream);
-            return new ConstantBytesGenerator(bytes);
+            return new MappedFileBytesGenerator(file);
          } catch (IOException e) {
             throw new BenchmarkDefinitionException("Cannot load file `" + path + "` for randomItem.", e);
          }
@@ -2,6 +2,7 @@ package io.hyperfoil.http.steps;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
@@ -189,6 +190,8 @@ public class FormGenerator implements SerializableBiFunction<Session, Connection
                   // keep it empty
                } else if (o instanceof byte[]) {
                   buf.writeBytes((byte[]) o);
+               } else if (o instanceof ByteBuffer) {
+                  buf.writeBytes(((ByteBuffer) o).duplicate());
                } else {
                   Util.urlEncode(o.toString(), buf);
                }
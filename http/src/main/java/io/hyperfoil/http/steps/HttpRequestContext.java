@@ -1,5 +1,6 @@
 package io.hyperfoil.http.steps;
 
+import io.hyperfoil.api.session.ResourceSlots;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.http.api.ConnectionConsumer;
 import io.hyperfoil.http.api.HttpConnection;
@@ -53,5 +54,5 @@ class HttpRequestContext implements Session.Resource, ConnectionConsumer {
       }
    }
 
-   public static final class Key implements Session.ResourceKey<HttpRequestContext> {}
+   public static final class Key extends ResourceSlots.Key<HttpRequestContext> {}
 }
@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.kohsuke.MetaInfServices;
 
@@ -49,9 +50,11 @@ import io.hyperfoil.impl.Util;
 import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.function.SerializableFunction;
+import io.hyperfoil.http.HttpUtil;
 import io.hyperfoil.http.UserAgentAppender;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpBuilder;
@@ -632,20 +635,57 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
       if (sla == null && http != null && (http.connectionStrategy() == ConnectionStrategy.OPEN_ON_REQUEST || http.connectionStrategy() == ConnectionStrategy.ALWAYS_NEW)) {
          this.sla = new SLABuilder.ListBuilder<>(this).addItem().blockedRatio(1.01).endSLA();
       }
+      SerializableFunction<Session, HttpMethod> method = this.method.build();
+      List<SerializableBiConsumer<Session, HttpRequestWriter>> appenders =
+            this.headerAppenders.stream().map(Supplier::get).collect(Collectors.toList());
+      HttpRequestTemplate template = buildTemplate(method, pathGenerator, appenders);
       @SuppressWarnings("unchecked")
       SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders =
-            this.headerAppenders.isEmpty() ? null :
-                  this.headerAppenders.stream().map(Supplier::get).toArray(SerializableBiConsumer[]::new);
+            appenders.isEmpty() ? null : appenders.toArray(SerializableBiConsumer[]::new);
 
       SLA[] sla = this.sla != null ? this.sla.build() : SLABuilder.DEFAULT;
       SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator = this.body != null ? this.body.build() : null;
 
       HttpRequestContext.Key contextKey = new HttpRequestContext.Key();
-      PrepareHttpRequestStep prepare = new PrepareHttpRequestStep(stepId, contextKey, method.build(), endpoint, authority, pathGenerator, metricSelector, handler.build());
-      SendHttpRequestStep step = new SendHttpRequestStep(stepId, contextKey, bodyGenerator, headerAppenders, injectHostHeader, timeout, sla);
+      PrepareHttpRequestStep prepare = new PrepareHttpRequestStep(stepId, contextKey, method, endpoint, authority, pathGenerator, metricSelector, handler.build());
+      SendHttpRequestStep step = new SendHttpRequestStep(stepId, contextKey, bodyGenerator, template, headerAppenders, injectHostHeader, timeout, sla);
       return Arrays.asList(prepare, step);
    }
 
+   /**
+    * Pre-encodes constant request line and the leading run of static or pattern-based headers.
+    * Appenders included in the template are removed from the list; the rest must follow in the original order.
+    */
+   private static HttpRequestTemplate buildTemplate(SerializableFunction<Session, HttpMethod> method,
+                                                    SerializableFunction<Session, String> pathGenerator,
+                                                    List<SerializableBiConsumer<Session, HttpRequestWriter>> appenders) {
+      HttpRequestTemplate.Builder builder = new HttpRequestTemplate.Builder();
+      if (method instanceof HttpMethod.Provided && pathGenerator instanceof Pattern && ((Pattern) pathGenerator).isConstant()) {
+         String path = pathGenerator.apply(null);
+         // Absolute URLs are rewritten in PrepareHttpRequestStep
+         if (!path.startsWith(HttpUtil.HTTP_PREFIX) && !path.startsWith(HttpUtil.HTTPS_PREFIX)) {
+            builder.requestLine(method.apply(null), path);
+         }
+      }
+      int templated = 0;
+      for (SerializableBiConsumer<Session, HttpRequestWriter> appender : appenders) {
+         if (appender instanceof StaticHeaderWriter) {
+            StaticHeaderWriter writer = (StaticHeaderWriter) appender;
+            builder.header(writer.header, writer.value);
+         } else if (appender instanceof PartialHeadersBuilder.PatternHeaderWriter) {
+            PartialHeadersBuilder.PatternHeaderWriter writer = (PartialHeadersBuilder.PatternHeaderWriter) appender;
+            if (!builder.header(writer.header, writer.pattern)) {
+               break;
+            }
+         } else {
+            break;
+         }
+         ++templated;
+      }
+      appenders.subList(0, templated).clear();
+      return builder.build();
+   }
+
    public enum CompressionType {
       /**
        * Use <code>Accept-Encoding</code> in request and expect <code>Content-Encoding</code> in response.
@@ -6,6 +6,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsKey;
 import io.hyperfoil.core.metric.MetricSelector;
 import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableFunction;
@@ -28,6 +29,7 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
    final SerializableFunction<Session, String> authority;
    final SerializableFunction<Session, String> pathGenerator;
    final MetricSelector metricSelector;
+   final StatisticsKey statisticsKey;
    final HttpResponseHandlersImpl handler;
 
    public PrepareHttpRequestStep(int stepId, HttpRequestContext.Key contextKey,
@@ -44,6 +46,7 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
       this.authority = authority;
       this.pathGenerator = pathGenerator;
       this.metricSelector = metricSelector;
+      this.statisticsKey = statisticsKey(metricSelector);
       this.handler = handler;
    }
 
@@ -82,9 +85,14 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
             return false;
          }
          request.authority = connectionPool.clientPool().authority();
-         String metric = destinations.hasSingleDestination() ?
-               metricSelector.apply(null, request.path) : metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(id(), metric);
+         Statistics statistics;
+         if (statisticsKey != null) {
+            statistics = session.statistics(statisticsKey);
+         } else {
+            String metric = destinations.hasSingleDestination() ?
+                  metricSelector.apply(null, request.path) : metricSelector.apply(request.authority, request.path);
+            statistics = session.statistics(id(), metric);
+         }
          request.start(connectionPool, handler, session.currentSequence(), statistics);
          connectionPool.acquire(false, context);
       } catch (Throwable t) {
@@ -10,6 +10,7 @@ import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
 import io.hyperfoil.http.api.HttpRequestWriter;
 import io.netty.buffer.ByteBuf;
 
@@ -22,6 +23,7 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
 
    final HttpRequestContext.Key contextKey;
    final SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator;
+   final HttpRequestTemplate template;
    final SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders;
    @Visitor.Ignore
    private final boolean injectHostHeader;
@@ -30,12 +32,14 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
 
    public SendHttpRequestStep(int stepId, HttpRequestContext.Key contextKey,
                               SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator,
+                              HttpRequestTemplate template,
                               SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                               boolean injectHostHeader,
                               long timeout, SLA[] sla) {
       super(stepId);
       this.contextKey = contextKey;
       this.bodyGenerator = bodyGenerator;
+      this.template = template;
       this.headerAppenders = headerAppenders;
       this.injectHostHeader = injectHostHeader;
       this.timeout = timeout;
@@ -59,7 +63,7 @@ public class SendHttpRequestStep extends StatisticsStep implements SLA.Provider
       context.stopWaiting();
 
       HttpRequest request = context.request;
-      request.send(context.connection, headerAppenders, injectHostHeader, bodyGenerator);
+      request.send(context.connection, template, headerAppenders, injectHostHeader, bodyGenerator);
       // We don't need the context anymore and we need to reset it (in case the step is repeated).
       context.reset();
       request.statistics().incrementRequests(request.startTimestampMillis());
@@ -49,6 +49,8 @@ public abstract class HttpScenarioTest extends BaseScenarioTest {
       Promise<Void> promise = Promise.promise();
       server = vertx.createHttpServer(options).requestHandler(router)
             .listen(0, "localhost", ctx.asyncAssertSuccess(srv -> {
+               // The callback can be invoked before the assignment above
+               server = srv;
                initWithServer(tls);
                promise.complete();
             }));
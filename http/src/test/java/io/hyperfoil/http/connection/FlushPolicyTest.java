@@ -0,0 +1,53 @@
+package io.hyperfoil.http.connection;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.BaseSequenceBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.HttpScenarioTest;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.FlushPolicy;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FlushPolicyTest extends HttpScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.get("/").handler(ctx -> ctx.response().end("Hello!"));
+   }
+
+   @Override
+   protected int threads() {
+      return 1;
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      http.flushPolicy(FlushPolicy.COALESCE).sharedConnections(1).pipeliningLimit(16).maxHttp2Streams(16);
+   }
+
+   @Test
+   public void test() {
+      BaseSequenceBuilder<?> sequence = parallelScenario(16).initialSequence("test");
+      for (int i = 0; i < 10; ++i) {
+         sequence.step(SC).httpRequest(HttpMethod.GET).path("/").metric("request-" + i)
+               .headers().header(HttpHeaderNames.CACHE_CONTROL, "no-cache").endHeaders()
+               .endStep();
+      }
+
+      StatisticsSnapshot stats = new StatisticsSnapshot();
+      runScenario().values().forEach(stats::add);
+      assertThat(stats.requestCount).isEqualTo(160);
+      assertThat(stats.responseCount).isEqualTo(160);
+      assertThat(HttpStats.get(stats).status_2xx).isEqualTo(160);
+      assertThat(stats.errors()).isEqualTo(0);
+      assertThat(stats.histogram().getMinValue()).isPositive();
+   }
+}
@@ -0,0 +1,124 @@
+package io.hyperfoil.http.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.hyperfoil.http.BaseMockConnection;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class Http1xResponseHandlerTest {
+   private static final String RESPONSES = "HTTP/1.1 200 OK\r\n" +
+         "Content-Length: 5\r\n" +
+         "X-Foo: bar\r\n" +
+         "\r\n" +
+         "Hello" +
+         "HTTP/1.1 201 Created\r\n" +
+         "TRANSFER-ENCODING: Chunked\r\n" +
+         "X-Long-Header-Name-Spanning-Multiple-Words :   value\r\n" +
+         "\r\n" +
+         "3\r\nFoo\r\n" +
+         "a\r\n0123456789\r\n" +
+         "0\r\n" +
+         "X-Trailer: yes\r\n" +
+         "\r\n" +
+         "HTTP/1.1 204 No Content\r\n" +
+         "\r\n" +
+         "HTTP/1.1 404 Not Found\r\n" +
+         "content-length:12\r\n" +
+         "Empty:\r\n" +
+         "\r\n" +
+         "Not found.\r\n";
+
+   @Test
+   public void testWholeBuffer() {
+      List<String> expected = parse(false, RESPONSES, new int[0]);
+      assertThat(expected).containsExactly(
+            "status 200", "header Content-Length=5", "header X-Foo=bar", "body Hello", "complete",
+            "status 201", "header TRANSFER-ENCODING=Chunked", "header X-Long-Header-Name-Spanning-Multiple-Words=value",
+            "body Foo", "body 0123456789", "body ", "complete",
+            "status 204", "body ", "complete",
+            "status 404", "header content-length=12", "header Empty=", "body Not found.\r\n", "complete");
+      assertThat(parse(true, RESPONSES, new int[0])).isEqualTo(expected);
+   }
+
+   @Test
+   public void testSplitBuffers() {
+      List<String> expected = merge(parse(false, RESPONSES, new int[0]));
+      Random random = new Random(42);
+      for (int i = 0; i < 1000; ++i) {
+         int[] splits = random.ints(random.nextInt(8), 1, RESPONSES.length()).sorted().distinct().toArray();
+         assertThat(merge(parse(false, RESPONSES, splits))).isEqualTo(expected);
+         assertThat(merge(parse(true, RESPONSES, splits))).isEqualTo(expected);
+      }
+   }
+
+   // Body can be delivered in multiple parts
+   private static List<String> merge(List<String> events) {
+      List<String> merged = new ArrayList<>();
+      for (String event : events) {
+         int last = merged.size() - 1;
+         if (last >= 0 && event.startsWith("body ") && merged.get(last).startsWith("body ")) {
+            merged.set(last, merged.get(last) + event.substring(5));
+         } else {
+            merged.add(event);
+         }
+      }
+      return merged;
+   }
+
+   private static List<String> parse(boolean swar, String input, int[] splits) {
+      List<String> events = new ArrayList<>();
+      HttpRequest request = new HttpRequest(null);
+      request.method = HttpMethod.GET;
+      BaseMockConnection connection = new BaseMockConnection() {
+         @Override
+         public HttpRequest peekRequest(int streamId) {
+            return request;
+         }
+      };
+      EmbeddedChannel channel = new EmbeddedChannel(new Http1xResponseHandler(connection, swar) {
+         @Override
+         protected void onStatus(int status) {
+            events.add("status " + status);
+         }
+
+         @Override
+         protected void onHeaderRead(ByteBuf buf, int startOfName, int endOfName, int startOfValue, int endOfValue) {
+            events.add("header " + Util.toString(buf, startOfName, endOfName - startOfName) + "=" +
+                  Util.toString(buf, startOfValue, endOfValue - startOfValue));
+         }
+
+         @Override
+         protected void onBodyPart(ByteBuf buf, int startOffset, int length, boolean isLastPart) {
+            if (length > 0 || isLastPart) {
+               events.add("body " + Util.toString(buf, startOffset, length));
+            }
+         }
+
+         @Override
+         protected void onCompletion(HttpRequest request) {
+            events.add("complete");
+         }
+      });
+      byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+      int start = 0;
+      for (int split : splits) {
+         channel.writeInbound(Unpooled.copiedBuffer(bytes, start, split - start));
+         start = split;
+      }
+      channel.writeInbound(Unpooled.copiedBuffer(bytes, start, bytes.length - start));
+      channel.finishAndReleaseAll();
+      return events;
+   }
+}
@@ -0,0 +1,20 @@
+package io.hyperfoil.http.connection;
+
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.http.config.HttpBuilder;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class Http2FlushPolicyTest extends FlushPolicyTest {
+   @Override
+   protected boolean useHttps() {
+      return true;
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      super.initHttp(http);
+      http.allowHttp1x(false);
+   }
+}
@@ -0,0 +1,83 @@
+package io.hyperfoil.http.mock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.ConnectionStrategy;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.hyperfoil.http.steps.HttpStepCatalog;
+
+public class MockHttpServerTest {
+   private static final int REQUESTS = 100;
+
+   @Test
+   public void testDefault() throws InterruptedException {
+      test(MockHttpServer.builder(), http -> { });
+   }
+
+   @Test
+   public void testBody() throws InterruptedException {
+      test(MockHttpServer.builder().responseSize(10000), http -> { });
+   }
+
+   @Test
+   public void testChunked() throws InterruptedException {
+      test(MockHttpServer.builder().responseSize(10000).chunked(true), http -> { });
+   }
+
+   @Test
+   public void testConnectionClose() throws InterruptedException {
+      // the client does not react to connection: close so we must not reuse the connection
+      test(MockHttpServer.builder().responseSize(100).keepAlive(false), http -> http.connectionStrategy(ConnectionStrategy.ALWAYS_NEW));
+   }
+
+   @Test
+   public void testLatency() throws InterruptedException {
+      StatisticsSnapshot stats = test(MockHttpServer.builder().latency(5, TimeUnit.MILLISECONDS), http -> { });
+      assertThat(stats.histogram().getMinValue()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+   }
+
+   @Test
+   public void testHttp2() throws InterruptedException {
+      test(MockHttpServer.builder().responseSize(100000).http2(true), http -> http.allowHttp1x(false));
+   }
+
+   @Test
+   public void testHttp2ServerWithHttp1xClient() throws InterruptedException {
+      test(MockHttpServer.builder().responseSize(100).http2(true), http -> http.allowHttp2(false));
+   }
+
+   private StatisticsSnapshot test(MockHttpServer.Builder builder, Consumer<HttpBuilder> httpConfig) throws InterruptedException {
+      MockHttpServer server = builder.port(0).start();
+      try {
+         // @formatter:off
+         BenchmarkBuilder benchmark = BenchmarkBuilder.builder().threads(1);
+         HttpBuilder http = benchmark.addPlugin(HttpPluginBuilder::new).http().host(server.host()).port(server.port());
+         httpConfig.accept(http);
+         benchmark.addPhase("test").sequentially(REQUESTS).scenario()
+               .initialSequence("test")
+                  .step(HttpStepCatalog.SC).httpRequest(HttpMethod.GET).path("/").endStep()
+               .endSequence();
+         // @formatter:on
+         StatisticsSnapshot total = new StatisticsSnapshot();
+         new LocalSimulationRunner(benchmark.build(), (phase, stepId, metric, snapshot, countDown) -> total.add(snapshot), null, null).run();
+         assertThat(total.responseCount).isEqualTo(REQUESTS);
+         assertThat(HttpStats.get(total).status_2xx).isEqualTo(REQUESTS);
+         assertThat(total.connectionErrors + total.invalid + total.internalErrors + total.requestTimeouts).isZero();
+         assertThat(server.cpuTime()).isPositive();
+         return total;
+      } finally {
+         server.stop();
+      }
+   }
+}
@@ -55,6 +55,14 @@ public class HttpRequestTest extends HttpScenarioTest {
          }
          ctx.response().end();
       });
+      router.get("/headers").handler(ctx -> {
+         boolean valid = "a b".equals(ctx.request().getParam("q"))
+               && "foo".equals(ctx.request().getHeader("x-static"))
+               && "xxxbarxxx".equals(ctx.request().getHeader("x-pattern"))
+               && "bar".equals(ctx.request().getHeader("x-var"))
+               && "no-cache".equals(ctx.request().getHeader("cache-control"));
+         ctx.response().setStatusCode(valid ? 200 : 412).end();
+      });
    }
 
    private StatusHandler verifyStatus(TestContext ctx) {
@@ -190,7 +198,7 @@ public class HttpRequestTest extends HttpScenarioTest {
       // @formatter:on
       Map<String, StatisticsSnapshot> stats = runScenario();
       assertThat(stats.get("test").requestCount).isEqualTo(1);
-      assertThat(stats.get("x-foo").histogram.getCountAtValue(TimeUnit.MILLISECONDS.toNanos(5))).isEqualTo(1);
+      assertThat(stats.get("x-foo").histogram().getCountAtValue(TimeUnit.MILLISECONDS.toNanos(5))).isEqualTo(1);
    }
 
    @Test
@@ -228,4 +236,27 @@ public class HttpRequestTest extends HttpScenarioTest {
       assertThat(HttpStats.get(stats.get("testFromVar")).status_2xx).isEqualTo(1);
       assertThat(HttpStats.get(stats.get("testPattern")).status_2xx).isEqualTo(1);
    }
+
+   @Test
+   public void testRequestTemplate() {
+      // @formatter:off
+      scenario()
+            .initialSequence("test")
+               .step(SC).action(new SetAction.Builder()
+                  .var("foo")
+                  .value("bar"))
+               .step(SC).httpRequest(HttpMethod.GET)
+                  .path("/headers?q=a b")
+                  .headers()
+                     .header("x-static", "foo")
+                     .header("cache-control", "no-cache")
+                     .withKey("x-pattern").pattern("xxx${foo}xxx").end()
+                     .withKey("x-var").fromVar("foo").end()
+                  .endHeaders()
+               .endStep()
+            .endSequence();
+      // @formatter:on
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      assertThat(HttpStats.get(stats.get("test")).status_2xx).isEqualTo(1);
+   }
 }
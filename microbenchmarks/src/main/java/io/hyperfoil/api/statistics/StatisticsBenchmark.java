@@ -0,0 +1,61 @@
+package io.hyperfoil.api.statistics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Records a request and its response the way every completed request does, with response times
+ * spread over several orders of magnitude. With <code>correctCoordinatedOmission</code> the service
+ * time is recorded into the {@link ServiceTime} extension as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsBenchmark {
+   private static final int VALUES = 4096;
+
+   @Param({ "false", "true" })
+   boolean correctCoordinatedOmission;
+
+   private Statistics statistics;
+   private long timestamp;
+   private final long[] responseTimes = new long[VALUES];
+   private int index;
+
+   @Setup
+   public void setup() {
+      timestamp = System.currentTimeMillis();
+      statistics = new Statistics(timestamp);
+      Random random = new Random(42);
+      for (int i = 0; i < VALUES; ++i) {
+         // log-normal distribution with median at 2 ms
+         responseTimes[i] = (long) (TimeUnit.MILLISECONDS.toNanos(2) * Math.exp(random.nextGaussian()));
+      }
+   }
+
+   @Benchmark
+   public void recordResponse() {
+      long responseTime = responseTimes[index++ & (VALUES - 1)];
+      statistics.incrementRequests(timestamp);
+      if (correctCoordinatedOmission) {
+         statistics.recordResponse(timestamp, responseTime, responseTime >> 4);
+      } else {
+         statistics.recordResponse(timestamp, responseTime);
+      }
+   }
+}
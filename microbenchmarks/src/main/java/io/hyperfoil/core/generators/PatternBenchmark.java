@@ -0,0 +1,74 @@
+package io.hyperfoil.core.generators;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.session.IntAccess;
+import io.hyperfoil.api.session.ObjectAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.test.TestUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Interpolates a typical request path with a string and an integer variable,
+ * either into a new {@link String} or directly into a buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatternBenchmark {
+   private Pattern pattern;
+   private Session session;
+   private ByteBuf buf;
+
+   @Setup
+   public void setup() {
+      Locator.push(TestUtil.locator());
+      try {
+         pattern = new Pattern("/api/users/${user}/orders/${order}?fields=id,total", false);
+         ObjectAccess user = SessionFactory.objectAccess("user");
+         IntAccess order = SessionFactory.intAccess("order");
+         session = SessionFactory.forTesting(user, order);
+         user.setObject(session, "john.doe");
+         order.setInt(session, 123456);
+         TestUtil.resolveAccess(session, pattern);
+      } finally {
+         Locator.pop();
+      }
+      buf = ByteBufAllocator.DEFAULT.buffer(256);
+   }
+
+   @TearDown
+   public void tearDown() {
+      buf.release();
+   }
+
+   @Benchmark
+   public String apply() {
+      return pattern.apply(session);
+   }
+
+   @Benchmark
+   public int accept() {
+      buf.clear();
+      pattern.accept(session, buf);
+      return buf.writerIndex();
+   }
+}
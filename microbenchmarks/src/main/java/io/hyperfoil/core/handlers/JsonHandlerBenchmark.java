@@ -0,0 +1,81 @@
+package io.hyperfoil.core.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.json.JsonHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Runs the streaming JSON parser over an array of objects, selecting a nested attribute from each element.
+ * With <code>split</code> the body is delivered in two chunks to exercise the fragmented path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonHandlerBenchmark {
+   @Param({ "100" })
+   int elements;
+
+   @Param({ "false", "true" })
+   boolean split;
+
+   private JsonHandler handler;
+   private Session session;
+   private ByteBuf data;
+   private int consumed;
+
+   @Setup
+   public void setup() {
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < elements; ++i) {
+         if (i != 0) {
+            sb.append(",\n");
+         }
+         sb.append("{ \"id\" : ").append(i)
+               .append(", \"name\" : \"Item number ").append(i)
+               .append("\", \"tags\" : [ \"foo\", \"bar\" ], \"owner\" : { \"id\" : ").append(i * 7)
+               .append(", \"email\" : \"user").append(i).append("@example.com\" }, \"price\" : ")
+               .append(i * 1.5).append(" }");
+      }
+      data = Unpooled.wrappedBuffer(sb.append("]").toString().getBytes(StandardCharsets.UTF_8));
+      handler = new JsonHandler(".[].owner.email", false, null, (Processor) (s, d, offset, length, isLastPart) -> consumed += length);
+      session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+   }
+
+   @Benchmark
+   public int parse() {
+      int offset = data.readerIndex();
+      int length = data.readableBytes();
+      handler.before(session);
+      if (split) {
+         handler.process(session, data, offset, length / 2, false);
+         handler.process(session, data, offset + length / 2, length - length / 2, true);
+      } else {
+         handler.process(session, data, offset, length, true);
+      }
+      handler.after(session);
+      return consumed;
+   }
+}
@@ -0,0 +1,63 @@
+package io.hyperfoil.core.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Searches for links in a generated HTML page; most of the bytes do not match the begin marker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchHandlerBenchmark {
+   @Param({ "200" })
+   int paragraphs;
+
+   private SearchHandler handler;
+   private Session session;
+   private ByteBuf data;
+   private int consumed;
+
+   @Setup
+   public void setup() {
+      StringBuilder sb = new StringBuilder("<html><head><title>Benchmark</title></head><body>\n");
+      for (int i = 0; i < paragraphs; ++i) {
+         sb.append("<p class=\"text\">Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor ")
+               .append("incididunt ut labore et dolore magna aliqua <a href=\"/page/").append(i).append("\">link</a>.</p>\n");
+      }
+      data = Unpooled.wrappedBuffer(sb.append("</body></html>").toString().getBytes(StandardCharsets.UTF_8));
+      handler = new SearchHandler("href=\"", "\"", (Processor) (s, d, offset, length, isLastPart) -> consumed += length);
+      session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, handler);
+   }
+
+   @Benchmark
+   public int search() {
+      handler.before(session);
+      handler.process(session, data, data.readerIndex(), data.readableBytes(), true);
+      handler.after(session);
+      return consumed;
+   }
+}
@@ -0,0 +1,158 @@
+package io.hyperfoil.core.session;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.timer.Timer;
+import io.hyperfoil.compiler.AsmSequenceCompiler;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Compares the session loop invoking steps of different types through the shared (megamorphic)
+ * call site in {@link io.hyperfoil.api.session.SequenceInstance} against a sequence compiled
+ * by {@link AsmSequenceCompiler}, where each step has its own call site.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompiledSequenceBenchmark {
+   private static final Step[] STEP_TYPES = {
+         new Step1(), new Step2(), new Step3(), new Step4(), new Step5(), new Step6(), new Step7(), new Step8()
+   };
+
+   @Param({ "8", "32" })
+   int steps;
+
+   @Param({ "false", "true" })
+   boolean compiled;
+
+   private SessionImpl session;
+
+   @Setup
+   public void setup() {
+      Step[] sequenceSteps = new Step[steps];
+      for (int i = 0; i < steps; ++i) {
+         sequenceSteps[i] = STEP_TYPES[i % STEP_TYPES.length];
+      }
+      Sequence sequence = new Sequence("test", 0, 1, 0, sequenceSteps);
+      if (compiled) {
+         sequence.setCompiled(new AsmSequenceCompiler().compile(sequence));
+      }
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[]{ sequence }, 16, 16);
+      session = new SessionImpl(scenario, 0, 0);
+      Phase phase = new Phase(io.hyperfoil.api.config.Benchmark::forTesting, 0, 0, "benchmark", scenario, 0,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), 0, -1, null, false, () -> "benchmark", Collections.emptyMap());
+      session.resetPhase(new PhaseInstanceImpl(phase, "benchmark", 0) {
+         @Override
+         public void proceed(EventExecutorGroup executorGroup) {
+         }
+
+         @Override
+         public void reserveSessions() {
+         }
+
+         @Override
+         public void notifyFinished(Session session) {
+            // the session is reused by next invocation
+         }
+      });
+      session.attach(ImmediateEventExecutor.INSTANCE, Timer.create(ImmediateEventExecutor.INSTANCE), null, null, null, null);
+      session.reserve(scenario);
+   }
+
+   @Benchmark
+   public void runSession() {
+      session.startSequence("test", false, Session.ConcurrencyPolicy.FAIL);
+      session.runSession();
+   }
+
+   public abstract static class CountingStep implements Step {
+      int invocations;
+   }
+
+   public static class Step1 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations++;
+         return true;
+      }
+   }
+
+   public static class Step2 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 2;
+         return true;
+      }
+   }
+
+   public static class Step3 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 3;
+         return true;
+      }
+   }
+
+   public static class Step4 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 4;
+         return true;
+      }
+   }
+
+   public static class Step5 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 5;
+         return true;
+      }
+   }
+
+   public static class Step6 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 6;
+         return true;
+      }
+   }
+
+   public static class Step7 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 7;
+         return true;
+      }
+   }
+
+   public static class Step8 extends CountingStep {
+      @Override
+      public boolean invoke(Session session) {
+         invocations += 8;
+         return true;
+      }
+   }
+}
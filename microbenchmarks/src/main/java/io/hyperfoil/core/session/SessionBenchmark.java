@@ -0,0 +1,80 @@
+package io.hyperfoil.core.session;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.timer.Timer;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.hyperfoil.core.steps.NoopStep;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Measures the overhead of the session loop: starting a sequence and running it through
+ * a number of steps that complete immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionBenchmark {
+   @Param({ "1", "10" })
+   int steps;
+
+   private SessionImpl session;
+
+   @Setup
+   public void setup() {
+      Step[] sequenceSteps = new Step[steps];
+      for (int i = 0; i < steps; ++i) {
+         sequenceSteps[i] = new NoopStep();
+      }
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[]{
+            new Sequence("test", 0, 1, 0, sequenceSteps)
+      }, 16, 16);
+      session = new SessionImpl(scenario, 0, 0);
+      Phase phase = new Phase(io.hyperfoil.api.config.Benchmark::forTesting, 0, 0, "benchmark", scenario, 0,
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), 0, -1, null, false, () -> "benchmark", Collections.emptyMap());
+      session.resetPhase(new PhaseInstanceImpl(phase, "benchmark", 0) {
+         @Override
+         public void proceed(EventExecutorGroup executorGroup) {
+         }
+
+         @Override
+         public void reserveSessions() {
+         }
+
+         @Override
+         public void notifyFinished(Session session) {
+            // the session is reused by next invocation
+         }
+      });
+      session.attach(ImmediateEventExecutor.INSTANCE, Timer.create(ImmediateEventExecutor.INSTANCE), null, null, null, null);
+      session.reserve(scenario);
+   }
+
+   @Benchmark
+   public void runSession() {
+      session.startSequence("test", false, Session.ConcurrencyPolicy.FAIL);
+      session.runSession();
+   }
+}
@@ -0,0 +1,96 @@
+package io.hyperfoil.http.connection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.http.BaseMockConnection;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Compares the parser modes on a buffer with pipelined small responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Http1xResponseHandlerBenchmark {
+   private static final String CONTENT_LENGTH_RESPONSE = "HTTP/1.1 200 OK\r\n" +
+         "Date: Mon, 18 Oct 2021 10:00:00 GMT\r\n" +
+         "Server: benchmark\r\n" +
+         "Content-Type: text/plain; charset=utf-8\r\n" +
+         "Cache-Control: no-cache\r\n" +
+         "Content-Length: 13\r\n" +
+         "\r\n" +
+         "Hello world!\n";
+   private static final String CHUNKED_RESPONSE = "HTTP/1.1 200 OK\r\n" +
+         "Date: Mon, 18 Oct 2021 10:00:00 GMT\r\n" +
+         "Server: benchmark\r\n" +
+         "Content-Type: text/plain; charset=utf-8\r\n" +
+         "Transfer-Encoding: chunked\r\n" +
+         "\r\n" +
+         "6\r\nHello \r\n" +
+         "7\r\nworld!\n\r\n" +
+         "0\r\n\r\n";
+   private static final int RESPONSES = 64;
+
+   @Param({ "false", "true" })
+   boolean swar;
+
+   @Param({ "false", "true" })
+   boolean chunked;
+
+   private EmbeddedChannel channel;
+   private Http1xResponseHandler handler;
+   private ChannelHandlerContext ctx;
+   private ByteBuf input;
+
+   @Setup
+   public void setup() {
+      HttpRequest request = new HttpRequest(null);
+      request.method = HttpMethod.GET;
+      handler = new Http1xResponseHandler(new BaseMockConnection() {
+         @Override
+         public HttpRequest peekRequest(int streamId) {
+            return request;
+         }
+      }, swar);
+      channel = new EmbeddedChannel(handler);
+      ctx = channel.pipeline().context(handler);
+      String response = chunked ? CHUNKED_RESPONSE : CONTENT_LENGTH_RESPONSE;
+      input = Unpooled.directBuffer();
+      for (int i = 0; i < RESPONSES; ++i) {
+         input.writeCharSequence(response, StandardCharsets.US_ASCII);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      channel.finishAndReleaseAll();
+      input.release();
+   }
+
+   @Benchmark
+   public void parse() throws Exception {
+      handler.channelRead(ctx, input.retainedDuplicate());
+   }
+}
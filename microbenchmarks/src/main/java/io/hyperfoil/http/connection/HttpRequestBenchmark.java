@@ -0,0 +1,160 @@
+package io.hyperfoil.http.connection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.http.HttpRequestPool;
+import io.hyperfoil.http.HttpRunData;
+import io.hyperfoil.http.api.HttpClientPool;
+import io.hyperfoil.http.api.HttpConnectionPool;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpRequestTemplate;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.hyperfoil.http.steps.HttpResponseHandlersImpl;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+
+/**
+ * Compares throughput of HTTP/1.1 and HTTP/2 client paths against a local Vert.x server.
+ * HTTP/2 uses cleartext upgrade so that TLS does not dominate the results.
+ * <p>
+ * The client transport can be compared using e.g. <code>-p transport=nio,epoll,io_uring</code>; JMH runs
+ * each parameter value in a new fork so the transport is selected before {@link EventLoopFactory} is initialized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpRequestBenchmark {
+   private static final int REQUESTS = 1000;
+   // Must be lower than the size of the request pool as completing requests are released after the completion handler
+   private static final int CONCURRENCY = 8;
+
+   @Param({ "false", "true" })
+   boolean http2;
+
+   @Param({ "default" })
+   String transport;
+
+   private Vertx vertx;
+   private HttpServer server;
+   private HttpClientPool client;
+   private HttpConnectionPool pool;
+   private Session session;
+   private HttpResponseHandlersImpl handlers;
+   private HttpRequestTemplate template;
+   private final SequenceInstance sequence = new SequenceInstance();
+   private final Statistics statistics = new Statistics(System.currentTimeMillis());
+   private int sent;
+   private CountDownLatch completed;
+
+   @Setup
+   public void setup() throws Exception {
+      if (!"default".equals(transport)) {
+         System.setProperty(Properties.NETTY_TRANSPORT, transport);
+         // Unavailable transport falls back to the default one; don't report its results under a wrong name
+         String channel = EventLoopFactory.INSTANCE.socketChannel().getSimpleName().toLowerCase();
+         if (!channel.startsWith(transport.replace("_", ""))) {
+            throw new IllegalStateException("Transport " + transport + " is not available, using " + channel);
+         }
+      }
+      vertx = Vertx.vertx();
+      CompletableFuture<HttpServer> serverFuture = new CompletableFuture<>();
+      vertx.createHttpServer().requestHandler(req -> req.response().end("Hello world!"))
+            .listen(0, "localhost", result -> {
+               if (result.succeeded()) {
+                  serverFuture.complete(result.result());
+               } else {
+                  serverFuture.completeExceptionally(result.cause());
+               }
+            });
+      server = serverFuture.get(10, TimeUnit.SECONDS);
+
+      HttpBuilder http = HttpBuilder.forTesting().host("localhost").port(server.actualPort())
+            .sharedConnections(1).pipeliningLimit(CONCURRENCY).maxHttp2Streams(CONCURRENCY)
+            .allowHttp1x(!http2).allowHttp2(http2);
+      client = HttpClientPoolImpl.forTesting(http.build(true), 1);
+      CompletableFuture<Void> clientFuture = new CompletableFuture<>();
+      client.start(result -> {
+         if (result.succeeded()) {
+            clientFuture.complete(null);
+         } else {
+            clientFuture.completeExceptionally(result.cause());
+         }
+      });
+      clientFuture.get(10, TimeUnit.SECONDS);
+      pool = client.next();
+
+      session = SessionFactory.forTesting();
+      HttpRunData.initForTesting(session);
+      handlers = HttpResponseHandlersImpl.Builder.forTesting().onCompletion(s -> {
+         // Requests cannot be sent directly from the handler
+         if (sent < REQUESTS) {
+            ++sent;
+            pool.executor().execute(this::send);
+         }
+         completed.countDown();
+      }).build();
+      template = new HttpRequestTemplate.Builder()
+            .requestLine(HttpMethod.GET, "/benchmark?foo=bar")
+            .header("accept", "text/plain")
+            .header("user-agent", "Hyperfoil")
+            // Make sure that the requests are not served from cache
+            .header("cache-control", "no-cache")
+            .build();
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      client.shutdown();
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      vertx.close(result -> future.complete(null));
+      future.get(10, TimeUnit.SECONDS);
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(REQUESTS)
+   public void requests() throws InterruptedException {
+      completed = new CountDownLatch(REQUESTS);
+      pool.executor().execute(() -> {
+         for (sent = 0; sent < CONCURRENCY; ++sent) {
+            send();
+         }
+      });
+      if (!completed.await(30, TimeUnit.SECONDS)) {
+         throw new IllegalStateException("Requests did not complete");
+      }
+   }
+
+   private void send() {
+      HttpRequest request = HttpRequestPool.get(session).acquire();
+      request.method = HttpMethod.GET;
+      request.path = "/benchmark?foo=bar";
+      request.start(pool, handlers, sequence, statistics);
+      pool.acquire(false, c -> request.send(c, template, null, true, null));
+   }
+}
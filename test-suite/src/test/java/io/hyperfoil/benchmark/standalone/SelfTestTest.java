@@ -0,0 +1,58 @@
+package io.hyperfoil.benchmark.standalone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.aesh.command.AeshCommandRuntimeBuilder;
+import org.aesh.command.CommandResult;
+import org.aesh.command.CommandRuntime;
+import org.aesh.command.Executor;
+import org.aesh.command.impl.registry.AeshCommandRegistryBuilder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import io.hyperfoil.cli.commands.Exit;
+import io.hyperfoil.cli.commands.SelfTest;
+import io.hyperfoil.cli.commands.StartLocal;
+import io.hyperfoil.cli.context.HyperfoilCliContext;
+import io.hyperfoil.cli.context.HyperfoilCommandInvocation;
+import io.hyperfoil.cli.context.HyperfoilCommandInvocationProvider;
+import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.test.Benchmark;
+
+@Category(Benchmark.class)
+public class SelfTestTest {
+   @Test
+   public void testHttp1x() throws Exception {
+      run("self-test -c 4 -t 1 -d 2s -s 1000");
+   }
+
+   @Test
+   public void testHttp2() throws Exception {
+      run("self-test -c 4 -t 1 -d 2s -s 1000 --http2");
+   }
+
+   private void run(String command) throws Exception {
+      AeshCommandRuntimeBuilder<HyperfoilCommandInvocation> runtime = AeshCommandRuntimeBuilder.builder();
+      HyperfoilCliContext context = new HyperfoilCliContext();
+      runtime.commandInvocationProvider(new HyperfoilCommandInvocationProvider(context));
+      @SuppressWarnings("unchecked")
+      AeshCommandRegistryBuilder<HyperfoilCommandInvocation> registry =
+            AeshCommandRegistryBuilder.<HyperfoilCommandInvocation>builder()
+                  .commands(StartLocal.class, SelfTest.class, Exit.class);
+      runtime.commandRegistry(registry.create());
+      CommandRuntime<HyperfoilCommandInvocation> cr = runtime.build();
+      try {
+         Executor<HyperfoilCommandInvocation> executor = cr.buildExecutor(command);
+         executor.execute();
+         assertThat(executor.getExecutions().get(0).getResult()).isEqualTo(CommandResult.SUCCESS);
+         RequestStats stats = context.serverRun().statsTotal().statistics.stream()
+               .filter(rs -> "test".equals(rs.phase)).findFirst().orElseThrow();
+         assertThat(stats.summary.requestCount).isPositive();
+         assertThat(stats.summary.responseCount).isPositive();
+         assertThat(stats.summary.connectionErrors + stats.summary.requestTimeouts
+               + stats.summary.internalErrors + stats.summary.invalid).isZero();
+      } finally {
+         cr.executeCommand("exit");
+      }
+   }
+}
@@ -0,0 +1,39 @@
+package io.hyperfoil.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class RunIndexTest {
+   @Test
+   public void testAppendAndCompact() throws IOException {
+      Path file = Files.createTempFile("hyperfoil-index", ".jsonl");
+      try {
+         RunIndex index = new RunIndex(file);
+         index.append(new JsonObject().put("id", "0000").put("benchmark", "foo").put("cancelled", false));
+         index.append(new JsonObject().put("id", "0001").put("benchmark", "bar"));
+         index.append(new JsonObject().put("id", "0000").put("benchmark", "foo").put("cancelled", true));
+         // simulate write interrupted by crash
+         Files.write(file, "{\"id\": \"00".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+         Map<String, JsonObject> entries = index.load();
+         assertThat(entries).containsOnlyKeys("0000", "0001");
+         assertThat(entries.get("0000").getBoolean("cancelled")).isTrue();
+         assertThat(entries.get("0001").getString("benchmark")).isEqualTo("bar");
+         // duplicate and broken entries are removed
+         assertThat(Files.readAllLines(file)).hasSize(2);
+         assertThat(new RunIndex(file).load()).isEqualTo(entries);
+      } finally {
+         Files.deleteIfExists(file);
+      }
+   }
+}
@@ -0,0 +1,64 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.NoopStep;
+import io.hyperfoil.core.util.LowHigh;
+
+public class OpenMetricsWriterTest {
+   @Test
+   public void testWrite() {
+      StatisticsStore store = new StatisticsStore(BenchmarkBuilder.builder().name("test")
+            .addPhase("test").atOnce(1).scenario()
+            .initialSequence("test").step(new NoopStep()).endSequence()
+            .endScenario().endPhase().build(), f -> { });
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = 0;
+      snapshot.histogram().recordValue(TimeUnit.MICROSECONDS.toNanos(50));
+      snapshot.histogram().recordValue(TimeUnit.MILLISECONDS.toNanos(3));
+      snapshot.histogram().recordValue(TimeUnit.SECONDS.toNanos(20));
+      snapshot.requestCount = 3;
+      snapshot.responseCount = 3;
+      snapshot.requestTimeouts = 1;
+      snapshot.blockedTime = TimeUnit.MILLISECONDS.toNanos(1500);
+      store.record("agent", 0, 0, "fo\"o", snapshot);
+      // another step recording the same metric
+      store.record("agent", 0, 1, "fo\"o", snapshot.clone());
+      store.recordSessionStats("agent", 0, "test", 1, 5);
+      store.recordConnectionStats("agent", 0, Map.of("localhost:8080", Map.of("in-flight", new LowHigh(2, 4))));
+      store.recordCpuUsage("test", "agent", "12.5% (1.0/8 cores), 1 core max 50.0%");
+
+      String prometheus = OpenMetricsWriter.write(Map.of("0000", store), false);
+      String labels = "run=\"0000\",phase=\"test\",step=\"0\",metric=\"fo\\\"o\"";
+      assertThat(prometheus)
+            .contains("# TYPE hyperfoil_requests_total counter\n")
+            .contains("hyperfoil_requests_total{" + labels + "} 3\n")
+            .contains("hyperfoil_requests_total{run=\"0000\",phase=\"test\",step=\"1\",metric=\"fo\\\"o\"} 3\n")
+            .contains("hyperfoil_request_timeouts_total{" + labels + "} 1\n")
+            .contains("hyperfoil_blocked_seconds_total{" + labels + "} 1.5\n")
+            .contains("# TYPE hyperfoil_response_time_seconds histogram\n")
+            .contains("hyperfoil_response_time_seconds_bucket{" + labels + ",le=\"0.0001\"} 1\n")
+            .contains("hyperfoil_response_time_seconds_bucket{" + labels + ",le=\"0.001\"} 1\n")
+            .contains("hyperfoil_response_time_seconds_bucket{" + labels + ",le=\"0.005\"} 2\n")
+            .contains("hyperfoil_response_time_seconds_bucket{" + labels + ",le=\"10\"} 2\n")
+            .contains("hyperfoil_response_time_seconds_bucket{" + labels + ",le=\"+Inf\"} 3\n")
+            .contains("hyperfoil_response_time_seconds_count{" + labels + "} 3\n")
+            .contains("hyperfoil_session_pool_max{run=\"0000\",phase=\"test\",agent=\"agent\"} 5\n")
+            .contains("hyperfoil_connection_pool_min{run=\"0000\",authority=\"localhost:8080\",type=\"in-flight\",agent=\"agent\"} 2\n")
+            .contains("hyperfoil_agent_cpu_usage_ratio{run=\"0000\",phase=\"test\",agent=\"agent\"} 0.125\n")
+            .doesNotContain("# EOF");
+
+      String openMetrics = OpenMetricsWriter.write(Map.of("0000", store), true);
+      assertThat(openMetrics)
+            .contains("# TYPE hyperfoil_requests counter\n")
+            .contains("hyperfoil_requests_total{" + labels + "} 3\n")
+            .endsWith("# EOF\n");
+   }
+}
@@ -0,0 +1,86 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Model;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.config.SLABuilder;
+import io.hyperfoil.api.config.SessionLimitPolicy;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+public class RateSearchTest {
+   private static final double CAPACITY = 350;
+
+   @Test
+   public void testSearch() {
+      SLA sla = new SLABuilder<>(null).limits().add(0.99, TimeUnit.MILLISECONDS.toNanos(100)).end().build();
+      Model.AdaptiveRate model = new Model.AdaptiveRate(100, 100, 1000, 10, 1000, sla, true, 1000, SessionLimitPolicy.CONTINUE, false);
+      long timestamp = 0;
+      RateSearch search = new RateSearch("test", model, timestamp, 200);
+      do {
+         // late statistics from the previous step are ignored
+         search.record(snapshot(timestamp - 500, 10_000, 10_000));
+         search.record(snapshot(timestamp, search.usersPerSec(), (int) search.usersPerSec() / 2));
+         // statistics received after the end of the step still count
+         search.record(snapshot(search.stepEnd() - 500, search.usersPerSec(), (int) search.usersPerSec() / 2));
+         // statistics from the period between the end of the step and evaluation are ignored
+         search.record(snapshot(search.stepEnd(), 10_000, 10_000));
+         assertThat(search.evaluationTime()).isEqualTo(timestamp + 1200);
+         timestamp = search.evaluationTime();
+      } while (search.completeStep(timestamp));
+
+      assertThat(search.maxSustainableUsersPerSec()).isLessThan(CAPACITY).isGreaterThanOrEqualTo(CAPACITY - 10);
+      assertThat(search.steps()).extracting(s -> s.usersPerSec).startsWith(100d, 200d, 300d, 400d, 350d);
+      assertThat(search.steps().get(3).failure).isNotNull();
+      assertThat(search.steps().get(2).failure).isNull();
+      assertThat(search.steps().get(2).requests).isEqualTo(300);
+      assertThat(search.steps().get(2).end - search.steps().get(2).start).isEqualTo(1000);
+   }
+
+   @Test
+   public void testMaxRate() {
+      SLA sla = new SLABuilder<>(null).errorRatio(0.1).build();
+      Model.AdaptiveRate model = new Model.AdaptiveRate(100, 150, 300, 10, 1000, sla, true, 1000, SessionLimitPolicy.CONTINUE, false);
+      RateSearch search = new RateSearch("test", model, 0, 0);
+      search.record(snapshot(0, 0, 100));
+      assertThat(search.completeStep(1000)).isTrue();
+      assertThat(search.usersPerSec()).isEqualTo(250);
+      search.record(snapshot(1000, 0, 250));
+      assertThat(search.completeStep(2000)).isTrue();
+      assertThat(search.usersPerSec()).isEqualTo(300);
+      search.record(snapshot(2000, 0, 300));
+      assertThat(search.completeStep(3000)).isFalse();
+      assertThat(search.maxSustainableUsersPerSec()).isEqualTo(300);
+   }
+
+   @Test
+   public void testStepWithoutRequests() {
+      SLA sla = new SLABuilder<>(null).errorRatio(0.1).build();
+      Model.AdaptiveRate model = new Model.AdaptiveRate(100, 100, 1000, 10, 1000, sla, true, 1000, SessionLimitPolicy.CONTINUE, false);
+      RateSearch search = new RateSearch("test", model, 0, 0);
+      search.record(snapshot(0, 0, 100));
+      assertThat(search.completeStep(1000)).isTrue();
+      // agents stalled: the rate was not measured, so it cannot be considered sustainable
+      assertThat(search.completeStep(2000)).isTrue();
+      assertThat(search.steps().get(1).failure).contains("recorded only 0 requests");
+      search.record(snapshot(2000, 0, 20));
+      assertThat(search.usersPerSec()).isEqualTo(150);
+      assertThat(search.completeStep(3000)).isTrue();
+      assertThat(search.steps().get(2).failure).isNotNull();
+      assertThat(search.maxSustainableUsersPerSec()).isEqualTo(100);
+   }
+
+   private static StatisticsSnapshot snapshot(long timestamp, double usersPerSec, int requests) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.histogram().setStartTimeStamp(timestamp);
+      long responseTime = TimeUnit.MILLISECONDS.toNanos(usersPerSec < CAPACITY ? 10 : 500);
+      snapshot.histogram().recordValueWithCount(responseTime, requests);
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      return snapshot;
+   }
+}
@@ -0,0 +1,214 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.core.steps.NoopStep;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.vertx.core.json.JsonObject;
+
+public class StatisticsStoreTest {
+   static {
+      StatsExtension.registerSubtypes();
+   }
+
+   @Test
+   public void testSeriesOnDisk() throws IOException {
+      Path dir = Files.createTempDirectory("hyperfoil-series");
+      StatisticsStore diskStore = new StatisticsStore(benchmark(), f -> { }, dir);
+      StatisticsStore memoryStore = new StatisticsStore(benchmark(), f -> { });
+      try {
+         for (int i = 0; i < 100; ++i) {
+            for (String agent : new String[]{ "a1", "a2" }) {
+               // a2 misses every third sample
+               if (agent.equals("a2") && i % 3 == 0) {
+                  continue;
+               }
+               diskStore.record(agent, 0, 0, "foo", snapshot(i));
+               memoryStore.record(agent, 0, 0, "foo", snapshot(i));
+               diskStore.record(agent, 0, 0, "bar", snapshot(i));
+            }
+         }
+         diskStore.completePhase("test");
+         memoryStore.completePhase("test");
+         // all series of all metrics share one file
+         try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).hasSize(1);
+         }
+
+         Data disk = diskStore.getData().stream().filter(d -> d.metric.equals("foo")).findFirst().orElseThrow();
+         Data memory = memoryStore.getData().get(0);
+         assertThat(disk.series).isInstanceOf(SeriesStore.Series.class);
+         assertSeriesEqual(disk.series, memory.series);
+         assertSeriesEqual(disk.agentSeries.get("a1"), memory.agentSeries.get("a1"));
+         assertSeriesEqual(disk.agentSeries.get("a2"), memory.agentSeries.get("a2"));
+         assertThat(disk.agentSeries.get("a2")).hasSize(66);
+         // random access after iteration
+         assertThat(disk.agentSeries.get("a2").get(1).startTime).isEqualTo(memory.agentSeries.get("a2").get(1).startTime);
+
+         AbstractHistogram histogram = ((SeriesStore.Series) disk.series).histogram(43);
+         assertThat(histogram.getTotalCount()).isEqualTo(2);
+         assertThat(histogram.getStartTimeStamp()).isEqualTo(43_000);
+         assertThat(histogram.valuesAreEquivalent(histogram.getMaxValue(), TimeUnit.MILLISECONDS.toNanos(43))).isTrue();
+
+         // after the series are persisted the files are removed but the store is still readable
+         diskStore.deleteSeries();
+         assertThat(dir).doesNotExist();
+         assertSeriesEqual(disk.series, memory.series);
+      } finally {
+         diskStore.close();
+         assertThat(dir).doesNotExist();
+      }
+   }
+
+   @Test
+   public void testSeriesSpanningChunks() throws IOException {
+      Path dir = Files.createTempDirectory("hyperfoil-series");
+      // 256-byte chunks: records and histograms cross chunk boundaries
+      SeriesStore store = new SeriesStore(dir, 8);
+      try {
+         SeriesStore.Series series = store.newSeries();
+         SeriesStore.Series other = store.newSeries();
+         for (int i = 0; i < 50; ++i) {
+            series.append(snapshot(i));
+            // interleaved records of another series
+            other.append(snapshot(100 + i));
+            // reading the last record requires extending the mapping of the last chunk
+            assertThat(series.get(i).startTime).isEqualTo(i * 1000L);
+         }
+         for (int i = 0; i < 50; ++i) {
+            StatisticsSummary summary = series.get(i);
+            assertThat(summary.endTime).isEqualTo(i * 1000L + 1000);
+            assertThat(summary.blockedTime).isEqualTo(i);
+            assertThat(summary.extensions.containsKey(HttpStats.HTTP)).isEqualTo(i % 5 == 0);
+            AbstractHistogram histogram = series.histogram(i);
+            assertThat(histogram.getTotalCount()).isEqualTo(1);
+            assertThat(histogram.valuesAreEquivalent(histogram.getMaxValue(), TimeUnit.MILLISECONDS.toNanos(i))).isTrue();
+            assertThat(other.get(i).startTime).isEqualTo((100 + i) * 1000L);
+         }
+      } finally {
+         store.close();
+         Files.deleteIfExists(dir);
+      }
+   }
+
+   @Test
+   public void testJsonRoundTrip() throws IOException {
+      StatisticsStore store = new StatisticsStore(benchmark(), f -> { });
+      for (int i = 0; i < 10; ++i) {
+         store.record("a1", 0, 0, "foo", snapshot(i));
+      }
+      store.completePhase("test");
+      store.recordCpuUsage("test", "a1", "42%");
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      JsonFactory factory = new JsonFactory();
+      factory.setCodec(new ObjectMapper());
+      try (JsonGenerator generator = factory.createGenerator(output, JsonEncoding.UTF8)) {
+         JsonWriter.writeArrayJsons(store, generator, new JsonObject().put("id", "0000"));
+      }
+
+      StatisticsStore loaded = JsonLoader.read(new ByteArrayInputStream(output.toByteArray()), new StatisticsStore(benchmark(), f -> { }));
+      Data original = store.getData().get(0);
+      Data data = loaded.getData().get(0);
+      assertThat(data.total.requestCount).isEqualTo(original.total.requestCount);
+      assertThat(data.total.histogram().getTotalCount()).isEqualTo(original.total.histogram().getTotalCount());
+      assertThat(data.series).hasSize(10);
+      assertThat(data.agentSeries.get("a1")).hasSize(10);
+      assertThat(data.perAgent.get("a1").requestCount).isEqualTo(10);
+      assertThat(loaded.cpuUsage().get("test")).containsEntry("a1", "42%");
+      assertThat(loaded.estimatedFootprint()).isPositive();
+   }
+
+   @Test
+   public void testRecentSummary() {
+      StatisticsStore store = new StatisticsStore(benchmark(), f -> { });
+      for (int i = 0; i < 4; ++i) {
+         store.record("a1", 0, 0, "foo", snapshot(i));
+      }
+      Data data = store.getData().get(0);
+      StatisticsSummary recent = data.recentSummary();
+      assertThat(recent.startTime).isEqualTo(2000);
+      assertThat(recent.requestCount).isEqualTo(1);
+      // cached until the data changes
+      assertThat(data.recentSummary()).isSameAs(recent);
+      store.record("a2", 0, 0, "foo", snapshot(3));
+      assertThat(data.recentSummary()).isSameAs(recent);
+      store.record("a2", 0, 0, "foo", snapshot(2));
+      assertThat(data.recentSummary().requestCount).isEqualTo(2);
+      assertThat(store.recentSummary(0)).hasSize(1);
+      assertThat(store.recentSummary(3000)).isEmpty();
+
+      store.completePhase("test");
+      assertThat(data.recentSummary()).isNull();
+   }
+
+   private static void assertSeriesEqual(List<StatisticsSummary> actual, List<StatisticsSummary> expected) {
+      assertThat(actual).hasSameSizeAs(expected);
+      for (int i = 0; i < expected.size(); ++i) {
+         StatisticsSummary a = actual.get(i);
+         StatisticsSummary e = expected.get(i);
+         assertThat(a.startTime).isEqualTo(e.startTime);
+         assertThat(a.endTime).isEqualTo(e.endTime);
+         assertThat(a.minResponseTime).isEqualTo(e.minResponseTime);
+         assertThat(a.meanResponseTime).isEqualTo(e.meanResponseTime);
+         assertThat(a.maxResponseTime).isEqualTo(e.maxResponseTime);
+         assertThat(a.percentileResponseTime).isEqualTo(e.percentileResponseTime);
+         assertThat(a.requestCount).isEqualTo(e.requestCount);
+         assertThat(a.responseCount).isEqualTo(e.responseCount);
+         assertThat(a.requestTimeouts).isEqualTo(e.requestTimeouts);
+         assertThat(a.blockedTime).isEqualTo(e.blockedTime);
+         assertThat(a.extensions.keySet()).isEqualTo(e.extensions.keySet());
+         if (e.extensions.containsKey(HttpStats.HTTP)) {
+            assertThat(((HttpStats) a.extensions.get(HttpStats.HTTP)).status_2xx)
+                  .isEqualTo(((HttpStats) e.extensions.get(HttpStats.HTTP)).status_2xx);
+         }
+      }
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.histogram().setStartTimeStamp(sequenceId * 1000L);
+      snapshot.histogram().setEndTimeStamp(sequenceId * 1000L + 1000);
+      snapshot.histogram().recordValue(TimeUnit.MILLISECONDS.toNanos(sequenceId));
+      snapshot.requestCount = 1;
+      snapshot.responseCount = 1;
+      snapshot.requestTimeouts = sequenceId % 2;
+      snapshot.blockedTime = sequenceId;
+      if (sequenceId % 5 == 0) {
+         HttpStats http = new HttpStats();
+         http.status_2xx = 1;
+         snapshot.extensions.put(HttpStats.HTTP, http);
+      }
+      return snapshot;
+   }
+
+   private static Benchmark benchmark() {
+      return BenchmarkBuilder.builder().name("test")
+            .addPhase("test").atOnce(1).scenario()
+            .initialSequence("test").step(new NoopStep()).endSequence()
+            .endScenario().endPhase().build();
+   }
+}
@@ -0,0 +1,104 @@
+package io.hyperfoil.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.StatisticsConfig;
+import io.hyperfoil.api.statistics.Counters;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.vertx.core.buffer.Buffer;
+
+public class RequestStatsMessageCodecTest {
+   static {
+      StatsExtension.registerSubtypes();
+   }
+
+   @Test
+   public void testRoundTrip() {
+      StatisticsConfig compact = BenchmarkBuilder.builder().statistics().compact(true).build();
+      StatisticsSnapshot first = new StatisticsSnapshot(compact);
+      first.sequenceId = 3;
+      first.histogram().setStartTimeStamp(1_600_000_000_000L);
+      first.histogram().setEndTimeStamp(1_600_000_001_000L);
+      first.histogram().recordValue(TimeUnit.MILLISECONDS.toNanos(5));
+      first.histogram().recordValue(TimeUnit.MILLISECONDS.toNanos(50));
+      first.requestCount = 2;
+      first.responseCount = 2;
+      first.requestTimeouts = 1;
+      first.blockedTime = 123456789L;
+      HttpStats http = new HttpStats();
+      http.status_2xx = 2;
+      first.extensions.put(HttpStats.HTTP, http);
+      Counters counters = new Counters();
+      counters.increment("foo");
+      first.extensions.put("counters", counters);
+
+      StatisticsSnapshot second = new StatisticsSnapshot();
+      second.sequenceId = 4;
+      second.histogram().recordValue(1000);
+      second.invalid = 1;
+
+      RequestStatsMessage.Builder builder = new RequestStatsMessage.Builder();
+      builder.add(0, 1, "foo", first).add(0, 2, "foo", second).add(1, 1, "bar", second);
+      RequestStatsMessage decoded = wireRoundTrip(builder.build("agent", "0000"));
+      assertThat(builder.isEmpty()).isTrue();
+      assertThat(decoded.address).isEqualTo("agent");
+      assertThat(decoded.runId).isEqualTo("0000");
+
+      List<RequestStatsMessage.Entry> entries = decoded.entries();
+      assertThat(entries).hasSize(3);
+      RequestStatsMessage.Entry entry = entries.get(0);
+      assertThat(entry.phaseId).isEqualTo(0);
+      assertThat(entry.stepId).isEqualTo(1);
+      assertThat(entry.metric).isEqualTo("foo");
+      StatisticsSnapshot snapshot = entry.statistics;
+      assertThat(snapshot.sequenceId).isEqualTo(3);
+      assertThat(snapshot.histogram().getStartTimeStamp()).isEqualTo(1_600_000_000_000L);
+      assertThat(snapshot.histogram().getEndTimeStamp()).isEqualTo(1_600_000_001_000L);
+      assertThat(snapshot.histogram().getTotalCount()).isEqualTo(2);
+      assertThat(snapshot.histogram().valuesAreEquivalent(TimeUnit.MILLISECONDS.toNanos(50), snapshot.histogram().getMaxValue())).isTrue();
+      assertThat(snapshot.requestCount).isEqualTo(2);
+      assertThat(snapshot.responseCount).isEqualTo(2);
+      assertThat(snapshot.requestTimeouts).isEqualTo(1);
+      assertThat(snapshot.blockedTime).isEqualTo(123456789L);
+      assertThat(snapshot.extensions.get(HttpStats.HTTP)).isInstanceOf(HttpStats.class);
+      assertThat(((HttpStats) snapshot.extensions.get(HttpStats.HTTP)).status_2xx).isEqualTo(2);
+      assertThat(snapshot.extensions.get("counters")).isInstanceOf(Counters.class);
+
+      assertThat(entries.get(1).stepId).isEqualTo(2);
+      assertThat(entries.get(1).metric).isEqualTo("foo");
+      assertThat(entries.get(1).statistics.invalid).isEqualTo(1);
+      assertThat(entries.get(1).statistics.histogram().getTotalCount()).isEqualTo(1);
+      assertThat(entries.get(2).phaseId).isEqualTo(1);
+      assertThat(entries.get(2).metric).isEqualTo("bar");
+
+      // Decoded snapshots must be usable for aggregation
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      entries.forEach(e -> sum.add(e.statistics));
+      assertThat(sum.histogram().getTotalCount()).isEqualTo(4);
+   }
+
+   @Test
+   public void testEmpty() {
+      RequestStatsMessage decoded = wireRoundTrip(RequestStatsMessage.empty("agent", "0001"));
+      assertThat(decoded.runId).isEqualTo("0001");
+      assertThat(decoded.entries()).isEmpty();
+   }
+
+   private static RequestStatsMessage wireRoundTrip(RequestStatsMessage message) {
+      RequestStatsMessage.Codec codec = new RequestStatsMessage.Codec();
+      Buffer buffer = Buffer.buffer();
+      // simulate event-bus framing preceding the message
+      buffer.appendInt(42);
+      codec.encodeToWire(buffer, message);
+      return codec.decodeFromWire(4, buffer);
+   }
+}
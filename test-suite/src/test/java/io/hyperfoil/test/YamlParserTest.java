@@ -22,6 +22,7 @@ import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Model;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.config.StatisticsConfig;
 import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
@@ -48,6 +49,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -226,6 +228,22 @@ public class YamlParserTest {
       assertThat(bar.length).isEqualTo(2);
    }
 
+   @Test
+   public void testStatistics() {
+      Benchmark benchmark = buildBenchmark("scenarios/statistics.hf.yaml");
+      StatisticsConfig statistics = benchmark.statistics();
+      assertThat(statistics.highestTrackableValue()).isEqualTo(TimeUnit.MINUTES.toNanos(10));
+      assertThat(statistics.significantDigits()).isEqualTo(3);
+      assertThat(statistics.samplingPeriod()).isEqualTo(100);
+      assertThat(statistics.compact()).isTrue();
+      StatisticsConfig longPoll = statistics.forMetric("long-poll");
+      assertThat(longPoll.highestTrackableValue()).isEqualTo(TimeUnit.HOURS.toNanos(1));
+      assertThat(longPoll.significantDigits()).isEqualTo(3);
+      assertThat(longPoll.samplingPeriod()).isEqualTo(100);
+      assertThat(longPoll.compact()).isFalse();
+      assertThat(statistics.forMetric("other")).isSameAs(statistics);
+   }
+
    private <T extends Step> T next(Class<T> stepClass, Iterator<Step> iterator) {
       while (iterator.hasNext()) {
          Step step = iterator.next();